@@ -1,11 +1,14 @@
 package com.example.schedulingtask;
 
+import com.example.schedulingtask.lease.LeaseProperties;
 import org.springframework.boot.SpringApplication;
 import org.springframework.boot.autoconfigure.SpringBootApplication;
+import org.springframework.boot.context.properties.EnableConfigurationProperties;
 import org.springframework.scheduling.annotation.EnableScheduling;
 
 @SpringBootApplication
 @EnableScheduling
+@EnableConfigurationProperties(LeaseProperties.class)
 public class Application {
 
 	public static void main(String[] args) {
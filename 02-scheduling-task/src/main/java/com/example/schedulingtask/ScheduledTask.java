@@ -1,5 +1,6 @@
 package com.example.schedulingtask;
 
+import com.example.schedulingtask.lease.JdbcLeaseManager;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 import org.springframework.scheduling.annotation.Scheduled;
@@ -15,8 +16,20 @@ public class ScheduledTask {
 
     private static final SimpleDateFormat dateFormat = new SimpleDateFormat("HH:mm:ss");
 
+    static final String JOB_NAME = "reportCurrentTime";
+
+    private final JdbcLeaseManager leaseManager;
+
+    public ScheduledTask(JdbcLeaseManager leaseManager) {
+        this.leaseManager = leaseManager;
+    }
+
     @Scheduled(fixedRate = 5000)
     public void reportCurrentTime() {
+        // Every replica ticks, but only the lease holder does the work.
+        if (!leaseManager.tryAcquire(JOB_NAME)) {
+            return;
+        }
         log.info("The time is now {}", dateFormat.format(new Date()));
     }
 }
@@ -0,0 +1,163 @@
+package com.example.schedulingtask.lease;
+
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import jakarta.annotation.PreDestroy;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.TimeUnit;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.dao.DuplicateKeyException;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.scheduling.annotation.SchedulingConfigurer;
+import org.springframework.scheduling.config.ScheduledTaskRegistrar;
+import org.springframework.stereotype.Component;
+
+@Component
+public class JdbcLeaseManager implements SchedulingConfigurer {
+
+    private static final Logger log = LoggerFactory.getLogger(JdbcLeaseManager.class);
+
+    // Expiry is computed and compared with the database's clock, never a node's own, so nodes
+    // whose clocks drift apart still agree on who holds a lease.
+    private static final String EXPIRES_AT =
+        "CURRENT_TIMESTAMP + CAST(? AS BIGINT) * INTERVAL '0.001' SECOND";
+
+    private static final String TAKE_OVER_SQL =
+        "UPDATE scheduler_lease SET owner = ?, expires_at = " + EXPIRES_AT + " "
+            + "WHERE job_name = ? AND (owner = ? OR expires_at <= CURRENT_TIMESTAMP)";
+
+    private static final String INSERT_SQL =
+        "INSERT INTO scheduler_lease (job_name, owner, expires_at) "
+            + "VALUES (?, ?, " + EXPIRES_AT + ")";
+
+    private static final String RENEW_ALL_SQL =
+        "UPDATE scheduler_lease SET expires_at = " + EXPIRES_AT + " "
+            + "WHERE owner = ? AND expires_at > CURRENT_TIMESTAMP";
+
+    private static final String OWNED_SQL =
+        "SELECT job_name FROM scheduler_lease WHERE owner = ? AND expires_at > CURRENT_TIMESTAMP";
+
+    private static final String RELEASE_ALL_SQL =
+        "UPDATE scheduler_lease SET expires_at = CURRENT_TIMESTAMP WHERE owner = ?";
+
+    private final JdbcTemplate jdbcTemplate;
+    private final LeaseProperties properties;
+    private final MeterRegistry meterRegistry;
+    private final Timer renewTimer;
+    private final Map<String, JobMeters> jobMeters = new ConcurrentHashMap<>();
+    private final Set<String> heldLeases = ConcurrentHashMap.newKeySet();
+
+    public JdbcLeaseManager(
+        JdbcTemplate jdbcTemplate, LeaseProperties properties, MeterRegistry meterRegistry) {
+        this.jdbcTemplate = jdbcTemplate;
+        this.properties = properties;
+        this.meterRegistry = meterRegistry;
+        this.renewTimer = meterRegistry.timer("scheduler.lease.renew");
+        meterRegistry.gauge("scheduler.lease.held", heldLeases, Set::size);
+    }
+
+    /**
+     * Takes or extends the lease for {@code jobName}. Returns {@code true} if this node holds the
+     * lease afterwards and may run the job for the current tick.
+     */
+    public boolean tryAcquire(String jobName) {
+        long start = System.nanoTime();
+        long ttlMillis = properties.getTtl().toMillis();
+        String nodeId = properties.getNodeId();
+        JobMeters meters = jobMeters.computeIfAbsent(jobName, this::registerMeters);
+
+        boolean acquired =
+            jdbcTemplate.update(TAKE_OVER_SQL, nodeId, ttlMillis, jobName, nodeId) == 1
+                || insert(jobName, nodeId, ttlMillis);
+
+        Timer outcome;
+        if (!acquired) {
+            outcome = meters.contended();
+            if (heldLeases.remove(jobName)) {
+                log.warn("Lost lease for job {} on node {}", jobName, nodeId);
+            }
+            meters.contention().increment();
+        } else if (heldLeases.add(jobName)) {
+            outcome = meters.acquired();
+            log.info("Node {} acquired lease for job {}", nodeId, jobName);
+        } else {
+            outcome = meters.held();
+        }
+
+        outcome.record(System.nanoTime() - start, TimeUnit.NANOSECONDS);
+        return acquired;
+    }
+
+    public boolean isHeld(String jobName) {
+        return heldLeases.contains(jobName);
+    }
+
+    // Scheduled here rather than with @Scheduled so the interval comes from LeaseProperties alone.
+    @Override
+    public void configureTasks(ScheduledTaskRegistrar registrar) {
+        registrar.addFixedDelayTask(this::renewAll, properties.getRenewInterval());
+    }
+
+    // Extends every lease of this node with a single statement, however many jobs it holds.
+    public void renewAll() {
+        if (heldLeases.isEmpty()) {
+            return;
+        }
+        renewTimer.record(() -> {
+            String nodeId = properties.getNodeId();
+            int renewed =
+                jdbcTemplate.update(RENEW_ALL_SQL, properties.getTtl().toMillis(), nodeId);
+
+            if (renewed != heldLeases.size()) {
+                List<String> owned = jdbcTemplate.queryForList(OWNED_SQL, String.class, nodeId);
+                if (heldLeases.retainAll(owned)) {
+                    log.warn("Node {} lost leases during renewal, still holding {}", nodeId, owned);
+                }
+            }
+        });
+    }
+
+    // Expire our leases on shutdown so standby nodes take over on their next tick.
+    @PreDestroy
+    public void releaseAll() {
+        if (heldLeases.isEmpty()) {
+            return;
+        }
+        jdbcTemplate.update(RELEASE_ALL_SQL, properties.getNodeId());
+        heldLeases.clear();
+    }
+
+    private boolean insert(String jobName, String nodeId, long ttlMillis) {
+        try {
+            return jdbcTemplate.update(INSERT_SQL, jobName, nodeId, ttlMillis) == 1;
+        } catch (DuplicateKeyException e) {
+            return false;
+        }
+    }
+
+    // Registered once per job so a tick does not look its meters up in the registry.
+    private JobMeters registerMeters(String jobName) {
+        return new JobMeters(
+            Counter.builder("scheduler.lease.contention")
+                .tag("job", jobName)
+                .register(meterRegistry),
+            acquireTimer(jobName, "acquired"),
+            acquireTimer(jobName, "held"),
+            acquireTimer(jobName, "contended"));
+    }
+
+    private Timer acquireTimer(String jobName, String outcome) {
+        return Timer.builder("scheduler.lease.acquire")
+            .tag("job", jobName)
+            .tag("outcome", outcome)
+            .register(meterRegistry);
+    }
+
+    private record JobMeters(Counter contention, Timer acquired, Timer held, Timer contended) {
+    }
+}
@@ -0,0 +1,40 @@
+package com.example.schedulingtask.lease;
+
+import java.time.Duration;
+import java.util.UUID;
+import org.springframework.boot.context.properties.ConfigurationProperties;
+
+@ConfigurationProperties("scheduler.lease")
+public class LeaseProperties {
+
+    private String nodeId = UUID.randomUUID().toString();
+
+    // A dead holder is replaced at most this long after its last renewal.
+    private Duration ttl = Duration.ofSeconds(15);
+
+    private Duration renewInterval = Duration.ofSeconds(5);
+
+    public String getNodeId() {
+        return nodeId;
+    }
+
+    public void setNodeId(String nodeId) {
+        this.nodeId = nodeId;
+    }
+
+    public Duration getTtl() {
+        return ttl;
+    }
+
+    public void setTtl(Duration ttl) {
+        this.ttl = ttl;
+    }
+
+    public Duration getRenewInterval() {
+        return renewInterval;
+    }
+
+    public void setRenewInterval(Duration renewInterval) {
+        this.renewInterval = renewInterval;
+    }
+}
@@ -0,0 +1,5 @@
+CREATE TABLE IF NOT EXISTS scheduler_lease (
+    job_name   VARCHAR(128) PRIMARY KEY,
+    owner      VARCHAR(128) NOT NULL,
+    expires_at TIMESTAMP    NOT NULL
+);
@@ -0,0 +1,149 @@
+package com.example.schedulingtask.lease;
+
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import java.time.Duration;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.jdbc.datasource.embedded.EmbeddedDatabase;
+import org.springframework.jdbc.datasource.embedded.EmbeddedDatabaseBuilder;
+import org.springframework.jdbc.datasource.embedded.EmbeddedDatabaseType;
+import org.springframework.scheduling.config.ScheduledTaskRegistrar;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+class JdbcLeaseManagerTest {
+
+    private static final String JOB = "reportCurrentTime";
+
+    private EmbeddedDatabase database;
+    private JdbcTemplate jdbcTemplate;
+    private SimpleMeterRegistry meterRegistryA;
+    private SimpleMeterRegistry meterRegistryB;
+    private JdbcLeaseManager nodeA;
+    private JdbcLeaseManager nodeB;
+
+    @BeforeEach
+    void setUp() {
+        database = new EmbeddedDatabaseBuilder()
+            .generateUniqueName(true)
+            .setType(EmbeddedDatabaseType.H2)
+            .addScript("schema.sql")
+            .build();
+        jdbcTemplate = new JdbcTemplate(database);
+        meterRegistryA = new SimpleMeterRegistry();
+        meterRegistryB = new SimpleMeterRegistry();
+        nodeA = node("node-a", meterRegistryA);
+        nodeB = node("node-b", meterRegistryB);
+    }
+
+    @AfterEach
+    void tearDown() {
+        database.shutdown();
+    }
+
+    @Test
+    void onlyOneNodeRunsPerTick() {
+        assertThat(nodeA.tryAcquire(JOB)).isTrue();
+        assertThat(nodeB.tryAcquire(JOB)).isFalse();
+
+        advance(Duration.ofSeconds(5));
+
+        assertThat(nodeA.tryAcquire(JOB)).isTrue();
+        assertThat(nodeB.tryAcquire(JOB)).isFalse();
+        assertThat(meterRegistryB.counter("scheduler.lease.contention", "job", JOB).count())
+            .isEqualTo(2);
+        assertThat(meterRegistryA.get("scheduler.lease.acquire").tag("outcome", "held").timer().count())
+            .isEqualTo(1);
+    }
+
+    @Test
+    void standbyTakesOverOnceHolderStopsRenewing() {
+        nodeA.tryAcquire(JOB);
+
+        advance(Duration.ofSeconds(14));
+        assertThat(nodeB.tryAcquire(JOB)).isFalse();
+
+        advance(Duration.ofSeconds(1));
+        assertThat(nodeB.tryAcquire(JOB)).isTrue();
+        assertThat(nodeA.tryAcquire(JOB)).isFalse();
+        assertThat(nodeA.isHeld(JOB)).isFalse();
+    }
+
+    @Test
+    void renewAllExtendsEveryHeldLease() {
+        nodeA.tryAcquire(JOB);
+        nodeA.tryAcquire("cleanup");
+
+        advance(Duration.ofSeconds(10));
+        nodeA.renewAll();
+        advance(Duration.ofSeconds(10));
+
+        assertThat(nodeB.tryAcquire(JOB)).isFalse();
+        assertThat(nodeB.tryAcquire("cleanup")).isFalse();
+        assertThat(meterRegistryA.timer("scheduler.lease.renew").count()).isEqualTo(1);
+    }
+
+    @Test
+    void renewalRunsAtTheConfiguredInterval() {
+        LeaseProperties properties = new LeaseProperties();
+        properties.setRenewInterval(Duration.ofSeconds(3));
+        ScheduledTaskRegistrar registrar = new ScheduledTaskRegistrar();
+
+        new JdbcLeaseManager(jdbcTemplate, properties, meterRegistryA).configureTasks(registrar);
+
+        assertThat(registrar.getFixedDelayTaskList())
+            .singleElement()
+            .extracting(task -> task.getIntervalDuration())
+            .isEqualTo(Duration.ofSeconds(3));
+    }
+
+    @Test
+    void renewAllDropsLeasesTakenOverByOtherNodes() {
+        nodeA.tryAcquire(JOB);
+
+        advance(Duration.ofSeconds(20));
+        nodeB.tryAcquire(JOB);
+        nodeA.renewAll();
+
+        assertThat(nodeA.isHeld(JOB)).isFalse();
+        assertThat(nodeB.isHeld(JOB)).isTrue();
+    }
+
+    @Test
+    void leasesExpireByTheDatabaseClock() {
+        nodeA.tryAcquire(JOB);
+
+        Boolean withinTtl = jdbcTemplate.queryForObject(
+            "SELECT expires_at > CURRENT_TIMESTAMP + INTERVAL '14' SECOND "
+                + "AND expires_at <= CURRENT_TIMESTAMP + INTERVAL '15' SECOND "
+                + "FROM scheduler_lease WHERE job_name = ?",
+            Boolean.class, JOB);
+        assertThat(withinTtl).isTrue();
+    }
+
+    @Test
+    void releaseAllHandsOverImmediately() {
+        nodeA.tryAcquire(JOB);
+
+        nodeA.releaseAll();
+
+        assertThat(nodeB.tryAcquire(JOB)).isTrue();
+    }
+
+    // Leases expire by the database's clock, so time passes by moving every expiry back.
+    private void advance(Duration duration) {
+        jdbcTemplate.update(
+            "UPDATE scheduler_lease SET expires_at = "
+                + "expires_at - CAST(? AS BIGINT) * INTERVAL '0.001' SECOND",
+            duration.toMillis());
+    }
+
+    private JdbcLeaseManager node(String nodeId, SimpleMeterRegistry meterRegistry) {
+        LeaseProperties properties = new LeaseProperties();
+        properties.setNodeId(nodeId);
+        properties.setTtl(Duration.ofSeconds(15));
+        return new JdbcLeaseManager(jdbcTemplate, properties, meterRegistry);
+    }
+}
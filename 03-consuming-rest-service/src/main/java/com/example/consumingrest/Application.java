@@ -20,9 +20,9 @@ public class Application {
 
 	@Bean
 	@Profile("!test")
-	public ApplicationRunner run(QuoteClient quoteClient) {
+	public ApplicationRunner run(PrefetchingQuoteBuffer quotes) {
 		return args -> {
-			Quote quote = quoteClient.fetchRandomQuote();
+			Quote quote = quotes.next();
             log.info(quote.toString());
 		};
 	}
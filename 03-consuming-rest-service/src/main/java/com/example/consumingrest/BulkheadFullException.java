@@ -0,0 +1,10 @@
+package com.example.consumingrest;
+
+import org.springframework.web.client.RestClientException;
+
+public class BulkheadFullException extends RestClientException {
+
+  public BulkheadFullException(String message) {
+    super(message);
+  }
+}
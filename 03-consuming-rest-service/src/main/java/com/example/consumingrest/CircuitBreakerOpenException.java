@@ -0,0 +1,10 @@
+package com.example.consumingrest;
+
+import org.springframework.web.client.RestClientException;
+
+public class CircuitBreakerOpenException extends RestClientException {
+
+  public CircuitBreakerOpenException(String message) {
+    super(message);
+  }
+}
@@ -0,0 +1,215 @@
+package com.example.consumingrest;
+
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.concurrent.CompletionService;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorCompletionService;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.Semaphore;
+import java.util.concurrent.ThreadFactory;
+import java.util.concurrent.TimeUnit;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.stereotype.Component;
+import org.springframework.web.client.RestClientException;
+
+@Component
+public class FanOutQuoteFetcher {
+
+  private final QuoteClient quoteClient;
+  // Quotes already prefetched are taken from here first; null to always call upstream.
+  private final PrefetchingQuoteBuffer buffer;
+  private final QuoteFanOutProperties properties;
+  private final Semaphore bulkhead;
+  private final QuoteCircuitBreaker circuitBreaker;
+  private final LatencyWindow latencies;
+  private final ThreadFactory virtualThreads =
+      Thread.ofVirtual().name("quote-fan-out-", 0).factory();
+
+  private final Counter hedgesSent;
+  private final Counter hedgesWon;
+  private final Counter bulkheadRejected;
+
+  @Autowired
+  public FanOutQuoteFetcher(
+      QuoteClient quoteClient,
+      PrefetchingQuoteBuffer buffer,
+      QuoteFanOutProperties properties,
+      MeterRegistry meterRegistry) {
+    this.quoteClient = quoteClient;
+    this.buffer = buffer;
+    this.properties = properties;
+    this.bulkhead = new Semaphore(properties.getMaxConcurrency());
+    this.circuitBreaker =
+        new QuoteCircuitBreaker(
+            properties.getBreakerFailureThreshold(), properties.getBreakerOpenDuration());
+    this.latencies = new LatencyWindow(1024, properties.getHedgePercentile());
+
+    this.hedgesSent = meterRegistry.counter("quote.fan-out.hedges", "result", "sent");
+    this.hedgesWon = meterRegistry.counter("quote.fan-out.hedges", "result", "won");
+    this.bulkheadRejected = meterRegistry.counter("quote.fan-out.bulkhead.rejected");
+    Gauge.builder("quote.fan-out.bulkhead.available", bulkhead, Semaphore::availablePermits)
+        .register(meterRegistry);
+    Gauge.builder("quote.fan-out.circuit.state", circuitBreaker, cb -> cb.state().ordinal())
+        .register(meterRegistry);
+  }
+
+  FanOutQuoteFetcher(
+      QuoteClient quoteClient, QuoteFanOutProperties properties, MeterRegistry meterRegistry) {
+    this(quoteClient, null, properties, meterRegistry);
+  }
+
+  /**
+   * Fetches {@code n} random quotes concurrently, one virtual thread per quote that the prefetch
+   * buffer cannot supply. Either all quotes are returned or the first failure is thrown and the
+   * remaining calls are cancelled.
+   */
+  public List<Quote> fetchQuotes(int n) {
+    if (n <= 0) {
+      return List.of();
+    }
+
+    // Scoped like a StructuredTaskScope: closing the executor waits for every call it started.
+    try (ExecutorService scope = Executors.newThreadPerTaskExecutor(virtualThreads)) {
+      CompletionService<IndexedQuote> completion = new ExecutorCompletionService<>(scope);
+      List<Future<IndexedQuote>> calls = new ArrayList<>(n);
+      for (int i = 0; i < n; i++) {
+        int index = i;
+        calls.add(completion.submit(() -> new IndexedQuote(index, fetchOne(scope))));
+      }
+
+      Quote[] quotes = new Quote[n];
+      try {
+        for (int i = 0; i < n; i++) {
+          IndexedQuote result = completion.take().get();
+          quotes[result.index()] = result.quote();
+        }
+      } catch (ExecutionException e) {
+        calls.forEach(call -> call.cancel(true));
+        throw unwrap(e);
+      } catch (InterruptedException e) {
+        calls.forEach(call -> call.cancel(true));
+        Thread.currentThread().interrupt();
+        throw new RestClientException("Interrupted while fetching quotes", e);
+      }
+      return Arrays.asList(quotes);
+    }
+  }
+
+  QuoteCircuitBreaker.State circuitState() {
+    return circuitBreaker.state();
+  }
+
+  private Quote fetchOne(ExecutorService scope) throws InterruptedException {
+    Quote buffered = buffer == null ? null : buffer.poll();
+    if (buffered != null) {
+      return buffered;
+    }
+    CompletionService<Quote> attempts = new ExecutorCompletionService<>(scope);
+    List<Future<Quote>> inFlight = new ArrayList<>(2);
+    inFlight.add(attempts.submit(() -> attempt(false)));
+    try {
+      Future<Quote> done = null;
+      if (properties.isHedgeEnabled()) {
+        done = attempts.poll(hedgeDelayNanos(), TimeUnit.NANOSECONDS);
+        if (done == null) {
+          inFlight.add(attempts.submit(() -> attempt(true)));
+        }
+      }
+
+      ExecutionException primaryFailure = null;
+      ExecutionException hedgeFailure = null;
+      for (int remaining = inFlight.size(); remaining > 0; remaining--) {
+        if (done == null) {
+          done = attempts.take();
+        }
+        try {
+          Quote quote = done.get();
+          if (inFlight.size() > 1 && done == inFlight.get(1)) {
+            hedgesWon.increment();
+          }
+          return quote;
+        } catch (ExecutionException e) {
+          if (done == inFlight.get(0)) {
+            primaryFailure = e;
+          } else {
+            hedgeFailure = e;
+          }
+          done = null;
+        }
+      }
+      // The primary's error is the upstream's answer; a hedge may only have found the bulkhead
+      // full.
+      if (primaryFailure == null) {
+        throw unwrap(hedgeFailure);
+      }
+      RuntimeException failure = unwrap(primaryFailure);
+      if (hedgeFailure != null) {
+        failure.addSuppressed(hedgeFailure.getCause());
+      }
+      throw failure;
+    } finally {
+      inFlight.forEach(attempt -> attempt.cancel(true));
+    }
+  }
+
+  private Quote attempt(boolean hedge) throws InterruptedException {
+    // Hedges never wait for the bulkhead; under saturation they would only add load.
+    boolean permitted =
+        hedge
+            ? bulkhead.tryAcquire()
+            : bulkhead.tryAcquire(properties.getBulkheadWait().toNanos(), TimeUnit.NANOSECONDS);
+    if (!permitted) {
+      if (!hedge) {
+        bulkheadRejected.increment();
+      }
+      throw new BulkheadFullException(
+          "No quote call slot free within " + properties.getBulkheadWait());
+    }
+
+    try {
+      circuitBreaker.acquirePermission();
+      if (hedge) {
+        hedgesSent.increment();
+      }
+      long start = System.nanoTime();
+      try {
+        Quote quote = quoteClient.fetchRandomQuote();
+        circuitBreaker.onSuccess();
+        latencies.record(System.nanoTime() - start);
+        return quote;
+      } catch (RuntimeException e) {
+        if (Thread.currentThread().isInterrupted()) {
+          circuitBreaker.onIgnored();
+        } else {
+          circuitBreaker.onFailure();
+        }
+        throw e;
+      }
+    } finally {
+      bulkhead.release();
+    }
+  }
+
+  private long hedgeDelayNanos() {
+    long observed = latencies.percentileNanos();
+    long delay = observed < 0 ? properties.getHedgeInitialDelay().toNanos() : observed;
+    return Math.max(delay, properties.getHedgeMinDelay().toNanos());
+  }
+
+  private static RuntimeException unwrap(ExecutionException e) {
+    Throwable cause = e.getCause();
+    if (cause instanceof RuntimeException runtimeException) {
+      return runtimeException;
+    }
+    return new RestClientException("Quote fetch failed", cause);
+  }
+
+  private record IndexedQuote(int index, Quote quote) {}
+}
@@ -0,0 +1,35 @@
+package com.example.consumingrest;
+
+import java.util.Arrays;
+
+/** Sliding window over the most recent call latencies, for percentile-based hedge delays. */
+class LatencyWindow {
+
+  private static final int RECOMPUTE_EVERY = 32;
+
+  private final long[] samples;
+  private final double percentile;
+  private long recorded;
+  private volatile long cachedPercentile = -1;
+
+  LatencyWindow(int size, double percentile) {
+    this.samples = new long[size];
+    this.percentile = percentile;
+  }
+
+  synchronized void record(long nanos) {
+    samples[(int) (recorded % samples.length)] = nanos;
+    recorded++;
+    if (recorded >= RECOMPUTE_EVERY && recorded % RECOMPUTE_EVERY == 0) {
+      int filled = (int) Math.min(recorded, samples.length);
+      long[] sorted = Arrays.copyOf(samples, filled);
+      Arrays.sort(sorted);
+      cachedPercentile = sorted[Math.min(filled - 1, (int) (filled * percentile))];
+    }
+  }
+
+  // Negative until enough samples have been recorded.
+  long percentileNanos() {
+    return cachedPercentile;
+  }
+}
@@ -0,0 +1,165 @@
+package com.example.consumingrest;
+
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import jakarta.annotation.PostConstruct;
+import jakarta.annotation.PreDestroy;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicBoolean;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.scheduling.concurrent.CustomizableThreadFactory;
+import org.springframework.stereotype.Component;
+import org.springframework.web.client.RestClientException;
+
+@Component
+public class PrefetchingQuoteBuffer {
+
+  private static final Logger log = LoggerFactory.getLogger(PrefetchingQuoteBuffer.class);
+
+  private final QuoteClient quoteClient;
+  private final StaleWhileRevalidateQuoteCache cache;
+  private final QuotePrefetchProperties properties;
+  private final BlockingQueue<Quote> buffer;
+  private final ScheduledExecutorService refiller;
+  private final AtomicBoolean refilling = new AtomicBoolean();
+  private volatile long retryAfterNanos;
+
+  private final Counter hits;
+  private final Counter misses;
+  private final Counter fallbacks;
+  private final MeterRegistry meterRegistry;
+
+  public PrefetchingQuoteBuffer(
+      QuoteClient quoteClient,
+      StaleWhileRevalidateQuoteCache cache,
+      QuotePrefetchProperties properties,
+      MeterRegistry meterRegistry) {
+    this.quoteClient = quoteClient;
+    this.cache = cache;
+    this.properties = properties;
+    // ArrayBlockingQueue is a fixed ring over one array, so a full buffer never allocates.
+    this.buffer = new ArrayBlockingQueue<>(properties.getTargetDepth());
+
+    CustomizableThreadFactory threadFactory = new CustomizableThreadFactory("quote-prefetch-");
+    threadFactory.setDaemon(true);
+    this.refiller = Executors.newSingleThreadScheduledExecutor(threadFactory);
+
+    this.hits = meterRegistry.counter("quote.buffer.requests", "result", "hit");
+    this.misses = meterRegistry.counter("quote.buffer.requests", "result", "miss");
+    this.fallbacks = meterRegistry.counter("quote.buffer.requests", "result", "fallback");
+    this.meterRegistry = meterRegistry;
+
+    this.retryAfterNanos = System.nanoTime();
+  }
+
+  // Not from the constructor: the gauges hand this buffer to the registry.
+  @PostConstruct
+  void registerGauges() {
+    Gauge.builder("quote.buffer.depth", buffer, BlockingQueue::size).register(meterRegistry);
+    Gauge.builder("quote.buffer.hit.ratio", this, PrefetchingQuoteBuffer::hitRatio)
+        .register(meterRegistry);
+  }
+
+  // Fills the buffer once the application is up, not while the context is still starting.
+  @EventListener(ApplicationReadyEvent.class)
+  public void start() {
+    requestRefill();
+  }
+
+  /**
+   * Returns a random quote without waiting on upstream: from the prefetch buffer if possible,
+   * otherwise from whatever the cache holds. Only calls upstream directly when both are empty.
+   */
+  public Quote next() {
+    Quote quote = buffer.poll();
+    requestRefill();
+    if (quote != null) {
+      hits.increment();
+      return quote;
+    }
+
+    misses.increment();
+    try {
+      quote = buffer.poll(properties.getMissWait().toNanos(), TimeUnit.NANOSECONDS);
+    } catch (InterruptedException e) {
+      Thread.currentThread().interrupt();
+    }
+    if (quote != null) {
+      return quote;
+    }
+
+    fallbacks.increment();
+    return cache.any().orElseGet(this::fetch);
+  }
+
+  /** A prefetched quote if one is ready, otherwise null; never waits and never calls upstream. */
+  public Quote poll() {
+    Quote quote = buffer.poll();
+    requestRefill();
+    if (quote != null) {
+      hits.increment();
+    } else {
+      misses.increment();
+    }
+    return quote;
+  }
+
+  public int depth() {
+    return buffer.size();
+  }
+
+  public double hitRatio() {
+    double total = hits.count() + misses.count();
+    return total == 0 ? 0 : hits.count() / total;
+  }
+
+  @PreDestroy
+  public void shutdown() {
+    refiller.shutdownNow();
+  }
+
+  private void requestRefill() {
+    if (buffer.remainingCapacity() == 0
+        || System.nanoTime() - retryAfterNanos < 0
+        || !refilling.compareAndSet(false, true)) {
+      return;
+    }
+    refiller.execute(this::refill);
+  }
+
+  private void refill() {
+    try {
+      int batch = Math.min(properties.getRefillBatchSize(), buffer.remainingCapacity());
+      for (int i = 0; i < batch; i++) {
+        Quote quote = fetch();
+        if (quote != null) {
+          buffer.offer(quote);
+        }
+      }
+    } catch (RestClientException e) {
+      log.warn(
+          "Quote prefetch failed, retrying in {}: {}", properties.getRetryBackoff(), e.getMessage());
+      long backoff = properties.getRetryBackoff().toNanos();
+      retryAfterNanos = System.nanoTime() + backoff;
+      refiller.schedule(this::requestRefill, backoff, TimeUnit.NANOSECONDS);
+      return;
+    } finally {
+      refilling.set(false);
+    }
+    requestRefill();
+  }
+
+  private Quote fetch() {
+    Quote quote = quoteClient.fetchRandomQuote();
+    cache.put(quote);
+    return quote;
+  }
+}
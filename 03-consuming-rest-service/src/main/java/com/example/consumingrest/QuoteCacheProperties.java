@@ -0,0 +1,39 @@
+package com.example.consumingrest;
+
+import java.time.Duration;
+import org.springframework.boot.context.properties.ConfigurationProperties;
+
+@ConfigurationProperties("quote.cache")
+public class QuoteCacheProperties {
+
+  private int maxEntries = 1024;
+
+  private Duration ttl = Duration.ofMinutes(5);
+
+  // Past the TTL, entries are served for this long while being refreshed in the background.
+  private Duration staleWindow = Duration.ofHours(1);
+
+  public int getMaxEntries() {
+    return maxEntries;
+  }
+
+  public void setMaxEntries(int maxEntries) {
+    this.maxEntries = maxEntries;
+  }
+
+  public Duration getTtl() {
+    return ttl;
+  }
+
+  public void setTtl(Duration ttl) {
+    this.ttl = ttl;
+  }
+
+  public Duration getStaleWindow() {
+    return staleWindow;
+  }
+
+  public void setStaleWindow(Duration staleWindow) {
+    this.staleWindow = staleWindow;
+  }
+}
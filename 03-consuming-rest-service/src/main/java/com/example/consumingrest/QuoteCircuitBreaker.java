@@ -0,0 +1,66 @@
+package com.example.consumingrest;
+
+import java.time.Duration;
+
+/**
+ * Consecutive-failure circuit breaker. Opens after {@code failureThreshold} failures in a row,
+ * rejects calls for {@code openDuration}, then lets a single trial call through.
+ */
+class QuoteCircuitBreaker {
+
+  enum State {
+    CLOSED,
+    OPEN,
+    HALF_OPEN
+  }
+
+  private final int failureThreshold;
+  private final long openNanos;
+
+  private State state = State.CLOSED;
+  private int consecutiveFailures;
+  private long openedAt;
+  private boolean trialInFlight;
+
+  QuoteCircuitBreaker(int failureThreshold, Duration openDuration) {
+    this.failureThreshold = failureThreshold;
+    this.openNanos = openDuration.toNanos();
+  }
+
+  synchronized void acquirePermission() {
+    if (state == State.OPEN && System.nanoTime() - openedAt >= openNanos) {
+      state = State.HALF_OPEN;
+      trialInFlight = false;
+    }
+    if (state == State.OPEN || (state == State.HALF_OPEN && trialInFlight)) {
+      throw new CircuitBreakerOpenException("Quote upstream circuit is " + state);
+    }
+    if (state == State.HALF_OPEN) {
+      trialInFlight = true;
+    }
+  }
+
+  synchronized void onSuccess() {
+    consecutiveFailures = 0;
+    state = State.CLOSED;
+  }
+
+  synchronized void onFailure() {
+    consecutiveFailures++;
+    if (state == State.HALF_OPEN || consecutiveFailures >= failureThreshold) {
+      state = State.OPEN;
+      openedAt = System.nanoTime();
+    }
+  }
+
+  // A call abandoned before it finished says nothing about upstream health.
+  synchronized void onIgnored() {
+    if (state == State.HALF_OPEN) {
+      trialInFlight = false;
+    }
+  }
+
+  synchronized State state() {
+    return state;
+  }
+}
@@ -15,4 +15,8 @@ public class QuoteClient {
   public Quote fetchRandomQuote() {
     return restClient.get().uri("/api/random").retrieve().body(Quote.class);
   }
+
+  public Quote fetchQuote(long id) {
+    return restClient.get().uri("/api/{id}", id).retrieve().body(Quote.class);
+  }
 }
@@ -1,16 +1,58 @@
 package com.example.consumingrest;
 
+import java.net.http.HttpClient;
+import org.springframework.boot.context.properties.EnableConfigurationProperties;
 import org.springframework.context.annotation.Bean;
 import org.springframework.context.annotation.Configuration;
+import org.springframework.http.client.ClientHttpRequestFactory;
+import org.springframework.http.client.JdkClientHttpRequestFactory;
 import org.springframework.web.client.RestClient;
 import org.springframework.beans.factory.annotation.Value;
 
 @Configuration
+@EnableConfigurationProperties({
+  QuoteTransportProperties.class,
+  QuotePrefetchProperties.class,
+  QuoteCacheProperties.class,
+  QuoteFanOutProperties.class
+})
 public class QuoteClientConfig {
 
+  // Closed with the context: the client keeps a selector thread and its pooled connections until
+  // then.
+  @Bean(destroyMethod = "close")
+  HttpClient quoteHttpClient(QuoteTransportProperties transport) {
+    return httpClient(transport);
+  }
+
   @Bean
   RestClient quoteRestClient(
-      RestClient.Builder builder, @Value("${quote.base-url}") String baseUrl) {
-    return builder.baseUrl(baseUrl).build();
+      RestClient.Builder builder,
+      @Value("${quote.base-url}") String baseUrl,
+      HttpClient quoteHttpClient,
+      QuoteTransportProperties transport) {
+    return builder
+        .baseUrl(baseUrl)
+        .requestFactory(requestFactory(quoteHttpClient, transport))
+        .build();
+  }
+
+  // For tests and benchmarks, which leave the client to be collected with the rest of the JVM.
+  static ClientHttpRequestFactory requestFactory(QuoteTransportProperties transport) {
+    return requestFactory(httpClient(transport), transport);
+  }
+
+  static ClientHttpRequestFactory requestFactory(
+      HttpClient httpClient, QuoteTransportProperties transport) {
+    JdkClientHttpRequestFactory requestFactory = new JdkClientHttpRequestFactory(httpClient);
+    requestFactory.setReadTimeout(transport.getReadTimeout());
+    return requestFactory;
+  }
+
+  private static HttpClient httpClient(QuoteTransportProperties transport) {
+    return HttpClient.newBuilder()
+        .version(transport.getHttpVersion())
+        .connectTimeout(transport.getConnectTimeout())
+        .build();
   }
 }
@@ -0,0 +1,91 @@
+package com.example.consumingrest;
+
+import java.time.Duration;
+import org.springframework.boot.context.properties.ConfigurationProperties;
+
+@ConfigurationProperties("quote.fan-out")
+public class QuoteFanOutProperties {
+
+  // Bulkhead: upstream calls in flight across all fetchQuotes invocations.
+  private int maxConcurrency = 16;
+
+  private Duration bulkheadWait = Duration.ofSeconds(1);
+
+  private boolean hedgeEnabled = true;
+
+  // A hedge is sent once a call has been outstanding longer than this latency percentile.
+  private double hedgePercentile = 0.95;
+
+  private Duration hedgeMinDelay = Duration.ofMillis(10);
+
+  // Used until enough latencies have been observed to compute the percentile.
+  private Duration hedgeInitialDelay = Duration.ofMillis(100);
+
+  private int breakerFailureThreshold = 5;
+
+  private Duration breakerOpenDuration = Duration.ofSeconds(10);
+
+  public int getMaxConcurrency() {
+    return maxConcurrency;
+  }
+
+  public void setMaxConcurrency(int maxConcurrency) {
+    this.maxConcurrency = maxConcurrency;
+  }
+
+  public Duration getBulkheadWait() {
+    return bulkheadWait;
+  }
+
+  public void setBulkheadWait(Duration bulkheadWait) {
+    this.bulkheadWait = bulkheadWait;
+  }
+
+  public boolean isHedgeEnabled() {
+    return hedgeEnabled;
+  }
+
+  public void setHedgeEnabled(boolean hedgeEnabled) {
+    this.hedgeEnabled = hedgeEnabled;
+  }
+
+  public double getHedgePercentile() {
+    return hedgePercentile;
+  }
+
+  public void setHedgePercentile(double hedgePercentile) {
+    this.hedgePercentile = hedgePercentile;
+  }
+
+  public Duration getHedgeMinDelay() {
+    return hedgeMinDelay;
+  }
+
+  public void setHedgeMinDelay(Duration hedgeMinDelay) {
+    this.hedgeMinDelay = hedgeMinDelay;
+  }
+
+  public Duration getHedgeInitialDelay() {
+    return hedgeInitialDelay;
+  }
+
+  public void setHedgeInitialDelay(Duration hedgeInitialDelay) {
+    this.hedgeInitialDelay = hedgeInitialDelay;
+  }
+
+  public int getBreakerFailureThreshold() {
+    return breakerFailureThreshold;
+  }
+
+  public void setBreakerFailureThreshold(int breakerFailureThreshold) {
+    this.breakerFailureThreshold = breakerFailureThreshold;
+  }
+
+  public Duration getBreakerOpenDuration() {
+    return breakerOpenDuration;
+  }
+
+  public void setBreakerOpenDuration(Duration breakerOpenDuration) {
+    this.breakerOpenDuration = breakerOpenDuration;
+  }
+}
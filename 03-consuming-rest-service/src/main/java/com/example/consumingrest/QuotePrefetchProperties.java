@@ -0,0 +1,49 @@
+package com.example.consumingrest;
+
+import java.time.Duration;
+import org.springframework.boot.context.properties.ConfigurationProperties;
+
+@ConfigurationProperties("quote.prefetch")
+public class QuotePrefetchProperties {
+
+  private int targetDepth = 32;
+
+  private int refillBatchSize = 8;
+
+  // How long a caller waits for the refiller on an empty buffer before falling back to the cache.
+  private Duration missWait = Duration.ofMillis(50);
+
+  private Duration retryBackoff = Duration.ofSeconds(1);
+
+  public int getTargetDepth() {
+    return targetDepth;
+  }
+
+  public void setTargetDepth(int targetDepth) {
+    this.targetDepth = targetDepth;
+  }
+
+  public int getRefillBatchSize() {
+    return refillBatchSize;
+  }
+
+  public void setRefillBatchSize(int refillBatchSize) {
+    this.refillBatchSize = refillBatchSize;
+  }
+
+  public Duration getMissWait() {
+    return missWait;
+  }
+
+  public void setMissWait(Duration missWait) {
+    this.missWait = missWait;
+  }
+
+  public Duration getRetryBackoff() {
+    return retryBackoff;
+  }
+
+  public void setRetryBackoff(Duration retryBackoff) {
+    this.retryBackoff = retryBackoff;
+  }
+}
@@ -0,0 +1,39 @@
+package com.example.consumingrest;
+
+import java.net.http.HttpClient;
+import java.time.Duration;
+import org.springframework.boot.context.properties.ConfigurationProperties;
+
+@ConfigurationProperties("quote.transport")
+public class QuoteTransportProperties {
+
+  private HttpClient.Version httpVersion = HttpClient.Version.HTTP_2;
+
+  private Duration connectTimeout = Duration.ofSeconds(2);
+
+  private Duration readTimeout = Duration.ofSeconds(5);
+
+  public HttpClient.Version getHttpVersion() {
+    return httpVersion;
+  }
+
+  public void setHttpVersion(HttpClient.Version httpVersion) {
+    this.httpVersion = httpVersion;
+  }
+
+  public Duration getConnectTimeout() {
+    return connectTimeout;
+  }
+
+  public void setConnectTimeout(Duration connectTimeout) {
+    this.connectTimeout = connectTimeout;
+  }
+
+  public Duration getReadTimeout() {
+    return readTimeout;
+  }
+
+  public void setReadTimeout(Duration readTimeout) {
+    this.readTimeout = readTimeout;
+  }
+}
@@ -0,0 +1,182 @@
+package com.example.consumingrest;
+
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import jakarta.annotation.PostConstruct;
+import jakarta.annotation.PreDestroy;
+import java.time.Clock;
+import java.time.Instant;
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.Optional;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ThreadLocalRandom;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.scheduling.concurrent.CustomizableThreadFactory;
+import org.springframework.stereotype.Component;
+import org.springframework.web.client.RestClientException;
+
+@Component
+public class StaleWhileRevalidateQuoteCache {
+
+  private static final Logger log = LoggerFactory.getLogger(StaleWhileRevalidateQuoteCache.class);
+
+  private final QuoteClient quoteClient;
+  private final QuoteCacheProperties properties;
+  private final Clock clock;
+  private final ExecutorService revalidator;
+  private final Set<Long> revalidating = ConcurrentHashMap.newKeySet();
+
+  // Access-ordered, so iteration starts at the least recently used entry. Guarded by itself.
+  private final LinkedHashMap<Long, Entry> entries = new LinkedHashMap<>(16, 0.75f, true);
+
+  private final Counter hits;
+  private final Counter staleHits;
+  private final Counter misses;
+  private final MeterRegistry meterRegistry;
+
+  @Autowired
+  public StaleWhileRevalidateQuoteCache(
+      QuoteClient quoteClient, QuoteCacheProperties properties, MeterRegistry meterRegistry) {
+    this(quoteClient, properties, meterRegistry, Clock.systemUTC());
+  }
+
+  StaleWhileRevalidateQuoteCache(
+      QuoteClient quoteClient,
+      QuoteCacheProperties properties,
+      MeterRegistry meterRegistry,
+      Clock clock) {
+    this.quoteClient = quoteClient;
+    this.properties = properties;
+    this.clock = clock;
+
+    CustomizableThreadFactory threadFactory = new CustomizableThreadFactory("quote-revalidate-");
+    threadFactory.setDaemon(true);
+    this.revalidator = Executors.newSingleThreadExecutor(threadFactory);
+
+    this.hits = meterRegistry.counter("quote.cache.requests", "result", "hit");
+    this.staleHits = meterRegistry.counter("quote.cache.requests", "result", "stale");
+    this.misses = meterRegistry.counter("quote.cache.requests", "result", "miss");
+    this.meterRegistry = meterRegistry;
+  }
+
+  // Not from the constructor: the gauges hand this cache to the registry.
+  @PostConstruct
+  void registerGauges() {
+    Gauge.builder("quote.cache.hit.ratio", this, StaleWhileRevalidateQuoteCache::hitRatio)
+        .register(meterRegistry);
+    Gauge.builder("quote.cache.size", this, StaleWhileRevalidateQuoteCache::size)
+        .register(meterRegistry);
+  }
+
+  public Quote get(long id) {
+    Entry entry;
+    synchronized (entries) {
+      entry = entries.get(id);
+    }
+
+    Instant now = clock.instant();
+    if (entry != null && now.isBefore(entry.freshUntil())) {
+      hits.increment();
+      return entry.quote();
+    }
+    if (entry != null && now.isBefore(entry.staleUntil())) {
+      staleHits.increment();
+      revalidate(id);
+      return entry.quote();
+    }
+
+    misses.increment();
+    try {
+      return load(id);
+    } catch (RestClientException e) {
+      if (entry == null) {
+        throw e;
+      }
+      // An expired quote is still a better answer than an error.
+      log.warn("Serving expired quote {} because upstream failed: {}", id, e.getMessage());
+      return entry.quote();
+    }
+  }
+
+  public void put(Quote quote) {
+    if (quote == null || quote.value() == null || quote.value().id() == null) {
+      return;
+    }
+    Instant now = clock.instant();
+    Instant freshUntil = now.plus(properties.getTtl());
+    Entry entry = new Entry(quote, freshUntil, freshUntil.plus(properties.getStaleWindow()));
+
+    synchronized (entries) {
+      entries.put(quote.value().id(), entry);
+      if (entries.size() > properties.getMaxEntries()) {
+        Iterator<Map.Entry<Long, Entry>> eldest = entries.entrySet().iterator();
+        eldest.next();
+        eldest.remove();
+      }
+    }
+  }
+
+  // Any cached quote, regardless of age, for callers that just need "a quote".
+  public Optional<Quote> any() {
+    synchronized (entries) {
+      if (entries.isEmpty()) {
+        return Optional.empty();
+      }
+      int skip = ThreadLocalRandom.current().nextInt(entries.size());
+      Iterator<Entry> it = entries.values().iterator();
+      for (int i = 0; i < skip; i++) {
+        it.next();
+      }
+      return Optional.of(it.next().quote());
+    }
+  }
+
+  public int size() {
+    synchronized (entries) {
+      return entries.size();
+    }
+  }
+
+  public double hitRatio() {
+    double served = hits.count() + staleHits.count();
+    double total = served + misses.count();
+    return total == 0 ? 0 : served / total;
+  }
+
+  @PreDestroy
+  public void shutdown() {
+    revalidator.shutdownNow();
+  }
+
+  private Quote load(long id) {
+    Quote quote = quoteClient.fetchQuote(id);
+    put(quote);
+    return quote;
+  }
+
+  private void revalidate(long id) {
+    if (!revalidating.add(id)) {
+      return;
+    }
+    revalidator.execute(
+        () -> {
+          try {
+            load(id);
+          } catch (RestClientException e) {
+            log.debug("Revalidation of quote {} failed, keeping stale entry", id, e);
+          } finally {
+            revalidating.remove(id);
+          }
+        });
+  }
+
+  private record Entry(Quote quote, Instant freshUntil, Instant staleUntil) {}
+}
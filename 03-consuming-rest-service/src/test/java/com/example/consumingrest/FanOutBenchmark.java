@@ -0,0 +1,71 @@
+package com.example.consumingrest;
+
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import java.time.Duration;
+import java.util.Arrays;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.function.Supplier;
+import org.springframework.web.client.RestClient;
+
+/**
+ * Latency of fetching {@value #QUOTES} quotes sequentially, fanned out, and fanned out with
+ * hedging, against a stub where 2% of responses are slow. Run its {@code main} method from the
+ * IDE; it is not part of the test suite.
+ */
+public class FanOutBenchmark {
+
+  private static final int QUOTES = 10;
+  private static final int ITERATIONS = 300;
+
+  public static void main(String[] args) throws Exception {
+    Supplier<Duration> latency =
+        () ->
+            ThreadLocalRandom.current().nextInt(100) < 2
+                ? Duration.ofMillis(300)
+                : Duration.ofMillis(10);
+
+    try (QuoteStubServer stub = QuoteStubServer.start(latency)) {
+      QuoteClient client =
+          new QuoteClient(
+              RestClient.builder()
+                  .baseUrl(stub.baseUrl())
+                  .requestFactory(QuoteClientConfig.requestFactory(new QuoteTransportProperties()))
+                  .build());
+
+      report(
+          "sequential",
+          () -> {
+            for (int i = 0; i < QUOTES; i++) {
+              client.fetchRandomQuote();
+            }
+          });
+
+      QuoteFanOutProperties plain = new QuoteFanOutProperties();
+      plain.setHedgeEnabled(false);
+      FanOutQuoteFetcher fanOut = new FanOutQuoteFetcher(client, plain, new SimpleMeterRegistry());
+      report("fan-out", () -> fanOut.fetchQuotes(QUOTES));
+
+      FanOutQuoteFetcher hedged =
+          new FanOutQuoteFetcher(client, new QuoteFanOutProperties(), new SimpleMeterRegistry());
+      report("fan-out + hedging", () -> hedged.fetchQuotes(QUOTES));
+    }
+  }
+
+  private static void report(String name, Runnable fetch) {
+    for (int i = 0; i < ITERATIONS / 10; i++) {
+      fetch.run(); // warm-up
+    }
+    long[] latencies = new long[ITERATIONS];
+    for (int i = 0; i < ITERATIONS; i++) {
+      long start = System.nanoTime();
+      fetch.run();
+      latencies[i] = System.nanoTime() - start;
+    }
+    Arrays.sort(latencies);
+    System.out.printf(
+        "%-18s p50 %7.1f ms  p99 %7.1f ms%n",
+        name,
+        latencies[ITERATIONS / 2] / 1e6,
+        latencies[(int) (ITERATIONS * 0.99)] / 1e6);
+  }
+}
@@ -0,0 +1,108 @@
+package com.example.consumingrest;
+
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import java.time.Duration;
+import java.util.List;
+import java.util.concurrent.atomic.AtomicInteger;
+import org.junit.jupiter.api.Test;
+import org.springframework.web.client.ResourceAccessException;
+import org.springframework.web.client.RestClient;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.times;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+class FanOutQuoteFetcherTest {
+
+  private final SimpleMeterRegistry meterRegistry = new SimpleMeterRegistry();
+  private final QuoteFanOutProperties properties = new QuoteFanOutProperties();
+
+  @Test
+  void fetchQuotes_capsConcurrencyWithBulkhead() throws Exception {
+    properties.setMaxConcurrency(4);
+    properties.setHedgeEnabled(false);
+
+    try (QuoteStubServer stub = QuoteStubServer.start(Duration.ofMillis(50))) {
+      FanOutQuoteFetcher fetcher = new FanOutQuoteFetcher(client(stub), properties, meterRegistry);
+
+      List<Quote> quotes = fetcher.fetchQuotes(20);
+
+      assertThat(quotes)
+          .hasSize(20)
+          .allSatisfy(quote -> assertThat(quote.value().id()).isEqualTo(42));
+      assertThat(stub.maxInFlight()).isBetween(2, 4);
+    }
+  }
+
+  @Test
+  void fetchQuotes_hedgesCallStuckBehindSlowResponse() throws Exception {
+    properties.setHedgeInitialDelay(Duration.ofMillis(50));
+    AtomicInteger calls = new AtomicInteger();
+
+    try (QuoteStubServer stub = QuoteStubServer.start(
+        () -> calls.getAndIncrement() == 0 ? Duration.ofSeconds(3) : Duration.ofMillis(5))) {
+      FanOutQuoteFetcher fetcher = new FanOutQuoteFetcher(client(stub), properties, meterRegistry);
+
+      long start = System.nanoTime();
+      List<Quote> quotes = fetcher.fetchQuotes(1);
+      Duration elapsed = Duration.ofNanos(System.nanoTime() - start);
+
+      assertThat(quotes).hasSize(1);
+      assertThat(elapsed).isLessThan(Duration.ofSeconds(2));
+      assertThat(meterRegistry.counter("quote.fan-out.hedges", "result", "won").count())
+          .isEqualTo(1);
+    }
+  }
+
+  @Test
+  void fetchQuotes_opensCircuitAfterConsecutiveFailures() {
+    properties.setHedgeEnabled(false);
+    properties.setBreakerFailureThreshold(3);
+    QuoteClient quoteClient = mock(QuoteClient.class);
+    when(quoteClient.fetchRandomQuote())
+        .thenThrow(new ResourceAccessException("connection refused"));
+    FanOutQuoteFetcher fetcher = new FanOutQuoteFetcher(quoteClient, properties, meterRegistry);
+
+    for (int i = 0; i < 3; i++) {
+      assertThatThrownBy(() -> fetcher.fetchQuotes(1)).isInstanceOf(ResourceAccessException.class);
+    }
+
+    assertThatThrownBy(() -> fetcher.fetchQuotes(5))
+        .isInstanceOf(CircuitBreakerOpenException.class);
+    assertThat(fetcher.circuitState()).isEqualTo(QuoteCircuitBreaker.State.OPEN);
+    verify(quoteClient, times(3)).fetchRandomQuote();
+  }
+
+  @Test
+  void fetchQuotes_reportsPrimaryFailureOverRejectedHedge() {
+    properties.setMaxConcurrency(1);
+    properties.setHedgeInitialDelay(Duration.ofMillis(10));
+    properties.setHedgeMinDelay(Duration.ofMillis(10));
+    QuoteClient quoteClient = mock(QuoteClient.class);
+    when(quoteClient.fetchRandomQuote())
+        .thenAnswer(
+            inv -> {
+              Thread.sleep(200);
+              throw new ResourceAccessException("read timed out");
+            });
+    FanOutQuoteFetcher fetcher = new FanOutQuoteFetcher(quoteClient, properties, meterRegistry);
+
+    assertThatThrownBy(() -> fetcher.fetchQuotes(1))
+        .isInstanceOf(ResourceAccessException.class)
+        .satisfies(
+            e -> assertThat(e.getSuppressed())
+                .singleElement()
+                .isInstanceOf(BulkheadFullException.class));
+  }
+
+  private static QuoteClient client(QuoteStubServer stub) {
+    return new QuoteClient(
+        RestClient.builder()
+            .baseUrl(stub.baseUrl())
+            .requestFactory(QuoteClientConfig.requestFactory(new QuoteTransportProperties()))
+            .build());
+  }
+}
@@ -0,0 +1,103 @@
+package com.example.consumingrest;
+
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import java.time.Duration;
+import java.util.List;
+import java.util.concurrent.atomic.AtomicLong;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.web.client.ResourceAccessException;
+
+import static com.example.consumingrest.StaleWhileRevalidateQuoteCacheTest.quote;
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.awaitility.Awaitility.await;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+class PrefetchingQuoteBufferTest {
+
+  private final QuoteClient quoteClient = mock(QuoteClient.class);
+  private final SimpleMeterRegistry meterRegistry = new SimpleMeterRegistry();
+  private final QuotePrefetchProperties properties = new QuotePrefetchProperties();
+  private final AtomicLong ids = new AtomicLong();
+  private StaleWhileRevalidateQuoteCache cache;
+  private PrefetchingQuoteBuffer buffer;
+
+  @BeforeEach
+  void setUp() {
+    properties.setTargetDepth(8);
+    properties.setRefillBatchSize(3);
+    properties.setMissWait(Duration.ofMillis(10));
+    properties.setRetryBackoff(Duration.ofMinutes(1));
+    cache = new StaleWhileRevalidateQuoteCache(
+        quoteClient, new QuoteCacheProperties(), meterRegistry);
+  }
+
+  @AfterEach
+  void tearDown() {
+    buffer.shutdown();
+    cache.shutdown();
+  }
+
+  @Test
+  void refillerKeepsBufferAtTargetDepth() {
+    when(quoteClient.fetchRandomQuote()).thenAnswer(inv -> quote(ids.incrementAndGet(), "q"));
+    buffer = new PrefetchingQuoteBuffer(quoteClient, cache, properties, meterRegistry);
+    buffer.registerGauges();
+    buffer.start();
+
+    await().atMost(Duration.ofSeconds(5)).until(() -> buffer.depth() == 8);
+    buffer.next();
+    buffer.next();
+    await().atMost(Duration.ofSeconds(5)).until(() -> buffer.depth() == 8);
+
+    assertThat(buffer.hitRatio()).isEqualTo(1.0);
+    assertThat(meterRegistry.get("quote.buffer.depth").gauge().value()).isEqualTo(8);
+    // Prefetched quotes double as cache entries for ID lookups.
+    assertThat(cache.size()).isEqualTo(10);
+  }
+
+  @Test
+  void fanOutTakesPrefetchedQuotesFirst() {
+    when(quoteClient.fetchRandomQuote()).thenAnswer(inv -> quote(ids.incrementAndGet(), "q"));
+    buffer = new PrefetchingQuoteBuffer(quoteClient, cache, properties, meterRegistry);
+    buffer.start();
+    await().atMost(Duration.ofSeconds(5)).until(() -> buffer.depth() == 8);
+    when(quoteClient.fetchRandomQuote()).thenThrow(new ResourceAccessException("down"));
+    QuoteFanOutProperties fanOutProperties = new QuoteFanOutProperties();
+    fanOutProperties.setHedgeEnabled(false);
+    FanOutQuoteFetcher fanOut =
+        new FanOutQuoteFetcher(quoteClient, buffer, fanOutProperties, meterRegistry);
+
+    List<Quote> quotes = fanOut.fetchQuotes(5);
+
+    assertThat(quotes).hasSize(5).doesNotContainNull();
+    assertThat(meterRegistry.counter("quote.buffer.requests", "result", "hit").count())
+        .isEqualTo(5);
+  }
+
+  @Test
+  void upstreamIsNotCalledBeforeStart() {
+    buffer = new PrefetchingQuoteBuffer(quoteClient, cache, properties, meterRegistry);
+
+    verify(quoteClient, never()).fetchRandomQuote();
+    assertThat(buffer.depth()).isZero();
+  }
+
+  @Test
+  void next_degradesToCachedQuoteWhenUpstreamFails() {
+    when(quoteClient.fetchRandomQuote()).thenThrow(new ResourceAccessException("timeout"));
+    cache.put(quote(42, "cached"));
+    buffer = new PrefetchingQuoteBuffer(quoteClient, cache, properties, meterRegistry);
+
+    Quote quote = buffer.next();
+
+    assertThat(quote.value().id()).isEqualTo(42);
+    assertThat(buffer.hitRatio()).isZero();
+    assertThat(meterRegistry.counter("quote.buffer.requests", "result", "fallback").count())
+        .isEqualTo(1);
+  }
+}
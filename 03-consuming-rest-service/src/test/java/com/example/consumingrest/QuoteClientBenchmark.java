@@ -0,0 +1,109 @@
+package com.example.consumingrest;
+
+import java.net.http.HttpClient;
+import java.time.Duration;
+import java.util.concurrent.TimeUnit;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Threads;
+import org.openjdk.jmh.annotations.Warmup;
+import org.openjdk.jmh.profile.GCProfiler;
+import org.openjdk.jmh.results.format.ResultFormatType;
+import org.openjdk.jmh.runner.Runner;
+import org.openjdk.jmh.runner.options.OptionsBuilder;
+import org.springframework.http.client.ClientHttpRequestFactory;
+import org.springframework.http.client.SimpleClientHttpRequestFactory;
+import org.springframework.web.client.RestClient;
+import org.springframework.web.client.RestClientException;
+
+/**
+ * End-to-end {@link QuoteClient#fetchRandomQuote()} cost against {@link QuoteStubServer}: HTTP
+ * round trip plus Jackson mapping into {@link Quote}/{@link Value}. Throughput and sampled latency
+ * percentiles come from JMH, allocation per call from the GC profiler ({@code
+ * gc.alloc.rate.norm}). Runs fully on loopback; start it via {@link #main}.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode({Mode.Throughput, Mode.SampleTime})
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+@Threads(4)
+public class QuoteClientBenchmark {
+
+  @Param({"jdk-http2", "jdk-http1", "url-connection"})
+  public String transport;
+
+  @Param({"128", "16384"})
+  public int payloadBytes;
+
+  @Param({"0"})
+  public int latencyMillis;
+
+  @Param({"0.0", "0.05"})
+  public double errorRate;
+
+  private QuoteStubServer stub;
+  private QuoteClient client;
+
+  @Setup
+  public void setUp() throws Exception {
+    stub =
+        QuoteStubServer.builder()
+            .latency(Duration.ofMillis(latencyMillis))
+            .payloadBytes(payloadBytes)
+            .errorRate(errorRate)
+            .start();
+    client =
+        new QuoteClient(
+            RestClient.builder().baseUrl(stub.baseUrl()).requestFactory(requestFactory()).build());
+  }
+
+  @TearDown
+  public void tearDown() {
+    stub.close();
+  }
+
+  @Benchmark
+  public Object fetchRandomQuote() {
+    try {
+      return client.fetchRandomQuote();
+    } catch (RestClientException e) {
+      // Injected upstream errors are part of the measured path.
+      return e;
+    }
+  }
+
+  private ClientHttpRequestFactory requestFactory() {
+    QuoteTransportProperties properties = new QuoteTransportProperties();
+    return switch (transport) {
+      case "jdk-http2" -> QuoteClientConfig.requestFactory(properties);
+      case "jdk-http1" -> {
+        properties.setHttpVersion(HttpClient.Version.HTTP_1_1);
+        yield QuoteClientConfig.requestFactory(properties);
+      }
+      case "url-connection" -> new SimpleClientHttpRequestFactory();
+      default -> throw new IllegalArgumentException("Unknown transport " + transport);
+    };
+  }
+
+  public static void main(String[] args) throws Exception {
+    new Runner(
+            new OptionsBuilder()
+                .include(QuoteClientBenchmark.class.getSimpleName())
+                .addProfiler(GCProfiler.class)
+                .resultFormat(ResultFormatType.JSON)
+                .result("target/jmh-quote-client.json")
+                .build())
+        .run();
+  }
+}
@@ -0,0 +1,62 @@
+package com.example.consumingrest;
+
+import java.net.http.HttpClient;
+import java.time.Duration;
+import java.util.concurrent.atomic.AtomicReference;
+import org.junit.jupiter.api.Test;
+import org.springframework.boot.test.context.runner.ApplicationContextRunner;
+import org.springframework.web.client.ResourceAccessException;
+import org.springframework.web.client.RestClient;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+
+class QuoteClientConfigTest {
+
+  @Test
+  void pooledTransport_reusesConnectionAcrossCalls() throws Exception {
+    try (QuoteStubServer stub = QuoteStubServer.start(Duration.ZERO)) {
+      QuoteClient client = client(stub, new QuoteTransportProperties());
+
+      for (int i = 0; i < 20; i++) {
+        assertThat(client.fetchRandomQuote().value().id()).isEqualTo(42);
+      }
+
+      assertThat(stub.requests()).isEqualTo(20);
+      assertThat(stub.connections()).isEqualTo(1);
+    }
+  }
+
+  @Test
+  void pooledTransport_failsFastOnReadTimeout() throws Exception {
+    QuoteTransportProperties transport = new QuoteTransportProperties();
+    transport.setReadTimeout(Duration.ofMillis(100));
+
+    try (QuoteStubServer stub = QuoteStubServer.start(Duration.ofSeconds(2))) {
+      QuoteClient client = client(stub, transport);
+
+      assertThatThrownBy(client::fetchRandomQuote).isInstanceOf(ResourceAccessException.class);
+    }
+  }
+
+  @Test
+  void httpClient_isClosedWithTheContext() {
+    AtomicReference<HttpClient> httpClient = new AtomicReference<>();
+
+    new ApplicationContextRunner()
+        .withUserConfiguration(QuoteClientConfig.class)
+        .withBean(RestClient.Builder.class, RestClient::builder)
+        .withPropertyValues("quote.base-url=http://localhost")
+        .run(context -> httpClient.set(context.getBean(HttpClient.class)));
+
+    assertThat(httpClient.get().isTerminated()).isTrue();
+  }
+
+  private static QuoteClient client(QuoteStubServer stub, QuoteTransportProperties transport) {
+    return new QuoteClient(
+        RestClient.builder()
+            .baseUrl(stub.baseUrl())
+            .requestFactory(QuoteClientConfig.requestFactory(transport))
+            .build());
+  }
+}
@@ -0,0 +1,57 @@
+package com.example.consumingrest;
+
+import java.util.concurrent.TimeUnit;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+import org.openjdk.jmh.profile.GCProfiler;
+import org.openjdk.jmh.results.format.ResultFormatType;
+import org.openjdk.jmh.runner.Runner;
+import org.openjdk.jmh.runner.options.OptionsBuilder;
+import tools.jackson.databind.ObjectMapper;
+import tools.jackson.databind.json.JsonMapper;
+
+/** Jackson mapping of a {@code /api/random} body into {@link Quote}, without any I/O. */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class QuoteDeserializationBenchmark {
+
+  @Param({"128", "16384"})
+  public int payloadBytes;
+
+  private final ObjectMapper objectMapper = JsonMapper.builder().build();
+  private byte[] json;
+
+  @Setup
+  public void setUp() {
+    json = QuoteStubServer.quoteJson(payloadBytes);
+  }
+
+  @Benchmark
+  public Quote readQuote() {
+    return objectMapper.readValue(json, Quote.class);
+  }
+
+  public static void main(String[] args) throws Exception {
+    new Runner(
+            new OptionsBuilder()
+                .include(QuoteDeserializationBenchmark.class.getSimpleName())
+                .addProfiler(GCProfiler.class)
+                .resultFormat(ResultFormatType.JSON)
+                .result("target/jmh-quote-deserialization.json")
+                .build())
+        .run();
+  }
+}
@@ -0,0 +1,157 @@
+package com.example.consumingrest;
+
+import com.sun.net.httpserver.HttpExchange;
+import com.sun.net.httpserver.HttpServer;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.net.InetAddress;
+import java.net.InetSocketAddress;
+import java.nio.charset.StandardCharsets;
+import java.time.Duration;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.function.Supplier;
+
+/**
+ * Local stand-in for the quote service's {@code /api/random} endpoint, with configurable latency,
+ * payload size and error rate.
+ */
+class QuoteStubServer implements AutoCloseable {
+
+  private static final String QUOTE_PREFIX =
+      "{\"type\":\"success\",\"value\":{\"id\":42,\"quote\":\"Really loving Spring Boot.";
+  private static final String QUOTE_SUFFIX = "\"}}";
+  private static final byte[] ERROR =
+      "{\"type\":\"error\"}".getBytes(StandardCharsets.UTF_8);
+
+  static {
+    // Without it the stub's separate header and body writes hit Nagle's algorithm.
+    System.setProperty("sun.net.httpserver.nodelay", "true");
+  }
+
+  private final HttpServer server;
+  private final ExecutorService executor;
+  private final Supplier<Duration> latency;
+  private final byte[] quote;
+  private final double errorRate;
+  private final AtomicLong requests = new AtomicLong();
+  private final AtomicInteger inFlight = new AtomicInteger();
+  private final AtomicInteger maxInFlight = new AtomicInteger();
+  private final Set<Integer> clientPorts = ConcurrentHashMap.newKeySet();
+
+  private QuoteStubServer(Builder builder) throws IOException {
+    this.latency = builder.latency;
+    this.quote = quoteJson(builder.payloadBytes);
+    this.errorRate = builder.errorRate;
+    this.server = HttpServer.create(new InetSocketAddress(InetAddress.getLoopbackAddress(), 0), 0);
+    this.executor = Executors.newCachedThreadPool();
+    server.setExecutor(executor);
+    server.createContext("/api/random", this::handle);
+    server.start();
+  }
+
+  static QuoteStubServer start(Duration latency) throws IOException {
+    return builder().latency(latency).start();
+  }
+
+  static QuoteStubServer start(Supplier<Duration> latency) throws IOException {
+    return builder().latency(latency).start();
+  }
+
+  static Builder builder() {
+    return new Builder();
+  }
+
+  String baseUrl() {
+    return "http://localhost:" + server.getAddress().getPort();
+  }
+
+  long requests() {
+    return requests.get();
+  }
+
+  // Every TCP connection uses its own client port.
+  int connections() {
+    return clientPorts.size();
+  }
+
+  int maxInFlight() {
+    return maxInFlight.get();
+  }
+
+  int payloadBytes() {
+    return quote.length;
+  }
+
+  // The quote text is padded so the whole response body is at least payloadBytes long.
+  static byte[] quoteJson(int payloadBytes) {
+    int padding = Math.max(0, payloadBytes - QUOTE_PREFIX.length() - QUOTE_SUFFIX.length());
+    return (QUOTE_PREFIX + " ".repeat(padding) + QUOTE_SUFFIX).getBytes(StandardCharsets.UTF_8);
+  }
+
+  private void handle(HttpExchange exchange) throws IOException {
+    requests.incrementAndGet();
+    clientPorts.add(exchange.getRemoteAddress().getPort());
+    maxInFlight.accumulateAndGet(inFlight.incrementAndGet(), Math::max);
+    try {
+      long sleepMillis = latency.get().toMillis();
+      if (sleepMillis > 0) {
+        Thread.sleep(sleepMillis);
+      }
+      boolean fail = errorRate > 0 && ThreadLocalRandom.current().nextDouble() < errorRate;
+      byte[] body = fail ? ERROR : quote;
+      exchange.getResponseHeaders().set("Content-Type", "application/json");
+      exchange.sendResponseHeaders(fail ? 500 : 200, body.length);
+      try (OutputStream out = exchange.getResponseBody()) {
+        out.write(body);
+      }
+    } catch (InterruptedException e) {
+      Thread.currentThread().interrupt();
+    } finally {
+      inFlight.decrementAndGet();
+    }
+  }
+
+  @Override
+  public void close() {
+    server.stop(0);
+    executor.shutdownNow();
+  }
+
+  static class Builder {
+
+    private Supplier<Duration> latency = () -> Duration.ZERO;
+    private int payloadBytes;
+    private double errorRate;
+
+    Builder latency(Duration latency) {
+      this.latency = () -> latency;
+      return this;
+    }
+
+    Builder latency(Supplier<Duration> latency) {
+      this.latency = latency;
+      return this;
+    }
+
+    Builder payloadBytes(int payloadBytes) {
+      this.payloadBytes = payloadBytes;
+      return this;
+    }
+
+    // Fraction of requests answered with HTTP 500.
+    Builder errorRate(double errorRate) {
+      this.errorRate = errorRate;
+      return this;
+    }
+
+    QuoteStubServer start() throws IOException {
+      return new QuoteStubServer(this);
+    }
+  }
+}
@@ -0,0 +1,34 @@
+package com.example.consumingrest;
+
+import org.junit.jupiter.api.Test;
+import org.springframework.web.client.HttpServerErrorException;
+import org.springframework.web.client.RestClient;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+
+class QuoteStubServerTest {
+
+  @Test
+  void paddedPayload_stillMapsToQuote() throws Exception {
+    try (QuoteStubServer stub = QuoteStubServer.builder().payloadBytes(4096).start()) {
+      Quote quote = client(stub).fetchRandomQuote();
+
+      assertThat(stub.payloadBytes()).isEqualTo(4096);
+      assertThat(quote.value().id()).isEqualTo(42);
+      assertThat(quote.value().quote()).startsWith("Really loving Spring Boot.");
+    }
+  }
+
+  @Test
+  void errorRate_answersWithServerError() throws Exception {
+    try (QuoteStubServer stub = QuoteStubServer.builder().errorRate(1.0).start()) {
+      assertThatThrownBy(() -> client(stub).fetchRandomQuote())
+          .isInstanceOf(HttpServerErrorException.class);
+    }
+  }
+
+  private static QuoteClient client(QuoteStubServer stub) {
+    return new QuoteClient(RestClient.builder().baseUrl(stub.baseUrl()).build());
+  }
+}
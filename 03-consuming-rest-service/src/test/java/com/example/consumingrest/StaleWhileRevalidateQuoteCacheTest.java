@@ -0,0 +1,130 @@
+package com.example.consumingrest;
+
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import java.time.Clock;
+import java.time.Duration;
+import java.time.Instant;
+import java.time.ZoneId;
+import java.time.ZoneOffset;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.web.client.ResourceAccessException;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+import static org.awaitility.Awaitility.await;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.times;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+class StaleWhileRevalidateQuoteCacheTest {
+
+  private final QuoteClient quoteClient = mock(QuoteClient.class);
+  private final SimpleMeterRegistry meterRegistry = new SimpleMeterRegistry();
+  private final MutableClock clock = new MutableClock(Instant.parse("2026-01-01T00:00:00Z"));
+  private final QuoteCacheProperties properties = new QuoteCacheProperties();
+  private StaleWhileRevalidateQuoteCache cache;
+
+  @BeforeEach
+  void setUp() {
+    properties.setTtl(Duration.ofMinutes(5));
+    properties.setStaleWindow(Duration.ofHours(1));
+    cache = new StaleWhileRevalidateQuoteCache(quoteClient, properties, meterRegistry, clock);
+  }
+
+  @AfterEach
+  void tearDown() {
+    cache.shutdown();
+  }
+
+  @Test
+  void get_servesFreshEntryWithoutCallingUpstream() {
+    when(quoteClient.fetchQuote(1)).thenReturn(quote(1, "first"));
+
+    cache.get(1);
+    Quote quote = cache.get(1);
+
+    assertThat(quote.value().quote()).isEqualTo("first");
+    verify(quoteClient, times(1)).fetchQuote(1);
+    assertThat(cache.hitRatio()).isEqualTo(0.5);
+  }
+
+  @Test
+  void get_servesStaleEntryAndRevalidatesInBackground() {
+    when(quoteClient.fetchQuote(1)).thenReturn(quote(1, "first"), quote(1, "second"));
+    cache.get(1);
+
+    clock.advance(Duration.ofMinutes(10));
+
+    assertThat(cache.get(1).value().quote()).isEqualTo("first");
+    await().atMost(Duration.ofSeconds(5))
+        .untilAsserted(() -> assertThat(cache.get(1).value().quote()).isEqualTo("second"));
+    verify(quoteClient, times(2)).fetchQuote(1);
+    assertThat(meterRegistry.counter("quote.cache.requests", "result", "stale").count())
+        .isGreaterThanOrEqualTo(1);
+  }
+
+  @Test
+  void get_fallsBackToExpiredEntryWhenUpstreamFails() {
+    cache.put(quote(7, "old"));
+    clock.advance(Duration.ofDays(1));
+    when(quoteClient.fetchQuote(7)).thenThrow(new ResourceAccessException("timeout"));
+
+    assertThat(cache.get(7).value().quote()).isEqualTo("old");
+  }
+
+  @Test
+  void get_propagatesFailureWhenNothingIsCached() {
+    when(quoteClient.fetchQuote(7)).thenThrow(new ResourceAccessException("timeout"));
+
+    assertThatThrownBy(() -> cache.get(7)).isInstanceOf(ResourceAccessException.class);
+  }
+
+  @Test
+  void put_evictsLeastRecentlyUsedEntry() {
+    properties.setMaxEntries(2);
+    when(quoteClient.fetchQuote(2)).thenReturn(quote(2, "reloaded"));
+
+    cache.put(quote(1, "one"));
+    cache.put(quote(2, "two"));
+    cache.get(1);
+    cache.put(quote(3, "three"));
+
+    assertThat(cache.size()).isEqualTo(2);
+    assertThat(cache.get(2).value().quote()).isEqualTo("reloaded");
+  }
+
+  static Quote quote(long id, String text) {
+    return new Quote("success", new Value(id, text));
+  }
+
+  static class MutableClock extends Clock {
+
+    private volatile Instant now;
+
+    MutableClock(Instant now) {
+      this.now = now;
+    }
+
+    void advance(Duration duration) {
+      now = now.plus(duration);
+    }
+
+    @Override
+    public ZoneId getZone() {
+      return ZoneOffset.UTC;
+    }
+
+    @Override
+    public Clock withZone(ZoneId zone) {
+      return this;
+    }
+
+    @Override
+    public Instant instant() {
+      return now;
+    }
+  }
+}
@@ -1,5 +1,6 @@
 package com.example.relational;
 
+import java.nio.file.Path;
 import java.util.List;
 import java.util.stream.Collectors;
 import java.util.stream.Stream;
@@ -8,9 +9,11 @@ import org.slf4j.LoggerFactory;
 import org.springframework.boot.CommandLineRunner;
 import org.springframework.boot.SpringApplication;
 import org.springframework.boot.autoconfigure.SpringBootApplication;
+import org.springframework.boot.context.properties.EnableConfigurationProperties;
 import org.springframework.jdbc.core.JdbcTemplate;
 
 @SpringBootApplication
+@EnableConfigurationProperties({CustomerBulkLoadProperties.class, CustomerStreamProperties.class})
 public class Application implements CommandLineRunner {
 
   private static final Logger log = LoggerFactory.getLogger(Application.class);
@@ -20,9 +23,28 @@ public class Application implements CommandLineRunner {
   }
 
   private final JdbcTemplate jdbcTemplate;
+  private final CustomerBulkLoader bulkLoader;
+  private final CustomerBulkLoadProperties bulkLoadProperties;
+  private final CustomerQueries customerQueries;
+  private final CustomerExporter customerExporter;
+  private final CustomerStreamProperties streamProperties;
+  private final CustomerSearchIndex searchIndex;
 
-  public Application(JdbcTemplate jdbcTemplate) {
+  public Application(
+      JdbcTemplate jdbcTemplate,
+      CustomerBulkLoader bulkLoader,
+      CustomerBulkLoadProperties bulkLoadProperties,
+      CustomerQueries customerQueries,
+      CustomerExporter customerExporter,
+      CustomerStreamProperties streamProperties,
+      CustomerSearchIndex searchIndex) {
     this.jdbcTemplate = jdbcTemplate;
+    this.bulkLoader = bulkLoader;
+    this.bulkLoadProperties = bulkLoadProperties;
+    this.customerQueries = customerQueries;
+    this.customerExporter = customerExporter;
+    this.streamProperties = streamProperties;
+    this.searchIndex = searchIndex;
   }
 
   @Override
@@ -33,6 +55,27 @@ public class Application implements CommandLineRunner {
     jdbcTemplate.execute(
         "CREATE TABLE customers(id SERIAL, first_name VARCHAR(255), last_name VARCHAR(255))");
 
+    if (bulkLoadProperties.getFile() != null) {
+      bulkLoader.load(Path.of(bulkLoadProperties.getFile()));
+    } else {
+      insertSampleCustomers();
+    }
+
+    log.info("Querying for customer records where first_name = 'Josh':");
+    customerQueries.forEachByFirstName("Josh", customer -> log.info(customer.toString()));
+
+    searchIndex.rebuild();
+    log.info("Searching the name index for 'Jsoh', allowing typos:");
+    searchIndex.fuzzySearch("Jsoh", 10).forEach(customer -> log.info(customer.toString()));
+
+    if (streamProperties.getExportFile() != null) {
+      Path exportFile = Path.of(streamProperties.getExportFile());
+      long rows = customerExporter.export(streamProperties.getExportFormat(), exportFile);
+      log.info("Exported {} customers to {}", rows, exportFile);
+    }
+  }
+
+  private void insertSampleCustomers() {
     // Split up names into an array of first/last names
     List<Object[]> splitUpNames =
         Stream.of("John Woo", "Jeff Dean", "Josh Bloch", "Josh Long")
@@ -45,15 +88,5 @@ public class Application implements CommandLineRunner {
     // Use JdbcTemplate's batchUpdate operation to bulk load data
     jdbcTemplate.batchUpdate(
         "INSERT INTO customers(first_name, last_name) VALUES (?,?)", splitUpNames);
-
-    log.info("Querying for customer records where first_name = 'Josh':");
-    jdbcTemplate
-        .query(
-            "SELECT id, first_name, last_name FROM customers WHERE first_name = ?",
-            (rs, rowNum) ->
-                new Customer(
-                    rs.getLong("id"), rs.getString("first_name"), rs.getString("last_name")),
-            "Josh")
-        .forEach(customer -> log.info(customer.toString()));
   }
 }
@@ -0,0 +1,59 @@
+package com.example.relational;
+
+import org.springframework.boot.context.properties.ConfigurationProperties;
+
+@ConfigurationProperties("customers.bulk-load")
+public class CustomerBulkLoadProperties {
+
+  // CSV file with one "first_name,last_name" row per line; the sample customers are used if unset.
+  private String file;
+
+  private int batchSize = 1000;
+
+  // Every worker inserts on its own connection, so keep this below the pool size.
+  private int workers = 4;
+
+  private int chunkSize = 1 << 20;
+
+  private long progressEvery = 100_000;
+
+  public String getFile() {
+    return file;
+  }
+
+  public void setFile(String file) {
+    this.file = file;
+  }
+
+  public int getBatchSize() {
+    return batchSize;
+  }
+
+  public void setBatchSize(int batchSize) {
+    this.batchSize = batchSize;
+  }
+
+  public int getWorkers() {
+    return workers;
+  }
+
+  public void setWorkers(int workers) {
+    this.workers = workers;
+  }
+
+  public int getChunkSize() {
+    return chunkSize;
+  }
+
+  public void setChunkSize(int chunkSize) {
+    this.chunkSize = chunkSize;
+  }
+
+  public long getProgressEvery() {
+    return progressEvery;
+  }
+
+  public void setProgressEvery(long progressEvery) {
+    this.progressEvery = progressEvery;
+  }
+}
@@ -0,0 +1,269 @@
+package com.example.relational;
+
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.sql.Connection;
+import java.sql.PreparedStatement;
+import java.sql.SQLException;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.AtomicReference;
+import javax.sql.DataSource;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.scheduling.concurrent.CustomizableThreadFactory;
+import org.springframework.stereotype.Component;
+
+@Component
+public class CustomerBulkLoader {
+
+  private static final Logger log = LoggerFactory.getLogger(CustomerBulkLoader.class);
+
+  private static final String INSERT_SQL =
+      "INSERT INTO customers(first_name, last_name) VALUES (?,?)";
+
+  private static final Batch END = new Batch(0);
+
+  private final DataSource dataSource;
+  private final CustomerBulkLoadProperties properties;
+
+  public CustomerBulkLoader(DataSource dataSource, CustomerBulkLoadProperties properties) {
+    this.dataSource = dataSource;
+    this.properties = properties;
+  }
+
+  /**
+   * Streams {@code file} into the customers table. The calling thread parses the file chunk by
+   * chunk and hands fixed-size batches to the workers, so memory stays bounded by the queue depth
+   * whatever the file size.
+   *
+   * <p>Rows are {@code first_name,last_name} with RFC 4180 quoting, e.g. {@code "Smith, Jr.",Bob};
+   * a quoted field can not span lines. Every worker commits after each batch, so the load is not
+   * atomic: when a row is malformed or a worker fails, the batches committed before that stay in
+   * the table. Load into an empty or staging table if that matters.
+   */
+  public LoadResult load(Path file) throws IOException {
+    int workers = properties.getWorkers();
+    BlockingQueue<Batch> queue = new ArrayBlockingQueue<>(workers * 2);
+    AtomicReference<Throwable> failure = new AtomicReference<>();
+    AtomicLong loaded = new AtomicLong();
+    long start = System.nanoTime();
+
+    ExecutorService pool =
+        Executors.newFixedThreadPool(workers, new CustomizableThreadFactory("customer-load-"));
+    try {
+      List<Future<?>> results = new ArrayList<>(workers);
+      for (int i = 0; i < workers; i++) {
+        results.add(pool.submit(() -> insertBatches(queue, failure, loaded, start)));
+      }
+      try {
+        parse(file, queue, failure);
+      } catch (IOException | RuntimeException e) {
+        failure.compareAndSet(null, e);
+        throw e;
+      } finally {
+        for (int i = 0; i < workers; i++) {
+          hand(queue, END, failure);
+        }
+        for (Future<?> result : results) {
+          result.get();
+        }
+      }
+    } catch (ExecutionException e) {
+      failure.compareAndSet(null, e.getCause());
+    } catch (InterruptedException e) {
+      Thread.currentThread().interrupt();
+      throw new IllegalStateException("Bulk load of " + file + " was interrupted", e);
+    } finally {
+      pool.shutdownNow();
+    }
+    if (failure.get() != null) {
+      throw new IllegalStateException("Bulk load of " + file + " failed", failure.get());
+    }
+
+    LoadResult result = new LoadResult(loaded.get(), Duration.ofNanos(System.nanoTime() - start));
+    log.info(
+        "Loaded {} customers from {} in {} ms ({} rows/s)",
+        result.rows(),
+        file,
+        result.elapsed().toMillis(),
+        Math.round(result.rowsPerSecond()));
+    return result;
+  }
+
+  private void parse(Path file, BlockingQueue<Batch> queue, AtomicReference<Throwable> failure)
+      throws IOException, InterruptedException {
+    int batchSize = properties.getBatchSize();
+    ByteBuffer buffer = ByteBuffer.allocate(properties.getChunkSize());
+    byte[] bytes = buffer.array();
+    Batch batch = new Batch(batchSize);
+    long line = 0;
+
+    try (FileChannel channel = FileChannel.open(file, StandardOpenOption.READ)) {
+      boolean eof = false;
+      while (!eof) {
+        eof = channel.read(buffer) == -1;
+        int end = buffer.position();
+        int lineStart = 0;
+        for (int i = 0; i < end; i++) {
+          if (bytes[i] == '\n') {
+            line++;
+            addRow(batch, bytes, lineStart, i, line);
+            lineStart = i + 1;
+            if (batch.size == batchSize) {
+              if (!hand(queue, batch, failure)) {
+                return;
+              }
+              batch = new Batch(batchSize);
+            }
+          }
+        }
+        if (eof && lineStart < end) {
+          addRow(batch, bytes, lineStart, end, ++line);
+          lineStart = end;
+        }
+
+        // Carry the unfinished last line over to the next read.
+        int remaining = end - lineStart;
+        if (!eof && remaining == bytes.length) {
+          throw new IllegalArgumentException(
+              "Line " + (line + 1) + " of " + file + " is longer than the read chunk");
+        }
+        System.arraycopy(bytes, lineStart, bytes, 0, remaining);
+        buffer.position(remaining);
+      }
+    }
+    if (batch.size > 0) {
+      hand(queue, batch, failure);
+    }
+  }
+
+  // Splits "first,last" by scanning bytes; no regex, and no intermediate String unless a field
+  // has escaped quotes.
+  private static void addRow(Batch batch, byte[] bytes, int from, int to, long line) {
+    if (to > from && bytes[to - 1] == '\r') {
+      to--;
+    }
+    if (to == from) {
+      return;
+    }
+    int comma = fieldEnd(bytes, from, to, line);
+    int end = comma < to && bytes[comma] == ',' ? fieldEnd(bytes, comma + 1, to, line) : -1;
+    if (end != to) {
+      throw new IllegalArgumentException("Line " + line + " is not 'first_name,last_name'");
+    }
+    batch.firstNames[batch.size] = field(bytes, from, comma);
+    batch.lastNames[batch.size] = field(bytes, comma + 1, to);
+    batch.size++;
+  }
+
+  // Index just past the field starting at from: its closing quote if quoted, else the next comma.
+  private static int fieldEnd(byte[] bytes, int from, int to, long line) {
+    if (from == to || bytes[from] != '"') {
+      int i = from;
+      while (i < to && bytes[i] != ',') {
+        i++;
+      }
+      return i;
+    }
+    for (int i = from + 1; i < to; i++) {
+      if (bytes[i] == '"') {
+        if (i + 1 < to && bytes[i + 1] == '"') {
+          i++;
+        } else {
+          return i + 1;
+        }
+      }
+    }
+    throw new IllegalArgumentException("Line " + line + " has an unterminated quoted field");
+  }
+
+  private static String field(byte[] bytes, int from, int to) {
+    if (from == to || bytes[from] != '"') {
+      return new String(bytes, from, to - from, StandardCharsets.UTF_8);
+    }
+    String value = new String(bytes, from + 1, to - from - 2, StandardCharsets.UTF_8);
+    return value.indexOf('"') < 0 ? value : value.replace("\"\"", "\"");
+  }
+
+  // Blocks while the workers are behind, but gives up as soon as one side has failed.
+  private static boolean hand(
+      BlockingQueue<Batch> queue, Batch batch, AtomicReference<Throwable> failure)
+      throws InterruptedException {
+    while (!queue.offer(batch, 100, TimeUnit.MILLISECONDS)) {
+      if (failure.get() != null) {
+        return false;
+      }
+    }
+    return true;
+  }
+
+  private Void insertBatches(
+      BlockingQueue<Batch> queue, AtomicReference<Throwable> failure, AtomicLong loaded, long start)
+      throws SQLException, InterruptedException {
+    long progressEvery = properties.getProgressEvery();
+    try (Connection connection = dataSource.getConnection();
+        PreparedStatement insert = connection.prepareStatement(INSERT_SQL)) {
+      connection.setAutoCommit(false);
+      while (failure.get() == null) {
+        Batch batch = queue.poll(100, TimeUnit.MILLISECONDS);
+        if (batch == END) {
+          break;
+        }
+        if (batch == null) {
+          continue;
+        }
+        for (int i = 0; i < batch.size; i++) {
+          insert.setString(1, batch.firstNames[i]);
+          insert.setString(2, batch.lastNames[i]);
+          insert.addBatch();
+        }
+        insert.executeBatch();
+        connection.commit();
+
+        long total = loaded.addAndGet(batch.size);
+        if (total / progressEvery != (total - batch.size) / progressEvery) {
+          double seconds = (System.nanoTime() - start) / 1e9;
+          log.info("Loaded {} customers ({} rows/s)", total, Math.round(total / seconds));
+        }
+      }
+    } catch (SQLException | RuntimeException e) {
+      failure.compareAndSet(null, e);
+      throw e;
+    }
+    return null;
+  }
+
+  public record LoadResult(long rows, Duration elapsed) {
+
+    public double rowsPerSecond() {
+      double seconds = elapsed.toNanos() / 1e9;
+      return seconds == 0 ? rows : rows / seconds;
+    }
+  }
+
+  private static final class Batch {
+
+    private final String[] firstNames;
+    private final String[] lastNames;
+    private int size;
+
+    private Batch(int capacity) {
+      this.firstNames = new String[capacity];
+      this.lastNames = new String[capacity];
+    }
+  }
+}
@@ -0,0 +1,131 @@
+package com.example.relational;
+
+import java.io.BufferedWriter;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.io.OutputStreamWriter;
+import java.io.UncheckedIOException;
+import java.io.Writer;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import org.springframework.stereotype.Component;
+
+/**
+ * Writes customers as CSV or newline-delimited JSON while the query is still running. Only one row
+ * and the writer's buffer are in memory at any time.
+ */
+@Component
+public class CustomerExporter {
+
+  public enum Format {
+    CSV,
+    NDJSON
+  }
+
+  private static final int BUFFER_SIZE = 64 * 1024;
+
+  private final CustomerQueries queries;
+
+  public CustomerExporter(CustomerQueries queries) {
+    this.queries = queries;
+  }
+
+  public long export(Format format, Path file) throws IOException {
+    try (OutputStream out = Files.newOutputStream(file)) {
+      return export(format, null, out);
+    }
+  }
+
+  /**
+   * Exports all customers, or only those with {@code firstName} if it is not null, to {@code out}.
+   * The stream is flushed but not closed, so it can be an HTTP response body.
+   */
+  public long export(Format format, String firstName, OutputStream out) throws IOException {
+    Writer writer =
+        new BufferedWriter(new OutputStreamWriter(out, StandardCharsets.UTF_8), BUFFER_SIZE);
+    if (format == Format.CSV) {
+      writer.write("id,first_name,last_name\n");
+    }
+
+    long rows;
+    try {
+      rows =
+          firstName == null
+              ? queries.forEach(customer -> write(format, customer, writer))
+              : queries.forEachByFirstName(firstName, customer -> write(format, customer, writer));
+    } catch (UncheckedIOException e) {
+      throw e.getCause();
+    }
+    writer.flush();
+    return rows;
+  }
+
+  private static void write(Format format, Customer customer, Writer writer) {
+    try {
+      if (format == Format.CSV) {
+        writer.write(Long.toString(customer.id()));
+        writer.write(',');
+        writeCsvField(customer.firstName(), writer);
+        writer.write(',');
+        writeCsvField(customer.lastName(), writer);
+      } else {
+        writer.write("{\"id\":");
+        writer.write(Long.toString(customer.id()));
+        writer.write(",\"firstName\":");
+        writeJsonString(customer.firstName(), writer);
+        writer.write(",\"lastName\":");
+        writeJsonString(customer.lastName(), writer);
+        writer.write('}');
+      }
+      writer.write('\n');
+    } catch (IOException e) {
+      throw new UncheckedIOException(e);
+    }
+  }
+
+  // RFC 4180: quote only fields that contain a separator, quote or line break.
+  private static void writeCsvField(String value, Writer writer) throws IOException {
+    if (value == null) {
+      return;
+    }
+    boolean quote = false;
+    for (int i = 0; i < value.length() && !quote; i++) {
+      char c = value.charAt(i);
+      quote = c == ',' || c == '"' || c == '\n' || c == '\r';
+    }
+    if (!quote) {
+      writer.write(value);
+      return;
+    }
+    writer.write('"');
+    writer.write(value.replace("\"", "\"\""));
+    writer.write('"');
+  }
+
+  private static void writeJsonString(String value, Writer writer) throws IOException {
+    if (value == null) {
+      writer.write("null");
+      return;
+    }
+    writer.write('"');
+    for (int i = 0; i < value.length(); i++) {
+      char c = value.charAt(i);
+      switch (c) {
+        case '"' -> writer.write("\\\"");
+        case '\\' -> writer.write("\\\\");
+        case '\n' -> writer.write("\\n");
+        case '\r' -> writer.write("\\r");
+        case '\t' -> writer.write("\\t");
+        default -> {
+          if (c < 0x20) {
+            writer.write(String.format("\\u%04x", (int) c));
+          } else {
+            writer.write(c);
+          }
+        }
+      }
+    }
+    writer.write('"');
+  }
+}
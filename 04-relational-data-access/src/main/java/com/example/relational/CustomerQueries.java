@@ -0,0 +1,68 @@
+package com.example.relational;
+
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.util.function.Consumer;
+import java.util.stream.Stream;
+import javax.sql.DataSource;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.jdbc.core.RowMapper;
+import org.springframework.stereotype.Component;
+
+/**
+ * Customer queries that hand rows over one at a time instead of collecting them into a list, so
+ * memory use does not grow with the size of the result.
+ */
+@Component
+public class CustomerQueries {
+
+  private static final String SELECT_ALL = "SELECT id, first_name, last_name FROM customers";
+  private static final String SELECT_BY_FIRST_NAME = SELECT_ALL + " WHERE first_name = ?";
+
+  static final RowMapper<Customer> CUSTOMER_MAPPER = (rs, rowNum) -> customer(rs);
+
+  private final JdbcTemplate jdbcTemplate;
+
+  public CustomerQueries(DataSource dataSource, CustomerStreamProperties properties) {
+    // A template of our own, so the fetch size does not leak into every other query.
+    this.jdbcTemplate = new JdbcTemplate(dataSource);
+    this.jdbcTemplate.setFetchSize(properties.getFetchSize());
+  }
+
+  /** Calls {@code action} for every customer and returns how many there were. */
+  public long forEach(Consumer<Customer> action) {
+    return query(SELECT_ALL, action);
+  }
+
+  public long forEachByFirstName(String firstName, Consumer<Customer> action) {
+    return query(SELECT_BY_FIRST_NAME, action, firstName);
+  }
+
+  /**
+   * Lazily streams the customers with the given first name. The stream holds an open connection
+   * and must be closed, preferably with try-with-resources.
+   */
+  public Stream<Customer> streamByFirstName(String firstName) {
+    return jdbcTemplate.queryForStream(SELECT_BY_FIRST_NAME, CUSTOMER_MAPPER, firstName);
+  }
+
+  public Stream<Customer> streamAll() {
+    return jdbcTemplate.queryForStream(SELECT_ALL, CUSTOMER_MAPPER);
+  }
+
+  private long query(String sql, Consumer<Customer> action, Object... args) {
+    long[] rows = new long[1];
+    jdbcTemplate.query(
+        sql,
+        rs -> {
+          action.accept(customer(rs));
+          rows[0]++;
+        },
+        args);
+    return rows[0];
+  }
+
+  private static Customer customer(ResultSet rs) throws SQLException {
+    return new Customer(rs.getLong("id"), rs.getString("first_name"), rs.getString("last_name"));
+  }
+}
@@ -0,0 +1,343 @@
+package com.example.relational;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.Set;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.stereotype.Component;
+
+/**
+ * In-memory trigram index over customer first and last names, for prefix, substring and
+ * typo-tolerant search.
+ *
+ * <p>Names are lower-cased into terms and each distinct term is stored once. Trigrams map to
+ * posting lists of term ids and terms map to posting lists of customer slots, all as plain int
+ * arrays. A query is answered at term level first, so its cost depends on the vocabulary rather
+ * than on how many customers share a popular name.
+ *
+ * <p>The index is rebuilt as a whole from the customers table and published when complete, so
+ * searches never wait for a rebuild and always see one complete snapshot.
+ */
+@Component
+public class CustomerSearchIndex {
+
+  private static final Logger log = LoggerFactory.getLogger(CustomerSearchIndex.class);
+
+  private static final int N = 3;
+  private static final String START = "^".repeat(N - 1);
+  private static final char END = '$';
+
+  private final CustomerQueries queries;
+  private volatile Index index = new Index();
+
+  // Per-thread scratch for fuzzy search, so counting grams does not allocate per query.
+  private final ThreadLocal<int[]> gramCounts = ThreadLocal.withInitial(() -> new int[0]);
+
+  public CustomerSearchIndex(CustomerQueries queries) {
+    this.queries = queries;
+  }
+
+  /**
+   * Replaces the index contents with a streaming scan of the customers table. Searches keep using
+   * the previous contents until the scan is complete.
+   */
+  public void rebuild() {
+    long start = System.nanoTime();
+    Index rebuilt = new Index();
+    queries.forEach(rebuilt::add);
+    index = rebuilt;
+    log.info(
+        "Indexed {} customers ({} distinct names) in {} ms",
+        rebuilt.customerCount,
+        rebuilt.terms.size(),
+        (System.nanoTime() - start) / 1_000_000);
+  }
+
+  public int size() {
+    return index.customerCount;
+  }
+
+  /** Customers whose first or last name starts with {@code query}, ignoring case. */
+  public List<Customer> prefixSearch(String query, int limit) {
+    String q = normalize(query);
+    if (q.isEmpty()) {
+      return List.of();
+    }
+    Index current = index;
+    return current.collect(
+        current.postingLists(grams(START + q)),
+        term -> current.terms.get(term).startsWith(q),
+        limit);
+  }
+
+  /** Customers whose first or last name contains {@code query}, ignoring case. */
+  public List<Customer> substringSearch(String query, int limit) {
+    String q = normalize(query);
+    if (q.isEmpty()) {
+      return List.of();
+    }
+    Index current = index;
+    if (q.length() < N) {
+      // Too short to have a trigram of its own; checking the vocabulary is still cheap.
+      return current.collect(
+          current.allTerms(), term -> current.terms.get(term).contains(q), limit);
+    }
+    return current.collect(
+        current.postingLists(grams(q)), term -> current.terms.get(term).contains(q), limit);
+  }
+
+  /**
+   * Customers whose first or last name is within one edit of {@code query} (two for queries longer
+   * than eight characters), closest first. Insertions, deletions, substitutions and transpositions
+   * of adjacent characters each count as one edit.
+   */
+  public List<Customer> fuzzySearch(String query, int limit) {
+    String q = normalize(query);
+    if (q.isEmpty()) {
+      return List.of();
+    }
+    int maxEdits = q.length() <= 2 ? 0 : q.length() <= 8 ? 1 : 2;
+    Index current = index;
+
+    List<String> queryGrams = grams(START + q + END);
+    // One edit destroys at most N + 1 grams (a transposition), so closer terms share at least
+    // this many with the query. Short queries fall back to sharing any gram at all.
+    int minShared = Math.max(1, queryGrams.size() - (N + 1) * maxEdits);
+
+    List<IntList> lists = new ArrayList<>(queryGrams.size());
+    for (String gram : queryGrams) {
+      lists.add(current.gramTerms.getOrDefault(gram, new IntList(0)));
+    }
+    lists.sort(Comparator.comparingInt(IntList::size));
+
+    int[] counts = gramCounts.get();
+    if (counts.length < current.terms.size()) {
+      counts = new int[current.terms.size() + (current.terms.size() >> 1)];
+      gramCounts.set(counts);
+    }
+    // A term sharing minShared grams must appear in at least one of the rarest
+    // size - minShared + 1 lists, so only those produce candidates; the common grams are
+    // merely looked up for the candidates found.
+    int generators = lists.size() - minShared + 1;
+    IntList touched = new IntList();
+    for (int l = 0; l < generators; l++) {
+      IntList postings = lists.get(l);
+      for (int i = 0; i < postings.size(); i++) {
+        int term = postings.get(i);
+        if (counts[term]++ == 0) {
+          touched.add(term);
+        }
+      }
+    }
+    // Cheap filters first: candidates of the wrong length, or that can no longer reach
+    // minShared, never get looked up in the remaining lists or verified.
+    IntList viable = new IntList();
+    for (int i = 0; i < touched.size(); i++) {
+      int term = touched.get(i);
+      if (Math.abs(current.terms.get(term).length() - q.length()) <= maxEdits) {
+        viable.add(term);
+      } else {
+        counts[term] = 0;
+      }
+    }
+    for (int l = generators; l < lists.size(); l++) {
+      IntList postings = lists.get(l);
+      int listsLeft = lists.size() - l;
+      for (int i = 0; i < viable.size(); i++) {
+        int term = viable.get(i);
+        if (counts[term] + listsLeft >= minShared && postings.containsSorted(term)) {
+          counts[term]++;
+        }
+      }
+    }
+
+    List<int[]> matches = new ArrayList<>();
+    for (int i = 0; i < viable.size(); i++) {
+      int term = viable.get(i);
+      if (counts[term] >= minShared) {
+        int distance = editDistance(q, current.terms.get(term), maxEdits);
+        if (distance <= maxEdits) {
+          matches.add(new int[] {distance, term});
+        }
+      }
+      counts[term] = 0;
+    }
+    matches.sort(
+        Comparator.<int[]>comparingInt(m -> m[0]).thenComparing(m -> current.terms.get(m[1])));
+
+    IntList ordered = new IntList(matches.size());
+    matches.forEach(m -> ordered.add(m[1]));
+    return current.collect(ordered, term -> true, limit);
+  }
+
+  private static boolean inAll(List<IntList> postingLists, int term) {
+    for (int l = 1; l < postingLists.size(); l++) {
+      if (!postingLists.get(l).containsSorted(term)) {
+        return false;
+      }
+    }
+    return true;
+  }
+
+  private static List<String> grams(String text) {
+    List<String> grams = new ArrayList<>(Math.max(0, text.length() - N + 1));
+    for (int i = 0; i + N <= text.length(); i++) {
+      String gram = text.substring(i, i + N);
+      if (!grams.contains(gram)) {
+        grams.add(gram);
+      }
+    }
+    return grams;
+  }
+
+  private static String normalize(String name) {
+    return name == null ? "" : name.strip().toLowerCase(Locale.ROOT);
+  }
+
+  // Optimal string alignment distance, giving up once every alignment exceeds max.
+  static int editDistance(String a, String b, int max) {
+    if (Math.abs(a.length() - b.length()) > max) {
+      return max + 1;
+    }
+    int[] previous2 = new int[b.length() + 1];
+    int[] previous = new int[b.length() + 1];
+    int[] current = new int[b.length() + 1];
+    for (int j = 0; j <= b.length(); j++) {
+      previous[j] = j;
+    }
+    for (int i = 1; i <= a.length(); i++) {
+      current[0] = i;
+      int rowMin = current[0];
+      for (int j = 1; j <= b.length(); j++) {
+        int cost = a.charAt(i - 1) == b.charAt(j - 1) ? 0 : 1;
+        int value = Math.min(Math.min(previous[j] + 1, current[j - 1] + 1), previous[j - 1] + cost);
+        if (i > 1
+            && j > 1
+            && a.charAt(i - 1) == b.charAt(j - 2)
+            && a.charAt(i - 2) == b.charAt(j - 1)) {
+          value = Math.min(value, previous2[j - 2] + 1);
+        }
+        current[j] = value;
+        rowMin = Math.min(rowMin, value);
+      }
+      if (rowMin > max) {
+        return max + 1;
+      }
+      int[] recycled = previous2;
+      previous2 = previous;
+      previous = current;
+      current = recycled;
+    }
+    return previous[b.length()];
+  }
+
+  // One complete index. Filled by a single thread and never changed once published.
+  private static final class Index {
+
+    private final Map<String, Integer> termIds = new HashMap<>();
+    private final List<String> terms = new ArrayList<>();
+    private final List<IntList> termSlots = new ArrayList<>();
+    private final Map<String, IntList> gramTerms = new HashMap<>();
+    private long[] customerIds = new long[1024];
+    private int customerCount;
+    private final List<String> firstNames = new ArrayList<>();
+    private final List<String> lastNames = new ArrayList<>();
+
+    void add(Customer customer) {
+      int slot = customerCount++;
+      if (slot == customerIds.length) {
+        customerIds = Arrays.copyOf(customerIds, slot + (slot >> 1));
+      }
+      customerIds[slot] = customer.id();
+      firstNames.add(customer.firstName());
+      lastNames.add(customer.lastName());
+      indexTerm(normalize(customer.firstName()), slot);
+      indexTerm(normalize(customer.lastName()), slot);
+    }
+
+    private void indexTerm(String term, int slot) {
+      if (term.isEmpty()) {
+        return;
+      }
+      Integer id = termIds.get(term);
+      if (id == null) {
+        id = terms.size();
+        termIds.put(term, id);
+        terms.add(term);
+        termSlots.add(new IntList(1));
+        for (String gram : grams(START + term + END)) {
+          IntList postings = gramTerms.computeIfAbsent(gram, g -> new IntList(1));
+          // Term ids only grow, so a repeated gram within one term is always the last entry.
+          if (postings.isEmpty() || postings.last() != id) {
+            postings.add(id);
+          }
+        }
+      }
+      IntList slots = termSlots.get(id);
+      // Same first and last name ("Lee Lee") would otherwise list the customer twice.
+      if (slots.isEmpty() || slots.last() != slot) {
+        slots.add(slot);
+      }
+    }
+
+    // Posting lists of every gram, smallest first; empty if some gram does not occur at all.
+    private List<IntList> postingLists(List<String> grams) {
+      List<IntList> lists = new ArrayList<>(grams.size());
+      for (String gram : grams) {
+        IntList postings = gramTerms.get(gram);
+        if (postings == null) {
+          return List.of(new IntList(0));
+        }
+        lists.add(postings);
+      }
+      lists.sort(Comparator.comparingInt(IntList::size));
+      return lists;
+    }
+
+    private IntList allTerms() {
+      IntList all = new IntList(terms.size());
+      for (int i = 0; i < terms.size(); i++) {
+        all.add(i);
+      }
+      return all;
+    }
+
+    private List<Customer> collect(IntList candidateTerms, TermFilter filter, int limit) {
+      return collect(List.of(candidateTerms), filter, limit);
+    }
+
+    // Walks the first list and keeps terms found in all the others, stopping once limit customers
+    // are found, so popular grams never get intersected in full.
+    private List<Customer> collect(List<IntList> postingLists, TermFilter filter, int limit) {
+      IntList candidateTerms = postingLists.get(0);
+      Set<Integer> slots = new LinkedHashSet<>();
+      for (int i = 0; i < candidateTerms.size() && slots.size() < limit; i++) {
+        int term = candidateTerms.get(i);
+        if (!inAll(postingLists, term) || !filter.matches(term)) {
+          continue;
+        }
+        IntList termCustomers = termSlots.get(term);
+        for (int j = 0; j < termCustomers.size() && slots.size() < limit; j++) {
+          slots.add(termCustomers.get(j));
+        }
+      }
+
+      List<Customer> customers = new ArrayList<>(slots.size());
+      for (int slot : slots) {
+        customers.add(new Customer(customerIds[slot], firstNames.get(slot), lastNames.get(slot)));
+      }
+      return customers;
+    }
+  }
+
+  private interface TermFilter {
+    boolean matches(int term);
+  }
+}
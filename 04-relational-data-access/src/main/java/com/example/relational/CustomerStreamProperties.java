@@ -0,0 +1,39 @@
+package com.example.relational;
+
+import org.springframework.boot.context.properties.ConfigurationProperties;
+
+@ConfigurationProperties("customers.stream")
+public class CustomerStreamProperties {
+
+  // Rows the driver fetches per round trip; PostgreSQL only honours it with autocommit off.
+  private int fetchSize = 1000;
+
+  // If set, all customers are exported to this file after loading.
+  private String exportFile;
+
+  private CustomerExporter.Format exportFormat = CustomerExporter.Format.CSV;
+
+  public int getFetchSize() {
+    return fetchSize;
+  }
+
+  public void setFetchSize(int fetchSize) {
+    this.fetchSize = fetchSize;
+  }
+
+  public String getExportFile() {
+    return exportFile;
+  }
+
+  public void setExportFile(String exportFile) {
+    this.exportFile = exportFile;
+  }
+
+  public CustomerExporter.Format getExportFormat() {
+    return exportFormat;
+  }
+
+  public void setExportFormat(CustomerExporter.Format exportFormat) {
+    this.exportFormat = exportFormat;
+  }
+}
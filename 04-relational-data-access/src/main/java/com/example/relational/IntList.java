@@ -0,0 +1,45 @@
+package com.example.relational;
+
+import java.util.Arrays;
+
+// Growable int[] without boxing; posting lists stay sorted because ids are only ever appended.
+final class IntList {
+
+  private int[] values;
+  private int size;
+
+  IntList() {
+    this(4);
+  }
+
+  IntList(int capacity) {
+    this.values = new int[capacity];
+  }
+
+  void add(int value) {
+    if (size == values.length) {
+      values = Arrays.copyOf(values, Math.max(4, size + (size >> 1)));
+    }
+    values[size++] = value;
+  }
+
+  int get(int index) {
+    return values[index];
+  }
+
+  int size() {
+    return size;
+  }
+
+  int last() {
+    return values[size - 1];
+  }
+
+  boolean isEmpty() {
+    return size == 0;
+  }
+
+  boolean containsSorted(int value) {
+    return Arrays.binarySearch(values, 0, size, value) >= 0;
+  }
+}
@@ -0,0 +1,60 @@
+package com.example.relational;
+
+import java.io.BufferedWriter;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.Locale;
+import org.h2.jdbcx.JdbcDataSource;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.util.FileSystemUtils;
+
+/**
+ * Loads a generated CSV into a file-backed H2 table with 1, 2, 4 and 8 workers and reports the
+ * rows per second of each. The row count is the first argument and defaults to 1M.
+ */
+public class CustomerBulkLoadBenchmark {
+
+  public static void main(String[] args) throws Exception {
+    int rows = args.length > 0 ? Integer.parseInt(args[0]) : 1_000_000;
+    Path dir = Files.createTempDirectory("customer-bulk-load");
+    try {
+      JdbcDataSource dataSource = new JdbcDataSource();
+      dataSource.setURL("jdbc:h2:file:" + dir.resolve("db"));
+      dataSource.setUser("sa");
+      JdbcTemplate jdbcTemplate = new JdbcTemplate(dataSource);
+      jdbcTemplate.execute(
+          "CREATE TABLE customers(id SERIAL, first_name VARCHAR(255), last_name VARCHAR(255))");
+
+      Path csv = dir.resolve("customers.csv");
+      try (BufferedWriter writer = Files.newBufferedWriter(csv, StandardCharsets.UTF_8)) {
+        for (int i = 0; i < rows; i++) {
+          writer.write("First" + i + ",Last" + i + "\n");
+        }
+      }
+
+      for (int workers : new int[] {1, 2, 4, 8}) {
+        jdbcTemplate.execute("TRUNCATE TABLE customers");
+        CustomerBulkLoadProperties properties = new CustomerBulkLoadProperties();
+        properties.setWorkers(workers);
+        properties.setProgressEvery(Long.MAX_VALUE);
+
+        CustomerBulkLoader.LoadResult result =
+            new CustomerBulkLoader(dataSource, properties).load(csv);
+
+        long count = jdbcTemplate.queryForObject("SELECT count(*) FROM customers", Long.class);
+        if (count != rows) {
+          throw new IllegalStateException("Loaded " + count + " of " + rows + " rows");
+        }
+        System.out.printf(
+            Locale.ROOT,
+            "%d workers  %,8d ms  %,12.0f rows/s%n",
+            workers,
+            result.elapsed().toMillis(),
+            result.rowsPerSecond());
+      }
+    } finally {
+      FileSystemUtils.deleteRecursively(dir);
+    }
+  }
+}
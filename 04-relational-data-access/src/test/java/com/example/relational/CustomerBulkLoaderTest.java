@@ -0,0 +1,136 @@
+package com.example.relational;
+
+import java.io.BufferedWriter;
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.List;
+import java.util.Map;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.jdbc.datasource.embedded.EmbeddedDatabase;
+import org.springframework.jdbc.datasource.embedded.EmbeddedDatabaseBuilder;
+import org.springframework.jdbc.datasource.embedded.EmbeddedDatabaseType;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+
+class CustomerBulkLoaderTest {
+
+  @TempDir Path tempDir;
+
+  private EmbeddedDatabase database;
+  private JdbcTemplate jdbcTemplate;
+  private CustomerBulkLoadProperties properties;
+
+  @BeforeEach
+  void setUp() {
+    database =
+        new EmbeddedDatabaseBuilder()
+            .setType(EmbeddedDatabaseType.H2)
+            .generateUniqueName(true)
+            .build();
+    jdbcTemplate = new JdbcTemplate(database);
+    jdbcTemplate.execute(
+        "CREATE TABLE customers(id SERIAL, first_name VARCHAR(255), last_name VARCHAR(255))");
+    properties = new CustomerBulkLoadProperties();
+  }
+
+  @AfterEach
+  void tearDown() {
+    database.shutdown();
+  }
+
+  @Test
+  void load_streamsManyBatchesThroughAllWorkers() throws IOException {
+    properties.setChunkSize(4096);
+    properties.setBatchSize(100);
+    Path file = tempDir.resolve("customers.csv");
+    try (BufferedWriter writer = Files.newBufferedWriter(file, StandardCharsets.UTF_8)) {
+      for (int i = 0; i < 10_000; i++) {
+        writer.write("First" + i + ",Last" + i + "\n");
+      }
+    }
+
+    CustomerBulkLoader.LoadResult result = new CustomerBulkLoader(database, properties).load(file);
+
+    assertThat(result.rows()).isEqualTo(10_000);
+    assertThat(result.rowsPerSecond()).isPositive();
+    assertThat(jdbcTemplate.queryForObject("SELECT count(*) FROM customers", Long.class))
+        .isEqualTo(10_000);
+    assertThat(
+            jdbcTemplate.queryForObject(
+                "SELECT last_name FROM customers WHERE first_name = 'First9999'", String.class))
+        .isEqualTo("Last9999");
+  }
+
+  @Test
+  void load_unquotesQuotedFields() throws IOException {
+    Path file = tempDir.resolve("customers.csv");
+    Files.writeString(file, "\"Smith, Jr.\",Bob\nJosh,\"\"\"Duke\"\" Bloch\"\n\"\",Long\n");
+
+    new CustomerBulkLoader(database, properties).load(file);
+
+    List<Map<String, Object>> rows =
+        jdbcTemplate.queryForList("SELECT first_name, last_name FROM customers ORDER BY id");
+    assertThat(rows)
+        .extracting(row -> row.get("FIRST_NAME") + "|" + row.get("LAST_NAME"))
+        .containsExactly("Smith, Jr.|Bob", "Josh|\"Duke\" Bloch", "|Long");
+  }
+
+  @Test
+  void load_rejectsUnterminatedOrMisplacedQuotes() throws IOException {
+    Path file = tempDir.resolve("customers.csv");
+    for (String row : new String[] {"\"Smith, Jr.,Bob", "\"Smith\" Jr.,Bob", "Josh,Bloch,Long"}) {
+      Files.writeString(file, "John,Woo\n" + row + "\n");
+
+      assertThatThrownBy(() -> new CustomerBulkLoader(database, properties).load(file))
+          .as(row)
+          .isInstanceOf(IllegalArgumentException.class)
+          .hasMessageContaining("Line 2");
+    }
+  }
+
+  @Test
+  void load_handlesLinesSplitAcrossChunks() throws IOException {
+    properties.setChunkSize(16);
+    properties.setBatchSize(2);
+    Path file = tempDir.resolve("customers.csv");
+    Files.writeString(file, "John,Woo\r\nJeff,Dean\n\nJosh,Bloch\r\nJosh,Long");
+
+    CustomerBulkLoader.LoadResult result = new CustomerBulkLoader(database, properties).load(file);
+
+    assertThat(result.rows()).isEqualTo(4);
+    List<Map<String, Object>> rows =
+        jdbcTemplate.queryForList(
+            "SELECT first_name, last_name FROM customers ORDER BY first_name, last_name");
+    assertThat(rows)
+        .extracting(row -> row.get("FIRST_NAME") + " " + row.get("LAST_NAME"))
+        .containsExactly("Jeff Dean", "John Woo", "Josh Bloch", "Josh Long");
+  }
+
+  @Test
+  void load_rejectsMalformedRow() throws IOException {
+    Path file = tempDir.resolve("customers.csv");
+    Files.writeString(file, "John,Woo\nJeff Dean\n");
+
+    assertThatThrownBy(() -> new CustomerBulkLoader(database, properties).load(file))
+        .isInstanceOf(IllegalArgumentException.class)
+        .hasMessageContaining("Line 2");
+  }
+
+  @Test
+  void load_rejectsLineLongerThanChunk() throws IOException {
+    properties.setChunkSize(8);
+    Path file = tempDir.resolve("customers.csv");
+    Files.writeString(file, "Josh,Bloch-Long-Name\n");
+
+    assertThatThrownBy(() -> new CustomerBulkLoader(database, properties).load(file))
+        .isInstanceOf(IllegalArgumentException.class)
+        .hasMessageContaining("longer than the read chunk");
+  }
+}
@@ -0,0 +1,89 @@
+package com.example.relational;
+
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.List;
+import java.util.stream.Stream;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.jdbc.datasource.embedded.EmbeddedDatabase;
+import org.springframework.jdbc.datasource.embedded.EmbeddedDatabaseBuilder;
+import org.springframework.jdbc.datasource.embedded.EmbeddedDatabaseType;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+class CustomerExporterTest {
+
+  @TempDir Path tempDir;
+
+  private EmbeddedDatabase database;
+  private CustomerQueries queries;
+  private CustomerExporter exporter;
+
+  @BeforeEach
+  void setUp() {
+    database =
+        new EmbeddedDatabaseBuilder()
+            .setType(EmbeddedDatabaseType.H2)
+            .generateUniqueName(true)
+            .build();
+    JdbcTemplate jdbcTemplate = new JdbcTemplate(database);
+    jdbcTemplate.execute(
+        "CREATE TABLE customers(id SERIAL, first_name VARCHAR(255), last_name VARCHAR(255))");
+    jdbcTemplate.batchUpdate(
+        "INSERT INTO customers(first_name, last_name) VALUES (?,?)",
+        List.of(
+            new Object[] {"Josh", "Bloch"},
+            new Object[] {"Josh", "Long, Jr."},
+            new Object[] {"Jeff", "\"Dean\""}));
+
+    CustomerStreamProperties properties = new CustomerStreamProperties();
+    properties.setFetchSize(2);
+    queries = new CustomerQueries(database, properties);
+    exporter = new CustomerExporter(queries);
+  }
+
+  @AfterEach
+  void tearDown() {
+    database.shutdown();
+  }
+
+  @Test
+  void streamByFirstName_returnsMatchingCustomers() {
+    try (Stream<Customer> customers = queries.streamByFirstName("Josh")) {
+      assertThat(customers.map(Customer::lastName)).containsExactly("Bloch", "Long, Jr.");
+    }
+  }
+
+  @Test
+  void export_writesQuotedCsv() throws IOException {
+    Path file = tempDir.resolve("customers.csv");
+
+    long rows = exporter.export(CustomerExporter.Format.CSV, file);
+
+    assertThat(rows).isEqualTo(3);
+    assertThat(Files.readAllLines(file))
+        .containsExactly(
+            "id,first_name,last_name",
+            "1,Josh,Bloch",
+            "2,Josh,\"Long, Jr.\"",
+            "3,Jeff,\"\"\"Dean\"\"\"");
+  }
+
+  @Test
+  void export_writesNdjsonForFirstName() throws IOException {
+    ByteArrayOutputStream out = new ByteArrayOutputStream();
+
+    long rows = exporter.export(CustomerExporter.Format.NDJSON, "Jeff", out);
+
+    assertThat(rows).isEqualTo(1);
+    assertThat(out.toString(StandardCharsets.UTF_8))
+        .isEqualTo("{\"id\":3,\"firstName\":\"Jeff\",\"lastName\":\"\\\"Dean\\\"\"}\n");
+  }
+}
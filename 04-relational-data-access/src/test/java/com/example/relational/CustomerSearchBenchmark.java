@@ -0,0 +1,128 @@
+package com.example.relational;
+
+import java.io.BufferedWriter;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.Locale;
+import java.util.Random;
+import java.util.function.Function;
+import org.h2.jdbcx.JdbcDataSource;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.util.FileSystemUtils;
+
+/**
+ * Compares CustomerSearchIndex with SQL {@code LIKE} on a file-backed H2 table of generated names.
+ * The row count is the first argument and defaults to 1M.
+ */
+public class CustomerSearchBenchmark {
+
+  private static final String[] SYLLABLES = {
+    "an", "bel", "car", "da", "el", "fer", "gan", "ha", "is", "jo", "ka", "li", "mar", "na", "o",
+    "pe", "qui", "ro", "sa", "ta", "u", "vi", "wen", "xa", "yo", "zu", "ber", "chen", "dor", "fi"
+  };
+  private static final int LIMIT = 20;
+  private static final int QUERIES = 500;
+
+  public static void main(String[] args) throws Exception {
+    int rows = args.length > 0 ? Integer.parseInt(args[0]) : 1_000_000;
+    Random random = new Random(42);
+    Path dir = Files.createTempDirectory("customer-search");
+    try {
+      JdbcDataSource dataSource = new JdbcDataSource();
+      dataSource.setURL("jdbc:h2:file:" + dir.resolve("db"));
+      dataSource.setUser("sa");
+      JdbcTemplate jdbcTemplate = new JdbcTemplate(dataSource);
+      jdbcTemplate.execute(
+          "CREATE TABLE customers(id SERIAL, first_name VARCHAR(255), last_name VARCHAR(255))");
+
+      List<String> sampleNames = new ArrayList<>();
+      Path csv = dir.resolve("customers.csv");
+      try (BufferedWriter writer = Files.newBufferedWriter(csv, StandardCharsets.UTF_8)) {
+        for (int i = 0; i < rows; i++) {
+          String first = name(random, 2);
+          String last = name(random, 3);
+          writer.write(first + "," + last + "\n");
+          String sample = random.nextBoolean() ? first : last;
+          if (i % (rows / QUERIES) == 0 && sample.length() >= 5) {
+            sampleNames.add(sample);
+          }
+        }
+      }
+      new CustomerBulkLoader(dataSource, new CustomerBulkLoadProperties()).load(csv);
+
+      CustomerSearchIndex index =
+          new CustomerSearchIndex(new CustomerQueries(dataSource, new CustomerStreamProperties()));
+      index.rebuild();
+
+      List<String> prefixes =
+          sampleNames.stream().map(n -> n.substring(0, 3).toLowerCase(Locale.ROOT)).toList();
+      List<String> substrings = sampleNames.stream().map(n -> n.substring(1, 4)).toList();
+      List<String> typos = sampleNames.stream().map(n -> transpose(n, random)).toList();
+
+      String like =
+          "SELECT id, first_name, last_name FROM customers"
+              + " WHERE LOWER(first_name) LIKE ? OR LOWER(last_name) LIKE ? LIMIT " + LIMIT;
+      measure("index prefix", prefixes, q -> index.prefixSearch(q, LIMIT));
+      measure(
+          "SQL LIKE 'q%'",
+          prefixes,
+          q -> jdbcTemplate.query(like, CustomerQueries.CUSTOMER_MAPPER, q + "%", q + "%"));
+      measure("index substring", substrings, q -> index.substringSearch(q, LIMIT));
+      measure(
+          "SQL LIKE '%q%'",
+          substrings,
+          q ->
+              jdbcTemplate.query(
+                  like, CustomerQueries.CUSTOMER_MAPPER, "%" + q + "%", "%" + q + "%"));
+      measure("index fuzzy", typos, q -> index.fuzzySearch(q, LIMIT));
+    } finally {
+      FileSystemUtils.deleteRecursively(dir);
+    }
+  }
+
+  private static void measure(
+      String name, List<String> queries, Function<String, List<Customer>> search) {
+    // One untimed pass to warm up the JIT and the database page cache.
+    queries.forEach(search::apply);
+
+    long[] nanos = new long[queries.size()];
+    long results = 0;
+    for (int i = 0; i < queries.size(); i++) {
+      long start = System.nanoTime();
+      results += search.apply(queries.get(i)).size();
+      nanos[i] = System.nanoTime() - start;
+    }
+    Arrays.sort(nanos);
+    System.out.printf(
+        Locale.ROOT,
+        "%-18s mean %,9.1f us  p50 %,9.1f us  p99 %,9.1f us  (%.1f results/query)%n",
+        name,
+        Arrays.stream(nanos).average().orElse(0) / 1e3,
+        nanos[nanos.length / 2] / 1e3,
+        nanos[(int) (nanos.length * 0.99)] / 1e3,
+        (double) results / queries.size());
+  }
+
+  private static String name(Random random, int maxSyllables) {
+    StringBuilder name = new StringBuilder();
+    int syllables = 2 + random.nextInt(maxSyllables);
+    for (int i = 0; i < syllables; i++) {
+      name.append(SYLLABLES[random.nextInt(SYLLABLES.length)]);
+    }
+    name.setCharAt(0, Character.toUpperCase(name.charAt(0)));
+    return name.toString();
+  }
+
+  private static String transpose(String name, Random random) {
+    char[] chars = name.toLowerCase(Locale.ROOT).toCharArray();
+    int i = 1 + random.nextInt(chars.length - 2);
+    char c = chars[i];
+    chars[i] = chars[i + 1];
+    chars[i + 1] = c;
+    return new String(chars);
+  }
+}
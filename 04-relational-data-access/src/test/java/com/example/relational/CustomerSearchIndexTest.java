@@ -0,0 +1,127 @@
+package com.example.relational;
+
+import java.util.List;
+import java.util.concurrent.CountDownLatch;
+import java.util.function.Consumer;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.jdbc.datasource.embedded.EmbeddedDatabase;
+import org.springframework.jdbc.datasource.embedded.EmbeddedDatabaseBuilder;
+import org.springframework.jdbc.datasource.embedded.EmbeddedDatabaseType;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+class CustomerSearchIndexTest {
+
+  private EmbeddedDatabase database;
+  private JdbcTemplate jdbcTemplate;
+  private CustomerSearchIndex index;
+
+  @BeforeEach
+  void setUp() {
+    database =
+        new EmbeddedDatabaseBuilder()
+            .setType(EmbeddedDatabaseType.H2)
+            .generateUniqueName(true)
+            .build();
+    jdbcTemplate = new JdbcTemplate(database);
+    jdbcTemplate.execute(
+        "CREATE TABLE customers(id SERIAL, first_name VARCHAR(255), last_name VARCHAR(255))");
+    jdbcTemplate.batchUpdate(
+        "INSERT INTO customers(first_name, last_name) VALUES (?,?)",
+        List.of(
+            new Object[] {"John", "Woo"},
+            new Object[] {"Jeff", "Dean"},
+            new Object[] {"Josh", "Bloch"},
+            new Object[] {"Josh", "Long"}));
+
+    index = new CustomerSearchIndex(new CustomerQueries(database, new CustomerStreamProperties()));
+    index.rebuild();
+  }
+
+  @AfterEach
+  void tearDown() {
+    database.shutdown();
+  }
+
+  @Test
+  void prefixSearch_matchesFirstAndLastNamesIgnoringCase() {
+    assertThat(lastNames(index.prefixSearch("jo", 10))).containsExactly("Woo", "Bloch", "Long");
+    assertThat(lastNames(index.prefixSearch("L", 10))).containsExactly("Long");
+    assertThat(index.prefixSearch("Josha", 10)).isEmpty();
+  }
+
+  @Test
+  void substringSearch_matchesInsideNames() {
+    assertThat(lastNames(index.substringSearch("loc", 10))).containsExactly("Bloch");
+    assertThat(lastNames(index.substringSearch("ea", 10))).containsExactly("Dean");
+  }
+
+  @Test
+  void fuzzySearch_toleratesTyposClosestFirst() {
+    assertThat(lastNames(index.fuzzySearch("Jsoh", 10))).containsExactly("Bloch", "Long");
+    assertThat(lastNames(index.fuzzySearch("Jhon", 10))).containsExactly("Woo");
+    assertThat(lastNames(index.fuzzySearch("Blohc", 10))).containsExactly("Bloch");
+    assertThat(index.fuzzySearch("Xavier", 10)).isEmpty();
+  }
+
+  @Test
+  void rebuild_picksUpNewCustomers() {
+    jdbcTemplate.update(
+        "INSERT INTO customers(first_name, last_name) VALUES (?,?)", "Joshua", "Bloch");
+    assertThat(index.prefixSearch("joshu", 10)).isEmpty();
+
+    index.rebuild();
+
+    assertThat(index.size()).isEqualTo(5);
+    assertThat(index.prefixSearch("joshu", 10)).containsExactly(new Customer(5, "Joshua", "Bloch"));
+  }
+
+  @Test
+  void searches_useThePreviousContentsDuringRebuild() throws Exception {
+    CountDownLatch scanning = new CountDownLatch(1);
+    CountDownLatch release = new CountDownLatch(1);
+    CustomerQueries slowQueries =
+        new CustomerQueries(database, new CustomerStreamProperties()) {
+          @Override
+          public long forEach(Consumer<Customer> action) {
+            scanning.countDown();
+            try {
+              release.await();
+            } catch (InterruptedException e) {
+              Thread.currentThread().interrupt();
+            }
+            return super.forEach(action);
+          }
+        };
+    CustomerSearchIndex slowIndex = new CustomerSearchIndex(slowQueries);
+    Thread rebuild = new Thread(slowIndex::rebuild);
+    rebuild.start();
+    try {
+      scanning.await();
+      assertThat(slowIndex.prefixSearch("jo", 10)).isEmpty();
+    } finally {
+      release.countDown();
+      rebuild.join();
+    }
+    assertThat(lastNames(slowIndex.prefixSearch("jo", 10))).containsExactly("Woo", "Bloch", "Long");
+  }
+
+  @Test
+  void searches_respectLimit() {
+    assertThat(index.prefixSearch("j", 2)).hasSize(2);
+  }
+
+  @Test
+  void editDistance_countsTranspositionAsOneEdit() {
+    assertThat(CustomerSearchIndex.editDistance("josh", "jsoh", 2)).isEqualTo(1);
+    assertThat(CustomerSearchIndex.editDistance("josh", "jo", 2)).isEqualTo(2);
+    assertThat(CustomerSearchIndex.editDistance("josh", "jeff", 1)).isEqualTo(2);
+  }
+
+  private static List<String> lastNames(List<Customer> customers) {
+    return customers.stream().map(Customer::lastName).toList();
+  }
+}
@@ -0,0 +1,113 @@
+package com.example.relational;
+
+import java.io.BufferedWriter;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.lang.management.ManagementFactory;
+import java.lang.management.MemoryMXBean;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.locks.LockSupport;
+import java.util.stream.Stream;
+import org.h2.jdbcx.JdbcDataSource;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.util.FileSystemUtils;
+
+/**
+ * Compares materializing {@code jdbcTemplate.query} with the streaming paths on a file-backed H2
+ * table, reporting wall time and peak heap. Run with a fixed heap, e.g. {@code -Xmx2g}; the row
+ * count is the first argument and defaults to 5M.
+ */
+public class CustomerStreamingBenchmark {
+
+  public static void main(String[] args) throws Exception {
+    int rows = args.length > 0 ? Integer.parseInt(args[0]) : 5_000_000;
+    Path dir = Files.createTempDirectory("customer-streaming");
+    try {
+      JdbcDataSource dataSource = new JdbcDataSource();
+      dataSource.setURL("jdbc:h2:file:" + dir.resolve("db") + ";LAZY_QUERY_EXECUTION=TRUE");
+      dataSource.setUser("sa");
+      JdbcTemplate jdbcTemplate = new JdbcTemplate(dataSource);
+      jdbcTemplate.execute(
+          "CREATE TABLE customers(id SERIAL, first_name VARCHAR(255), last_name VARCHAR(255))");
+
+      Path csv = dir.resolve("customers.csv");
+      try (BufferedWriter writer = Files.newBufferedWriter(csv, StandardCharsets.UTF_8)) {
+        for (int i = 0; i < rows; i++) {
+          writer.write("First" + i + ",Last" + i + "\n");
+        }
+      }
+      new CustomerBulkLoader(dataSource, new CustomerBulkLoadProperties()).load(csv);
+      Files.delete(csv);
+
+      CustomerQueries queries = new CustomerQueries(dataSource, new CustomerStreamProperties());
+      CustomerExporter exporter = new CustomerExporter(queries);
+      String selectAll = "SELECT id, first_name, last_name FROM customers";
+
+      measure(
+          "jdbcTemplate.query (list)",
+          () -> jdbcTemplate.query(selectAll, CustomerQueries.CUSTOMER_MAPPER).size());
+      measure("RowCallbackHandler", () -> queries.forEach(customer -> {}));
+      measure(
+          "queryForStream",
+          () -> {
+            try (Stream<Customer> customers = queries.streamAll()) {
+              return customers.count();
+            }
+          });
+      measure(
+          "CSV export",
+          () ->
+              exporter.export(CustomerExporter.Format.CSV, null, OutputStream.nullOutputStream()));
+      measure(
+          "NDJSON export",
+          () ->
+              exporter.export(
+                  CustomerExporter.Format.NDJSON, null, OutputStream.nullOutputStream()));
+    } finally {
+      FileSystemUtils.deleteRecursively(dir);
+    }
+  }
+
+  // Time and memory come from separate runs: the memory run forces a full GC every 100 ms and
+  // records the heap that survives it, which would distort the timing.
+  private static void measure(String name, Task task) throws Exception {
+    long start = System.nanoTime();
+    long count = task.run();
+    long millis = (System.nanoTime() - start) / 1_000_000;
+
+    MemoryMXBean memory = ManagementFactory.getMemoryMXBean();
+    memory.gc();
+    long baseline = memory.getHeapMemoryUsage().getUsed();
+    AtomicLong peakLive = new AtomicLong(baseline);
+    AtomicBoolean running = new AtomicBoolean(true);
+    Thread sampler =
+        new Thread(
+            () -> {
+              while (running.get()) {
+                memory.gc();
+                peakLive.accumulateAndGet(memory.getHeapMemoryUsage().getUsed(), Math::max);
+                LockSupport.parkNanos(100_000_000);
+              }
+            });
+    sampler.setDaemon(true);
+    sampler.start();
+    try {
+      task.run();
+    } finally {
+      running.set(false);
+      sampler.join();
+    }
+
+    System.out.printf(
+        "%-28s %,10d rows %,8d ms  peak live heap +%,d MiB%n",
+        name, count, millis, (peakLive.get() - baseline) >> 20);
+  }
+
+  private interface Task {
+    long run() throws IOException;
+  }
+}
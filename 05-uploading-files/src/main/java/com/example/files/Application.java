@@ -1,7 +1,10 @@
 package com.example.files;
 
+import com.example.files.storage.ChunkedUploadService;
 import com.example.files.storage.StorageProperties;
 import com.example.files.storage.StorageService;
+import com.example.files.storage.StorageTrash;
+import com.example.files.storage.StoredFileIndex;
 import org.springframework.boot.CommandLineRunner;
 import org.springframework.boot.SpringApplication;
 import org.springframework.boot.autoconfigure.SpringBootApplication;
@@ -9,7 +12,7 @@ import org.springframework.boot.context.properties.EnableConfigurationProperties
 import org.springframework.context.annotation.Bean;
 
 @SpringBootApplication
-@EnableConfigurationProperties(StorageProperties.class)
+@EnableConfigurationProperties({StorageProperties.class, FileDownloadProperties.class})
 public class Application {
 
   public static void main(String[] args) {
@@ -17,10 +20,16 @@ public class Application {
   }
 
   @Bean
-  CommandLineRunner init(StorageService storageService) {
+  CommandLineRunner init(
+      StorageService storageService,
+      StorageTrash trash,
+      StoredFileIndex fileIndex,
+      ChunkedUploadService uploads) {
     return (args) -> {
-      storageService.deleteAll();
+      trash.reset();
       storageService.init();
+      fileIndex.rebuild();
+      uploads.init();
     };
   }
 }
@@ -0,0 +1,104 @@
+package com.example.files;
+
+import com.example.files.storage.ChunkedUploadService;
+import com.example.files.storage.StorageFileTooLargeException;
+import com.example.files.storage.StoredFile;
+import com.example.files.storage.UploadIncompleteException;
+import com.example.files.storage.UploadSessionNotFoundException;
+import com.example.files.storage.UploadStatus;
+import jakarta.servlet.http.HttpServletRequest;
+import java.io.IOException;
+import java.io.InputStream;
+import java.net.URI;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.ResponseEntity;
+import org.springframework.web.bind.annotation.DeleteMapping;
+import org.springframework.web.bind.annotation.ExceptionHandler;
+import org.springframework.web.bind.annotation.GetMapping;
+import org.springframework.web.bind.annotation.PathVariable;
+import org.springframework.web.bind.annotation.PostMapping;
+import org.springframework.web.bind.annotation.PutMapping;
+import org.springframework.web.bind.annotation.RequestMapping;
+import org.springframework.web.bind.annotation.RequestParam;
+import org.springframework.web.bind.annotation.RestController;
+import org.springframework.web.servlet.mvc.method.annotation.MvcUriComponentsBuilder;
+
+/**
+ * Resumable uploads: create a session, PUT chunks at their offsets (in any order, in parallel),
+ * ask which ranges arrived after an interruption, then complete.
+ */
+@RestController
+@RequestMapping("/uploads")
+public class ChunkedUploadController {
+
+  private final ChunkedUploadService uploads;
+
+  public ChunkedUploadController(ChunkedUploadService uploads) {
+    this.uploads = uploads;
+  }
+
+  @PostMapping
+  public ResponseEntity<UploadStatus> createUpload(
+      @RequestParam String filename, @RequestParam long size) {
+    UploadStatus status = uploads.create(filename, size);
+    return ResponseEntity.created(uploadUri(status.id())).body(status);
+  }
+
+  @GetMapping("/{id}")
+  public UploadStatus getUpload(@PathVariable String id) {
+    return uploads.status(id);
+  }
+
+  @PutMapping("/{id}")
+  public UploadStatus uploadChunk(
+      @PathVariable String id, @RequestParam long offset, HttpServletRequest request)
+      throws IOException {
+    try (InputStream body = request.getInputStream()) {
+      return uploads.writeChunk(id, offset, body, request.getContentLengthLong());
+    }
+  }
+
+  @PostMapping("/{id}/complete")
+  public ResponseEntity<StoredFile> completeUpload(@PathVariable String id) {
+    StoredFile stored = uploads.complete(id);
+    URI location =
+        MvcUriComponentsBuilder.fromMethodName(
+                FileUploadController.class, "serveFile", stored.filename(), null, null)
+            .build()
+            .toUri();
+    return ResponseEntity.created(location).body(stored);
+  }
+
+  @DeleteMapping("/{id}")
+  public ResponseEntity<Void> abortUpload(@PathVariable String id) {
+    uploads.abort(id);
+    return ResponseEntity.noContent().build();
+  }
+
+  @ExceptionHandler(UploadSessionNotFoundException.class)
+  public ResponseEntity<?> handleUploadSessionNotFound(UploadSessionNotFoundException exc) {
+    return ResponseEntity.notFound().build();
+  }
+
+  @ExceptionHandler(UploadIncompleteException.class)
+  public ResponseEntity<String> handleUploadIncomplete(UploadIncompleteException exc) {
+    return ResponseEntity.status(HttpStatus.CONFLICT).body(exc.getMessage());
+  }
+
+  @ExceptionHandler(StorageFileTooLargeException.class)
+  public ResponseEntity<?> handleStorageFileTooLarge(StorageFileTooLargeException exc) {
+    return ResponseEntity.status(HttpStatus.CONTENT_TOO_LARGE).build();
+  }
+
+  @ExceptionHandler(IllegalArgumentException.class)
+  public ResponseEntity<String> handleBadChunk(IllegalArgumentException exc) {
+    return ResponseEntity.badRequest().body(exc.getMessage());
+  }
+
+  private static URI uploadUri(String id) {
+    return MvcUriComponentsBuilder.fromMethodName(
+            ChunkedUploadController.class, "getUpload", id)
+        .build()
+        .toUri();
+  }
+}
@@ -0,0 +1,52 @@
+package com.example.files;
+
+import org.springframework.boot.context.properties.ConfigurationProperties;
+import org.springframework.util.unit.DataSize;
+
+@ConfigurationProperties("download")
+public class FileDownloadProperties {
+
+  // Hand whole files and single ranges to the container's sendfile support (Tomcat NIO).
+  private boolean zeroCopy = true;
+
+  // Keep small, frequently requested files memory-mapped instead of opening them per request.
+  private boolean cacheEnabled = true;
+
+  // Total size of the files held by the cache.
+  private DataSize cacheMaxBytes = DataSize.ofMegabytes(64);
+
+  // Larger files are never cached; they go out through sendfile anyway.
+  private DataSize cacheMaxFileSize = DataSize.ofKilobytes(256);
+
+  public boolean isZeroCopy() {
+    return zeroCopy;
+  }
+
+  public void setZeroCopy(boolean zeroCopy) {
+    this.zeroCopy = zeroCopy;
+  }
+
+  public boolean isCacheEnabled() {
+    return cacheEnabled;
+  }
+
+  public void setCacheEnabled(boolean cacheEnabled) {
+    this.cacheEnabled = cacheEnabled;
+  }
+
+  public DataSize getCacheMaxBytes() {
+    return cacheMaxBytes;
+  }
+
+  public void setCacheMaxBytes(DataSize cacheMaxBytes) {
+    this.cacheMaxBytes = cacheMaxBytes;
+  }
+
+  public DataSize getCacheMaxFileSize() {
+    return cacheMaxFileSize;
+  }
+
+  public void setCacheMaxFileSize(DataSize cacheMaxFileSize) {
+    this.cacheMaxFileSize = cacheMaxFileSize;
+  }
+}
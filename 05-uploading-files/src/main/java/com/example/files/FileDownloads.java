@@ -0,0 +1,318 @@
+package com.example.files;
+
+import com.example.files.storage.CompressedFileResource;
+import jakarta.servlet.ServletOutputStream;
+import jakarta.servlet.http.HttpServletRequest;
+import jakarta.servlet.http.HttpServletResponse;
+import java.io.File;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.nio.ByteBuffer;
+import java.nio.channels.Channels;
+import java.nio.channels.FileChannel;
+import java.nio.channels.WritableByteChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.StandardOpenOption;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.zip.GZIPInputStream;
+import org.springframework.core.io.Resource;
+import org.springframework.http.ContentDisposition;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.HttpRange;
+import org.springframework.http.MediaType;
+import org.springframework.http.MediaTypeFactory;
+import org.springframework.stereotype.Component;
+import org.springframework.util.MimeTypeUtils;
+import org.springframework.util.StreamUtils;
+import org.springframework.web.context.request.ServletWebRequest;
+
+/**
+ * Serves stored files with conditional requests (ETag, Last-Modified), If-Range and single or
+ * multiple byte ranges. File-backed content goes out through the container's sendfile support
+ * where available, otherwise through {@link FileChannel#transferTo}. Files from the
+ * {@link HotFileCache} are written straight from their mapped buffer. Files stored compressed go
+ * out as they are to clients that accept their encoding, and are inflated for the rest.
+ */
+@Component
+public class FileDownloads {
+
+  // Tomcat's request attributes for handing a file region to its sendfile implementation.
+  private static final String SENDFILE_SUPPORT = "org.apache.tomcat.sendfile.support";
+  private static final String SENDFILE_FILENAME = "org.apache.tomcat.sendfile.filename";
+  private static final String SENDFILE_START = "org.apache.tomcat.sendfile.start";
+  private static final String SENDFILE_END = "org.apache.tomcat.sendfile.end";
+
+  private static final int INFLATE_BUFFER_SIZE = 64 * 1024;
+
+  private final FileDownloadProperties properties;
+
+  public FileDownloads(FileDownloadProperties properties) {
+    this.properties = properties;
+  }
+
+  public void serve(Resource resource, HttpServletRequest request, HttpServletResponse response)
+      throws IOException {
+    String encoding = null;
+    if (resource instanceof CompressedFileResource compressed) {
+      response.addHeader(HttpHeaders.VARY, HttpHeaders.ACCEPT_ENCODING);
+      encoding = compressed.getContentEncoding();
+      if (!accepts(request, encoding)) {
+        serveDecoded(compressed, request, response);
+        return;
+      }
+    }
+
+    long length = resource.contentLength();
+    long lastModified = resource.lastModified();
+    // Each encoding is a representation of its own and needs its own strong validator.
+    String etag = etag(length, lastModified, encoding);
+
+    if (new ServletWebRequest(request, response).checkNotModified(etag, lastModified)) {
+      return;
+    }
+    if (encoding != null) {
+      response.setHeader(HttpHeaders.CONTENT_ENCODING, encoding);
+    }
+    response.setHeader(HttpHeaders.ACCEPT_RANGES, "bytes");
+    String contentType = entityHeaders(resource, response);
+
+    List<Region> regions = regions(request, etag, lastModified, length);
+    if (regions == null) {
+      response.setContentType(contentType);
+      response.setContentLengthLong(length);
+      write(resource, new Region(0, length), request, response);
+    } else if (regions.isEmpty()) {
+      response.setStatus(HttpServletResponse.SC_REQUESTED_RANGE_NOT_SATISFIABLE);
+      response.setHeader(HttpHeaders.CONTENT_RANGE, "bytes */" + length);
+    } else if (regions.size() == 1) {
+      Region region = regions.get(0);
+      response.setStatus(HttpServletResponse.SC_PARTIAL_CONTENT);
+      response.setContentType(contentType);
+      response.setHeader(HttpHeaders.CONTENT_RANGE, region.contentRange(length));
+      response.setContentLengthLong(region.count());
+      write(resource, region, request, response);
+    } else {
+      writeMultipart(resource, regions, contentType, length, response);
+    }
+  }
+
+  // For clients that do not accept the stored encoding: inflate on the fly, without ranges.
+  private static void serveDecoded(
+      CompressedFileResource resource, HttpServletRequest request, HttpServletResponse response)
+      throws IOException {
+    long lastModified = resource.lastModified();
+    String etag = etag(resource.contentLength(), lastModified, null);
+    if (new ServletWebRequest(request, response).checkNotModified(etag, lastModified)) {
+      return;
+    }
+    response.setHeader(HttpHeaders.ACCEPT_RANGES, "none");
+    response.setContentType(entityHeaders(resource, response));
+    if (!"GET".equals(request.getMethod())) {
+      return;
+    }
+    try (InputStream in = new GZIPInputStream(resource.getInputStream(), INFLATE_BUFFER_SIZE)) {
+      in.transferTo(response.getOutputStream());
+    }
+  }
+
+  private static String entityHeaders(Resource resource, HttpServletResponse response) {
+    response.setHeader(HttpHeaders.CONTENT_DISPOSITION, contentDisposition(resource.getFilename()));
+    return MediaTypeFactory.getMediaType(resource)
+        .orElse(MediaType.APPLICATION_OCTET_STREAM)
+        .toString();
+  }
+
+  // An exact coding takes precedence over "*", whatever their order (RFC 9110, 12.5.3).
+  private static boolean accepts(HttpServletRequest request, String encoding) {
+    double exact = -1;
+    double wildcard = -1;
+    for (String header : Collections.list(request.getHeaders(HttpHeaders.ACCEPT_ENCODING))) {
+      for (String coding : header.split(",")) {
+        String[] parts = coding.split(";");
+        String name = parts[0].trim();
+        if (name.equalsIgnoreCase(encoding)) {
+          exact = quality(parts);
+        } else if (name.equals("*")) {
+          wildcard = quality(parts);
+        }
+      }
+    }
+    return exact >= 0 ? exact > 0 : wildcard > 0;
+  }
+
+  private static double quality(String[] parts) {
+    for (int i = 1; i < parts.length; i++) {
+      String parameter = parts[i].trim();
+      if (parameter.startsWith("q=")) {
+        try {
+          return Double.parseDouble(parameter.substring(2));
+        } catch (NumberFormatException e) {
+          return 0;
+        }
+      }
+    }
+    return 1;
+  }
+
+  // Null means "send everything", an empty list means "not satisfiable".
+  private static List<Region> regions(
+      HttpServletRequest request, String etag, long lastModified, long length) {
+    String rangeHeader = request.getHeader(HttpHeaders.RANGE);
+    if (rangeHeader == null || !"GET".equals(request.getMethod())) {
+      return null;
+    }
+    String ifRange = request.getHeader(HttpHeaders.IF_RANGE);
+    if (ifRange != null && !ifRange.equals(etag)) {
+      long date = parseDate(request, HttpHeaders.IF_RANGE);
+      // Dates are only validators to the second, and only if they match exactly.
+      if (date == -1 || date / 1000 != lastModified / 1000) {
+        return null;
+      }
+    }
+
+    List<HttpRange> ranges;
+    try {
+      ranges = HttpRange.parseRanges(rangeHeader);
+    } catch (IllegalArgumentException e) {
+      return null;
+    }
+
+    List<Region> regions = new ArrayList<>(ranges.size());
+    long total = 0;
+    for (HttpRange range : ranges) {
+      long start = range.getRangeStart(length);
+      long end = range.getRangeEnd(length);
+      // Unsatisfiable ranges are skipped; the request fails only if none can be served.
+      if (start < length && end >= start) {
+        regions.add(new Region(start, end - start + 1));
+        total += end - start + 1;
+      }
+    }
+    // Overlapping ranges that add up to more than the file are cheaper to answer in full.
+    return total > length ? null : regions;
+  }
+
+  private void write(
+      Resource resource, Region region, HttpServletRequest request, HttpServletResponse response)
+      throws IOException {
+    if (!"GET".equals(request.getMethod()) || region.count() == 0) {
+      return;
+    }
+    if (properties.isZeroCopy()
+        && resource.isFile()
+        && Boolean.TRUE.equals(request.getAttribute(SENDFILE_SUPPORT))) {
+      File file = resource.getFile();
+      request.setAttribute(SENDFILE_FILENAME, file.getCanonicalPath());
+      request.setAttribute(SENDFILE_START, region.start());
+      request.setAttribute(SENDFILE_END, region.start() + region.count());
+      return;
+    }
+    ServletOutputStream out = response.getOutputStream();
+    copy(resource, region, out);
+  }
+
+  private static void writeMultipart(
+      Resource resource,
+      List<Region> regions,
+      String contentType,
+      long length,
+      HttpServletResponse response)
+      throws IOException {
+    String boundary = MimeTypeUtils.generateMultipartBoundaryString();
+    List<byte[]> partHeaders = new ArrayList<>(regions.size());
+    long contentLength = 0;
+    for (Region region : regions) {
+      byte[] header =
+          ("\r\n--" + boundary + "\r\n"
+                  + HttpHeaders.CONTENT_TYPE + ": " + contentType + "\r\n"
+                  + HttpHeaders.CONTENT_RANGE + ": " + region.contentRange(length) + "\r\n\r\n")
+              .getBytes(StandardCharsets.US_ASCII);
+      partHeaders.add(header);
+      contentLength += header.length + region.count();
+    }
+    byte[] end = ("\r\n--" + boundary + "--\r\n").getBytes(StandardCharsets.US_ASCII);
+    contentLength += end.length;
+
+    response.setStatus(HttpServletResponse.SC_PARTIAL_CONTENT);
+    response.setContentType("multipart/byteranges; boundary=" + boundary);
+    response.setContentLengthLong(contentLength);
+    ServletOutputStream out = response.getOutputStream();
+    for (int i = 0; i < regions.size(); i++) {
+      out.write(partHeaders.get(i));
+      copy(resource, regions.get(i), out);
+    }
+    out.write(end);
+  }
+
+  private static void copy(Resource resource, Region region, OutputStream out)
+      throws IOException {
+    if (resource instanceof HotFileCache.CachedFile cached) {
+      ByteBuffer content = cached.slice(region.start(), region.count());
+      if (out instanceof ServletOutputStream servletOut) {
+        servletOut.write(content);
+      } else {
+        Channels.newChannel(out).write(content);
+      }
+      return;
+    }
+    if (resource.isFile()) {
+      try (FileChannel channel =
+          FileChannel.open(resource.getFile().toPath(), StandardOpenOption.READ)) {
+        WritableByteChannel target = Channels.newChannel(out);
+        long position = region.start();
+        long remaining = region.count();
+        while (remaining > 0) {
+          long sent = channel.transferTo(position, remaining, target);
+          position += sent;
+          remaining -= sent;
+        }
+      }
+      return;
+    }
+    try (InputStream in = resource.getInputStream()) {
+      StreamUtils.copyRange(in, out, region.start(), region.start() + region.count() - 1);
+    }
+  }
+
+  // Plain filename="..." for ASCII names, RFC 5987 encoding only when it is actually needed.
+  private static String contentDisposition(String filename) {
+    ContentDisposition.Builder builder = ContentDisposition.attachment();
+    if (StandardCharsets.US_ASCII.newEncoder().canEncode(filename)) {
+      builder.filename(filename);
+    } else {
+      builder.filename(filename, StandardCharsets.UTF_8);
+    }
+    return builder.build().toString();
+  }
+
+  static String etag(long length, long lastModified) {
+    return etag(length, lastModified, null);
+  }
+
+  static String etag(long length, long lastModified, String encoding) {
+    return "\""
+        + Long.toHexString(length)
+        + "-"
+        + Long.toHexString(lastModified)
+        + (encoding == null ? "" : "-" + encoding)
+        + "\"";
+  }
+
+  private static long parseDate(HttpServletRequest request, String header) {
+    try {
+      return request.getDateHeader(header);
+    } catch (IllegalArgumentException e) {
+      return -1;
+    }
+  }
+
+  private record Region(long start, long count) {
+
+    String contentRange(long length) {
+      return "bytes " + start + "-" + (start + count - 1) + "/" + length;
+    }
+  }
+}
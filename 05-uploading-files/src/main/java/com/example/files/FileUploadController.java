@@ -1,12 +1,19 @@
 package com.example.files;
 
 import com.example.files.storage.StorageFileNotFoundException;
+import com.example.files.storage.StorageFileTooLargeException;
 import com.example.files.storage.StorageService;
+import com.example.files.storage.StoredFile;
+import com.example.files.storage.StoredFileIndex;
+import jakarta.servlet.http.HttpServletRequest;
+import jakarta.servlet.http.HttpServletResponse;
 import java.io.IOException;
+import java.io.InputStream;
+import java.net.URI;
 import java.util.stream.Collectors;
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.core.io.Resource;
-import org.springframework.http.HttpHeaders;
+import org.springframework.http.HttpStatus;
 import org.springframework.http.ResponseEntity;
 import org.springframework.stereotype.Controller;
 import org.springframework.ui.Model;
@@ -14,55 +21,80 @@ import org.springframework.web.bind.annotation.ExceptionHandler;
 import org.springframework.web.bind.annotation.GetMapping;
 import org.springframework.web.bind.annotation.PathVariable;
 import org.springframework.web.bind.annotation.PostMapping;
+import org.springframework.web.bind.annotation.PutMapping;
 import org.springframework.web.bind.annotation.RequestParam;
 import org.springframework.web.bind.annotation.ResponseBody;
 import org.springframework.web.multipart.MultipartFile;
 import org.springframework.web.servlet.mvc.method.annotation.MvcUriComponentsBuilder;
 import org.springframework.web.servlet.mvc.support.RedirectAttributes;
+import org.springframework.web.servlet.support.ServletUriComponentsBuilder;
+import org.springframework.web.util.UriComponentsBuilder;
 
 @Controller
 public class FileUploadController {
 
+  private static final int DEFAULT_PAGE_SIZE = 50;
+  private static final int MAX_PAGE_SIZE = 500;
+
   private final StorageService storageService;
+  private final StoredFileIndex fileIndex;
+  private final FileDownloads fileDownloads;
+  private final HotFileCache hotFiles;
 
   @Autowired
-  public FileUploadController(StorageService storageService) {
+  public FileUploadController(
+      StorageService storageService,
+      StoredFileIndex fileIndex,
+      FileDownloads fileDownloads,
+      HotFileCache hotFiles) {
     this.storageService = storageService;
+    this.fileIndex = fileIndex;
+    this.fileDownloads = fileDownloads;
+    this.hotFiles = hotFiles;
   }
 
   @GetMapping("/")
-  public String listUploadedFiles(Model model) throws IOException {
+  public String listUploadedFiles(
+      @RequestParam(required = false) String after,
+      @RequestParam(defaultValue = "" + DEFAULT_PAGE_SIZE) int size,
+      Model model) {
+
+    StoredFileIndex.Page page =
+        fileIndex.page(after, Math.max(1, Math.min(size, MAX_PAGE_SIZE)));
 
+    // One builder per page rather than a MvcUriComponentsBuilder lookup per file.
+    UriComponentsBuilder files =
+        ServletUriComponentsBuilder.fromCurrentContextPath().path("/files/{filename}");
     model.addAttribute(
         "files",
-        storageService
-            .loadAll()
-            .map(
-                path ->
-                    MvcUriComponentsBuilder.fromMethodName(
-                            FileUploadController.class, "serveFile", path.getFileName().toString())
-                        .build()
-                        .toUri()
-                        .toString())
+        page.entries().stream()
+            .map(entry -> files.buildAndExpand(entry.filename()).encode().toUriString())
             .collect(Collectors.toList()));
+    if (page.nextCursor() != null) {
+      model.addAttribute(
+          "nextPage",
+          ServletUriComponentsBuilder.fromCurrentRequest()
+              .replaceQueryParam("after", page.nextCursor())
+              .encode()
+              .toUriString());
+    }
 
     return "uploadForm";
   }
 
   @GetMapping("/files/{filename:.+}")
-  @ResponseBody
-  public ResponseEntity<Resource> serveFile(@PathVariable String filename) {
+  public void serveFile(
+      @PathVariable String filename, HttpServletRequest request, HttpServletResponse response)
+      throws IOException {
 
-    Resource file = storageService.loadAsResource(filename);
+    Resource file = hotFiles.loadAsResource(filename);
 
     if (file == null) {
-      return ResponseEntity.notFound().build();
+      response.sendError(HttpServletResponse.SC_NOT_FOUND);
+      return;
     }
 
-    return ResponseEntity.ok()
-        .header(
-            HttpHeaders.CONTENT_DISPOSITION, "attachment; filename=\"" + file.getFilename() + "\"")
-        .body(file);
+    fileDownloads.serve(file, request, response);
   }
 
   @PostMapping("/")
@@ -75,8 +107,33 @@ public class FileUploadController {
     return "redirect:/";
   }
 
+  // Streams the raw request body to disk; unlike the multipart form it is never spooled first.
+  @PutMapping("/files/{filename:.+}")
+  @ResponseBody
+  public ResponseEntity<StoredFile> uploadFile(
+      @PathVariable String filename, HttpServletRequest request) throws IOException {
+    StoredFile stored;
+    try (InputStream body = request.getInputStream()) {
+      stored = storageService.store(filename, body, request.getContentLengthLong());
+    }
+
+    return ResponseEntity.created(fileUri(stored.filename())).body(stored);
+  }
+
+  @ExceptionHandler(StorageFileTooLargeException.class)
+  public ResponseEntity<?> handleStorageFileTooLarge(StorageFileTooLargeException exc) {
+    return ResponseEntity.status(HttpStatus.CONTENT_TOO_LARGE).build();
+  }
+
   @ExceptionHandler(StorageFileNotFoundException.class)
   public ResponseEntity<?> handleStorageFileNotFound(StorageFileNotFoundException exc) {
     return ResponseEntity.notFound().build();
   }
+
+  private static URI fileUri(String filename) {
+    return MvcUriComponentsBuilder.fromMethodName(
+            FileUploadController.class, "serveFile", filename, null, null)
+        .build()
+        .toUri();
+  }
 }
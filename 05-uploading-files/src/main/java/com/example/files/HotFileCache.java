@@ -0,0 +1,302 @@
+package com.example.files;
+
+import com.example.files.storage.CompressedFileResource;
+import com.example.files.storage.FileStoredEvent;
+import com.example.files.storage.StorageService;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import java.io.IOException;
+import java.io.InputStream;
+import java.nio.ByteBuffer;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.nio.file.attribute.BasicFileAttributes;
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import org.springframework.context.event.EventListener;
+import org.springframework.core.io.AbstractResource;
+import org.springframework.core.io.Resource;
+import org.springframework.stereotype.Component;
+
+/**
+ * Size-bounded cache of small stored files, memory-mapped so hits skip resource resolution and
+ * the file open. Eviction is LRU by bytes. A file is only admitted on its second request, so a
+ * scan over many cold files cannot flush the hot ones. Entries are dropped when the file is
+ * stored again, and every hit first checks the file's size and modification time, so a file
+ * replaced or truncated behind the {@link StorageService}'s back is reloaded instead of served
+ * stale. A file truncated in place between that check and the read still faults the mapping.
+ *
+ * <p>Java cannot unmap a buffer explicitly: an evicted mapping is released when the garbage
+ * collector finds it unreachable, after any response still reading it is done. Until then it
+ * still counts against the process's mapped memory but no longer against {@code
+ * download.cache-max-bytes}, so the mapped total can exceed that bound by the entries evicted
+ * since the last collection.
+ */
+@Component
+public class HotFileCache {
+
+  // Names requested once and not cached yet; bounded so it only remembers recent requests.
+  private static final int DOORKEEPER_SIZE = 4096;
+
+  private final StorageService storageService;
+  private final FileDownloadProperties properties;
+
+  // Access-ordered, so iteration starts at the least recently used entry. Guarded by itself.
+  private final LinkedHashMap<String, CachedFile> entries = new LinkedHashMap<>(16, 0.75f, true);
+  private final LinkedHashMap<String, Boolean> seenOnce =
+      new LinkedHashMap<>(16, 0.75f, true) {
+        @Override
+        protected boolean removeEldestEntry(Map.Entry<String, Boolean> eldest) {
+          return size() > DOORKEEPER_SIZE;
+        }
+      };
+  private long residentBytes;
+
+  // Bumped on every invalidation, so a load that raced with a store is not cached.
+  private long generation;
+
+  private final Counter hits;
+  private final Counter misses;
+  private final Counter evictions;
+
+  public HotFileCache(
+      StorageService storageService,
+      FileDownloadProperties properties,
+      MeterRegistry meterRegistry) {
+    this.storageService = storageService;
+    this.properties = properties;
+
+    this.hits = meterRegistry.counter("files.cache.requests", "result", "hit");
+    this.misses = meterRegistry.counter("files.cache.requests", "result", "miss");
+    this.evictions = meterRegistry.counter("files.cache.evictions");
+    Gauge.builder("files.cache.hit.ratio", this, HotFileCache::hitRatio).register(meterRegistry);
+    Gauge.builder("files.cache.resident", this, HotFileCache::residentBytes)
+        .baseUnit("bytes")
+        .register(meterRegistry);
+    Gauge.builder("files.cache.size", this, HotFileCache::size).register(meterRegistry);
+  }
+
+  /** Like {@link StorageService#loadAsResource}, served from memory when the file is hot. */
+  public Resource loadAsResource(String filename) {
+    if (!properties.isCacheEnabled()) {
+      return storageService.loadAsResource(filename);
+    }
+
+    CachedFile cached;
+    synchronized (entries) {
+      cached = entries.get(filename);
+    }
+    // Checked outside the lock: it costs a stat, which is still far less than the open and map.
+    if (cached != null && cached.isCurrent()) {
+      hits.increment();
+      return cached;
+    }
+
+    long loadGeneration;
+    boolean admit;
+    synchronized (entries) {
+      misses.increment();
+      if (cached != null && entries.remove(filename, cached)) {
+        residentBytes -= cached.length;
+      }
+      loadGeneration = generation;
+      // A file that changed while cached was hot, so it goes straight back in.
+      admit = cached != null || seenOnce.remove(filename) != null;
+      if (!admit) {
+        seenOnce.put(filename, Boolean.TRUE);
+      }
+    }
+
+    Resource resource = storageService.loadAsResource(filename);
+    if (!admit || resource == null) {
+      return resource;
+    }
+    try {
+      // Compressed files keep going out through FileDownloads, which knows their encoding.
+      if (!resource.isFile()
+          || resource instanceof CompressedFileResource
+          || resource.contentLength() > maxFileSize()) {
+        return resource;
+      }
+      CachedFile loaded = map(resource);
+      put(filename, loaded, loadGeneration);
+      return loaded;
+    } catch (IOException e) {
+      // Caching is best effort; the file itself is still fine to serve.
+      return resource;
+    }
+  }
+
+  @EventListener
+  public void onFileStored(FileStoredEvent event) {
+    invalidate(event.filename());
+  }
+
+  public void invalidate(String filename) {
+    synchronized (entries) {
+      generation++;
+      CachedFile removed = entries.remove(filename);
+      if (removed != null) {
+        residentBytes -= removed.length;
+      }
+    }
+  }
+
+  public long residentBytes() {
+    synchronized (entries) {
+      return residentBytes;
+    }
+  }
+
+  public int size() {
+    synchronized (entries) {
+      return entries.size();
+    }
+  }
+
+  public double hitRatio() {
+    double total = hits.count() + misses.count();
+    return total == 0 ? 0 : hits.count() / total;
+  }
+
+  private long maxFileSize() {
+    return Math.min(
+        properties.getCacheMaxFileSize().toBytes(), properties.getCacheMaxBytes().toBytes());
+  }
+
+  private static CachedFile map(Resource resource) throws IOException {
+    Path file = resource.getFile().toPath();
+    // Read before mapping: if the file changes in between, the next hit sees a mismatch.
+    long lastModified = Files.getLastModifiedTime(file).toMillis();
+    try (FileChannel channel = FileChannel.open(file, StandardOpenOption.READ)) {
+      // The mapping outlives the channel and keeps the old content if the file is replaced.
+      MappedByteBuffer buffer = channel.map(FileChannel.MapMode.READ_ONLY, 0, channel.size());
+      buffer.load();
+      return new CachedFile(resource.getFilename(), file, buffer, lastModified);
+    }
+  }
+
+  private void put(String filename, CachedFile cached, long loadGeneration) {
+    long maxBytes = properties.getCacheMaxBytes().toBytes();
+    synchronized (entries) {
+      if (generation != loadGeneration) {
+        return;
+      }
+      CachedFile previous = entries.put(filename, cached);
+      if (previous != null) {
+        residentBytes -= previous.length;
+      }
+      residentBytes += cached.length;
+      Iterator<CachedFile> eldest = entries.values().iterator();
+      while (residentBytes > maxBytes && eldest.hasNext()) {
+        residentBytes -= eldest.next().length;
+        eldest.remove();
+        evictions.increment();
+      }
+    }
+  }
+
+  /** A stored file held in memory. Read it through {@link #slice} to avoid copying. */
+  static final class CachedFile extends AbstractResource {
+
+    private final String filename;
+    private final Path file;
+    private final ByteBuffer content;
+    private final long lastModified;
+    private final int length;
+
+    CachedFile(String filename, Path file, ByteBuffer content, long lastModified) {
+      this.filename = filename;
+      this.file = file;
+      this.content = content.asReadOnlyBuffer();
+      this.lastModified = lastModified;
+      this.length = content.remaining();
+    }
+
+    // Whether the file on disk still has the size and modification time that was mapped.
+    boolean isCurrent() {
+      try {
+        BasicFileAttributes attributes = Files.readAttributes(file, BasicFileAttributes.class);
+        return attributes.size() == length
+            && attributes.lastModifiedTime().toMillis() == lastModified;
+      } catch (IOException e) {
+        return false;
+      }
+    }
+
+    ByteBuffer slice(long start, long count) {
+      return content.slice(Math.toIntExact(start), Math.toIntExact(count));
+    }
+
+    @Override
+    public String getFilename() {
+      return filename;
+    }
+
+    @Override
+    public boolean exists() {
+      return true;
+    }
+
+    @Override
+    public long contentLength() {
+      return length;
+    }
+
+    @Override
+    public long lastModified() {
+      return lastModified;
+    }
+
+    @Override
+    public InputStream getInputStream() {
+      return new ByteBufferInputStream(content.duplicate());
+    }
+
+    @Override
+    public String getDescription() {
+      return "cached file [" + filename + "]";
+    }
+  }
+
+  private static final class ByteBufferInputStream extends InputStream {
+
+    private final ByteBuffer buffer;
+
+    private ByteBufferInputStream(ByteBuffer buffer) {
+      this.buffer = buffer;
+    }
+
+    @Override
+    public int read() {
+      return buffer.hasRemaining() ? buffer.get() & 0xff : -1;
+    }
+
+    @Override
+    public int read(byte[] bytes, int offset, int length) {
+      if (!buffer.hasRemaining()) {
+        return length == 0 ? 0 : -1;
+      }
+      int count = Math.min(length, buffer.remaining());
+      buffer.get(bytes, offset, count);
+      return count;
+    }
+
+    @Override
+    public long skip(long n) {
+      int count = (int) Math.max(0, Math.min(n, buffer.remaining()));
+      buffer.position(buffer.position() + count);
+      return count;
+    }
+
+    @Override
+    public int available() {
+      return buffer.remaining();
+    }
+  }
+}
@@ -0,0 +1,507 @@
+package com.example.files.storage;
+
+import jakarta.annotation.PreDestroy;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.RandomAccessFile;
+import java.io.Reader;
+import java.io.UncheckedIOException;
+import java.io.Writer;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.nio.file.StandardOpenOption;
+import java.time.Instant;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.Properties;
+import java.util.TreeMap;
+import java.util.UUID;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.locks.Lock;
+import java.util.concurrent.locks.ReadWriteLock;
+import java.util.concurrent.locks.ReentrantReadWriteLock;
+import java.util.stream.Stream;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.scheduling.concurrent.CustomizableThreadFactory;
+import org.springframework.stereotype.Service;
+import org.springframework.util.FileSystemUtils;
+
+/**
+ * Resumable uploads of large files in chunks that may arrive in any order and in parallel.
+ *
+ * <pre>
+ * sessions/&lt;id&gt;/session.properties   filename, size and creation time
+ * sessions/&lt;id&gt;/data                 preallocated to the full size, chunks written in place
+ * sessions/&lt;id&gt;/received             append-only log of 16 byte (start, end) records
+ * </pre>
+ *
+ * A range is logged only after its bytes are written (and flushed, if {@code storage.fsync} is
+ * set), so after a restart the log never claims data that is not on disk. Sessions are reopened
+ * from disk on first use. Chunks of a session are written concurrently under its read lock;
+ * completing or aborting takes the write lock and closes the session, so a chunk arriving after
+ * that finds no session instead of a closed file. Sessions without a chunk for longer than
+ * {@code storage.session-ttl} are closed and deleted, at startup and every quarter of the TTL.
+ */
+@Service
+public class ChunkedUploadService {
+
+  private static final Logger log = LoggerFactory.getLogger(ChunkedUploadService.class);
+
+  private static final String SESSION_FILE = "session.properties";
+  private static final String DATA_FILE = "data";
+  private static final String RECEIVED_FILE = "received";
+  private static final int BUFFER_SIZE = 256 * 1024;
+  private static final int RANGE_RECORD_BYTES = 2 * Long.BYTES;
+
+  private final Path sessionsLocation;
+  private final StorageService storageService;
+  private final StorageProperties properties;
+  private final Map<String, Session> sessions = new ConcurrentHashMap<>();
+  private final ScheduledExecutorService expirer;
+
+  public ChunkedUploadService(StorageService storageService, StorageProperties properties) {
+    if (properties.getSessionsLocation().trim().length() == 0) {
+      throw new StorageException("Upload sessions location can not be empty.");
+    }
+    this.sessionsLocation = Paths.get(properties.getSessionsLocation());
+    this.storageService = storageService;
+    this.properties = properties;
+
+    CustomizableThreadFactory threadFactory = new CustomizableThreadFactory("upload-expirer-");
+    threadFactory.setDaemon(true);
+    this.expirer = Executors.newSingleThreadScheduledExecutor(threadFactory);
+  }
+
+  // Creates the sessions directory, drops sessions that were abandoned longer than the TTL and
+  // schedules the same for sessions abandoned from now on.
+  public void init() {
+    Instant cutoff = Instant.now().minus(properties.getSessionTtl());
+    int expired = 0;
+    try {
+      Files.createDirectories(sessionsLocation);
+      try (Stream<Path> dirs = Files.list(sessionsLocation)) {
+        for (Path dir : (Iterable<Path>) dirs::iterator) {
+          if (!Files.exists(dir.resolve(SESSION_FILE)) || isIdle(dir, cutoff)) {
+            FileSystemUtils.deleteRecursively(dir);
+            expired++;
+          }
+        }
+      }
+    } catch (IOException | UncheckedIOException e) {
+      throw new StorageException("Could not initialize upload sessions", e);
+    }
+    if (expired > 0) {
+      log.info("Removed {} expired upload sessions", expired);
+    }
+
+    long period = Math.max(1000, properties.getSessionTtl().toMillis() / 4);
+    expirer.scheduleWithFixedDelay(this::expireIdleSessions, period, period, TimeUnit.MILLISECONDS);
+  }
+
+  /** Closes and deletes the sessions that received no chunk within the TTL; returns how many. */
+  int expireIdleSessions() {
+    Instant cutoff = Instant.now().minus(properties.getSessionTtl());
+    int expired = 0;
+    try (Stream<Path> dirs = Files.list(sessionsLocation)) {
+      for (Path dir : (Iterable<Path>) dirs::iterator) {
+        if (isIdle(dir, cutoff) && expire(dir, cutoff)) {
+          expired++;
+        }
+      }
+    } catch (IOException | UncheckedIOException e) {
+      // Runs on the expirer thread; an exception would cancel the schedule.
+      log.warn("Could not expire upload sessions in {}", sessionsLocation, e);
+    }
+    if (expired > 0) {
+      log.info("Removed {} expired upload sessions", expired);
+    }
+    return expired;
+  }
+
+  private boolean expire(Path dir, Instant cutoff) {
+    String id = dir.getFileName().toString();
+    Session session = sessions.get(id);
+    if (session == null) {
+      // Deleted inside compute so that a concurrent lookup can not reopen it halfway.
+      boolean[] deleted = new boolean[1];
+      sessions.compute(
+          id,
+          (key, current) -> {
+            if (current == null && isIdle(dir, cutoff)) {
+              deleted[0] = FileSystemUtils.deleteRecursively(dir.toFile());
+            }
+            return current;
+          });
+      return deleted[0];
+    }
+    Lock lock = session.lock.writeLock();
+    lock.lock();
+    try {
+      // A chunk may have arrived while waiting for the lock.
+      if (session.closed || !isIdle(dir, cutoff)) {
+        return false;
+      }
+      discard(session);
+      return true;
+    } finally {
+      lock.unlock();
+    }
+  }
+
+  // The received log is touched by every chunk, so its mtime is the last activity. A directory
+  // without one yet is a create in progress, or one that crashed before getting that far.
+  private static boolean isIdle(Path dir, Instant cutoff) {
+    Path received = dir.resolve(RECEIVED_FILE);
+    try {
+      Path activity = Files.exists(received) ? received : dir;
+      return Files.getLastModifiedTime(activity).toInstant().isBefore(cutoff);
+    } catch (IOException e) {
+      // Completed or aborted meanwhile.
+      return false;
+    }
+  }
+
+  public UploadStatus create(String filename, long size) {
+    try {
+      // Rejected now rather than after the whole file was uploaded.
+      storageService.checkName(filename);
+    } catch (StorageException e) {
+      throw new IllegalArgumentException("Invalid file name " + filename, e);
+    }
+    if (size <= 0) {
+      throw new StorageException("Failed to store empty file.");
+    }
+    if (size > properties.getMaxFileSize().toBytes()) {
+      throw IncomingFile.tooLarge(filename, properties.getMaxFileSize().toBytes());
+    }
+
+    String id = UUID.randomUUID().toString();
+    Path dir = sessionsLocation.resolve(id);
+    try {
+      Files.createDirectories(dir);
+      // Reserve the full length up front so chunks can land anywhere without growing the file.
+      try (RandomAccessFile data = new RandomAccessFile(dir.resolve(DATA_FILE).toFile(), "rw")) {
+        data.setLength(size);
+      }
+      Files.createFile(dir.resolve(RECEIVED_FILE));
+      Properties metadata = new Properties();
+      metadata.setProperty("filename", filename);
+      metadata.setProperty("size", Long.toString(size));
+      metadata.setProperty("created", Instant.now().toString());
+      // Written last: a directory without it is an incomplete create and gets cleaned up.
+      Path tempFile = dir.resolve(SESSION_FILE + ".tmp");
+      try (Writer writer = Files.newBufferedWriter(tempFile, StandardCharsets.UTF_8)) {
+        metadata.store(writer, null);
+      }
+      Files.move(tempFile, dir.resolve(SESSION_FILE));
+      Session session = Session.open(id, dir, properties.isFsync());
+      sessions.put(id, session);
+      return session.status();
+    } catch (IOException e) {
+      FileSystemUtils.deleteRecursively(dir.toFile());
+      throw new StorageException("Could not create upload session for " + filename, e);
+    }
+  }
+
+  /**
+   * Writes {@code content} at {@code offset} of the upload. Chunks may overlap, repeat or arrive
+   * concurrently; bytes written before a failure still count as received.
+   */
+  public UploadStatus writeChunk(String id, long offset, InputStream content, long contentLength) {
+    Session session = session(id);
+    Lock lock = session.lock.readLock();
+    lock.lock();
+    try {
+      checkOpen(session);
+      return write(session, offset, content, contentLength);
+    } finally {
+      lock.unlock();
+    }
+  }
+
+  private UploadStatus write(
+      Session session, long offset, InputStream content, long contentLength) {
+    if (offset < 0
+        || offset > session.size
+        || (contentLength >= 0 && offset + contentLength > session.size)) {
+      throw new IllegalArgumentException(
+          "Chunk at " + offset + " does not fit an upload of " + session.size + " bytes");
+    }
+
+    long position = offset;
+    try {
+      byte[] buffer = new byte[BUFFER_SIZE];
+      ByteBuffer wrapped = ByteBuffer.wrap(buffer);
+      int read;
+      while ((read = content.read(buffer)) != -1) {
+        if (position + read > session.size) {
+          throw new IllegalArgumentException(
+              "Chunk at " + offset + " runs past the end of the upload");
+        }
+        wrapped.clear().limit(read);
+        while (wrapped.hasRemaining()) {
+          position += session.data.write(wrapped, position);
+        }
+      }
+    } catch (IOException e) {
+      throw new StorageException(
+          "Failed to write chunk at " + offset + " of upload " + session.id, e);
+    } finally {
+      if (position > offset) {
+        session.received(offset, position);
+      }
+    }
+    return session.status();
+  }
+
+  public UploadStatus status(String id) {
+    Session session = session(id);
+    Lock lock = session.lock.readLock();
+    lock.lock();
+    try {
+      checkOpen(session);
+      return session.status();
+    } finally {
+      lock.unlock();
+    }
+  }
+
+  /** Hands the assembled file to the {@link StorageService} and removes the session. */
+  public StoredFile complete(String id) {
+    Session session = session(id);
+    Lock lock = session.lock.writeLock();
+    lock.lock();
+    try {
+      checkOpen(session);
+      if (!session.isComplete()) {
+        throw new UploadIncompleteException(
+            "Upload " + id + " has " + session.missing() + " bytes missing.");
+      }
+      StoredFile stored;
+      try (InputStream content = Files.newInputStream(session.dir.resolve(DATA_FILE))) {
+        stored = storageService.store(session.filename, content, session.size);
+      } catch (IOException e) {
+        throw new StorageException("Failed to read upload " + id, e);
+      }
+      discard(session);
+      return stored;
+    } finally {
+      lock.unlock();
+    }
+  }
+
+  public void abort(String id) {
+    Session session = session(id);
+    Lock lock = session.lock.writeLock();
+    lock.lock();
+    try {
+      checkOpen(session);
+      discard(session);
+    } finally {
+      lock.unlock();
+    }
+  }
+
+  @PreDestroy
+  public void shutdown() {
+    expirer.shutdownNow();
+    for (Session session : sessions.values()) {
+      Lock lock = session.lock.writeLock();
+      lock.lock();
+      try {
+        session.close();
+      } finally {
+        lock.unlock();
+      }
+    }
+    sessions.clear();
+  }
+
+  private Session session(String id) {
+    try {
+      // Also keeps ids like "../x" from resolving outside the sessions directory.
+      UUID.fromString(id);
+    } catch (IllegalArgumentException e) {
+      throw new UploadSessionNotFoundException("No upload session " + id);
+    }
+    Session session =
+        sessions.computeIfAbsent(
+            id,
+            key -> {
+              Path dir = sessionsLocation.resolve(key);
+              if (!Files.exists(dir.resolve(SESSION_FILE))) {
+                return null;
+              }
+              try {
+                return Session.open(key, dir, properties.isFsync());
+              } catch (IOException e) {
+                throw new StorageException("Could not reopen upload session " + key, e);
+              }
+            });
+    if (session == null) {
+      throw new UploadSessionNotFoundException("No upload session " + id);
+    }
+    return session;
+  }
+
+  // Lost a race with complete or abort.
+  private static void checkOpen(Session session) {
+    if (session.closed) {
+      throw new UploadSessionNotFoundException("No upload session " + session.id);
+    }
+  }
+
+  // Called under the write lock. The closed session stays mapped until its directory is gone, so
+  // that a concurrent lookup finds it closed rather than reopening what is left on disk.
+  private void discard(Session session) {
+    session.close();
+    FileSystemUtils.deleteRecursively(session.dir.toFile());
+    sessions.remove(session.id, session);
+  }
+
+  private static final class Session {
+
+    private final String id;
+    private final Path dir;
+    private final String filename;
+    private final long size;
+    private final boolean fsync;
+    private final FileChannel data;
+    private final FileChannel receivedLog;
+
+    // Read for writing chunks and status, write for complete, abort, expiry and shutdown.
+    private final ReadWriteLock lock = new ReentrantReadWriteLock();
+    // Guarded by lock.
+    private boolean closed;
+
+    // Merged ranges, start to end. Guarded by this.
+    private final TreeMap<Long, Long> received = new TreeMap<>();
+    private long receivedBytes;
+
+    private Session(
+        String id,
+        Path dir,
+        String filename,
+        long size,
+        boolean fsync,
+        FileChannel data,
+        FileChannel receivedLog) {
+      this.id = id;
+      this.dir = dir;
+      this.filename = filename;
+      this.size = size;
+      this.fsync = fsync;
+      this.data = data;
+      this.receivedLog = receivedLog;
+    }
+
+    static Session open(String id, Path dir, boolean fsync) throws IOException {
+      Properties metadata = new Properties();
+      try (Reader reader = Files.newBufferedReader(dir.resolve(SESSION_FILE))) {
+        metadata.load(reader);
+      }
+      FileChannel data = FileChannel.open(dir.resolve(DATA_FILE), StandardOpenOption.WRITE);
+      FileChannel receivedLog =
+          FileChannel.open(
+              dir.resolve(RECEIVED_FILE), StandardOpenOption.READ, StandardOpenOption.WRITE);
+      Session session =
+          new Session(
+              id,
+              dir,
+              metadata.getProperty("filename"),
+              Long.parseLong(metadata.getProperty("size")),
+              fsync,
+              data,
+              receivedLog);
+      session.replay();
+      return session;
+    }
+
+    // Rebuilds the ranges from the log, dropping a record torn by a crash mid-append.
+    private void replay() throws IOException {
+      long length = receivedLog.size() / RANGE_RECORD_BYTES * RANGE_RECORD_BYTES;
+      ByteBuffer buffer = ByteBuffer.allocate(4096 * RANGE_RECORD_BYTES);
+      long position = 0;
+      while (position < length) {
+        buffer.clear().limit((int) Math.min(buffer.capacity(), length - position));
+        while (buffer.hasRemaining()) {
+          position += receivedLog.read(buffer, position);
+        }
+        buffer.flip();
+        while (buffer.hasRemaining()) {
+          merge(buffer.getLong(), buffer.getLong());
+        }
+      }
+      receivedLog.truncate(position);
+      receivedLog.position(position);
+    }
+
+    synchronized void received(long start, long end) {
+      try {
+        if (fsync) {
+          data.force(false);
+        }
+        ByteBuffer record = ByteBuffer.allocate(RANGE_RECORD_BYTES).putLong(start).putLong(end);
+        record.flip();
+        while (record.hasRemaining()) {
+          receivedLog.write(record);
+        }
+        if (fsync) {
+          receivedLog.force(false);
+        }
+      } catch (IOException e) {
+        throw new StorageException("Failed to record chunk of upload " + id, e);
+      }
+      merge(start, end);
+    }
+
+    private void merge(long start, long end) {
+      Map.Entry<Long, Long> before = received.floorEntry(start);
+      if (before != null && before.getValue() >= start) {
+        start = before.getKey();
+        end = Math.max(end, before.getValue());
+      }
+      Map.Entry<Long, Long> next;
+      while ((next = received.ceilingEntry(start)) != null && next.getKey() <= end) {
+        end = Math.max(end, next.getValue());
+        receivedBytes -= next.getValue() - next.getKey();
+        received.remove(next.getKey());
+      }
+      received.put(start, end);
+      receivedBytes += end - start;
+    }
+
+    synchronized boolean isComplete() {
+      return receivedBytes == size;
+    }
+
+    synchronized long missing() {
+      return size - receivedBytes;
+    }
+
+    synchronized UploadStatus status() {
+      List<UploadStatus.Range> ranges = new ArrayList<>(received.size());
+      received.forEach((start, end) -> ranges.add(new UploadStatus.Range(start, end)));
+      return new UploadStatus(id, filename, size, ranges, receivedBytes == size);
+    }
+
+    void close() {
+      closed = true;
+      try {
+        data.close();
+        receivedLog.close();
+      } catch (IOException e) {
+        log.debug("Failed to close upload session {}", id, e);
+      }
+    }
+  }
+}
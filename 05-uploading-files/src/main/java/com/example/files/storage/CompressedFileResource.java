@@ -0,0 +1,27 @@
+package com.example.files.storage;
+
+import java.nio.file.Path;
+import org.springframework.core.io.FileSystemResource;
+
+/**
+ * A stored file kept gzip-compressed on disk. Its content is the compressed bytes; the file name
+ * is the one it was uploaded under, so the media type can still be derived from it.
+ */
+public class CompressedFileResource extends FileSystemResource {
+
+  private final String filename;
+
+  CompressedFileResource(Path path, String filename) {
+    super(path);
+    this.filename = filename;
+  }
+
+  @Override
+  public String getFilename() {
+    return filename;
+  }
+
+  public String getContentEncoding() {
+    return "gzip";
+  }
+}
@@ -0,0 +1,336 @@
+package com.example.files.storage;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.UncheckedIOException;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.nio.file.StandardCopyOption;
+import java.nio.file.StandardOpenOption;
+import java.util.HashMap;
+import java.util.HexFormat;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.stream.Stream;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.context.ApplicationEventPublisher;
+import org.springframework.core.io.FileSystemResource;
+import org.springframework.core.io.Resource;
+import org.springframework.stereotype.Service;
+import org.springframework.util.FileSystemUtils;
+import org.springframework.web.multipart.MultipartFile;
+
+/**
+ * Stores every distinct content once, under its SHA-256, and maps file names onto it.
+ *
+ * <pre>
+ * root/objects/ab/cd/abcd...   content, sharded by the first two bytes of its hash
+ * root/names/12/report.pdf     the hash report.pdf points at, sharded by the hash of the name
+ * root/.incoming/              uploads still streaming in
+ * </pre>
+ *
+ * The name files are the source of truth. Reference counts are rebuilt from them on {@link #init}
+ * and objects nobody points at any more are deleted, which also cleans up after a crash between
+ * writing an object and its name. A name file that does not hold a hash is skipped and left for
+ * inspection, and no object is deleted on that start, since it may be the one the name pointed at.
+ */
+@Service
+@ConditionalOnProperty(name = "storage.layout", havingValue = "content-addressed")
+public class ContentAddressedStorageService implements StorageService {
+
+  private static final Logger log = LoggerFactory.getLogger(ContentAddressedStorageService.class);
+
+  private static final String INCOMING = ".incoming";
+  private static final String OBJECTS = "objects";
+  private static final String NAMES = "names";
+  private static final int HASH_LENGTH = 64;
+
+  private final Path rootLocation;
+  private final long maxFileSize;
+  private final boolean fsync;
+  private final ApplicationEventPublisher events;
+
+  // Guarded by this. Objects are created, pointed at and deleted only while holding the lock.
+  private final Map<String, Integer> referenceCounts = new HashMap<>();
+
+  // Hash each name points at, so loads do not have to read the name file.
+  private final Map<String, String> names = new ConcurrentHashMap<>();
+
+  public ContentAddressedStorageService(
+      StorageProperties properties, ApplicationEventPublisher events) {
+    if (properties.getLocation().trim().length() == 0) {
+      throw new StorageException("File upload location can not be empty.");
+    }
+
+    this.rootLocation = Paths.get(properties.getLocation());
+    this.maxFileSize = properties.getMaxFileSize().toBytes();
+    this.fsync = properties.isFsync();
+    this.events = events;
+  }
+
+  @Override
+  public synchronized void init() {
+    try {
+      Files.createDirectories(rootLocation.resolve(OBJECTS));
+      Files.createDirectories(rootLocation.resolve(NAMES));
+      FileSystemUtils.deleteRecursively(rootLocation.resolve(INCOMING));
+
+      names.clear();
+      referenceCounts.clear();
+      int damaged = 0;
+      try (Stream<Path> nameFiles = walkFiles(rootLocation.resolve(NAMES), 2)) {
+        for (Path nameFile : (Iterable<Path>) nameFiles::iterator) {
+          String hash = readHash(nameFile);
+          if (hash == null) {
+            log.warn("Skipping {}: it does not hold a SHA-256", nameFile);
+            damaged++;
+            continue;
+          }
+          names.put(nameFile.getFileName().toString(), hash);
+          referenceCounts.merge(hash, 1, Integer::sum);
+        }
+      }
+
+      int orphans = 0;
+      if (damaged > 0) {
+        log.warn("Keeping unreferenced objects, {} name files are damaged", damaged);
+      } else {
+        orphans = removeOrphans();
+      }
+      log.info(
+          "Content-addressed storage has {} names over {} objects, removed {} orphans",
+          names.size(),
+          referenceCounts.size(),
+          orphans);
+    } catch (IOException | UncheckedIOException e) {
+      throw new StorageException("Could not initialize storage", e);
+    }
+  }
+
+  private int removeOrphans() throws IOException {
+    int orphans = 0;
+    try (Stream<Path> objects = walkFiles(rootLocation.resolve(OBJECTS), 3)) {
+      for (Path object : (Iterable<Path>) objects::iterator) {
+        if (!referenceCounts.containsKey(object.getFileName().toString())) {
+          deleteQuietly(object);
+          orphans++;
+        }
+      }
+    }
+    return orphans;
+  }
+
+  @Override
+  public void store(MultipartFile file) {
+    if (file.isEmpty()) {
+      throw new StorageException("Failed to store empty file.");
+    }
+    try (InputStream inputStream = file.getInputStream()) {
+      store(file.getOriginalFilename(), inputStream, file.getSize());
+    } catch (IOException e) {
+      throw new StorageException("Failed to store file.", e);
+    }
+  }
+
+  @Override
+  public StoredFile store(String filename, InputStream content, long contentLength) {
+    String name = validName(filename);
+    if (contentLength > maxFileSize) {
+      throw IncomingFile.tooLarge(filename, maxFileSize);
+    }
+
+    try {
+      IncomingFile incoming =
+          IncomingFile.receive(
+              rootLocation.resolve(INCOMING), filename, content, maxFileSize, fsync);
+      try {
+        link(name, incoming);
+      } finally {
+        incoming.discard();
+      }
+      events.publishEvent(new FileStoredEvent(name));
+      return new StoredFile(name, incoming.size(), incoming.sha256());
+    } catch (IOException e) {
+      throw new StorageException("Failed to store file.", e);
+    }
+  }
+
+  @Override
+  public void checkName(String filename) {
+    validName(filename);
+  }
+
+  @Override
+  public Stream<Path> loadAll() {
+    return names.keySet().stream().map(Paths::get);
+  }
+
+  @Override
+  public Path load(String filename) {
+    String hash = names.get(filename);
+    if (hash == null) {
+      // Somewhere that does not exist, like a missing file in the flat layout.
+      return rootLocation.resolve(NAMES).resolve(filename);
+    }
+    return objectPath(hash);
+  }
+
+  @Override
+  public Resource loadAsResource(String filename) {
+    String hash = names.get(filename);
+    if (hash == null || !Files.isReadable(objectPath(hash))) {
+      throw new StorageFileNotFoundException("Could not read file: " + filename);
+    }
+    return new NamedFileResource(objectPath(hash), filename);
+  }
+
+  @Override
+  public synchronized void deleteAll() {
+    FileSystemUtils.deleteRecursively(rootLocation.toFile());
+    names.clear();
+    referenceCounts.clear();
+  }
+
+  // Number of distinct contents stored, however many names point at them.
+  synchronized int objectCount() {
+    return referenceCounts.size();
+  }
+
+  private synchronized void link(String name, IncomingFile incoming) throws IOException {
+    String hash = incoming.sha256();
+    Path object = objectPath(hash);
+    if (referenceCounts.containsKey(hash)) {
+      log.debug("Deduplicated {} against existing object {}", name, hash);
+    } else {
+      Files.createDirectories(object.getParent());
+      incoming.commitTo(object);
+      if (fsync) {
+        forceDirectory(object.getParent());
+      }
+    }
+
+    Path nameFile = nameFile(name);
+    Files.createDirectories(nameFile.getParent());
+    Path tempNameFile = Files.createTempFile(rootLocation.resolve(INCOMING), "name-", ".part");
+    try (FileChannel channel = FileChannel.open(tempNameFile, StandardOpenOption.WRITE)) {
+      ByteBuffer bytes = ByteBuffer.wrap(hash.getBytes(StandardCharsets.US_ASCII));
+      while (bytes.hasRemaining()) {
+        channel.write(bytes);
+      }
+      if (fsync) {
+        channel.force(false);
+      }
+    }
+    Files.move(
+        tempNameFile,
+        nameFile,
+        StandardCopyOption.ATOMIC_MOVE,
+        StandardCopyOption.REPLACE_EXISTING);
+    if (fsync) {
+      forceDirectory(nameFile.getParent());
+    }
+
+    String previous = names.put(name, hash);
+    referenceCounts.merge(hash, 1, Integer::sum);
+    if (previous != null) {
+      release(previous);
+    }
+  }
+
+  private void release(String hash) {
+    int remaining = referenceCounts.merge(hash, -1, Integer::sum);
+    if (remaining <= 0) {
+      referenceCounts.remove(hash);
+      deleteQuietly(objectPath(hash));
+    }
+  }
+
+  private String validName(String filename) {
+    if (filename == null || filename.isBlank()) {
+      throw new StorageException("Failed to store file without a name.");
+    }
+    Path name = Paths.get(filename).normalize();
+    if (name.getNameCount() != 1
+        || name.isAbsolute()
+        || name.toString().isEmpty()
+        || name.toString().equals("..")) {
+      throw new StorageException("Cannot store file outside current directory.");
+    }
+    return name.toString();
+  }
+
+  private Path objectPath(String hash) {
+    return rootLocation
+        .resolve(OBJECTS)
+        .resolve(hash.substring(0, 2))
+        .resolve(hash.substring(2, 4))
+        .resolve(hash);
+  }
+
+  private Path nameFile(String name) {
+    byte[] nameHash =
+        IncomingFile.sha256Digest().digest(name.getBytes(StandardCharsets.UTF_8));
+    return rootLocation
+        .resolve(NAMES)
+        .resolve(HexFormat.of().toHexDigits(nameHash[0]))
+        .resolve(name);
+  }
+
+  private static Stream<Path> walkFiles(Path dir, int depth) throws IOException {
+    return Files.walk(dir, depth).filter(Files::isRegularFile);
+  }
+
+  // The hash in a name file, or null if a crash left it empty or torn.
+  private static String readHash(Path nameFile) throws IOException {
+    String hash = Files.readString(nameFile, StandardCharsets.US_ASCII).strip();
+    if (hash.length() != HASH_LENGTH) {
+      return null;
+    }
+    for (int i = 0; i < hash.length(); i++) {
+      char c = hash.charAt(i);
+      if (!(c >= '0' && c <= '9') && !(c >= 'a' && c <= 'f')) {
+        return null;
+      }
+    }
+    return hash;
+  }
+
+  // Makes a rename into the directory durable. Not every platform can open a directory.
+  private static void forceDirectory(Path dir) {
+    try (FileChannel channel = FileChannel.open(dir, StandardOpenOption.READ)) {
+      channel.force(true);
+    } catch (IOException e) {
+      log.debug("Could not flush directory {}", dir, e);
+    }
+  }
+
+  private void deleteQuietly(Path path) {
+    try {
+      Files.deleteIfExists(path);
+    } catch (IOException e) {
+      log.warn("Could not delete {}", path, e);
+    }
+  }
+
+  // The object's file, presented under the name it was uploaded with.
+  private static final class NamedFileResource extends FileSystemResource {
+
+    private final String filename;
+
+    private NamedFileResource(Path path, String filename) {
+      super(path);
+      this.filename = filename;
+    }
+
+    @Override
+    public String getFilename() {
+      return filename;
+    }
+  }
+}
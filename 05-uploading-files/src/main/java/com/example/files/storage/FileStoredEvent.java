@@ -0,0 +1,4 @@
+package com.example.files.storage;
+
+/** Published by a {@link StorageService} once a file is committed and visible under its name. */
+public record FileStoredEvent(String filename) {}
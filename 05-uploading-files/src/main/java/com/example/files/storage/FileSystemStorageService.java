@@ -6,33 +6,61 @@ import java.net.MalformedURLException;
 import java.nio.file.Files;
 import java.nio.file.Path;
 import java.nio.file.Paths;
-import java.nio.file.StandardCopyOption;
 import java.util.stream.Stream;
 import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.context.ApplicationEventPublisher;
 import org.springframework.core.io.Resource;
 import org.springframework.core.io.UrlResource;
+import org.springframework.http.MediaType;
+import org.springframework.http.MediaTypeFactory;
 import org.springframework.stereotype.Service;
 import org.springframework.util.FileSystemUtils;
 import org.springframework.web.multipart.MultipartFile;
 
 @Service
+@ConditionalOnProperty(name = "storage.layout", havingValue = "flat", matchIfMissing = true)
 public class FileSystemStorageService implements StorageService {
 
+  // Uploads in progress live here, on the same file system as their destination, so that
+  // committing them is a single atomic rename.
+  private static final String INCOMING = ".incoming";
+
+  // Gzipped files live here under their plain name, so no upload can collide with them.
+  private static final String COMPRESSED = ".compressed";
+
+  // Below this the gzip header and trailer eat most of what compression would save.
+  private static final long MIN_COMPRESSED_SIZE = 1024;
+
   private final Path rootLocation;
+  private final long maxFileSize;
+  private final boolean fsync;
+  private final boolean compression;
+  private final int compressionLevel;
+  private final ApplicationEventPublisher events;
 
   @Autowired
-  public FileSystemStorageService(StorageProperties properties) {
+  public FileSystemStorageService(
+      StorageProperties properties, ApplicationEventPublisher events) {
     if (properties.getLocation().trim().length() == 0) {
       throw new StorageException("File upload location can not be empty.");
     }
 
     this.rootLocation = Paths.get(properties.getLocation());
+    this.maxFileSize = properties.getMaxFileSize().toBytes();
+    this.fsync = properties.isFsync();
+    this.compression = properties.isCompression();
+    this.compressionLevel = properties.getCompressionLevel();
+    this.events = events;
   }
 
   @Override
   public void init() {
     try {
       Files.createDirectories(rootLocation);
+      if (compression) {
+        Files.createDirectories(rootLocation.resolve(COMPRESSED));
+      }
     } catch (IOException e) {
       throw new StorageException("Could not initialize storage", e);
     }
@@ -40,49 +68,90 @@ public class FileSystemStorageService implements StorageService {
 
   @Override
   public void store(MultipartFile file) {
-    try {
-      if (file.isEmpty()) {
-        throw new StorageException("Failed to store empty file.");
-      }
-
-      Path destinationFile =
-          this.rootLocation
-              .resolve(Paths.get(file.getOriginalFilename()))
-              .normalize()
-              .toAbsolutePath();
+    if (file.isEmpty()) {
+      throw new StorageException("Failed to store empty file.");
+    }
+    try (InputStream inputStream = file.getInputStream()) {
+      store(file.getOriginalFilename(), inputStream, file.getSize());
+    } catch (IOException e) {
+      throw new StorageException("Failed to store file.", e);
+    }
+  }
 
-      if (!destinationFile.getParent().equals(this.rootLocation.toAbsolutePath())) {
-        throw new StorageException("Cannot store file outside current directory.");
-      }
+  @Override
+  public StoredFile store(String filename, InputStream content, long contentLength) {
+    Path destinationFile = resolveDestination(filename);
+    if (contentLength > maxFileSize) {
+      throw IncomingFile.tooLarge(filename, maxFileSize);
+    }
 
-      try (InputStream inputStream = file.getInputStream()) {
-        Files.copy(inputStream, destinationFile, StandardCopyOption.REPLACE_EXISTING);
+    String stored = destinationFile.getFileName().toString();
+    boolean compress = compression && isCompressible(stored, contentLength);
+    Path compressedFile = rootLocation.resolve(COMPRESSED).resolve(stored);
+    try {
+      IncomingFile incoming =
+          IncomingFile.receive(
+              rootLocation.resolve(INCOMING),
+              filename,
+              content,
+              maxFileSize,
+              fsync,
+              compress ? compressionLevel : -1);
+      try {
+        incoming.commitTo(compress ? compressedFile : destinationFile);
+      } catch (IOException e) {
+        incoming.discard();
+        throw e;
       }
+      // Only now drop the other form, so readers never find neither.
+      Files.deleteIfExists(compress ? destinationFile : compressedFile);
+      events.publishEvent(new FileStoredEvent(stored));
+      return new StoredFile(stored, incoming.size(), incoming.sha256());
     } catch (IOException e) {
       throw new StorageException("Failed to store file.", e);
     }
   }
 
+  @Override
+  public void checkName(String filename) {
+    resolveDestination(filename);
+  }
+
   @Override
   public Stream<Path> loadAll() {
     try {
-      return Files.walk(this.rootLocation, 1)
-          .filter(path -> !path.equals(this.rootLocation))
-          .map(this.rootLocation::relativize);
+      Stream<Path> files =
+          Files.walk(this.rootLocation, 1)
+              .filter(path -> !path.equals(this.rootLocation) && Files.isRegularFile(path))
+              .map(this.rootLocation::relativize);
+      Path compressedDir = rootLocation.resolve(COMPRESSED);
+      if (!Files.isDirectory(compressedDir)) {
+        return files;
+      }
+      return Stream.concat(
+          files,
+          Files.walk(compressedDir, 1)
+              .filter(path -> !path.equals(compressedDir) && Files.isRegularFile(path))
+              .map(compressedDir::relativize));
     } catch (IOException e) {
       throw new StorageException("Failed to read stored files", e);
     }
   }
 
+  // The file as it is on disk, which for a compressed file is the gzipped form.
   @Override
   public Path load(String filename) {
-    return rootLocation.resolve(filename);
+    Path compressedFile = rootLocation.resolve(COMPRESSED).resolve(filename);
+    return Files.exists(compressedFile) ? compressedFile : rootLocation.resolve(filename);
   }
 
   @Override
   public Resource loadAsResource(String filename) {
     try {
       Path file = load(filename);
+      if (file.startsWith(rootLocation.resolve(COMPRESSED))) {
+        return new CompressedFileResource(file, filename);
+      }
       Resource resource = new UrlResource(file.toUri());
       if (resource.exists() || resource.isReadable()) {
         return resource;
@@ -98,4 +167,38 @@ public class FileSystemStorageService implements StorageService {
   public void deleteAll() {
     FileSystemUtils.deleteRecursively(rootLocation.toFile());
   }
+
+  // Text-like content by file name; anything else is most likely compressed already.
+  private static boolean isCompressible(String filename, long contentLength) {
+    if (contentLength >= 0 && contentLength < MIN_COMPRESSED_SIZE) {
+      return false;
+    }
+    MediaType type = MediaTypeFactory.getMediaType(filename).orElse(null);
+    if (type == null) {
+      return false;
+    }
+    String subtype = type.getSubtype();
+    return type.getType().equals("text")
+        || subtype.equals("json")
+        || subtype.endsWith("+json")
+        || subtype.equals("xml")
+        || subtype.endsWith("+xml")
+        || subtype.equals("javascript")
+        || subtype.equals("x-ndjson");
+  }
+
+  private Path resolveDestination(String filename) {
+    if (filename == null || filename.isBlank()) {
+      throw new StorageException("Failed to store file without a name.");
+    }
+    Path destinationFile =
+        this.rootLocation.resolve(Paths.get(filename)).normalize().toAbsolutePath();
+
+    if (!destinationFile.getParent().equals(this.rootLocation.toAbsolutePath())
+        || destinationFile.getFileName().toString().equals(INCOMING)
+        || destinationFile.getFileName().toString().equals(COMPRESSED)) {
+      throw new StorageException("Cannot store file outside current directory.");
+    }
+    return destinationFile;
+  }
 }
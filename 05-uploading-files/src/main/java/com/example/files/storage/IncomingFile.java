@@ -0,0 +1,140 @@
+package com.example.files.storage;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.nio.ByteBuffer;
+import java.nio.channels.Channels;
+import java.nio.channels.FileChannel;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.nio.file.StandardOpenOption;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.util.HexFormat;
+import java.util.zip.GZIPOutputStream;
+import org.springframework.util.FileSystemUtils;
+
+/**
+ * An upload streamed into a temp file, with its size and SHA-256 known, waiting to be committed
+ * with an atomic rename. The temp directory must be on the same file system as the destination.
+ */
+final class IncomingFile {
+
+  private static final int BUFFER_SIZE = 256 * 1024;
+
+  private final Path path;
+  private final long size;
+  private final String sha256;
+
+  private IncomingFile(Path path, long size, String sha256) {
+    this.path = path;
+    this.size = size;
+    this.sha256 = sha256;
+  }
+
+  static IncomingFile receive(
+      Path incomingDir, String filename, InputStream content, long maxFileSize, boolean fsync)
+      throws IOException {
+    return receive(incomingDir, filename, content, maxFileSize, fsync, -1);
+  }
+
+  /**
+   * Like {@link #receive(Path, String, InputStream, long, boolean)}, but gzips the content on its
+   * way to disk unless {@code compressionLevel} is negative. Size and checksum are always those
+   * of the uncompressed content.
+   */
+  static IncomingFile receive(
+      Path incomingDir,
+      String filename,
+      InputStream content,
+      long maxFileSize,
+      boolean fsync,
+      int compressionLevel)
+      throws IOException {
+    Files.createDirectories(incomingDir);
+    Path tempFile = Files.createTempFile(incomingDir, "upload-", ".part");
+    try {
+      MessageDigest digest = sha256Digest();
+      long size = 0;
+      FileChannel channel = FileChannel.open(tempFile, StandardOpenOption.WRITE);
+      // Closing the gzip stream closes the channel too, and releases the deflater's native memory.
+      try (OutputStream out =
+          compressionLevel < 0
+              ? Channels.newOutputStream(channel)
+              : gzip(Channels.newOutputStream(channel), compressionLevel)) {
+        GZIPOutputStream gzip = out instanceof GZIPOutputStream g ? g : null;
+        byte[] buffer = new byte[BUFFER_SIZE];
+        ByteBuffer wrapped = ByteBuffer.wrap(buffer);
+        int read;
+        while ((read = content.read(buffer)) != -1) {
+          size += read;
+          if (size > maxFileSize) {
+            throw tooLarge(filename, maxFileSize);
+          }
+          digest.update(buffer, 0, read);
+          if (gzip != null) {
+            gzip.write(buffer, 0, read);
+            continue;
+          }
+          wrapped.clear().limit(read);
+          while (wrapped.hasRemaining()) {
+            channel.write(wrapped);
+          }
+        }
+        if (size == 0) {
+          throw new StorageException("Failed to store empty file.");
+        }
+        if (gzip != null) {
+          gzip.finish();
+        }
+        if (fsync) {
+          channel.force(false);
+        }
+      }
+      return new IncomingFile(tempFile, size, HexFormat.of().formatHex(digest.digest()));
+    } catch (IOException | RuntimeException e) {
+      FileSystemUtils.deleteRecursively(tempFile);
+      throw e;
+    }
+  }
+
+  private static GZIPOutputStream gzip(OutputStream out, int level) throws IOException {
+    return new GZIPOutputStream(out, BUFFER_SIZE) {
+      {
+        def.setLevel(level);
+      }
+    };
+  }
+
+  static StorageFileTooLargeException tooLarge(String filename, long maxFileSize) {
+    return new StorageFileTooLargeException(
+        "File " + filename + " exceeds the limit of " + maxFileSize + " bytes.");
+  }
+
+  static MessageDigest sha256Digest() {
+    try {
+      return MessageDigest.getInstance("SHA-256");
+    } catch (NoSuchAlgorithmException e) {
+      throw new IllegalStateException(e);
+    }
+  }
+
+  long size() {
+    return size;
+  }
+
+  String sha256() {
+    return sha256;
+  }
+
+  void commitTo(Path destination) throws IOException {
+    Files.move(
+        path, destination, StandardCopyOption.ATOMIC_MOVE, StandardCopyOption.REPLACE_EXISTING);
+  }
+
+  void discard() throws IOException {
+    Files.deleteIfExists(path);
+  }
+}
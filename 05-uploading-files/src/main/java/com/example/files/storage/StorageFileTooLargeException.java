@@ -0,0 +1,8 @@
+package com.example.files.storage;
+
+public class StorageFileTooLargeException extends StorageException {
+
+  public StorageFileTooLargeException(String message) {
+    super(message);
+  }
+}
@@ -1,12 +1,54 @@
 package com.example.files.storage;
 
+import java.time.Duration;
 import org.springframework.boot.context.properties.ConfigurationProperties;
+import org.springframework.util.unit.DataSize;
 
 @ConfigurationProperties("storage")
 public class StorageProperties {
 
+  public enum Layout {
+    // One file per name, directly in the location.
+    FLAT,
+    // Deduplicated objects sharded by SHA-256, with names pointing at them.
+    CONTENT_ADDRESSED
+  }
+
+  public enum Reset {
+    // Delete the old contents before starting; slow for large directories.
+    DELETE,
+    // Rename the old root into the trash and delete it in the background.
+    TRASH
+  }
+
   private String location = "upload-dir";
 
+  // What happens to the previous contents at startup.
+  private Reset reset = Reset.TRASH;
+
+  // Background deletion of trashed files, in files per second; 0 means unthrottled.
+  private int reclaimRate = 5000;
+
+  private Layout layout = Layout.FLAT;
+
+  // Chunked upload sessions; kept outside location so they survive a storage reset.
+  private String sessionsLocation = "upload-sessions";
+
+  // Unfinished upload sessions older than this are discarded at startup.
+  private Duration sessionTtl = Duration.ofDays(1);
+
+  // Uploads are cut off as soon as they stream past this size.
+  private DataSize maxFileSize = DataSize.ofGigabytes(2);
+
+  // Flush uploads to the device before they become visible under their final name.
+  private boolean fsync = true;
+
+  // Gzip text-like uploads (by file name) on their way to disk. Flat layout only.
+  private boolean compression = false;
+
+  // Deflate level from 1 (fastest) to 9 (smallest).
+  private int compressionLevel = 6;
+
   public String getLocation() {
     return location;
   }
@@ -14,4 +56,76 @@ public class StorageProperties {
   public void setLocation(String location) {
     this.location = location;
   }
+
+  public Reset getReset() {
+    return reset;
+  }
+
+  public void setReset(Reset reset) {
+    this.reset = reset;
+  }
+
+  public int getReclaimRate() {
+    return reclaimRate;
+  }
+
+  public void setReclaimRate(int reclaimRate) {
+    this.reclaimRate = reclaimRate;
+  }
+
+  public Layout getLayout() {
+    return layout;
+  }
+
+  public void setLayout(Layout layout) {
+    this.layout = layout;
+  }
+
+  public String getSessionsLocation() {
+    return sessionsLocation;
+  }
+
+  public void setSessionsLocation(String sessionsLocation) {
+    this.sessionsLocation = sessionsLocation;
+  }
+
+  public Duration getSessionTtl() {
+    return sessionTtl;
+  }
+
+  public void setSessionTtl(Duration sessionTtl) {
+    this.sessionTtl = sessionTtl;
+  }
+
+  public DataSize getMaxFileSize() {
+    return maxFileSize;
+  }
+
+  public void setMaxFileSize(DataSize maxFileSize) {
+    this.maxFileSize = maxFileSize;
+  }
+
+  public boolean isFsync() {
+    return fsync;
+  }
+
+  public void setFsync(boolean fsync) {
+    this.fsync = fsync;
+  }
+
+  public boolean isCompression() {
+    return compression;
+  }
+
+  public void setCompression(boolean compression) {
+    this.compression = compression;
+  }
+
+  public int getCompressionLevel() {
+    return compressionLevel;
+  }
+
+  public void setCompressionLevel(int compressionLevel) {
+    this.compressionLevel = compressionLevel;
+  }
 }
@@ -1,5 +1,6 @@
 package com.example.files.storage;
 
+import java.io.InputStream;
 import java.nio.file.Path;
 import java.util.stream.Stream;
 import org.springframework.core.io.Resource;
@@ -11,6 +12,15 @@ public interface StorageService {
 
   void store(MultipartFile file);
 
+  /**
+   * Streams {@code content} into storage under {@code filename} and makes it visible atomically
+   * once complete. {@code contentLength} is the announced size, or -1 if unknown.
+   */
+  StoredFile store(String filename, InputStream content, long contentLength);
+
+  /** Throws the {@link StorageException} that {@link #store} would for {@code filename}. */
+  void checkName(String filename);
+
   Stream<Path> loadAll();
 
   Path load(String filename);
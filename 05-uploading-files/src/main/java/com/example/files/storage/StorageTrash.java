@@ -0,0 +1,216 @@
+package com.example.files.storage;
+
+import jakarta.annotation.PreDestroy;
+import java.io.IOException;
+import java.nio.file.FileVisitResult;
+import java.nio.file.Files;
+import java.nio.file.NoSuchFileException;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.nio.file.SimpleFileVisitor;
+import java.nio.file.StandardCopyOption;
+import java.nio.file.attribute.BasicFileAttributes;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+import java.util.stream.Collectors;
+import java.util.stream.Stream;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.stereotype.Component;
+
+/**
+ * Empties the storage root at startup in constant time: the whole root is renamed into
+ * {@code <location>.trash/<generation>} and a fresh one is created, while a low-priority daemon
+ * thread deletes old generations at a throttled rate. Deleting is idempotent and generations are
+ * plain directories, so whatever a crash or shutdown leaves behind is picked up on the next start.
+ */
+@Component
+public class StorageTrash {
+
+  private static final Logger log = LoggerFactory.getLogger(StorageTrash.class);
+
+  private final StorageService storageService;
+  private final Path rootLocation;
+  private final Path trashLocation;
+  private final StorageProperties.Reset mode;
+  private final int reclaimRate;
+
+  // Guarded by this; null while there is nothing to reclaim.
+  private Thread reclaimer;
+  private volatile long reclaimedFiles;
+
+  public StorageTrash(StorageService storageService, StorageProperties properties) {
+    this.storageService = storageService;
+    this.rootLocation = Paths.get(properties.getLocation()).toAbsolutePath().normalize();
+    this.trashLocation = rootLocation.resolveSibling(rootLocation.getFileName() + ".trash");
+    this.mode = properties.getReset();
+    this.reclaimRate = properties.getReclaimRate();
+  }
+
+  /** Leaves the storage root missing or empty, ready for {@link StorageService#init()}. */
+  public synchronized void reset() {
+    if (mode == StorageProperties.Reset.TRASH && Files.exists(rootLocation)) {
+      try {
+        Files.createDirectories(trashLocation);
+        long id = System.currentTimeMillis();
+        while (Files.exists(trashLocation.resolve(Long.toString(id)))) {
+          id++;
+        }
+        Path generation = trashLocation.resolve(Long.toString(id));
+        Files.move(rootLocation, generation, StandardCopyOption.ATOMIC_MOVE);
+        log.info("Moved previous contents of {} to {}", rootLocation, generation);
+      } catch (IOException e) {
+        // For example when the root is a mount point of its own.
+        log.warn("Could not move {} to the trash, deleting it in place", rootLocation, e);
+        storageService.deleteAll();
+      }
+    } else {
+      storageService.deleteAll();
+    }
+    startReclaiming();
+  }
+
+  public long reclaimedFiles() {
+    return reclaimedFiles;
+  }
+
+  // Waits up to timeout for the trash to be emptied; true if it is.
+  public boolean awaitReclaimed(long timeout, TimeUnit unit) throws InterruptedException {
+    Thread current;
+    synchronized (this) {
+      current = reclaimer;
+    }
+    if (current != null) {
+      current.join(unit.toMillis(timeout));
+    }
+    return generations().isEmpty();
+  }
+
+  @PreDestroy
+  public void shutdown() {
+    Thread current;
+    synchronized (this) {
+      current = reclaimer;
+      reclaimer = null;
+    }
+    if (current != null) {
+      current.interrupt();
+    }
+  }
+
+  private synchronized void startReclaiming() {
+    if (reclaimer != null || generations().isEmpty()) {
+      return;
+    }
+    reclaimer = new Thread(this::reclaim, "storage-reclaimer");
+    reclaimer.setDaemon(true);
+    reclaimer.setPriority(Thread.MIN_PRIORITY);
+    reclaimer.start();
+  }
+
+  private void reclaim() {
+    Throttle throttle = new Throttle(reclaimRate);
+    while (!Thread.currentThread().isInterrupted()) {
+      List<Path> generations;
+      synchronized (this) {
+        generations = generations();
+        if (generations.isEmpty()) {
+          reclaimer = null;
+          return;
+        }
+      }
+      Path generation = generations.get(0);
+      long start = System.nanoTime();
+      long before = reclaimedFiles;
+      try {
+        delete(generation, throttle);
+      } catch (IOException e) {
+        log.warn("Could not reclaim {}, retrying on next start", generation, e);
+        synchronized (this) {
+          reclaimer = null;
+        }
+        return;
+      }
+      if (!Files.exists(generation)) {
+        log.info(
+            "Reclaimed {} files from {} in {} ms",
+            reclaimedFiles - before,
+            generation,
+            (System.nanoTime() - start) / 1_000_000);
+      }
+    }
+  }
+
+  // Oldest first; an unreadable trash directory counts as empty.
+  private List<Path> generations() {
+    if (!Files.isDirectory(trashLocation)) {
+      return List.of();
+    }
+    try (Stream<Path> generations = Files.list(trashLocation)) {
+      return generations.sorted().collect(Collectors.toList());
+    } catch (IOException e) {
+      log.warn("Could not list {}", trashLocation, e);
+      return List.of();
+    }
+  }
+
+  private void delete(Path generation, Throttle throttle) throws IOException {
+    Files.walkFileTree(
+        generation,
+        new SimpleFileVisitor<>() {
+          @Override
+          public FileVisitResult visitFile(Path file, BasicFileAttributes attrs)
+              throws IOException {
+            Files.deleteIfExists(file);
+            reclaimedFiles++;
+            return throttle.acquire() ? FileVisitResult.CONTINUE : FileVisitResult.TERMINATE;
+          }
+
+          @Override
+          public FileVisitResult visitFileFailed(Path file, IOException e) throws IOException {
+            if (e instanceof NoSuchFileException) {
+              return FileVisitResult.CONTINUE;
+            }
+            throw e;
+          }
+
+          @Override
+          public FileVisitResult postVisitDirectory(Path dir, IOException e) throws IOException {
+            if (e != null) {
+              throw e;
+            }
+            Files.deleteIfExists(dir);
+            return FileVisitResult.CONTINUE;
+          }
+        });
+  }
+
+  // Spaces deletions out to at most filesPerSecond; false once the thread is interrupted.
+  private static final class Throttle {
+
+    private final long nanosPerFile;
+    private long next = System.nanoTime();
+
+    private Throttle(int filesPerSecond) {
+      this.nanosPerFile = filesPerSecond <= 0 ? 0 : 1_000_000_000L / filesPerSecond;
+    }
+
+    boolean acquire() {
+      if (nanosPerFile == 0) {
+        return !Thread.currentThread().isInterrupted();
+      }
+      next = Math.max(next + nanosPerFile, System.nanoTime() - 1_000_000_000L);
+      long wait = next - System.nanoTime();
+      // Sleeping per file would cost more than the deletes; sleep in slices of a millisecond+.
+      if (wait > 1_000_000) {
+        try {
+          TimeUnit.NANOSECONDS.sleep(wait);
+        } catch (InterruptedException e) {
+          Thread.currentThread().interrupt();
+          return false;
+        }
+      }
+      return !Thread.currentThread().isInterrupted();
+    }
+  }
+}
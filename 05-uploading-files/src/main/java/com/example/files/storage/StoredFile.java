@@ -0,0 +1,4 @@
+package com.example.files.storage;
+
+/** A file as committed to storage; {@code sha256} is the lower-case hex digest of its content. */
+public record StoredFile(String filename, long size, String sha256) {}
@@ -0,0 +1,181 @@
+package com.example.files.storage;
+
+import jakarta.annotation.PreDestroy;
+import java.io.IOException;
+import java.nio.file.ClosedWatchServiceException;
+import java.nio.file.Files;
+import java.nio.file.NoSuchFileException;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.nio.file.StandardWatchEventKinds;
+import java.nio.file.WatchEvent;
+import java.nio.file.WatchKey;
+import java.nio.file.WatchService;
+import java.nio.file.attribute.BasicFileAttributes;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.NavigableMap;
+import java.util.concurrent.ConcurrentSkipListMap;
+import java.util.stream.Stream;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.context.event.EventListener;
+import org.springframework.stereotype.Component;
+
+/**
+ * Stored files by name with their size and modification time, so listing a page costs
+ * O(log n + page size) instead of a directory walk.
+ *
+ * <p>Built once by {@link #rebuild()}, then kept current by {@link FileStoredEvent}s from the
+ * storage service and, for the flat layout, by a {@link WatchService} on the upload directory that
+ * picks up files added or removed behind the application's back.
+ */
+@Component
+public class StoredFileIndex {
+
+  private static final Logger log = LoggerFactory.getLogger(StoredFileIndex.class);
+
+  public record Entry(String filename, long size, long lastModified) {}
+
+  /** One page of entries; {@code nextCursor} is null on the last page. */
+  public record Page(List<Entry> entries, String nextCursor) {}
+
+  private final StorageService storageService;
+  private final Path rootLocation;
+  private final boolean watchRoot;
+  private final NavigableMap<String, Entry> entries = new ConcurrentSkipListMap<>();
+
+  private WatchService watchService;
+  private Thread watcher;
+
+  public StoredFileIndex(StorageService storageService, StorageProperties properties) {
+    this.storageService = storageService;
+    this.rootLocation = Paths.get(properties.getLocation());
+    // Only the flat layout keeps files where someone might drop them in by hand.
+    this.watchRoot = properties.getLayout() == StorageProperties.Layout.FLAT;
+  }
+
+  /** Replaces the index with the current storage contents and (re)starts watching. */
+  public synchronized void rebuild() {
+    long start = System.nanoTime();
+    stopWatching();
+    entries.clear();
+    if (watchRoot) {
+      startWatching();
+    }
+    try (Stream<Path> files = storageService.loadAll()) {
+      files.forEach(path -> refresh(path.getFileName().toString()));
+    }
+    log.info(
+        "Indexed {} stored files in {} ms",
+        entries.size(),
+        (System.nanoTime() - start) / 1_000_000);
+  }
+
+  /**
+   * Up to {@code limit} entries in name order, starting after {@code cursor} (exclusive), or from
+   * the beginning if it is null.
+   */
+  public Page page(String cursor, int limit) {
+    NavigableMap<String, Entry> tail = cursor == null ? entries : entries.tailMap(cursor, false);
+    List<Entry> page = new ArrayList<>(limit);
+    for (Entry entry : tail.values()) {
+      if (page.size() == limit) {
+        return new Page(page, page.get(page.size() - 1).filename());
+      }
+      page.add(entry);
+    }
+    return new Page(page, null);
+  }
+
+  public int size() {
+    return entries.size();
+  }
+
+  @EventListener
+  public void onFileStored(FileStoredEvent event) {
+    refresh(event.filename());
+  }
+
+  @PreDestroy
+  public synchronized void shutdown() {
+    stopWatching();
+  }
+
+  private void refresh(String filename) {
+    try {
+      BasicFileAttributes attributes =
+          Files.readAttributes(storageService.load(filename), BasicFileAttributes.class);
+      if (attributes.isRegularFile()) {
+        entries.put(
+            filename,
+            new Entry(filename, attributes.size(), attributes.lastModifiedTime().toMillis()));
+      } else {
+        entries.remove(filename);
+      }
+    } catch (NoSuchFileException e) {
+      entries.remove(filename);
+    } catch (IOException e) {
+      log.warn("Could not read attributes of {}", filename, e);
+    }
+  }
+
+  private void startWatching() {
+    try {
+      watchService = rootLocation.getFileSystem().newWatchService();
+      rootLocation.register(
+          watchService,
+          StandardWatchEventKinds.ENTRY_CREATE,
+          StandardWatchEventKinds.ENTRY_MODIFY,
+          StandardWatchEventKinds.ENTRY_DELETE);
+    } catch (IOException e) {
+      log.warn("Not watching {} for changes", rootLocation, e);
+      return;
+    }
+    WatchService service = watchService;
+    watcher = new Thread(() -> watch(service), "stored-file-watcher");
+    watcher.setDaemon(true);
+    watcher.start();
+  }
+
+  private void stopWatching() {
+    if (watchService == null) {
+      return;
+    }
+    try {
+      watchService.close();
+      watcher.join();
+    } catch (IOException e) {
+      log.warn("Could not close watch service", e);
+    } catch (InterruptedException e) {
+      Thread.currentThread().interrupt();
+    }
+    watchService = null;
+    watcher = null;
+  }
+
+  private void watch(WatchService service) {
+    try {
+      while (true) {
+        WatchKey key = service.take();
+        for (WatchEvent<?> event : key.pollEvents()) {
+          if (event.kind() == StandardWatchEventKinds.OVERFLOW) {
+            // Events were lost; only a full scan can tell what changed.
+            try (Stream<Path> files = storageService.loadAll()) {
+              files.forEach(path -> refresh(path.getFileName().toString()));
+            }
+            entries.keySet().removeIf(name -> !Files.exists(storageService.load(name)));
+          } else {
+            refresh(((Path) event.context()).getFileName().toString());
+          }
+        }
+        if (!key.reset()) {
+          log.warn("Stopped watching {}, it is no longer accessible", rootLocation);
+          return;
+        }
+      }
+    } catch (ClosedWatchServiceException | InterruptedException e) {
+      // Shutting down or rebuilding.
+    }
+  }
+}
@@ -0,0 +1,8 @@
+package com.example.files.storage;
+
+public class UploadIncompleteException extends StorageException {
+
+  public UploadIncompleteException(String message) {
+    super(message);
+  }
+}
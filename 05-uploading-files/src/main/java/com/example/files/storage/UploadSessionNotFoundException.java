@@ -0,0 +1,8 @@
+package com.example.files.storage;
+
+public class UploadSessionNotFoundException extends StorageException {
+
+  public UploadSessionNotFoundException(String message) {
+    super(message);
+  }
+}
@@ -0,0 +1,11 @@
+package com.example.files.storage;
+
+import java.util.List;
+
+/** Progress of a chunked upload; {@code received} is merged and ordered by offset. */
+public record UploadStatus(
+    String id, String filename, long size, List<Range> received, boolean complete) {
+
+  /** Bytes {@code [start, end)} of the upload. */
+  public record Range(long start, long end) {}
+}
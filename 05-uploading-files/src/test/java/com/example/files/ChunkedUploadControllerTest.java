@@ -0,0 +1,152 @@
+package com.example.files;
+
+import java.io.IOException;
+import java.net.URI;
+import java.net.http.HttpClient;
+import java.net.http.HttpRequest;
+import java.net.http.HttpResponse;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.security.MessageDigest;
+import java.util.ArrayList;
+import java.util.HexFormat;
+import java.util.List;
+import java.util.Random;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.regex.Matcher;
+import java.util.regex.Pattern;
+import org.junit.jupiter.api.AfterAll;
+import org.junit.jupiter.api.BeforeAll;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+import org.springframework.boot.SpringApplication;
+import org.springframework.context.ConfigurableApplicationContext;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+// Drives the upload protocol over HTTP like a real client would, against the app on a free port.
+class ChunkedUploadControllerTest {
+
+  private static final int STREAMS = 8;
+  private static final int CHUNK_SIZE = 256 * 1024;
+  private static final Pattern ID = Pattern.compile("\"id\":\"([^\"]+)\"");
+
+  @TempDir static Path tempDir;
+
+  private static ConfigurableApplicationContext context;
+  private static HttpClient client;
+  private static String baseUrl;
+
+  @BeforeAll
+  static void startApplication() {
+    context =
+        SpringApplication.run(
+            Application.class,
+            "--server.port=0",
+            "--storage.location=" + tempDir.resolve("uploads"),
+            "--storage.sessions-location=" + tempDir.resolve("sessions"));
+    baseUrl = "http://localhost:" + context.getEnvironment().getProperty("local.server.port");
+    client = HttpClient.newBuilder().version(HttpClient.Version.HTTP_1_1).build();
+  }
+
+  @AfterAll
+  static void stopApplication() {
+    context.close();
+  }
+
+  @Test
+  void uploadsWithParallelStreamsAndResumes() throws Exception {
+    byte[] content = new byte[8 * 1024 * 1024 + 123];
+    new Random(42).nextBytes(content);
+    int chunks = (content.length + CHUNK_SIZE - 1) / CHUNK_SIZE;
+
+    HttpResponse<String> created =
+        client.send(
+            HttpRequest.newBuilder(
+                    URI.create(baseUrl + "/uploads?filename=big.bin&size=" + content.length))
+                .POST(HttpRequest.BodyPublishers.noBody())
+                .build(),
+            HttpResponse.BodyHandlers.ofString());
+    assertThat(created.statusCode()).isEqualTo(201);
+    Matcher id = ID.matcher(created.body());
+    assertThat(id.find()).isTrue();
+    String upload = baseUrl + "/uploads/" + id.group(1);
+
+    // First pass sends only the even chunks, as if the connection dropped half way.
+    sendChunks(upload, content, chunks, 2);
+    String status = get(upload);
+    assertThat(status).contains("\"complete\":false");
+    assertThat(conflict(upload)).isEqualTo(409);
+
+    sendChunks(upload, content, chunks, 1);
+    assertThat(get(upload)).contains("\"complete\":true", "{\"start\":0,\"end\":8388731}");
+
+    HttpResponse<String> completed =
+        client.send(
+            HttpRequest.newBuilder(URI.create(upload + "/complete"))
+                .POST(HttpRequest.BodyPublishers.noBody())
+                .build(),
+            HttpResponse.BodyHandlers.ofString());
+    assertThat(completed.statusCode()).isEqualTo(201);
+    assertThat(completed.body()).contains(sha256(content));
+
+    HttpResponse<byte[]> download =
+        client.send(
+            HttpRequest.newBuilder(URI.create(baseUrl + "/files/big.bin")).build(),
+            HttpResponse.BodyHandlers.ofByteArray());
+    assertThat(download.body()).isEqualTo(content);
+    assertThat(get(upload)).isEmpty();
+    assertThat(Files.list(tempDir.resolve("sessions"))).isEmpty();
+  }
+
+  // Sends every step-th chunk over STREAMS concurrent connections, highest offsets first.
+  private static void sendChunks(String upload, byte[] content, int chunks, int step)
+      throws Exception {
+    ExecutorService streams = Executors.newFixedThreadPool(STREAMS);
+    try {
+      List<Future<Integer>> results = new ArrayList<>();
+      for (int chunk = chunks - 1; chunk >= 0; chunk--) {
+        if (chunk % step != 0) {
+          continue;
+        }
+        int offset = chunk * CHUNK_SIZE;
+        int length = Math.min(CHUNK_SIZE, content.length - offset);
+        HttpRequest request =
+            HttpRequest.newBuilder(URI.create(upload + "?offset=" + offset))
+                .PUT(HttpRequest.BodyPublishers.ofByteArray(content, offset, length))
+                .build();
+        results.add(
+            streams.submit(
+                () -> client.send(request, HttpResponse.BodyHandlers.discarding()).statusCode()));
+      }
+      for (Future<Integer> result : results) {
+        assertThat(result.get()).isEqualTo(200);
+      }
+    } finally {
+      streams.shutdownNow();
+    }
+  }
+
+  private static String get(String uri) throws IOException, InterruptedException {
+    HttpResponse<String> response =
+        client.send(
+            HttpRequest.newBuilder(URI.create(uri)).build(), HttpResponse.BodyHandlers.ofString());
+    return response.statusCode() == 404 ? "" : response.body();
+  }
+
+  private static int conflict(String upload) throws IOException, InterruptedException {
+    return client
+        .send(
+            HttpRequest.newBuilder(URI.create(upload + "/complete"))
+                .POST(HttpRequest.BodyPublishers.noBody())
+                .build(),
+            HttpResponse.BodyHandlers.discarding())
+        .statusCode();
+  }
+
+  private static String sha256(byte[] content) throws Exception {
+    return HexFormat.of().formatHex(MessageDigest.getInstance("SHA-256").digest(content));
+  }
+}
@@ -0,0 +1,121 @@
+package com.example.files;
+
+import com.example.files.storage.CompressedFileResource;
+import com.example.files.storage.FileSystemStorageService;
+import com.example.files.storage.StorageProperties;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.lang.management.ManagementFactory;
+import java.lang.management.ThreadMXBean;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.List;
+import java.util.Set;
+import java.util.stream.Collectors;
+import java.util.stream.Stream;
+import java.util.zip.GZIPInputStream;
+import org.springframework.core.io.Resource;
+import org.springframework.util.FileSystemUtils;
+import org.springframework.util.unit.DataSize;
+
+/**
+ * Stores a corpus of text files with and without compression at rest, reporting the bytes on
+ * disk (which is also what a gzip-accepting client downloads), and the CPU time spent storing
+ * and, for clients without gzip, inflating. Arguments: corpus directory (default: the parent
+ * directory, i.e. all modules' sources), compression level (default 6) and rounds (default 5).
+ */
+public class CompressionBenchmark {
+
+  private static final Set<String> EXTENSIONS =
+      Set.of("java", "xml", "html", "md", "properties", "json", "csv", "txt", "sql");
+
+  public static void main(String[] args) throws Exception {
+    Path corpusDir = Path.of(args.length > 0 ? args[0] : "..").toAbsolutePath().normalize();
+    int level = args.length > 1 ? Integer.parseInt(args[1]) : 6;
+    int rounds = args.length > 2 ? Integer.parseInt(args[2]) : 5;
+    List<Path> corpus;
+    try (Stream<Path> files = Files.walk(corpusDir)) {
+      corpus =
+          files
+              .filter(Files::isRegularFile)
+              .filter(path -> !path.toString().contains("/target/"))
+              .filter(path -> EXTENSIONS.contains(extension(path)))
+              .collect(Collectors.toList());
+    }
+    long corpusBytes = 0;
+    for (Path file : corpus) {
+      corpusBytes += Files.size(file);
+    }
+    System.out.printf(
+        "corpus: %,d files, %,d KiB from %s, level %d%n",
+        corpus.size(), corpusBytes / 1024, corpusDir, level);
+
+    Path dir = Files.createTempDirectory("compression-benchmark");
+    try {
+      for (int round = 0; round < rounds; round++) {
+        for (boolean compression : new boolean[] {false, true}) {
+          StorageProperties properties = new StorageProperties();
+          properties.setLocation(dir.resolve(round + "-" + compression).toString());
+          properties.setFsync(false);
+          properties.setMaxFileSize(DataSize.ofGigabytes(1));
+          properties.setCompression(compression);
+          properties.setCompressionLevel(level);
+          FileSystemStorageService storage = new FileSystemStorageService(properties, e -> {});
+          storage.init();
+          run(storage, corpus, corpusBytes, compression, round == rounds - 1);
+        }
+      }
+    } finally {
+      FileSystemUtils.deleteRecursively(dir);
+    }
+  }
+
+  private static void run(
+      FileSystemStorageService storage,
+      List<Path> corpus,
+      long corpusBytes,
+      boolean compression,
+      boolean report)
+      throws Exception {
+    ThreadMXBean threads = ManagementFactory.getThreadMXBean();
+    long cpuStart = threads.getCurrentThreadCpuTime();
+    for (int i = 0; i < corpus.size(); i++) {
+      Path file = corpus.get(i);
+      try (InputStream in = Files.newInputStream(file)) {
+        storage.store(i + "-" + file.getFileName(), in, Files.size(file));
+      }
+    }
+    double storeCpu = (threads.getCurrentThreadCpuTime() - cpuStart) / 1e9;
+
+    long onDisk = 0;
+    long inflateStart = threads.getCurrentThreadCpuTime();
+    for (int i = 0; i < corpus.size(); i++) {
+      Resource resource = storage.loadAsResource(i + "-" + corpus.get(i).getFileName());
+      onDisk += resource.contentLength();
+      if (resource instanceof CompressedFileResource) {
+        try (InputStream in = new GZIPInputStream(resource.getInputStream(), 64 * 1024)) {
+          in.transferTo(OutputStream.nullOutputStream());
+        }
+      }
+    }
+    double inflateCpu = (threads.getCurrentThreadCpuTime() - inflateStart) / 1e9;
+
+    if (report) {
+      double mib = corpusBytes / (double) (1 << 20);
+      System.out.printf(
+          "compression %-3s on disk %,7d KiB (%5.1f%%)  store CPU %6.1f ms/MiB"
+              + "  inflate CPU %5.1f ms/MiB%n",
+          compression ? "on" : "off",
+          onDisk / 1024,
+          100.0 * onDisk / corpusBytes,
+          storeCpu * 1000 / mib,
+          inflateCpu * 1000 / mib);
+    }
+  }
+
+  private static String extension(Path path) {
+    String name = path.getFileName().toString();
+    int dot = name.lastIndexOf('.');
+    return dot < 0 ? "" : name.substring(dot + 1);
+  }
+}
@@ -0,0 +1,96 @@
+package com.example.files;
+
+import com.example.files.storage.StorageService;
+import java.io.InputStream;
+import java.lang.management.ManagementFactory;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.Random;
+import org.springframework.boot.builder.SpringApplicationBuilder;
+import org.springframework.context.ConfigurableApplicationContext;
+import org.springframework.util.FileSystemUtils;
+
+/**
+ * Downloads one large stored file repeatedly with curl, with and without zero-copy, reporting
+ * throughput and the server JVM's CPU time per GiB. curl runs as a separate process, so its own
+ * CPU time is not counted. Arguments: file size in MiB (default 1024) and rounds (default 5).
+ */
+public class DownloadBenchmark {
+
+  public static void main(String[] args) throws Exception {
+    long size = (args.length > 0 ? Long.parseLong(args[0]) : 1024) << 20;
+    int rounds = args.length > 1 ? Integer.parseInt(args[1]) : 5;
+    Path dir = Files.createTempDirectory("download-benchmark");
+    try (ConfigurableApplicationContext context =
+        new SpringApplicationBuilder(Application.class)
+            .run(
+                "--server.port=0",
+                "--storage.location=" + dir.resolve("uploads"),
+                "--storage.sessions-location=" + dir.resolve("sessions"))) {
+      String url =
+          "http://localhost:"
+              + context.getEnvironment().getProperty("local.server.port")
+              + "/files/large.bin";
+      byte[] chunk = new byte[1 << 20];
+      new Random(1).nextBytes(chunk);
+      context
+          .getBean(StorageService.class)
+          .store("large.bin", new RepeatingInputStream(chunk, size), size);
+
+      FileDownloadProperties properties = context.getBean(FileDownloadProperties.class);
+      for (boolean zeroCopy : new boolean[] {true, false, true, false}) {
+        properties.setZeroCopy(zeroCopy);
+        measure(zeroCopy ? "sendfile" : "stream copy", url, size, rounds);
+      }
+    } finally {
+      FileSystemUtils.deleteRecursively(dir);
+    }
+  }
+
+  private static void measure(String name, String url, long size, int rounds) throws Exception {
+    com.sun.management.OperatingSystemMXBean os =
+        (com.sun.management.OperatingSystemMXBean) ManagementFactory.getOperatingSystemMXBean();
+    long cpuStart = os.getProcessCpuTime();
+    long start = System.nanoTime();
+    for (int i = 0; i < rounds; i++) {
+      Process curl =
+          new ProcessBuilder("curl", "-sf", "-o", "/dev/null", url).inheritIO().start();
+      if (curl.waitFor() != 0) {
+        throw new IllegalStateException("curl failed with " + curl.exitValue());
+      }
+    }
+    double seconds = (System.nanoTime() - start) / 1e9;
+    double gib = (double) size * rounds / (1L << 30);
+    double cpuSeconds = (os.getProcessCpuTime() - cpuStart) / 1e9;
+    System.out.printf(
+        "%-12s %,7.0f MiB/s  server CPU %5.2f s/GiB%n",
+        name, gib * 1024 / seconds, cpuSeconds / gib);
+  }
+
+  private static final class RepeatingInputStream extends InputStream {
+
+    private final byte[] chunk;
+    private long remaining;
+
+    private RepeatingInputStream(byte[] chunk, long size) {
+      this.chunk = chunk;
+      this.remaining = size;
+    }
+
+    @Override
+    public int read() {
+      return remaining-- > 0 ? chunk[(int) (remaining % chunk.length)] & 0xff : -1;
+    }
+
+    @Override
+    public int read(byte[] b, int off, int len) {
+      if (remaining == 0) {
+        return -1;
+      }
+      int n = (int) Math.min(Math.min(len, remaining), chunk.length);
+      System.arraycopy(chunk, 0, b, off, n);
+      remaining -= n;
+      return n;
+    }
+  }
+}
@@ -0,0 +1,227 @@
+package com.example.files;
+
+import com.example.files.storage.FileSystemStorageService;
+import com.example.files.storage.StorageProperties;
+import java.io.ByteArrayInputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.zip.GZIPInputStream;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+import org.springframework.core.io.FileSystemResource;
+import org.springframework.core.io.Resource;
+import org.springframework.mock.web.MockHttpServletRequest;
+import org.springframework.mock.web.MockHttpServletResponse;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+class FileDownloadsTest {
+
+  private static final String NOTES = "all work and no play makes jack a dull boy\n".repeat(100);
+
+  @TempDir Path tempDir;
+
+  private FileSystemResource resource;
+  private String etag;
+  private FileDownloads downloads;
+
+  @BeforeEach
+  void setUp() throws IOException {
+    Path file = Files.writeString(tempDir.resolve("digits.txt"), "0123456789");
+    resource = new FileSystemResource(file);
+    etag = FileDownloads.etag(10, resource.lastModified());
+    downloads = new FileDownloads(new FileDownloadProperties());
+  }
+
+  @Test
+  void serve_sendsWholeFileWithValidators() throws IOException {
+    MockHttpServletResponse response = serve(get());
+
+    assertThat(response.getStatus()).isEqualTo(200);
+    assertThat(response.getContentAsString()).isEqualTo("0123456789");
+    assertThat(response.getHeader("ETag")).isEqualTo(etag);
+    assertThat(response.getHeader("Accept-Ranges")).isEqualTo("bytes");
+    assertThat(response.getHeader("Content-Type")).startsWith("text/plain");
+  }
+
+  @Test
+  void serve_answersSingleRangeWithPartialContent() throws IOException {
+    MockHttpServletRequest request = get();
+    request.addHeader("Range", "bytes=2-4");
+
+    MockHttpServletResponse response = serve(request);
+
+    assertThat(response.getStatus()).isEqualTo(206);
+    assertThat(response.getHeader("Content-Range")).isEqualTo("bytes 2-4/10");
+    assertThat(response.getContentAsString()).isEqualTo("234");
+  }
+
+  @Test
+  void serve_answersSuffixRange() throws IOException {
+    MockHttpServletRequest request = get();
+    request.addHeader("Range", "bytes=-3");
+
+    MockHttpServletResponse response = serve(request);
+
+    assertThat(response.getStatus()).isEqualTo(206);
+    assertThat(response.getContentAsString()).isEqualTo("789");
+  }
+
+  @Test
+  void serve_answersMultipleRangesAsByteranges() throws IOException {
+    MockHttpServletRequest request = get();
+    request.addHeader("Range", "bytes=0-1,8-");
+
+    MockHttpServletResponse response = serve(request);
+
+    assertThat(response.getStatus()).isEqualTo(206);
+    assertThat(response.getContentType()).startsWith("multipart/byteranges; boundary=");
+    String body = response.getContentAsString(StandardCharsets.US_ASCII);
+    assertThat(body)
+        .contains("Content-Range: bytes 0-1/10\r\n\r\n01\r\n")
+        .contains("Content-Range: bytes 8-9/10\r\n\r\n89\r\n");
+    assertThat(response.getContentLengthLong()).isEqualTo(body.length());
+  }
+
+  @Test
+  void serve_rejectsUnsatisfiableRange() throws IOException {
+    MockHttpServletRequest request = get();
+    request.addHeader("Range", "bytes=20-30");
+
+    MockHttpServletResponse response = serve(request);
+
+    assertThat(response.getStatus()).isEqualTo(416);
+    assertThat(response.getHeader("Content-Range")).isEqualTo("bytes */10");
+  }
+
+  @Test
+  void serve_answersNotModifiedForMatchingEtag() throws IOException {
+    MockHttpServletRequest request = get();
+    request.addHeader("If-None-Match", etag);
+
+    MockHttpServletResponse response = serve(request);
+
+    assertThat(response.getStatus()).isEqualTo(304);
+    assertThat(response.getContentAsByteArray()).isEmpty();
+  }
+
+  @Test
+  void serve_ignoresRangeWhenIfRangeIsStale() throws IOException {
+    MockHttpServletRequest request = get();
+    request.addHeader("Range", "bytes=2-4");
+    request.addHeader("If-Range", "\"stale\"");
+
+    MockHttpServletResponse response = serve(request);
+
+    assertThat(response.getStatus()).isEqualTo(200);
+    assertThat(response.getContentAsString()).isEqualTo("0123456789");
+  }
+
+  @Test
+  void serve_handsRangeToSendfileWhenContainerSupportsIt() throws IOException {
+    MockHttpServletRequest request = get();
+    request.setAttribute("org.apache.tomcat.sendfile.support", Boolean.TRUE);
+    request.addHeader("Range", "bytes=2-4");
+
+    MockHttpServletResponse response = serve(request);
+
+    assertThat(response.getStatus()).isEqualTo(206);
+    assertThat(response.getContentAsByteArray()).isEmpty();
+    assertThat(request.getAttribute("org.apache.tomcat.sendfile.filename"))
+        .isEqualTo(resource.getFile().getCanonicalPath());
+    assertThat(request.getAttribute("org.apache.tomcat.sendfile.start")).isEqualTo(2L);
+    assertThat(request.getAttribute("org.apache.tomcat.sendfile.end")).isEqualTo(5L);
+  }
+
+  @Test
+  void serve_sendsCompressedFileAsIsWhenClientAcceptsGzip() throws IOException {
+    Resource compressed = compressedNotes();
+    MockHttpServletRequest request = get();
+    request.addHeader("Accept-Encoding", "br, gzip;q=0.8");
+
+    MockHttpServletResponse response = new MockHttpServletResponse();
+    downloads.serve(compressed, request, response);
+
+    assertThat(response.getStatus()).isEqualTo(200);
+    assertThat(response.getHeader("Content-Encoding")).isEqualTo("gzip");
+    assertThat(response.getHeader("Vary")).isEqualTo("Accept-Encoding");
+    assertThat(response.getHeader("ETag")).endsWith("-gzip\"");
+    assertThat(response.getContentLengthLong()).isEqualTo(compressed.contentLength());
+    assertThat(gunzip(response.getContentAsByteArray())).isEqualTo(NOTES);
+  }
+
+  @Test
+  void serve_inflatesCompressedFileForOtherClients() throws IOException {
+    Resource compressed = compressedNotes();
+    MockHttpServletRequest request = get();
+    request.addHeader("Accept-Encoding", "gzip;q=0, deflate");
+    request.addHeader("Range", "bytes=0-3");
+
+    MockHttpServletResponse response = new MockHttpServletResponse();
+    downloads.serve(compressed, request, response);
+
+    assertThat(response.getStatus()).isEqualTo(200);
+    assertThat(response.getHeader("Content-Encoding")).isNull();
+    assertThat(response.getHeader("Vary")).isEqualTo("Accept-Encoding");
+    assertThat(response.getHeader("Accept-Ranges")).isEqualTo("none");
+    assertThat(response.getContentType()).startsWith("text/plain");
+    assertThat(response.getContentAsString()).isEqualTo(NOTES);
+  }
+
+  @Test
+  void serve_honoursExplicitRefusalOfGzip() throws IOException {
+    Resource compressed = compressedNotes();
+    for (String acceptEncoding : new String[] {"*, gzip;q=0", "gzip;q=0", "gzip;q=0, *"}) {
+      MockHttpServletRequest request = get();
+      request.addHeader("Accept-Encoding", acceptEncoding);
+
+      MockHttpServletResponse response = new MockHttpServletResponse();
+      downloads.serve(compressed, request, response);
+
+      assertThat(response.getHeader("Content-Encoding")).as(acceptEncoding).isNull();
+      assertThat(response.getContentAsString()).as(acceptEncoding).isEqualTo(NOTES);
+    }
+  }
+
+  @Test
+  void serve_sendsGzipToWildcard() throws IOException {
+    MockHttpServletRequest request = get();
+    request.addHeader("Accept-Encoding", "identity, *;q=0.5");
+
+    MockHttpServletResponse response = new MockHttpServletResponse();
+    downloads.serve(compressedNotes(), request, response);
+
+    assertThat(response.getHeader("Content-Encoding")).isEqualTo("gzip");
+  }
+
+  private Resource compressedNotes() {
+    StorageProperties properties = new StorageProperties();
+    properties.setLocation(tempDir.resolve("uploads").toString());
+    properties.setCompression(true);
+    FileSystemStorageService storage = new FileSystemStorageService(properties, event -> {});
+    storage.init();
+    byte[] notes = NOTES.getBytes(StandardCharsets.UTF_8);
+    storage.store("notes.txt", new ByteArrayInputStream(notes), notes.length);
+    return storage.loadAsResource("notes.txt");
+  }
+
+  private static String gunzip(byte[] bytes) throws IOException {
+    try (InputStream in = new GZIPInputStream(new ByteArrayInputStream(bytes))) {
+      return new String(in.readAllBytes(), StandardCharsets.UTF_8);
+    }
+  }
+
+  private MockHttpServletResponse serve(MockHttpServletRequest request) throws IOException {
+    MockHttpServletResponse response = new MockHttpServletResponse();
+    downloads.serve(resource, request, response);
+    return response;
+  }
+
+  private static MockHttpServletRequest get() {
+    return new MockHttpServletRequest("GET", "/files/digits.txt");
+  }
+}
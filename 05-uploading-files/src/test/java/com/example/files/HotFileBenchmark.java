@@ -0,0 +1,180 @@
+package com.example.files;
+
+import com.example.files.storage.StorageService;
+import jakarta.servlet.ServletOutputStream;
+import jakarta.servlet.WriteListener;
+import jakarta.servlet.http.HttpServletResponseWrapper;
+import java.io.ByteArrayInputStream;
+import java.net.URI;
+import java.net.http.HttpClient;
+import java.net.http.HttpRequest;
+import java.net.http.HttpResponse;
+import java.nio.ByteBuffer;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Random;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.ThreadLocalRandom;
+import org.springframework.boot.builder.SpringApplicationBuilder;
+import org.springframework.context.ConfigurableApplicationContext;
+import org.springframework.mock.web.MockHttpServletRequest;
+import org.springframework.mock.web.MockHttpServletResponse;
+import org.springframework.util.FileSystemUtils;
+
+/**
+ * Requests small stored files with a skewed popularity (90% of requests go to 10% of the files),
+ * with the hot-file cache on and off: first through the serve path alone, then over HTTP.
+ * Arguments: number of files (default 500), seconds per round (default 10) and client threads
+ * (default 8).
+ */
+public class HotFileBenchmark {
+
+  public static void main(String[] args) throws Exception {
+    int files = args.length > 0 ? Integer.parseInt(args[0]) : 500;
+    int seconds = args.length > 1 ? Integer.parseInt(args[1]) : 10;
+    int threads = args.length > 2 ? Integer.parseInt(args[2]) : 8;
+    Path dir = Files.createTempDirectory("hot-file-benchmark");
+    try (ConfigurableApplicationContext context =
+        new SpringApplicationBuilder(Application.class)
+            .run(
+                "--server.port=0",
+                "--storage.location=" + dir.resolve("uploads"),
+                "--storage.sessions-location=" + dir.resolve("sessions"),
+                "--logging.level.root=warn")) {
+      String baseUrl =
+          "http://localhost:" + context.getEnvironment().getProperty("local.server.port");
+      StorageService storage = context.getBean(StorageService.class);
+      Random random = new Random(1);
+      for (int i = 0; i < files; i++) {
+        byte[] content = new byte[4096 + random.nextInt(60 * 1024)];
+        random.nextBytes(content);
+        storage.store(i + ".bin", new ByteArrayInputStream(content), content.length);
+      }
+
+      FileDownloadProperties properties = context.getBean(FileDownloadProperties.class);
+      HotFileCache cache = context.getBean(HotFileCache.class);
+      HttpClient client = HttpClient.newBuilder().version(HttpClient.Version.HTTP_1_1).build();
+      FileDownloads downloads = context.getBean(FileDownloads.class);
+      for (boolean enabled : new boolean[] {false, true, false, true}) {
+        properties.setCacheEnabled(enabled);
+        System.out.printf(
+            "serve only, cache %-3s %,9.0f req/s%n",
+            enabled ? "on" : "off",
+            measureServe(cache, downloads, files, seconds));
+      }
+
+      measure(client, baseUrl, files, seconds, threads); // warm-up
+      for (boolean enabled : new boolean[] {false, true, false, true, false, true}) {
+        properties.setCacheEnabled(enabled);
+        double requestsPerSecond = measure(client, baseUrl, files, seconds, threads);
+        System.out.printf(
+            "over HTTP, cache %-3s %,9.0f req/s  hit ratio %.2f  resident %,d KiB%n",
+            enabled ? "on" : "off",
+            requestsPerSecond,
+            cache.hitRatio(),
+            cache.residentBytes() / 1024);
+      }
+    } finally {
+      FileSystemUtils.deleteRecursively(dir);
+    }
+  }
+
+  // Resolves and writes files into a discarding response, leaving out the HTTP stack and client.
+  private static double measureServe(
+      HotFileCache cache, FileDownloads downloads, int files, int seconds) throws Exception {
+    int hotFiles = Math.max(1, files / 10);
+    ThreadLocalRandom random = ThreadLocalRandom.current();
+    long deadline = System.nanoTime() + seconds * 1_000_000_000L;
+    long requests = 0;
+    while (System.nanoTime() < deadline) {
+      int file =
+          random.nextDouble() < 0.9
+              ? random.nextInt(hotFiles)
+              : hotFiles + random.nextInt(files - hotFiles);
+      MockHttpServletRequest request = new MockHttpServletRequest("GET", "/files/" + file);
+      downloads.serve(cache.loadAsResource(file + ".bin"), request, new DiscardingResponse());
+      requests++;
+    }
+    return requests / (double) seconds;
+  }
+
+  private static double measure(
+      HttpClient client, String baseUrl, int files, int seconds, int threads) throws Exception {
+    int hotFiles = Math.max(1, files / 10);
+    long deadline = System.nanoTime() + seconds * 1_000_000_000L;
+    ExecutorService pool = Executors.newFixedThreadPool(threads);
+    try {
+      List<Future<Long>> results = new ArrayList<>();
+      for (int t = 0; t < threads; t++) {
+        results.add(
+            pool.submit(
+                () -> {
+                  ThreadLocalRandom random = ThreadLocalRandom.current();
+                  long requests = 0;
+                  while (System.nanoTime() < deadline) {
+                    int file =
+                        random.nextDouble() < 0.9
+                            ? random.nextInt(hotFiles)
+                            : hotFiles + random.nextInt(files - hotFiles);
+                    HttpRequest request =
+                        HttpRequest.newBuilder(URI.create(baseUrl + "/files/" + file + ".bin"))
+                            .build();
+                    HttpResponse<Void> response =
+                        client.send(request, HttpResponse.BodyHandlers.discarding());
+                    if (response.statusCode() != 200) {
+                      throw new IllegalStateException("HTTP " + response.statusCode());
+                    }
+                    requests++;
+                  }
+                  return requests;
+                }));
+      }
+      long total = 0;
+      for (Future<Long> result : results) {
+        total += result.get();
+      }
+      return total / (double) seconds;
+    } finally {
+      pool.shutdownNow();
+    }
+  }
+
+  // The mock response collects the body byte by byte, which would dwarf what is measured here.
+  private static final class DiscardingResponse extends HttpServletResponseWrapper {
+
+    private final ServletOutputStream out =
+        new ServletOutputStream() {
+          @Override
+          public void write(int b) {}
+
+          @Override
+          public void write(byte[] b, int off, int len) {}
+
+          @Override
+          public void write(ByteBuffer buffer) {
+            buffer.position(buffer.limit());
+          }
+
+          @Override
+          public boolean isReady() {
+            return true;
+          }
+
+          @Override
+          public void setWriteListener(WriteListener writeListener) {}
+        };
+
+    private DiscardingResponse() {
+      super(new MockHttpServletResponse());
+    }
+
+    @Override
+    public ServletOutputStream getOutputStream() {
+      return out;
+    }
+  }
+}
@@ -0,0 +1,145 @@
+package com.example.files;
+
+import com.example.files.storage.FileStoredEvent;
+import com.example.files.storage.FileSystemStorageService;
+import com.example.files.storage.StorageProperties;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import java.io.ByteArrayInputStream;
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.attribute.FileTime;
+import java.time.Instant;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+import org.springframework.core.io.Resource;
+import org.springframework.mock.web.MockHttpServletRequest;
+import org.springframework.mock.web.MockHttpServletResponse;
+import org.springframework.util.unit.DataSize;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+class HotFileCacheTest {
+
+  @TempDir Path tempDir;
+
+  private FileSystemStorageService storage;
+  private FileDownloadProperties properties;
+  private SimpleMeterRegistry meterRegistry;
+  private HotFileCache cache;
+
+  @BeforeEach
+  void setUp() {
+    StorageProperties storageProperties = new StorageProperties();
+    storageProperties.setLocation(tempDir.resolve("uploads").toString());
+    storage = new FileSystemStorageService(storageProperties, event -> {});
+    storage.init();
+    properties = new FileDownloadProperties();
+    properties.setCacheMaxBytes(DataSize.ofBytes(10));
+    meterRegistry = new SimpleMeterRegistry();
+    cache = new HotFileCache(storage, properties, meterRegistry);
+  }
+
+  @Test
+  void loadAsResource_cachesFileOnSecondRequest() throws IOException {
+    store("a.txt", "hello");
+
+    assertThat(cache.loadAsResource("a.txt")).isNotInstanceOf(HotFileCache.CachedFile.class);
+    Resource admitted = cache.loadAsResource("a.txt");
+    Resource hit = cache.loadAsResource("a.txt");
+
+    assertThat(admitted).isInstanceOf(HotFileCache.CachedFile.class);
+    assertThat(hit).isSameAs(admitted);
+    assertThat(hit.getContentAsString(StandardCharsets.UTF_8)).isEqualTo("hello");
+    assertThat(hit.getFilename()).isEqualTo("a.txt");
+    assertThat(cache.hitRatio()).isEqualTo(1.0 / 3);
+    assertThat(cache.residentBytes()).isEqualTo(5);
+    assertThat(meterRegistry.get("files.cache.resident").gauge().value()).isEqualTo(5);
+  }
+
+  @Test
+  void onFileStored_dropsStaleContent() throws IOException {
+    store("a.txt", "hello");
+    cache.loadAsResource("a.txt");
+    cache.loadAsResource("a.txt");
+
+    store("a.txt", "bye");
+    cache.onFileStored(new FileStoredEvent("a.txt"));
+
+    assertThat(cache.residentBytes()).isZero();
+    assertThat(cache.loadAsResource("a.txt").getContentAsString(StandardCharsets.UTF_8))
+        .isEqualTo("bye");
+  }
+
+  @Test
+  void loadAsResource_reloadsFileChangedBehindStorage() throws IOException {
+    store("a.txt", "hello");
+    cache.loadAsResource("a.txt");
+    cache.loadAsResource("a.txt");
+    Path file = storage.load("a.txt");
+
+    Files.writeString(file, "hi");
+    Resource truncated = cache.loadAsResource("a.txt");
+
+    assertThat(truncated).isInstanceOf(HotFileCache.CachedFile.class);
+    assertThat(truncated.getContentAsString(StandardCharsets.UTF_8)).isEqualTo("hi");
+    assertThat(cache.residentBytes()).isEqualTo(2);
+
+    Files.writeString(file, "ho");
+    Files.setLastModifiedTime(file, FileTime.from(Instant.now().plusSeconds(60)));
+
+    assertThat(cache.loadAsResource("a.txt").getContentAsString(StandardCharsets.UTF_8))
+        .isEqualTo("ho");
+  }
+
+  @Test
+  void loadAsResource_evictsLeastRecentlyUsedBeyondMaxBytes() {
+    store("a.txt", "aaaa");
+    store("b.txt", "bbbb");
+    store("c.txt", "cccc");
+    for (String name : new String[] {"a.txt", "b.txt", "a.txt", "b.txt", "a.txt"}) {
+      cache.loadAsResource(name);
+    }
+
+    cache.loadAsResource("c.txt");
+    cache.loadAsResource("c.txt");
+
+    assertThat(cache.size()).isEqualTo(2);
+    assertThat(cache.residentBytes()).isEqualTo(8);
+    assertThat(cache.loadAsResource("a.txt")).isInstanceOf(HotFileCache.CachedFile.class);
+    assertThat(meterRegistry.get("files.cache.evictions").counter().count()).isEqualTo(1);
+  }
+
+  @Test
+  void loadAsResource_skipsFilesOverSizeLimit() {
+    properties.setCacheMaxFileSize(DataSize.ofBytes(4));
+    store("big.txt", "hello");
+
+    cache.loadAsResource("big.txt");
+
+    assertThat(cache.loadAsResource("big.txt")).isNotInstanceOf(HotFileCache.CachedFile.class);
+    assertThat(cache.size()).isZero();
+  }
+
+  @Test
+  void cachedFile_servesRanges() throws IOException {
+    store("digits.txt", "0123456789");
+    cache.loadAsResource("digits.txt");
+    Resource cached = cache.loadAsResource("digits.txt");
+    MockHttpServletRequest request = new MockHttpServletRequest("GET", "/files/digits.txt");
+    request.addHeader("Range", "bytes=2-4");
+    MockHttpServletResponse response = new MockHttpServletResponse();
+
+    new FileDownloads(properties).serve(cached, request, response);
+
+    assertThat(response.getStatus()).isEqualTo(206);
+    assertThat(response.getContentAsString()).isEqualTo("234");
+  }
+
+  private void store(String filename, String content) {
+    byte[] bytes = content.getBytes(StandardCharsets.UTF_8);
+    storage.store(filename, new ByteArrayInputStream(bytes), bytes.length);
+  }
+}
@@ -0,0 +1,58 @@
+package com.example.files;
+
+import com.example.files.storage.StorageProperties;
+import com.example.files.storage.StorageTrash;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.concurrent.TimeUnit;
+import org.springframework.boot.builder.SpringApplicationBuilder;
+import org.springframework.context.ConfigurableApplicationContext;
+import org.springframework.util.FileSystemUtils;
+
+/**
+ * Starts the application over an upload directory holding many files, once per reset mode, and
+ * reports how long it takes until the app is ready and, for the trash, until the old files are
+ * gone. Arguments: number of files (default 100000) and reclaim rate (default 5000 files/s).
+ */
+public class StartupResetBenchmark {
+
+  public static void main(String[] args) throws Exception {
+    int files = args.length > 0 ? Integer.parseInt(args[0]) : 100_000;
+    int reclaimRate = args.length > 1 ? Integer.parseInt(args[1]) : 5000;
+    Path dir = Files.createTempDirectory("startup-reset-benchmark");
+    try {
+      for (StorageProperties.Reset mode : StorageProperties.Reset.values()) {
+        Path uploads = dir.resolve("uploads");
+        populate(uploads, files);
+
+        long start = System.nanoTime();
+        try (ConfigurableApplicationContext context =
+            new SpringApplicationBuilder(Application.class)
+                .run(
+                    "--server.port=0",
+                    "--storage.location=" + uploads,
+                    "--storage.sessions-location=" + dir.resolve("sessions"),
+                    "--storage.reset=" + mode,
+                    "--storage.reclaim-rate=" + reclaimRate,
+                    "--logging.level.root=warn")) {
+          double ready = (System.nanoTime() - start) / 1e9;
+          context.getBean(StorageTrash.class).awaitReclaimed(1, TimeUnit.HOURS);
+          double reclaimed = (System.nanoTime() - start) / 1e9;
+          System.out.printf(
+              "%-6s %,d files: ready after %6.2f s, old files gone after %6.2f s%n",
+              mode, files, ready, reclaimed);
+        }
+      }
+    } finally {
+      FileSystemUtils.deleteRecursively(dir);
+    }
+  }
+
+  private static void populate(Path uploads, int files) throws Exception {
+    Files.createDirectories(uploads);
+    byte[] content = new byte[512];
+    for (int i = 0; i < files; i++) {
+      Files.write(uploads.resolve("file-" + i + ".bin"), content);
+    }
+  }
+}
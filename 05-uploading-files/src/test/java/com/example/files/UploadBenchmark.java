@@ -0,0 +1,159 @@
+package com.example.files;
+
+import java.io.ByteArrayInputStream;
+import java.io.InputStream;
+import java.io.SequenceInputStream;
+import java.lang.management.ManagementFactory;
+import java.lang.management.MemoryMXBean;
+import java.net.URI;
+import java.net.http.HttpClient;
+import java.net.http.HttpRequest;
+import java.net.http.HttpResponse;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.locks.LockSupport;
+import org.springframework.boot.builder.SpringApplicationBuilder;
+import org.springframework.context.ConfigurableApplicationContext;
+import org.springframework.util.FileSystemUtils;
+
+/**
+ * Uploads one large file through the streaming {@code PUT /files/{name}} path and through the
+ * multipart form, reporting throughput and the peak live heap of the whole JVM (server and
+ * client). The size in MiB is the first argument and defaults to 1024.
+ */
+public class UploadBenchmark {
+
+  private static final String BOUNDARY = "----upload-benchmark";
+
+  public static void main(String[] args) throws Exception {
+    long size = (args.length > 0 ? Long.parseLong(args[0]) : 1024) << 20;
+    Path dir = Files.createTempDirectory("upload-benchmark");
+    try (ConfigurableApplicationContext context =
+        new SpringApplicationBuilder(Application.class)
+            .run(
+                "--server.port=0",
+                "--storage.location=" + dir.resolve("uploads"),
+                "--storage.sessions-location=" + dir.resolve("sessions"),
+                "--storage.max-file-size=8GB",
+                "--spring.servlet.multipart.location="
+                    + Files.createDirectories(dir.resolve("spool")),
+                "--spring.servlet.multipart.max-file-size=-1",
+                "--spring.servlet.multipart.max-request-size=-1")) {
+      String baseUrl =
+          "http://localhost:" + context.getEnvironment().getProperty("local.server.port");
+      HttpClient client = HttpClient.newHttpClient();
+
+      HttpRequest put =
+          HttpRequest.newBuilder(URI.create(baseUrl + "/files/streamed.bin"))
+              .PUT(
+                  HttpRequest.BodyPublishers.fromPublisher(
+                      HttpRequest.BodyPublishers.ofInputStream(() -> new PatternInputStream(size)),
+                      size))
+              .build();
+      measure("PUT streaming", size, () -> client.send(put, HttpResponse.BodyHandlers.ofString()));
+
+      byte[] head =
+          ("--" + BOUNDARY + "\r\n"
+                  + "Content-Disposition: form-data; name=\"file\"; filename=\"multipart.bin\"\r\n"
+                  + "Content-Type: application/octet-stream\r\n\r\n")
+              .getBytes(StandardCharsets.US_ASCII);
+      byte[] tail = ("\r\n--" + BOUNDARY + "--\r\n").getBytes(StandardCharsets.US_ASCII);
+      HttpRequest post =
+          HttpRequest.newBuilder(URI.create(baseUrl + "/"))
+              .header("Content-Type", "multipart/form-data; boundary=" + BOUNDARY)
+              .POST(
+                  HttpRequest.BodyPublishers.fromPublisher(
+                      HttpRequest.BodyPublishers.ofInputStream(
+                          () ->
+                              new SequenceInputStream(
+                                  new SequenceInputStream(
+                                      new ByteArrayInputStream(head), new PatternInputStream(size)),
+                                  new ByteArrayInputStream(tail))),
+                      head.length + size + tail.length))
+              .build();
+      measure(
+          "POST multipart", size, () -> client.send(post, HttpResponse.BodyHandlers.ofString()));
+    } finally {
+      FileSystemUtils.deleteRecursively(dir);
+    }
+  }
+
+  private static void measure(String name, long size, Upload upload) throws Exception {
+    MemoryMXBean memory = ManagementFactory.getMemoryMXBean();
+    memory.gc();
+    long baseline = memory.getHeapMemoryUsage().getUsed();
+    AtomicLong peakLive = new AtomicLong(baseline);
+    AtomicBoolean running = new AtomicBoolean(true);
+    Thread sampler =
+        new Thread(
+            () -> {
+              while (running.get()) {
+                memory.gc();
+                peakLive.accumulateAndGet(memory.getHeapMemoryUsage().getUsed(), Math::max);
+                LockSupport.parkNanos(250_000_000);
+              }
+            });
+    sampler.setDaemon(true);
+
+    long start = System.nanoTime();
+    sampler.start();
+    HttpResponse<String> response;
+    try {
+      response = upload.send();
+    } finally {
+      running.set(false);
+      sampler.join();
+    }
+    double seconds = (System.nanoTime() - start) / 1e9;
+    System.out.printf(
+        "%-16s HTTP %d  %,6.0f MiB in %5.2f s = %,6.0f MiB/s  peak live heap +%,d MiB%n",
+        name,
+        response.statusCode(),
+        size / 1048576.0,
+        seconds,
+        size / 1048576.0 / seconds,
+        (peakLive.get() - baseline) >> 20);
+  }
+
+  private interface Upload {
+    HttpResponse<String> send() throws Exception;
+  }
+
+  // Produces size bytes of a repeating pattern without holding them in memory.
+  private static final class PatternInputStream extends InputStream {
+
+    private static final byte[] PATTERN = new byte[64 * 1024];
+
+    static {
+      for (int i = 0; i < PATTERN.length; i++) {
+        PATTERN[i] = (byte) (i * 31 + (i >> 8));
+      }
+    }
+
+    private long remaining;
+
+    private PatternInputStream(long size) {
+      this.remaining = size;
+    }
+
+    @Override
+    public int read() {
+      byte[] one = new byte[1];
+      return read(one, 0, 1) == -1 ? -1 : one[0] & 0xff;
+    }
+
+    @Override
+    public int read(byte[] b, int off, int len) {
+      if (remaining == 0) {
+        return -1;
+      }
+      int n = (int) Math.min(Math.min(len, remaining), PATTERN.length);
+      System.arraycopy(PATTERN, 0, b, off, n);
+      remaining -= n;
+      return n;
+    }
+  }
+}
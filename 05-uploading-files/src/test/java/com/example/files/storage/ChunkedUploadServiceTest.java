@@ -0,0 +1,223 @@
+package com.example.files.storage;
+
+import java.io.ByteArrayInputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.InterruptedIOException;
+import java.io.SequenceInputStream;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.nio.file.attribute.FileTime;
+import java.time.Duration;
+import java.time.Instant;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+import org.springframework.util.unit.DataSize;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+
+class ChunkedUploadServiceTest {
+
+  @TempDir Path tempDir;
+
+  private StorageProperties properties;
+  private FileSystemStorageService storage;
+  private ChunkedUploadService uploads;
+
+  @BeforeEach
+  void setUp() {
+    properties = new StorageProperties();
+    properties.setLocation(tempDir.resolve("uploads").toString());
+    properties.setSessionsLocation(tempDir.resolve("sessions").toString());
+    properties.setMaxFileSize(DataSize.ofBytes(64));
+    storage = new FileSystemStorageService(properties, event -> {});
+    storage.init();
+    uploads = new ChunkedUploadService(storage, properties);
+    uploads.init();
+  }
+
+  @Test
+  void writeChunk_mergesRangesArrivingOutOfOrder() {
+    String id = uploads.create("digits.txt", 10).id();
+
+    uploads.writeChunk(id, 6, content("6789"), 4);
+    uploads.writeChunk(id, 0, content("012"), 3);
+    UploadStatus status = uploads.writeChunk(id, 3, content("34"), 2);
+
+    assertThat(status.received())
+        .containsExactly(new UploadStatus.Range(0, 5), new UploadStatus.Range(6, 10));
+    assertThat(status.complete()).isFalse();
+  }
+
+  @Test
+  void complete_storesAssembledFile() throws IOException {
+    String id = uploads.create("digits.txt", 10).id();
+    uploads.writeChunk(id, 5, content("56789"), -1);
+    uploads.writeChunk(id, 0, content("01234"), -1);
+
+    StoredFile stored = uploads.complete(id);
+
+    assertThat(stored.size()).isEqualTo(10);
+    assertThat(Files.readString(storage.load("digits.txt"))).isEqualTo("0123456789");
+    assertThat(tempDir.resolve("sessions")).isEmptyDirectory();
+    assertThatThrownBy(() -> uploads.status(id))
+        .isInstanceOf(UploadSessionNotFoundException.class);
+  }
+
+  @Test
+  void complete_rejectsMissingBytes() {
+    String id = uploads.create("digits.txt", 10).id();
+    uploads.writeChunk(id, 0, content("01234"), 5);
+
+    assertThatThrownBy(() -> uploads.complete(id))
+        .isInstanceOf(UploadIncompleteException.class)
+        .hasMessageContaining("5 bytes missing");
+  }
+
+  @Test
+  void status_survivesRestart() throws IOException {
+    String id = uploads.create("digits.txt", 10).id();
+    uploads.writeChunk(id, 0, content("01234"), 5);
+    uploads.shutdown();
+
+    ChunkedUploadService restarted = new ChunkedUploadService(storage, properties);
+    restarted.init();
+    assertThat(restarted.status(id).received()).containsExactly(new UploadStatus.Range(0, 5));
+
+    restarted.writeChunk(id, 5, content("56789"), 5);
+    restarted.complete(id);
+    assertThat(Files.readString(storage.load("digits.txt"))).isEqualTo("0123456789");
+  }
+
+  @Test
+  void status_ignoresRecordTornByCrash() throws IOException {
+    String id = uploads.create("digits.txt", 10).id();
+    uploads.writeChunk(id, 0, content("01234"), 5);
+    uploads.shutdown();
+    Files.write(
+        tempDir.resolve("sessions").resolve(id).resolve("received"),
+        new byte[] {0, 0, 0},
+        StandardOpenOption.APPEND);
+
+    ChunkedUploadService restarted = new ChunkedUploadService(storage, properties);
+    assertThat(restarted.status(id).received()).containsExactly(new UploadStatus.Range(0, 5));
+  }
+
+  @Test
+  void writeChunk_rejectsChunkPastEnd() {
+    String id = uploads.create("digits.txt", 10).id();
+
+    assertThatThrownBy(() -> uploads.writeChunk(id, 8, content("890"), 3))
+        .isInstanceOf(IllegalArgumentException.class);
+    assertThatThrownBy(() -> uploads.writeChunk(id, 8, content("890"), -1))
+        .isInstanceOf(IllegalArgumentException.class);
+  }
+
+  @Test
+  void create_rejectsOversizeUpload() {
+    assertThatThrownBy(() -> uploads.create("big.bin", 65))
+        .isInstanceOf(StorageFileTooLargeException.class);
+  }
+
+  @Test
+  void create_rejectsNamesOutsideStorage() {
+    assertThatThrownBy(() -> uploads.create("..", 10))
+        .isInstanceOf(IllegalArgumentException.class);
+    assertThatThrownBy(() -> uploads.create("../digits.txt", 10))
+        .isInstanceOf(IllegalArgumentException.class);
+    assertThatThrownBy(() -> uploads.create(".incoming", 10))
+        .isInstanceOf(IllegalArgumentException.class);
+    assertThat(tempDir.resolve("sessions")).isEmptyDirectory();
+  }
+
+  @Test
+  void writeChunk_afterAbortFindsNoSession() {
+    String id = uploads.create("digits.txt", 10).id();
+    uploads.writeChunk(id, 0, content("01234"), 5);
+    uploads.abort(id);
+
+    assertThatThrownBy(() -> uploads.writeChunk(id, 5, content("56789"), 5))
+        .isInstanceOf(UploadSessionNotFoundException.class);
+    assertThatThrownBy(() -> uploads.abort(id))
+        .isInstanceOf(UploadSessionNotFoundException.class);
+    assertThat(tempDir.resolve("sessions")).isEmptyDirectory();
+  }
+
+  @Test
+  void complete_waitsForChunkInFlight() throws Exception {
+    String id = uploads.create("digits.txt", 10).id();
+    uploads.writeChunk(id, 0, content("01234"), 5);
+    CountDownLatch reading = new CountDownLatch(1);
+    CountDownLatch release = new CountDownLatch(1);
+    InputStream slow =
+        new SequenceInputStream(
+            new InputStream() {
+              @Override
+              public int read() throws IOException {
+                reading.countDown();
+                try {
+                  release.await();
+                } catch (InterruptedException e) {
+                  throw new InterruptedIOException();
+                }
+                return -1;
+              }
+            },
+            content("56789"));
+    ExecutorService executor = Executors.newFixedThreadPool(2);
+    try {
+      Future<UploadStatus> chunk = executor.submit(() -> uploads.writeChunk(id, 5, slow, 5));
+      reading.await();
+      Future<StoredFile> completed = executor.submit(() -> uploads.complete(id));
+      Thread.sleep(50);
+      assertThat(completed).isNotDone();
+
+      release.countDown();
+      assertThat(chunk.get(5, TimeUnit.SECONDS).complete()).isTrue();
+      assertThat(completed.get(5, TimeUnit.SECONDS).size()).isEqualTo(10);
+      assertThat(Files.readString(storage.load("digits.txt"))).isEqualTo("0123456789");
+    } finally {
+      executor.shutdownNow();
+    }
+  }
+
+  @Test
+  void expireIdleSessions_closesAndDeletesAbandonedSessions() throws IOException {
+    Path sessions = tempDir.resolve("sessions");
+    String abandoned = uploads.create("digits.txt", 10).id();
+    uploads.writeChunk(abandoned, 0, content("01234"), 5);
+    String active = uploads.create("letters.txt", 10).id();
+    uploads.writeChunk(active, 0, content("abcde"), 5);
+    FileTime longAgo = FileTime.from(Instant.now().minus(Duration.ofDays(2)));
+    Files.setLastModifiedTime(sessions.resolve(abandoned).resolve("received"), longAgo);
+
+    assertThat(uploads.expireIdleSessions()).isEqualTo(1);
+
+    assertThat(sessions.resolve(abandoned)).doesNotExist();
+    assertThatThrownBy(() -> uploads.writeChunk(abandoned, 5, content("56789"), 5))
+        .isInstanceOf(UploadSessionNotFoundException.class);
+    uploads.writeChunk(active, 5, content("fghij"), 5);
+    assertThat(uploads.status(active).complete()).isTrue();
+  }
+
+  @Test
+  void status_rejectsUnknownOrMalformedIds() {
+    assertThatThrownBy(() -> uploads.status("../uploads"))
+        .isInstanceOf(UploadSessionNotFoundException.class);
+    assertThatThrownBy(() -> uploads.status("00000000-0000-0000-0000-000000000000"))
+        .isInstanceOf(UploadSessionNotFoundException.class);
+  }
+
+  private static ByteArrayInputStream content(String text) {
+    return new ByteArrayInputStream(text.getBytes(StandardCharsets.UTF_8));
+  }
+}
@@ -0,0 +1,139 @@
+package com.example.files.storage;
+
+import java.io.ByteArrayInputStream;
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.stream.Stream;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+import org.springframework.core.io.Resource;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+
+class ContentAddressedStorageServiceTest {
+
+  private static final String HELLO_SHA256 =
+      "2cf24dba5fb0a30e26e83b2ac5b9e29e1b161e5c1fa7425e73043362938b9824";
+
+  @TempDir Path tempDir;
+
+  private StorageProperties properties;
+  private ContentAddressedStorageService service;
+
+  @BeforeEach
+  void setUp() {
+    properties = new StorageProperties();
+    properties.setLocation(tempDir.resolve("uploads").toString());
+    properties.setLayout(StorageProperties.Layout.CONTENT_ADDRESSED);
+    service = new ContentAddressedStorageService(properties, event -> {});
+    service.init();
+  }
+
+  @Test
+  void store_shardsObjectsByHash() {
+    service.store("hello.txt", content("hello"), 5);
+
+    assertThat(service.load("hello.txt"))
+        .isEqualTo(tempDir.resolve("uploads/objects/2c/f2/" + HELLO_SHA256));
+  }
+
+  @Test
+  void store_deduplicatesIdenticalContent() {
+    service.store("a.txt", content("hello"), 5);
+    service.store("b.txt", content("hello"), 5);
+
+    assertThat(service.objectCount()).isEqualTo(1);
+    assertThat(service.loadAll()).containsExactlyInAnyOrder(Path.of("a.txt"), Path.of("b.txt"));
+  }
+
+  @Test
+  void store_deletesObjectOnceLastNameMovesAway() {
+    service.store("a.txt", content("hello"), 5);
+    service.store("b.txt", content("hello"), 5);
+    Path hello = service.load("a.txt");
+
+    service.store("a.txt", content("goodbye"), 7);
+    assertThat(hello).exists();
+
+    service.store("b.txt", content("goodbye"), 7);
+    assertThat(hello).doesNotExist();
+    assertThat(service.objectCount()).isEqualTo(1);
+  }
+
+  @Test
+  void loadAsResource_keepsUploadedName() throws IOException {
+    service.store("hello.txt", content("hello"), 5);
+
+    Resource resource = service.loadAsResource("hello.txt");
+
+    assertThat(resource.getFilename()).isEqualTo("hello.txt");
+    assertThat(resource.getContentAsString(StandardCharsets.UTF_8)).isEqualTo("hello");
+  }
+
+  @Test
+  void loadAsResource_rejectsUnknownName() {
+    assertThatThrownBy(() -> service.loadAsResource("missing.txt"))
+        .isInstanceOf(StorageFileNotFoundException.class);
+  }
+
+  @Test
+  void init_rebuildsNamesAndRemovesOrphans() throws IOException {
+    service.store("a.txt", content("hello"), 5);
+    service.store("b.txt", content("hello"), 5);
+    Path orphan = tempDir.resolve("uploads/objects/00/00/0000");
+    Files.createDirectories(orphan.getParent());
+    Files.writeString(orphan, "left over from a crash");
+
+    ContentAddressedStorageService restarted =
+        new ContentAddressedStorageService(properties, event -> {});
+    restarted.init();
+
+    assertThat(restarted.loadAll()).containsExactlyInAnyOrder(Path.of("a.txt"), Path.of("b.txt"));
+    assertThat(restarted.objectCount()).isEqualTo(1);
+    assertThat(orphan).doesNotExist();
+
+    restarted.store("a.txt", content("goodbye"), 7);
+    assertThat(restarted.load("b.txt")).exists();
+  }
+
+  @Test
+  void init_skipsDamagedNameFilesAndKeepsTheirObjects() throws IOException {
+    properties.setFsync(true);
+    service = new ContentAddressedStorageService(properties, event -> {});
+    service.init();
+    service.store("a.txt", content("hello"), 5);
+    service.store("b.txt", content("goodbye"), 7);
+    Path hello = service.load("a.txt");
+    // What a power loss between writing the name file and flushing it can leave behind.
+    try (Stream<Path> nameFiles = Files.walk(tempDir.resolve("uploads/names"))) {
+      Path nameA =
+          nameFiles.filter(path -> path.getFileName().toString().equals("a.txt")).findFirst().get();
+      Files.writeString(nameA, HELLO_SHA256.substring(0, 10));
+    }
+
+    ContentAddressedStorageService restarted =
+        new ContentAddressedStorageService(properties, event -> {});
+    restarted.init();
+
+    assertThat(restarted.loadAll()).containsExactly(Path.of("b.txt"));
+    assertThat(hello).exists();
+    assertThat(restarted.load("a.txt")).doesNotExist();
+    assertThatThrownBy(() -> restarted.loadAsResource("a.txt"))
+        .isInstanceOf(StorageFileNotFoundException.class);
+  }
+
+  @Test
+  void store_rejectsPathsOutsideRoot() {
+    assertThatThrownBy(() -> service.store("../escape.txt", content("x"), 1))
+        .isInstanceOf(StorageException.class)
+        .hasMessageContaining("outside current directory");
+  }
+
+  private static ByteArrayInputStream content(String text) {
+    return new ByteArrayInputStream(text.getBytes(StandardCharsets.UTF_8));
+  }
+}
@@ -0,0 +1,136 @@
+package com.example.files.storage;
+
+import java.io.ByteArrayInputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.zip.GZIPInputStream;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+import org.springframework.core.io.Resource;
+import org.springframework.util.unit.DataSize;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+
+class FileSystemStorageServiceTest {
+
+  @TempDir Path tempDir;
+
+  private StorageProperties properties;
+  private FileSystemStorageService service;
+
+  @BeforeEach
+  void setUp() {
+    properties = new StorageProperties();
+    properties.setLocation(tempDir.resolve("uploads").toString());
+    properties.setMaxFileSize(DataSize.ofBytes(16));
+    service = new FileSystemStorageService(properties, event -> {});
+    service.init();
+  }
+
+  @Test
+  void store_streamsContentAndReportsChecksum() throws IOException {
+    StoredFile stored = service.store("hello.txt", content("hello"), -1);
+
+    assertThat(stored.filename()).isEqualTo("hello.txt");
+    assertThat(stored.size()).isEqualTo(5);
+    assertThat(stored.sha256())
+        .isEqualTo("2cf24dba5fb0a30e26e83b2ac5b9e29e1b161e5c1fa7425e73043362938b9824");
+    assertThat(Files.readString(service.load("hello.txt"))).isEqualTo("hello");
+  }
+
+  @Test
+  void store_replacesExistingFile() throws IOException {
+    service.store("hello.txt", content("hello"), 5);
+    service.store("hello.txt", content("goodbye"), 7);
+
+    assertThat(Files.readString(service.load("hello.txt"))).isEqualTo("goodbye");
+  }
+
+  @Test
+  void store_abortsOnceStreamExceedsLimit() {
+    assertThatThrownBy(() -> service.store("big.txt", content("x".repeat(17)), -1))
+        .isInstanceOf(StorageFileTooLargeException.class);
+
+    assertThat(service.loadAll()).isEmpty();
+    assertThat(tempDir.resolve("uploads/.incoming")).isEmptyDirectory();
+  }
+
+  @Test
+  void store_rejectsAnnouncedOversizeBeforeReading() {
+    assertThatThrownBy(() -> service.store("big.txt", content("x"), 17))
+        .isInstanceOf(StorageFileTooLargeException.class);
+  }
+
+  @Test
+  void store_rejectsPathsOutsideRoot() {
+    assertThatThrownBy(() -> service.store("../escape.txt", content("x"), 1))
+        .isInstanceOf(StorageException.class)
+        .hasMessageContaining("outside current directory");
+  }
+
+  @Test
+  void loadAll_hidesUploadsInProgress() {
+    service.store("hello.txt", content("hello"), 5);
+
+    assertThat(service.loadAll()).containsExactly(Path.of("hello.txt"));
+  }
+
+  @Test
+  void store_compressesTextWhenEnabled() throws IOException {
+    FileSystemStorageService compressing = compressingService();
+    String text = "all work and no play makes jack a dull boy\n".repeat(100);
+
+    StoredFile stored = compressing.store("notes.txt", content(text), -1);
+
+    assertThat(stored.size()).isEqualTo(text.length());
+    Resource resource = compressing.loadAsResource("notes.txt");
+    assertThat(resource).isInstanceOf(CompressedFileResource.class);
+    assertThat(resource.getFilename()).isEqualTo("notes.txt");
+    assertThat(resource.contentLength()).isLessThan(text.length() / 10);
+    try (InputStream in = new GZIPInputStream(resource.getInputStream())) {
+      assertThat(new String(in.readAllBytes(), StandardCharsets.UTF_8)).isEqualTo(text);
+    }
+    assertThat(compressing.loadAll()).containsExactly(Path.of("notes.txt"));
+  }
+
+  @Test
+  void store_keepsIncompressibleAndSmallFilesAsTheyAre() {
+    FileSystemStorageService compressing = compressingService();
+
+    compressing.store("photo.jpg", content("x".repeat(2048)), 2048);
+    compressing.store("tiny.txt", content("hello"), 5);
+
+    assertThat(compressing.loadAsResource("photo.jpg"))
+        .isNotInstanceOf(CompressedFileResource.class);
+    assertThat(compressing.loadAsResource("tiny.txt"))
+        .isNotInstanceOf(CompressedFileResource.class);
+  }
+
+  @Test
+  void store_replacesCompressedFormWithPlainOne() throws IOException {
+    FileSystemStorageService compressing = compressingService();
+    compressing.store("notes.txt", content("x".repeat(2048)), -1);
+
+    compressing.store("notes.txt", content("short"), 5);
+
+    assertThat(compressing.loadAll()).containsExactly(Path.of("notes.txt"));
+    assertThat(Files.readString(compressing.load("notes.txt"))).isEqualTo("short");
+  }
+
+  private FileSystemStorageService compressingService() {
+    properties.setMaxFileSize(DataSize.ofKilobytes(64));
+    properties.setCompression(true);
+    FileSystemStorageService compressing = new FileSystemStorageService(properties, event -> {});
+    compressing.init();
+    return compressing;
+  }
+
+  private static ByteArrayInputStream content(String text) {
+    return new ByteArrayInputStream(text.getBytes(StandardCharsets.UTF_8));
+  }
+}
@@ -0,0 +1,100 @@
+package com.example.files.storage;
+
+import java.io.ByteArrayInputStream;
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.TimeUnit;
+import java.util.stream.Stream;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+import org.openjdk.jmh.results.format.ResultFormatType;
+import org.openjdk.jmh.runner.Runner;
+import org.openjdk.jmh.runner.options.OptionsBuilder;
+import org.springframework.core.io.Resource;
+import org.springframework.util.FileSystemUtils;
+
+/**
+ * {@link StorageService#loadAll()} latency as the number of stored files grows, and the cost of
+ * one {@link StorageService#loadAsResource(String)} lookup, for both layouts. Files are created
+ * once per trial under {@code -Dstorage.benchmark.dir}, like {@link StoreBenchmark}. Start it via
+ * {@link #main}; results go to target/jmh-lookup.json.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class LookupBenchmark {
+
+  @Param({"1000", "10000", "100000"})
+  public int files;
+
+  @Param({"flat", "content-addressed"})
+  public String layout;
+
+  private Path dir;
+  private StorageService service;
+
+  @Setup
+  public void setUp() throws IOException {
+    dir = Files.createTempDirectory(StoreBenchmark.benchmarkDir(), "lookup-benchmark");
+    StorageProperties properties = new StorageProperties();
+    properties.setLocation(dir.resolve("uploads").toString());
+    properties.setFsync(false);
+    service =
+        layout.equals("flat")
+            ? new FileSystemStorageService(properties, event -> {})
+            : new ContentAddressedStorageService(properties, event -> {});
+    service.init();
+    for (int i = 0; i < files; i++) {
+      byte[] content = ("file " + i).getBytes(StandardCharsets.UTF_8);
+      service.store(name(i), new ByteArrayInputStream(content), content.length);
+    }
+  }
+
+  @TearDown
+  public void tearDown() throws IOException {
+    FileSystemUtils.deleteRecursively(dir);
+  }
+
+  @Benchmark
+  public long loadAll() {
+    try (Stream<Path> paths = service.loadAll()) {
+      return paths.count();
+    }
+  }
+
+  @Benchmark
+  @OutputTimeUnit(TimeUnit.NANOSECONDS)
+  public Resource loadAsResource() {
+    return service.loadAsResource(name(ThreadLocalRandom.current().nextInt(files)));
+  }
+
+  private static String name(int i) {
+    return "file-" + i + ".txt";
+  }
+
+  public static void main(String[] args) throws Exception {
+    new Runner(
+            new OptionsBuilder()
+                .include(LookupBenchmark.class.getSimpleName())
+                .resultFormat(ResultFormatType.JSON)
+                .result("target/jmh-lookup.json")
+                .build())
+        .run();
+  }
+}
@@ -0,0 +1,93 @@
+package com.example.files.storage;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.concurrent.TimeUnit;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+class StorageTrashTest {
+
+  @TempDir Path tempDir;
+
+  private StorageProperties properties;
+  private FileSystemStorageService storage;
+  private StorageTrash trash;
+
+  @BeforeEach
+  void setUp() {
+    properties = new StorageProperties();
+    properties.setLocation(tempDir.resolve("uploads").toString());
+    properties.setReclaimRate(0);
+    storage = new FileSystemStorageService(properties, event -> {});
+  }
+
+  @AfterEach
+  void tearDown() {
+    if (trash != null) {
+      trash.shutdown();
+    }
+  }
+
+  @Test
+  void reset_movesRootAsideAndReclaimsItInBackground() throws Exception {
+    Path nested = Files.createDirectories(tempDir.resolve("uploads/.incoming"));
+    Files.writeString(tempDir.resolve("uploads/a.txt"), "a");
+    Files.writeString(nested.resolve("upload-1.part"), "b");
+    trash = new StorageTrash(storage, properties);
+
+    trash.reset();
+
+    assertThat(tempDir.resolve("uploads")).doesNotExist();
+    assertThat(trash.awaitReclaimed(10, TimeUnit.SECONDS)).isTrue();
+    assertThat(tempDir.resolve("uploads.trash")).isEmptyDirectory();
+    assertThat(trash.reclaimedFiles()).isEqualTo(2);
+  }
+
+  @Test
+  void reset_resumesGenerationsLeftByPreviousRun() throws Exception {
+    Path leftOver = Files.createDirectories(tempDir.resolve("uploads.trash/1/.incoming"));
+    Files.writeString(leftOver.resolve("x.part"), "x");
+    trash = new StorageTrash(storage, properties);
+
+    trash.reset();
+
+    assertThat(trash.awaitReclaimed(10, TimeUnit.SECONDS)).isTrue();
+    assertThat(tempDir.resolve("uploads.trash/1")).doesNotExist();
+  }
+
+  @Test
+  void reset_deletesInPlaceInDeleteMode() throws IOException {
+    Files.createDirectories(tempDir.resolve("uploads"));
+    Files.writeString(tempDir.resolve("uploads/a.txt"), "a");
+    properties.setReset(StorageProperties.Reset.DELETE);
+    trash = new StorageTrash(storage, properties);
+
+    trash.reset();
+
+    assertThat(tempDir.resolve("uploads")).doesNotExist();
+    assertThat(tempDir.resolve("uploads.trash")).doesNotExist();
+  }
+
+  @Test
+  void reset_keepsFreshRootUsableWhileReclaiming() throws Exception {
+    Files.createDirectories(tempDir.resolve("uploads"));
+    for (int i = 0; i < 200; i++) {
+      Files.writeString(tempDir.resolve("uploads/" + i + ".txt"), "x");
+    }
+    properties.setReclaimRate(100);
+    trash = new StorageTrash(storage, properties);
+
+    trash.reset();
+    storage.init();
+
+    assertThat(storage.loadAll()).isEmpty();
+    assertThat(trash.awaitReclaimed(100, TimeUnit.MILLISECONDS)).isFalse();
+    assertThat(trash.reclaimedFiles()).isLessThan(200);
+  }
+}
@@ -0,0 +1,183 @@
+package com.example.files.storage;
+
+import java.io.ByteArrayInputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.nio.ByteBuffer;
+import java.nio.channels.Channels;
+import java.nio.channels.FileChannel;
+import java.nio.channels.ReadableByteChannel;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.nio.file.StandardOpenOption;
+import java.security.DigestInputStream;
+import java.security.MessageDigest;
+import java.util.HexFormat;
+import java.util.Random;
+import java.util.concurrent.TimeUnit;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+import org.openjdk.jmh.results.format.ResultFormatType;
+import org.openjdk.jmh.runner.Runner;
+import org.openjdk.jmh.runner.options.OptionsBuilder;
+import org.springframework.util.FileSystemUtils;
+import org.springframework.util.unit.DataSize;
+
+/**
+ * Cost of getting an upload onto disk, per file size and copy strategy. {@code service} is
+ * {@link FileSystemStorageService#store(String, InputStream, long)} as shipped; the others receive
+ * the same bytes into a temp file with {@link Files#copy(InputStream, Path,
+ * java.nio.file.CopyOption...)}, {@link FileChannel#transferFrom} or a reused direct buffer, then
+ * commit it with the same atomic rename. Every strategy computes the SHA-256 the service reports,
+ * so they all do the same work.
+ *
+ * <p>Content comes from memory, so disk writes are what is measured. Files go to a fresh directory
+ * under {@code -Dstorage.benchmark.dir} (default: java.io.tmpdir); point it at a tmpfs such as
+ * /dev/shm to take the device out of the picture. Start it via {@link #main}; results go to
+ * target/jmh-store.json.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class StoreBenchmark {
+
+  private static final int BUFFER_SIZE = 256 * 1024;
+
+  @Param({"4096", "1048576", "67108864"})
+  public int size;
+
+  @Param({"service", "files-copy", "transfer-from", "direct-buffer"})
+  public String strategy;
+
+  @Param({"false"})
+  public boolean fsync;
+
+  private Path dir;
+  private FileSystemStorageService service;
+  private byte[] content;
+  private ByteBuffer directBuffer;
+
+  @Setup
+  public void setUp() throws IOException {
+    dir = Files.createTempDirectory(benchmarkDir(), "store-benchmark");
+    StorageProperties properties = new StorageProperties();
+    properties.setLocation(dir.resolve("uploads").toString());
+    properties.setMaxFileSize(DataSize.ofGigabytes(1));
+    properties.setFsync(fsync);
+    service = new FileSystemStorageService(properties, event -> {});
+    service.init();
+    Files.createDirectories(dir.resolve("incoming"));
+
+    content = new byte[size];
+    new Random(42).nextBytes(content);
+    directBuffer = ByteBuffer.allocateDirect(BUFFER_SIZE);
+  }
+
+  @TearDown
+  public void tearDown() throws IOException {
+    FileSystemUtils.deleteRecursively(dir);
+  }
+
+  @Benchmark
+  public String store() throws IOException {
+    if (strategy.equals("service")) {
+      return service.store("upload.bin", new ByteArrayInputStream(content), size).sha256();
+    }
+
+    MessageDigest digest = IncomingFile.sha256Digest();
+    Path tempFile = dir.resolve("incoming/upload.part");
+    try (InputStream in = new DigestInputStream(new ByteArrayInputStream(content), digest)) {
+      switch (strategy) {
+        case "files-copy" -> filesCopy(in, tempFile);
+        case "transfer-from" -> transferFrom(in, tempFile);
+        case "direct-buffer" -> copyThroughDirectBuffer(in, tempFile);
+        default -> throw new IllegalArgumentException("Unknown strategy " + strategy);
+      }
+    }
+    Files.move(
+        tempFile,
+        dir.resolve("uploads/upload.bin"),
+        StandardCopyOption.ATOMIC_MOVE,
+        StandardCopyOption.REPLACE_EXISTING);
+    return HexFormat.of().formatHex(digest.digest());
+  }
+
+  private void filesCopy(InputStream in, Path target) throws IOException {
+    Files.copy(in, target, StandardCopyOption.REPLACE_EXISTING);
+    if (fsync) {
+      try (FileChannel channel = FileChannel.open(target, StandardOpenOption.WRITE)) {
+        channel.force(false);
+      }
+    }
+  }
+
+  private void transferFrom(InputStream in, Path target) throws IOException {
+    try (FileChannel channel = open(target)) {
+      ReadableByteChannel source = Channels.newChannel(in);
+      long position = 0;
+      long transferred;
+      while ((transferred = channel.transferFrom(source, position, BUFFER_SIZE)) > 0) {
+        position += transferred;
+      }
+      force(channel);
+    }
+  }
+
+  private void copyThroughDirectBuffer(InputStream in, Path target) throws IOException {
+    try (FileChannel channel = open(target)) {
+      ReadableByteChannel source = Channels.newChannel(in);
+      directBuffer.clear();
+      while (source.read(directBuffer) != -1) {
+        directBuffer.flip();
+        while (directBuffer.hasRemaining()) {
+          channel.write(directBuffer);
+        }
+        directBuffer.clear();
+      }
+      force(channel);
+    }
+  }
+
+  private static FileChannel open(Path target) throws IOException {
+    return FileChannel.open(
+        target,
+        StandardOpenOption.CREATE,
+        StandardOpenOption.WRITE,
+        StandardOpenOption.TRUNCATE_EXISTING);
+  }
+
+  private void force(FileChannel channel) throws IOException {
+    if (fsync) {
+      channel.force(false);
+    }
+  }
+
+  static Path benchmarkDir() {
+    return Path.of(
+        System.getProperty("storage.benchmark.dir", System.getProperty("java.io.tmpdir")));
+  }
+
+  public static void main(String[] args) throws Exception {
+    new Runner(
+            new OptionsBuilder()
+                .include(StoreBenchmark.class.getSimpleName())
+                .resultFormat(ResultFormatType.JSON)
+                .result("target/jmh-store.json")
+                .build())
+        .run();
+  }
+}
@@ -0,0 +1,86 @@
+package com.example.files.storage;
+
+import java.io.ByteArrayInputStream;
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.List;
+import java.util.function.BooleanSupplier;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+class StoredFileIndexTest {
+
+  @TempDir Path tempDir;
+
+  private Path root;
+  private FileSystemStorageService service;
+  private StoredFileIndex index;
+
+  @BeforeEach
+  void setUp() throws IOException {
+    root = tempDir.resolve("uploads");
+    StorageProperties properties = new StorageProperties();
+    properties.setLocation(root.toString());
+    service =
+        new FileSystemStorageService(
+            properties, event -> index.onFileStored((FileStoredEvent) event));
+    service.init();
+    Files.writeString(root.resolve("b.txt"), "bb");
+    Files.writeString(root.resolve("a.txt"), "a");
+    Files.writeString(root.resolve("c.txt"), "ccc");
+
+    index = new StoredFileIndex(service, properties);
+    index.rebuild();
+  }
+
+  @AfterEach
+  void tearDown() {
+    index.shutdown();
+  }
+
+  @Test
+  void page_listsFilesInNameOrderWithCursor() {
+    StoredFileIndex.Page first = index.page(null, 2);
+    assertThat(names(first)).containsExactly("a.txt", "b.txt");
+    assertThat(first.entries().get(1).size()).isEqualTo(2);
+    assertThat(first.nextCursor()).isEqualTo("b.txt");
+
+    StoredFileIndex.Page second = index.page(first.nextCursor(), 2);
+    assertThat(names(second)).containsExactly("c.txt");
+    assertThat(second.nextCursor()).isNull();
+  }
+
+  @Test
+  void store_updatesIndexImmediately() {
+    service.store(
+        "aa.txt", new ByteArrayInputStream("new".getBytes(StandardCharsets.UTF_8)), 3);
+
+    assertThat(names(index.page(null, 10))).containsExactly("a.txt", "aa.txt", "b.txt", "c.txt");
+  }
+
+  @Test
+  void watcher_picksUpChangesMadeOutsideTheService() throws Exception {
+    Files.writeString(root.resolve("d.txt"), "dddd");
+    Files.delete(root.resolve("a.txt"));
+
+    await(() -> names(index.page(null, 10)).equals(List.of("b.txt", "c.txt", "d.txt")));
+    assertThat(names(index.page(null, 10))).containsExactly("b.txt", "c.txt", "d.txt");
+  }
+
+  private static List<String> names(StoredFileIndex.Page page) {
+    return page.entries().stream().map(StoredFileIndex.Entry::filename).toList();
+  }
+
+  private static void await(BooleanSupplier condition) throws InterruptedException {
+    long deadline = System.nanoTime() + 10_000_000_000L;
+    while (!condition.getAsBoolean() && System.nanoTime() < deadline) {
+      Thread.sleep(20);
+    }
+  }
+}
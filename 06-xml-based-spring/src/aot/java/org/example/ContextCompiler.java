@@ -0,0 +1,52 @@
+package org.example;
+
+import java.io.IOException;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import org.springframework.aot.generate.ClassNameGenerator;
+import org.springframework.aot.generate.DefaultGenerationContext;
+import org.springframework.aot.generate.FileSystemGeneratedFiles;
+import org.springframework.context.aot.ApplicationContextAotGenerator;
+import org.springframework.context.support.GenericXmlApplicationContext;
+import org.springframework.javapoet.ClassName;
+import org.springframework.util.FileSystemUtils;
+
+/**
+ * Build step that turns the bean definitions in {@code spring.xml} into Java code: an
+ * {@code App__ApplicationContextInitializer} that registers them programmatically, so that
+ * {@link App} can start without parsing and validating XML. The bean factory is only processed,
+ * never refreshed, so no bean is instantiated here.
+ *
+ * <p>Arguments: the directory for generated sources and the one for generated resources (the
+ * runtime hints, which only matter for a native image).
+ */
+public class ContextCompiler {
+
+  public static void main(String[] args) throws IOException {
+    Path sources = Paths.get(args[0]);
+    Path resources = Paths.get(args[1]);
+    // Generated files are never overwritten, and leftovers from an older spring.xml must go.
+    FileSystemUtils.deleteRecursively(sources);
+    FileSystemUtils.deleteRecursively(resources);
+
+    GenericXmlApplicationContext context = new GenericXmlApplicationContext();
+    context.load(App.CONFIG);
+
+    DefaultGenerationContext generationContext =
+        new DefaultGenerationContext(
+            new ClassNameGenerator(ClassName.get(App.class)),
+            new FileSystemGeneratedFiles(
+                kind -> switch (kind) {
+                  case SOURCE -> sources;
+                  case RESOURCE, CLASS -> resources;
+                }));
+    ClassName initializer =
+        new ApplicationContextAotGenerator().processAheadOfTime(context, generationContext);
+    if (!initializer.canonicalName().equals(App.INITIALIZER)) {
+      throw new IllegalStateException(
+          "Generated " + initializer + ", but the application looks for " + App.INITIALIZER);
+    }
+    generationContext.writeGeneratedContent();
+    System.out.println("Compiled " + App.CONFIG + " into " + initializer);
+  }
+}
@@ -1,13 +1,77 @@
 package org.example;
 
-import org.springframework.context.ApplicationContext;
+import java.io.IOException;
+import java.io.Writer;
+import java.nio.file.Files;
+import java.nio.file.Paths;
+import org.example.startup.StartupProfiler;
+import org.springframework.aot.AotDetector;
+import org.springframework.beans.BeanUtils;
+import org.springframework.context.ApplicationContextInitializer;
+import org.springframework.context.ConfigurableApplicationContext;
 import org.springframework.context.support.ClassPathXmlApplicationContext;
+import org.springframework.context.support.GenericApplicationContext;
+import org.springframework.core.metrics.jfr.FlightRecorderApplicationStartup;
+import org.springframework.util.ClassUtils;
 
 public class App {
-  public static void main(String[] args) {
-    ApplicationContext context = new ClassPathXmlApplicationContext("spring.xml");
-    Alien obj = (Alien) context.getBean("alien");
-    System.out.println("Alien is " + obj.getAge() + " years old");
-    obj.code();
+
+  static final String CONFIG = "spring.xml";
+
+  // Written by ContextCompiler during the build, from the same spring.xml.
+  static final String INITIALIZER = "org.example.App__ApplicationContextInitializer";
+
+  // Where to write the startup profile as JSON; not profiled if unset.
+  static final String PROFILE_PROPERTY = "startup.profile";
+
+  public static void main(String[] args) throws IOException {
+    String profile = System.getProperty(PROFILE_PROPERTY);
+    // The JFR events cost next to nothing unless a recording runs (-XX:StartFlightRecording).
+    StartupProfiler profiler =
+        profile == null ? null : new StartupProfiler(new FlightRecorderApplicationStartup());
+    try (ConfigurableApplicationContext context = createContext(profiler)) {
+      if (profiler != null) {
+        try (Writer out = Files.newBufferedWriter(Paths.get(profile))) {
+          profiler.writeJson(out);
+        }
+        System.out.print(profiler.summary(5));
+      }
+      Alien obj = (Alien) context.getBean("alien");
+      System.out.println("Alien is " + obj.getAge() + " years old");
+      obj.code();
+    }
+  }
+
+  // Run with -Dspring.aot.enabled=true to use the compiled bean definitions instead of the XML.
+  static ConfigurableApplicationContext createContext() {
+    return createContext(null);
+  }
+
+  // The profiler may be null.
+  static ConfigurableApplicationContext createContext(StartupProfiler profiler) {
+    return AotDetector.useGeneratedArtifacts() ? generatedContext(profiler) : xmlContext(profiler);
+  }
+
+  static ConfigurableApplicationContext xmlContext(StartupProfiler profiler) {
+    return refresh(new ClassPathXmlApplicationContext(new String[] {CONFIG}, false), profiler);
+  }
+
+  @SuppressWarnings("unchecked")
+  static ConfigurableApplicationContext generatedContext(StartupProfiler profiler) {
+    GenericApplicationContext context = new GenericApplicationContext();
+    Class<?> initializer = ClassUtils.resolveClassName(INITIALIZER, App.class.getClassLoader());
+    ((ApplicationContextInitializer<GenericApplicationContext>)
+            BeanUtils.instantiateClass(initializer))
+        .initialize(context);
+    return refresh(context, profiler);
+  }
+
+  private static ConfigurableApplicationContext refresh(
+      ConfigurableApplicationContext context, StartupProfiler profiler) {
+    if (profiler != null) {
+      profiler.attach(context);
+    }
+    context.refresh();
+    return context;
   }
 }
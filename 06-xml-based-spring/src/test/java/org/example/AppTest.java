@@ -1,8 +1,17 @@
 package org.example;
 
+import java.io.ByteArrayOutputStream;
+import java.io.PrintStream;
+import java.io.StringWriter;
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
 import junit.framework.Test;
 import junit.framework.TestCase;
 import junit.framework.TestSuite;
+import org.example.startup.StartupProfiler;
+import org.springframework.context.ConfigurableApplicationContext;
 
 /**
  * Unit test for simple App.
@@ -35,4 +44,65 @@ public class AppTest
     {
         assertTrue( true );
     }
+
+    /**
+     * The context compiled from spring.xml creates the same beans, in the same order, with the
+     * same side effects as the XML one.
+     */
+    public void testGeneratedContextMatchesXml()
+    {
+        assertEquals( run( false ), run( true ) );
+    }
+
+    private static String run( boolean generated )
+    {
+        PrintStream stdout = System.out;
+        ByteArrayOutputStream out = new ByteArrayOutputStream();
+        System.setOut( new PrintStream( out, true ) );
+        try ( ConfigurableApplicationContext context =
+                generated ? App.generatedContext( null ) : App.xmlContext( null ) )
+        {
+            Alien alien = (Alien) context.getBean( "alien" );
+            alien.code();
+            return Arrays.toString( context.getBeanDefinitionNames() ) + " " + alien.getAge()
+                + "\n" + out;
+        }
+        finally
+        {
+            System.setOut( stdout );
+        }
+    }
+
+    /**
+     * Every bean gets a step of its own, and the laptop created while the alien's properties are
+     * injected counts towards the laptop, not the alien.
+     */
+    public void testStartupProfilerTimesEachBean() throws Exception
+    {
+        StartupProfiler profiler = new StartupProfiler();
+        List<StartupProfiler.BeanTiming> beans;
+        try ( ConfigurableApplicationContext context = App.xmlContext( profiler ) )
+        {
+            beans = profiler.slowestBeans( 10 );
+        }
+
+        Map<String, StartupProfiler.BeanTiming> byName = new HashMap<>();
+        for ( StartupProfiler.BeanTiming bean : beans )
+        {
+            byName.put( bean.beanName(), bean );
+        }
+        StartupProfiler.BeanTiming alien = byName.get( "alien" );
+        StartupProfiler.BeanTiming laptop = byName.get( "laptop" );
+        assertNotNull( alien );
+        assertNotNull( laptop );
+        assertTrue( alien.injectNanos() >= 0 );
+        assertTrue( alien.totalNanos() >= alien.selfNanos() + laptop.totalNanos() );
+        assertEquals(
+            alien.selfNanos(), alien.constructNanos() + alien.injectNanos() + alien.initNanos() );
+
+        StringWriter json = new StringWriter();
+        profiler.writeJson( json );
+        assertTrue( json.toString().contains( "\"name\":\"spring.context.refresh\"" ) );
+        assertTrue( json.toString().contains( "\"beanName\":\"laptop\"" ) );
+    }
 }
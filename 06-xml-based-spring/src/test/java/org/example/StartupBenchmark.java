@@ -0,0 +1,92 @@
+package org.example;
+
+import java.io.BufferedReader;
+import java.io.InputStreamReader;
+import java.lang.management.ManagementFactory;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import org.springframework.context.ConfigurableApplicationContext;
+
+/**
+ * Cold start of the application context from spring.xml versus from the bean definitions compiled
+ * from it, each in fresh JVMs: time until the context is refreshed and the number of classes
+ * loaded by then. Argument: JVMs per variant (default 20), alternating between the two.
+ */
+public class StartupBenchmark {
+
+  public static void main(String[] args) throws Exception {
+    int runs = args.length > 0 ? Integer.parseInt(args[0]) : 20;
+    List<long[]> xml = new ArrayList<>();
+    List<long[]> generated = new ArrayList<>();
+    // One of each first, so that neither variant pays for a cold page cache.
+    launch(false);
+    launch(true);
+    for (int i = 0; i < runs; i++) {
+      xml.add(launch(false));
+      generated.add(launch(true));
+    }
+    report("xml", xml);
+    report("generated", generated);
+  }
+
+  /** Runs in the child JVM: starts the context and prints nanoseconds and loaded classes. */
+  public static class Probe {
+
+    public static void main(String[] args) {
+      long start = System.nanoTime();
+      ConfigurableApplicationContext context = App.createContext();
+      long elapsed = System.nanoTime() - start;
+      int loaded = ManagementFactory.getClassLoadingMXBean().getLoadedClassCount();
+      context.close();
+      System.out.println("probe " + elapsed + " " + loaded);
+    }
+  }
+
+  private static long[] launch(boolean generated) throws Exception {
+    String java = Path.of(System.getProperty("java.home"), "bin", "java").toString();
+    long start = System.nanoTime();
+    Process process =
+        new ProcessBuilder(
+                java,
+                "-Dspring.aot.enabled=" + generated,
+                "-cp",
+                System.getProperty("java.class.path"),
+                Probe.class.getName())
+            .redirectErrorStream(true)
+            .start();
+    String probe = null;
+    try (BufferedReader out =
+        new BufferedReader(
+            new InputStreamReader(process.getInputStream(), StandardCharsets.UTF_8))) {
+      for (String line = out.readLine(); line != null; line = out.readLine()) {
+        if (line.startsWith("probe ")) {
+          probe = line;
+        }
+      }
+    }
+    if (process.waitFor() != 0 || probe == null) {
+      throw new IllegalStateException("Probe failed with exit code " + process.exitValue());
+    }
+    long wall = System.nanoTime() - start;
+    String[] fields = probe.split(" ");
+    return new long[] {Long.parseLong(fields[1]), Long.parseLong(fields[2]), wall};
+  }
+
+  private static void report(String variant, List<long[]> samples) {
+    System.out.printf(
+        "%-10s context %6.1f ms   classes %,6d   whole JVM %6.1f ms%n",
+        variant,
+        median(samples, 0) / 1e6,
+        median(samples, 1),
+        median(samples, 2) / 1e6);
+  }
+
+  private static long median(List<long[]> samples, int field) {
+    long[] values = samples.stream().mapToLong(sample -> sample[field]).toArray();
+    Arrays.sort(values);
+    return values[values.length / 2];
+  }
+}
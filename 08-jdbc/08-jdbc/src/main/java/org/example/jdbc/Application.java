@@ -5,9 +5,11 @@ import org.example.jdbc.model.Student;
 import org.example.jdbc.service.StudentService;
 import org.springframework.boot.SpringApplication;
 import org.springframework.boot.autoconfigure.SpringBootApplication;
+import org.springframework.boot.context.properties.EnableConfigurationProperties;
 import org.springframework.context.ApplicationContext;
 
 @SpringBootApplication
+@EnableConfigurationProperties(StudentProperties.class)
 public class Application {
 
   public static void main(String[] args) {
@@ -0,0 +1,29 @@
+package org.example.jdbc;
+
+import org.springframework.boot.context.properties.ConfigurationProperties;
+
+@ConfigurationProperties("students")
+public class StudentProperties {
+
+  // Rows per JDBC batch in saveAll; larger batches mean fewer round trips but more memory.
+  private int batchSize = 1000;
+
+  // Students kept by roll number in StudentCache; the least recently used go first.
+  private int cacheMaxEntries = 10_000;
+
+  public int getBatchSize() {
+    return batchSize;
+  }
+
+  public void setBatchSize(int batchSize) {
+    this.batchSize = batchSize;
+  }
+
+  public int getCacheMaxEntries() {
+    return cacheMaxEntries;
+  }
+
+  public void setCacheMaxEntries(int cacheMaxEntries) {
+    this.cacheMaxEntries = cacheMaxEntries;
+  }
+}
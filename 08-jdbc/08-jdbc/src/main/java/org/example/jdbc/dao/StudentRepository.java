@@ -1,39 +1,121 @@
 package org.example.jdbc.dao;
 
-import java.sql.ResultSet;
-import java.sql.SQLException;
+import java.sql.PreparedStatement;
 import java.util.List;
+import java.util.Optional;
+import org.example.jdbc.StudentProperties;
 import org.example.jdbc.model.Student;
 import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.jdbc.core.RowCallbackHandler;
 import org.springframework.jdbc.core.RowMapper;
 import org.springframework.stereotype.Repository;
 
 @Repository
 public class StudentRepository {
 
-  private JdbcTemplate jdbcTemplate;
+  private static final String INSERT = "insert into student (rollno, name, marks) values (?, ?, ?)";
 
-  public StudentRepository(JdbcTemplate jdbcTemplate) {
+  // Mapped by position, so the column order here and in MAPPER must match.
+  private static final String SELECT = "select rollno, name, marks from student";
+
+  // Rows fetched per round trip when streaming, for drivers that do not send everything at once.
+  private static final int STREAM_FETCH_SIZE = 10_000;
+
+  private static final RowMapper<Student> MAPPER = (rs, _) -> {
+    Student s = new Student();
+    s.setRollNo(rs.getInt(1));
+    s.setName(rs.getString(2));
+    s.setMarks(rs.getInt(3));
+    return s;
+  };
+
+  /** Receives one row at a time from {@link #forEach}, without a {@link Student} per row. */
+  @FunctionalInterface
+  public interface RowHandler {
+    void row(int rollNo, String name, int marks);
+  }
+
+  /** One page of students by roll number; {@code nextRollNo} is null on the last page. */
+  public record Page(List<Student> students, Integer nextRollNo) {}
+
+  private final JdbcTemplate jdbcTemplate;
+  private final int batchSize;
+
+  public StudentRepository(JdbcTemplate jdbcTemplate, StudentProperties properties) {
     this.jdbcTemplate = jdbcTemplate;
+    this.batchSize = properties.getBatchSize();
   }
 
   public void save(Student s) {
-    String sql = "insert into student (rollno, name, marks) values (?, ?, ?)";
-    int rows = jdbcTemplate.update(sql, s.getRollNo(), s.getName(), s.getMarks());
-    System.out.println(rows + " affected");
+    jdbcTemplate.update(INSERT, s.getRollNo(), s.getName(), s.getMarks());
   }
 
+  /**
+   * Inserts the students in JDBC batches of the configured size and returns the update count of
+   * each, in order. A driver may report {@link java.sql.Statement#SUCCESS_NO_INFO} instead of a
+   * count.
+   */
+  public int[] saveAll(List<Student> students) {
+    int[][] batches =
+        jdbcTemplate.batchUpdate(
+            INSERT,
+            students,
+            batchSize,
+            (ps, s) -> {
+              ps.setInt(1, s.getRollNo());
+              ps.setString(2, s.getName());
+              ps.setInt(3, s.getMarks());
+            });
+    int[] rows = new int[students.size()];
+    int i = 0;
+    for (int[] batch : batches) {
+      System.arraycopy(batch, 0, rows, i, batch.length);
+      i += batch.length;
+    }
+    return rows;
+  }
+
+  public Optional<Student> findById(int rollNo) {
+    return jdbcTemplate.query(SELECT + " where rollno = ?", MAPPER, rollNo).stream().findFirst();
+  }
 
   public List<Student> findAll() {
-    String sql = "select * from student";
-    RowMapper<Student> mapper = (rs, _) -> {
-      Student s = new Student();
-      s.setRollNo(rs.getInt("rollno"));
-      s.setName(rs.getString("name"));
-      s.setMarks(rs.getInt("marks"));
-      return s;
-    };
-
-    return jdbcTemplate.query(sql, mapper);
+    return jdbcTemplate.query(SELECT, MAPPER);
+  }
+
+  /** Streams all students in roll number order to the handler. */
+  public void forEach(RowHandler handler) {
+    jdbcTemplate.query(
+        con -> {
+          PreparedStatement ps = con.prepareStatement(SELECT + " order by rollno");
+          ps.setFetchSize(STREAM_FETCH_SIZE);
+          return ps;
+        },
+        (RowCallbackHandler) rs -> handler.row(rs.getInt(1), rs.getString(2), rs.getInt(3)));
+  }
+
+  /**
+   * Up to {@code limit} students in roll number order, starting after {@code afterRollNo}
+   * (exclusive), or from the beginning if it is null. Seeks through the primary key index, so
+   * every page costs the same however deep it is, unlike an offset.
+   */
+  public Page findPage(Integer afterRollNo, int limit) {
+    if (limit < 1) {
+      throw new IllegalArgumentException("Page limit must be positive: " + limit);
+    }
+    // One row more than asked for tells whether there is a next page.
+    List<Student> students =
+        afterRollNo == null
+            ? jdbcTemplate.query(SELECT + " order by rollno limit ?", MAPPER, limit + 1)
+            : jdbcTemplate.query(
+                SELECT + " where rollno > ? order by rollno limit ?",
+                MAPPER,
+                afterRollNo,
+                limit + 1);
+    if (students.size() <= limit) {
+      return new Page(students, null);
+    }
+    students = students.subList(0, limit);
+    return new Page(students, students.get(limit - 1).getRollNo());
   }
 }
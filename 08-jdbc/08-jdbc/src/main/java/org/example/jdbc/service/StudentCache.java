@@ -0,0 +1,269 @@
+package org.example.jdbc.service;
+
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import jakarta.annotation.PostConstruct;
+import java.util.AbstractList;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import java.util.RandomAccess;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.function.Supplier;
+import org.example.jdbc.StudentProperties;
+import org.example.jdbc.dao.StudentRepository;
+import org.example.jdbc.model.Student;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+/**
+ * Read-through cache in front of {@link StudentRepository}: students by roll number, bounded and
+ * evicted least recently used first, and one snapshot of all students. Concurrent misses for the
+ * same key share a single query. Writes through {@link StudentService} invalidate it; changes made
+ * behind its back are not seen.
+ *
+ * <p>{@link Student} is mutable, so the cached ones never leave this class: callers get a copy
+ * from {@link #findById}, and a copy per element read from the list {@link #findAll} returns.
+ */
+@Component
+public class StudentCache {
+
+  private final StudentRepository repository;
+  private final int maxEntries;
+  private final MeterRegistry meterRegistry;
+
+  // Access-ordered, so the eldest entry is the least recently used. Absent students are cached as
+  // empty. Guarded by itself, as is everything below it.
+  private final LinkedHashMap<Integer, Optional<Student>> entries;
+  private final Map<Integer, CompletableFuture<Optional<Student>>> loading = new HashMap<>();
+  private List<Student> all;
+  private CompletableFuture<List<Student>> loadingAll;
+
+  // Bumped on every invalidation, so a load that raced with a write is not cached.
+  private long version;
+
+  private final Counter hits;
+  private final Counter misses;
+  private final Counter allHits;
+  private final Counter allMisses;
+  private final Counter evictions;
+
+  public StudentCache(
+      StudentRepository repository, StudentProperties properties, MeterRegistry meterRegistry) {
+    this.repository = repository;
+    this.maxEntries = properties.getCacheMaxEntries();
+    this.meterRegistry = meterRegistry;
+    this.entries =
+        new LinkedHashMap<>(16, 0.75f, true) {
+          @Override
+          protected boolean removeEldestEntry(Map.Entry<Integer, Optional<Student>> eldest) {
+            if (size() <= maxEntries) {
+              return false;
+            }
+            evictions.increment();
+            return true;
+          }
+        };
+
+    this.hits =
+        meterRegistry.counter("students.cache.requests", "cache", "student", "result", "hit");
+    this.misses =
+        meterRegistry.counter("students.cache.requests", "cache", "student", "result", "miss");
+    this.allHits =
+        meterRegistry.counter("students.cache.requests", "cache", "all", "result", "hit");
+    this.allMisses =
+        meterRegistry.counter("students.cache.requests", "cache", "all", "result", "miss");
+    this.evictions = meterRegistry.counter("students.cache.evictions");
+  }
+
+  // Not from the constructor: the gauge hands this cache to the registry, which may read it from
+  // another thread.
+  @PostConstruct
+  void registerSizeGauge() {
+    Gauge.builder("students.cache.size", this, StudentCache::size).register(meterRegistry);
+  }
+
+  public Optional<Student> findById(int rollNo) {
+    CompletableFuture<Optional<Student>> load;
+    boolean owner = false;
+    long loadVersion;
+    synchronized (entries) {
+      Optional<Student> cached = entries.get(rollNo);
+      if (cached != null) {
+        hits.increment();
+        return cached.map(StudentCache::copy);
+      }
+      misses.increment();
+      loadVersion = version;
+      load = loading.get(rollNo);
+      if (load == null) {
+        load = new CompletableFuture<>();
+        loading.put(rollNo, load);
+        owner = true;
+      }
+    }
+    if (!owner) {
+      return join(load).map(StudentCache::copy);
+    }
+
+    Optional<Student> student = null;
+    try {
+      student = complete(load, () -> repository.findById(rollNo));
+      return student.map(StudentCache::copy);
+    } finally {
+      synchronized (entries) {
+        loading.remove(rollNo, load);
+        if (student != null && version == loadVersion) {
+          entries.put(rollNo, student);
+        }
+      }
+    }
+  }
+
+  /**
+   * All students, unmodifiable and shared between callers; reloaded on the first call after an
+   * invalidation. Every {@code get} returns a new copy, so hold on to the element, not the index.
+   */
+  public List<Student> findAll() {
+    CompletableFuture<List<Student>> load;
+    boolean owner = false;
+    long loadVersion;
+    synchronized (entries) {
+      if (all != null) {
+        allHits.increment();
+        return all;
+      }
+      allMisses.increment();
+      loadVersion = version;
+      load = loadingAll;
+      if (load == null) {
+        load = new CompletableFuture<>();
+        loadingAll = load;
+        owner = true;
+      }
+    }
+    if (!owner) {
+      return join(load);
+    }
+
+    List<Student> students = null;
+    try {
+      students = complete(load, () -> new CopyingList(List.copyOf(repository.findAll())));
+      return students;
+    } finally {
+      synchronized (entries) {
+        if (loadingAll == load) {
+          loadingAll = null;
+        }
+        if (students != null && version == loadVersion) {
+          all = students;
+        }
+      }
+    }
+  }
+
+  /**
+   * Drops the student and the snapshot of all students. Inside a transaction this happens again
+   * once it completes, so a read between the write and the commit cannot leave the old row cached.
+   */
+  public void invalidate(int rollNo) {
+    invalidate(() -> entries.remove(rollNo));
+    afterTransaction(() -> invalidate(() -> entries.remove(rollNo)));
+  }
+
+  public void invalidateAll() {
+    invalidate(entries::clear);
+    afterTransaction(() -> invalidate(entries::clear));
+  }
+
+  public int size() {
+    synchronized (entries) {
+      return entries.size();
+    }
+  }
+
+  public double hitRatio() {
+    double total = hits.count() + misses.count() + allHits.count() + allMisses.count();
+    return total == 0 ? 0 : (hits.count() + allHits.count()) / total;
+  }
+
+  private void invalidate(Runnable removal) {
+    synchronized (entries) {
+      version++;
+      removal.run();
+      all = null;
+      // Later misses must not join loads that may have read the old rows.
+      loading.clear();
+      loadingAll = null;
+    }
+  }
+
+  private static void afterTransaction(Runnable action) {
+    if (TransactionSynchronizationManager.isSynchronizationActive()) {
+      TransactionSynchronizationManager.registerSynchronization(
+          new TransactionSynchronization() {
+            @Override
+            public void afterCompletion(int status) {
+              action.run();
+            }
+          });
+    }
+  }
+
+  // Runs the query and hands the result, or the failure, to the misses waiting for it.
+  private static <T> T complete(CompletableFuture<T> waiting, Supplier<T> query) {
+    try {
+      T result = query.get();
+      waiting.complete(result);
+      return result;
+    } catch (RuntimeException e) {
+      waiting.completeExceptionally(e);
+      throw e;
+    }
+  }
+
+  private static Student copy(Student cached) {
+    Student s = new Student();
+    s.setRollNo(cached.getRollNo());
+    s.setName(cached.getName());
+    s.setMarks(cached.getMarks());
+    return s;
+  }
+
+  private static <T> T join(CompletableFuture<T> load) {
+    try {
+      return load.join();
+    } catch (CompletionException e) {
+      if (e.getCause() instanceof RuntimeException cause) {
+        throw cause;
+      }
+      throw e;
+    }
+  }
+
+  // Read-only view of the cached students that copies each one on the way out; copying per read
+  // is cheaper than copying the whole list on every hit.
+  private static final class CopyingList extends AbstractList<Student> implements RandomAccess {
+
+    private final List<Student> students;
+
+    private CopyingList(List<Student> students) {
+      this.students = students;
+    }
+
+    @Override
+    public Student get(int index) {
+      return copy(students.get(index));
+    }
+
+    @Override
+    public int size() {
+      return students.size();
+    }
+  }
+}
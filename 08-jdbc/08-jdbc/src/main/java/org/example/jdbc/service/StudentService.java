@@ -1,24 +1,51 @@
 package org.example.jdbc.service;
 
 import java.util.List;
+import java.util.Optional;
 import org.example.jdbc.dao.StudentRepository;
 import org.example.jdbc.model.Student;
 import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
 
 @Service
 public class StudentService {
 
   private final StudentRepository studentRepository;
+  private final StudentCache studentCache;
 
-  public StudentService(StudentRepository studentRepository) {
+  public StudentService(StudentRepository studentRepository, StudentCache studentCache) {
     this.studentRepository = studentRepository;
+    this.studentCache = studentCache;
   }
 
   public void addStudent(Student s) {
     studentRepository.save(s);
+    studentCache.invalidate(s.getRollNo());
   }
 
+  // One transaction for all batches, so a failure leaves none of the students behind.
+  @Transactional
+  public int[] addStudents(List<Student> students) {
+    int[] rows = studentRepository.saveAll(students);
+    studentCache.invalidateAll();
+    return rows;
+  }
+
+  public Optional<Student> getStudent(int rollNo) {
+    return studentCache.findById(rollNo);
+  }
+
+  // Cached; the list is shared and unmodifiable, and hands out a copy of each student.
   public List<Student> getStudents() {
-    return studentRepository.findAll();
+    return studentCache.findAll();
+  }
+
+  // Not cached: every call reads the whole table again.
+  public StudentSnapshot snapshot() {
+    return StudentSnapshot.load(studentRepository);
+  }
+
+  public StudentRepository.Page getStudents(Integer afterRollNo, int limit) {
+    return studentRepository.findPage(afterRollNo, limit);
   }
 }
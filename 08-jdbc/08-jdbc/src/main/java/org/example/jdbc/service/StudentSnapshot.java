@@ -0,0 +1,306 @@
+package org.example.jdbc.service;
+
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.Map;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.RecursiveTask;
+import java.util.function.BinaryOperator;
+import org.example.jdbc.dao.StudentRepository;
+
+/**
+ * All students as primitive columns, for reports that aggregate over the whole table. Roll
+ * numbers and marks are plain {@code int[]}s and names are dictionary-encoded, so a snapshot costs
+ * about twelve bytes per student plus one string per distinct name, and the aggregates are loops
+ * over arrays that allocate nothing per row. Each aggregate can optionally split its rows across
+ * the common fork-join pool.
+ *
+ * <p>A snapshot never changes; load a new one to see later writes.
+ */
+public final class StudentSnapshot {
+
+  // Ranges of rows this small are aggregated in one go rather than split further.
+  private static final int SPLIT_THRESHOLD = 1 << 16;
+
+  // Largest range of marks for which histogram buckets are looked up instead of computed.
+  private static final int BUCKET_TABLE_LIMIT = 1 << 16;
+
+  /** Counts of marks in {@code [start + i * width, start + (i + 1) * width)}. */
+  public record Histogram(int start, int width, long[] counts) {}
+
+  private final int size;
+  private final int[] rollNos;
+  private final int[] marks;
+  // Indexes into names; -1 for a student without one.
+  private final int[] nameCodes;
+  private final String[] names;
+  private final int minMarks;
+  private final int maxMarks;
+
+  private StudentSnapshot(Builder builder) {
+    this.size = builder.size;
+    this.rollNos = Arrays.copyOf(builder.rollNos, size);
+    this.marks = Arrays.copyOf(builder.marks, size);
+    this.nameCodes = Arrays.copyOf(builder.nameCodes, size);
+    this.names = new String[builder.dictionary.size()];
+    for (Map.Entry<String, Integer> entry : builder.dictionary.entrySet()) {
+      names[entry.getValue()] = entry.getKey();
+    }
+    this.minMarks = size == 0 ? 0 : builder.minMarks;
+    this.maxMarks = size == 0 ? 0 : builder.maxMarks;
+  }
+
+  /** Streams the students from the repository into a new snapshot. */
+  public static StudentSnapshot load(StudentRepository repository) {
+    Builder builder = new Builder();
+    repository.forEach(builder);
+    return new StudentSnapshot(builder);
+  }
+
+  public int size() {
+    return size;
+  }
+
+  public int rollNo(int row) {
+    return rollNos[row];
+  }
+
+  public int marks(int row) {
+    return marks[row];
+  }
+
+  public String name(int row) {
+    int code = nameCodes[row];
+    return code < 0 ? null : names[code];
+  }
+
+  public int distinctNames() {
+    return names.length;
+  }
+
+  /** NaN if there are no students. */
+  public double averageMarks(boolean parallel) {
+    long sum =
+        aggregate(
+            parallel,
+            (from, to) -> {
+              long total = 0;
+              for (int row = from; row < to; row++) {
+                total += marks[row];
+              }
+              return total;
+            },
+            Long::sum);
+    return size == 0 ? Double.NaN : (double) sum / size;
+  }
+
+  public Histogram histogram(int width, boolean parallel) {
+    if (width < 1) {
+      throw new IllegalArgumentException("Bucket width must be positive: " + width);
+    }
+    int buckets = size == 0 ? 0 : (int) (((long) maxMarks - minMarks) / width + 1);
+    // Marks usually span a small range, where a table lookup is much cheaper than a division.
+    int[] bucketOf = null;
+    if ((long) maxMarks - minMarks < BUCKET_TABLE_LIMIT) {
+      bucketOf = new int[size == 0 ? 0 : maxMarks - minMarks + 1];
+      for (int i = 0; i < bucketOf.length; i++) {
+        bucketOf[i] = i / width;
+      }
+    }
+    int[] table = bucketOf;
+    long[] counts =
+        aggregate(
+            parallel,
+            (from, to) -> {
+              long[] local = new long[buckets];
+              if (table != null) {
+                for (int row = from; row < to; row++) {
+                  local[table[marks[row] - minMarks]]++;
+                }
+              } else {
+                for (int row = from; row < to; row++) {
+                  local[(int) (((long) marks[row] - minMarks) / width)]++;
+                }
+              }
+              return local;
+            },
+            (left, right) -> {
+              for (int i = 0; i < left.length; i++) {
+                left[i] += right[i];
+              }
+              return left;
+            });
+    return new Histogram(minMarks, width, counts);
+  }
+
+  /**
+   * The rows of the {@code n} students with the highest marks, highest first; equal marks go to
+   * the lower roll number first. Read them with {@link #rollNo}, {@link #name} and {@link #marks}.
+   */
+  public int[] topByMarks(int n, boolean parallel) {
+    if (n < 0) {
+      throw new IllegalArgumentException("Count must not be negative: " + n);
+    }
+    int limit = Math.min(n, size);
+    TopRows top =
+        aggregate(
+            parallel,
+            (from, to) -> {
+              TopRows local = new TopRows(limit);
+              for (int row = from; row < to; row++) {
+                local.offer(row);
+              }
+              return local;
+            },
+            (left, right) -> {
+              for (int i = 0; i < right.count; i++) {
+                left.offer(right.heap[i]);
+              }
+              return left;
+            });
+    return top.sorted();
+  }
+
+  private <T> T aggregate(boolean parallel, RangeFunction<T> leaf, BinaryOperator<T> merge) {
+    if (!parallel || size <= SPLIT_THRESHOLD) {
+      return leaf.apply(0, size);
+    }
+    return ForkJoinPool.commonPool().invoke(new Split<>(0, size, leaf, merge));
+  }
+
+  // Whether row a ranks below row b.
+  private boolean below(int a, int b) {
+    return marks[a] < marks[b] || (marks[a] == marks[b] && rollNos[a] > rollNos[b]);
+  }
+
+  @FunctionalInterface
+  private interface RangeFunction<T> {
+    T apply(int from, int to);
+  }
+
+  // Never serialized: ForkJoinTask is Serializable only for the exceptions it carries.
+  @SuppressWarnings("serial")
+  private static final class Split<T> extends RecursiveTask<T> {
+
+    private final int from;
+    private final int to;
+    private final RangeFunction<T> leaf;
+    private final BinaryOperator<T> merge;
+
+    private Split(int from, int to, RangeFunction<T> leaf, BinaryOperator<T> merge) {
+      this.from = from;
+      this.to = to;
+      this.leaf = leaf;
+      this.merge = merge;
+    }
+
+    @Override
+    protected T compute() {
+      if (to - from <= SPLIT_THRESHOLD) {
+        return leaf.apply(from, to);
+      }
+      int middle = (from + to) >>> 1;
+      Split<T> left = new Split<>(from, middle, leaf, merge);
+      left.fork();
+      T right = new Split<>(middle, to, leaf, merge).compute();
+      return merge.apply(left.join(), right);
+    }
+  }
+
+  // A bounded min-heap of rows, lowest ranked at the root, so a better row replaces it.
+  private final class TopRows {
+
+    private final int[] heap;
+    private int count;
+
+    private TopRows(int capacity) {
+      this.heap = new int[capacity];
+    }
+
+    void offer(int row) {
+      if (count < heap.length) {
+        heap[count] = row;
+        siftUp(count++);
+      } else if (count > 0 && below(heap[0], row)) {
+        heap[0] = row;
+        siftDown(0, count);
+      }
+    }
+
+    // Empties the heap from the root, so the lowest ranked row ends up last.
+    int[] sorted() {
+      int[] rows = new int[count];
+      for (int end = count - 1; end >= 0; end--) {
+        rows[end] = heap[0];
+        heap[0] = heap[end];
+        siftDown(0, end);
+      }
+      count = 0;
+      return rows;
+    }
+
+    private void siftUp(int i) {
+      while (i > 0) {
+        int parent = (i - 1) >>> 1;
+        if (!below(heap[i], heap[parent])) {
+          return;
+        }
+        swap(i, parent);
+        i = parent;
+      }
+    }
+
+    private void siftDown(int i, int end) {
+      while (true) {
+        int lowest = i;
+        int left = 2 * i + 1;
+        int right = left + 1;
+        if (left < end && below(heap[left], heap[lowest])) {
+          lowest = left;
+        }
+        if (right < end && below(heap[right], heap[lowest])) {
+          lowest = right;
+        }
+        if (lowest == i) {
+          return;
+        }
+        swap(i, lowest);
+        i = lowest;
+      }
+    }
+
+    private void swap(int a, int b) {
+      int row = heap[a];
+      heap[a] = heap[b];
+      heap[b] = row;
+    }
+  }
+
+  private static final class Builder implements StudentRepository.RowHandler {
+
+    private int size;
+    private int[] rollNos = new int[1024];
+    private int[] marks = new int[1024];
+    private int[] nameCodes = new int[1024];
+    private final Map<String, Integer> dictionary = new HashMap<>();
+    private int minMarks = Integer.MAX_VALUE;
+    private int maxMarks = Integer.MIN_VALUE;
+
+    @Override
+    public void row(int rollNo, String name, int mark) {
+      if (size == rollNos.length) {
+        int capacity = size + (size >> 1);
+        rollNos = Arrays.copyOf(rollNos, capacity);
+        marks = Arrays.copyOf(marks, capacity);
+        nameCodes = Arrays.copyOf(nameCodes, capacity);
+      }
+      rollNos[size] = rollNo;
+      marks[size] = mark;
+      nameCodes[size] =
+          name == null ? -1 : dictionary.computeIfAbsent(name, _ -> dictionary.size());
+      minMarks = Math.min(minMarks, mark);
+      maxMarks = Math.max(maxMarks, mark);
+      size++;
+    }
+  }
+}
@@ -0,0 +1,204 @@
+package org.example.jdbc;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.UUID;
+import java.util.concurrent.TimeUnit;
+import org.example.jdbc.dao.StudentRepository;
+import org.example.jdbc.model.Student;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+import org.openjdk.jmh.results.format.ResultFormatType;
+import org.openjdk.jmh.runner.Runner;
+import org.openjdk.jmh.runner.options.OptionsBuilder;
+import org.springframework.boot.builder.SpringApplicationBuilder;
+import org.springframework.context.ConfigurableApplicationContext;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.jdbc.core.RowMapper;
+import org.springframework.transaction.support.TransactionTemplate;
+
+/**
+ * Writes and reads {@code rows} students in an in-memory H2 database: one update per student
+ * against batches of several sizes, {@code select *} with columns looked up by name against
+ * explicit columns mapped by index, and a page deep into the table by offset against by keyset.
+ * Inserts are single shots into a table emptied before each iteration; reads run against the full
+ * table. Add {@code -prof gc} to the options to see what each read allocates. Start it via
+ * {@link #main}; results go to target/jmh-student-repository.json.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class StudentRepositoryBenchmark {
+
+  private static final int PAGE_SIZE = 1000;
+
+  // What findAll used to do.
+  private static final RowMapper<Student> BY_NAME = (rs, _) -> {
+    Student s = new Student();
+    s.setRollNo(rs.getInt("rollno"));
+    s.setName(rs.getString("name"));
+    s.setMarks(rs.getInt("marks"));
+    return s;
+  };
+
+  @Param({"100000", "1000000"})
+  public int rows;
+
+  private ConfigurableApplicationContext context;
+  private JdbcTemplate jdbcTemplate;
+  private TransactionTemplate transactions;
+  private StudentRepository repository;
+  private List<Student> students;
+
+  @Setup
+  public void setUp() {
+    context =
+        new SpringApplicationBuilder(Application.class)
+            .run(
+                // A database of its own per trial, also when JMH runs them in one JVM.
+                "--spring.datasource.url=jdbc:h2:mem:" + UUID.randomUUID() + ";DB_CLOSE_DELAY=-1",
+                "--spring.sql.init.data-locations=",
+                "--logging.level.root=warn");
+    jdbcTemplate = context.getBean(JdbcTemplate.class);
+    transactions = context.getBean(TransactionTemplate.class);
+    repository = repository(jdbcTemplate, 1000);
+    students = new ArrayList<>(rows);
+    for (int i = 0; i < rows; i++) {
+      Student s = new Student();
+      s.setRollNo(i + 1);
+      s.setName("Student " + (i % 50_000));
+      s.setMarks(i % 500);
+      students.add(s);
+    }
+    repository.saveAll(students);
+  }
+
+  @TearDown
+  public void tearDown() {
+    jdbcTemplate.execute("shutdown");
+    context.close();
+  }
+
+  /** Gives the insert benchmarks an empty table for every iteration. */
+  @State(Scope.Benchmark)
+  public static class EmptyTable {
+
+    @Setup(Level.Iteration)
+    public void empty(StudentRepositoryBenchmark benchmark) {
+      benchmark.jdbcTemplate.update("delete from student");
+    }
+  }
+
+  @State(Scope.Benchmark)
+  public static class Batches {
+
+    @Param({"100", "1000", "10000"})
+    public int batchSize;
+
+    private StudentRepository repository;
+
+    @Setup
+    public void setUp(StudentRepositoryBenchmark benchmark) {
+      repository = repository(benchmark.jdbcTemplate, batchSize);
+    }
+  }
+
+  /** Where the offset and keyset pages start, as a fraction of the table. */
+  @State(Scope.Benchmark)
+  public static class Depth {
+
+    @Param({"0", "0.5", "1"})
+    public double fraction;
+
+    private int afterRow;
+
+    @Setup
+    public void setUp(StudentRepositoryBenchmark benchmark) {
+      afterRow = (int) ((benchmark.rows - PAGE_SIZE) * fraction);
+    }
+  }
+
+  @Benchmark
+  @BenchmarkMode(Mode.SingleShotTime)
+  @Warmup(iterations = 1)
+  @Measurement(iterations = 3)
+  public void saveOneUpdateEach(EmptyTable table) {
+    transactions.executeWithoutResult(status -> students.forEach(repository::save));
+  }
+
+  @Benchmark
+  @BenchmarkMode(Mode.SingleShotTime)
+  @Warmup(iterations = 1)
+  @Measurement(iterations = 3)
+  public int[] saveAllInBatches(EmptyTable table, Batches batches) {
+    return transactions.execute(status -> batches.repository.saveAll(students));
+  }
+
+  @Benchmark
+  public List<Student> selectStarColumnsByName() {
+    return jdbcTemplate.query("select * from student", BY_NAME);
+  }
+
+  @Benchmark
+  public List<Student> findAllColumnsByIndex() {
+    return repository.findAll();
+  }
+
+  @Benchmark
+  public int allPagesByKeyset() {
+    int read = 0;
+    Integer cursor = null;
+    do {
+      StudentRepository.Page page = repository.findPage(cursor, PAGE_SIZE);
+      read += page.students().size();
+      cursor = page.nextRollNo();
+    } while (cursor != null);
+    return read;
+  }
+
+  @Benchmark
+  @OutputTimeUnit(TimeUnit.MICROSECONDS)
+  public List<Student> pageByOffset(Depth depth) {
+    return jdbcTemplate.query(
+        "select rollno, name, marks from student order by rollno limit ? offset ?",
+        BY_NAME,
+        PAGE_SIZE,
+        depth.afterRow);
+  }
+
+  @Benchmark
+  @OutputTimeUnit(TimeUnit.MICROSECONDS)
+  public StudentRepository.Page pageByKeyset(Depth depth) {
+    return repository.findPage(depth.afterRow == 0 ? null : depth.afterRow, PAGE_SIZE);
+  }
+
+  private static StudentRepository repository(JdbcTemplate jdbcTemplate, int batchSize) {
+    StudentProperties properties = new StudentProperties();
+    properties.setBatchSize(batchSize);
+    return new StudentRepository(jdbcTemplate, properties);
+  }
+
+  public static void main(String[] args) throws Exception {
+    new Runner(
+            new OptionsBuilder()
+                .include(StudentRepositoryBenchmark.class.getSimpleName())
+                .resultFormat(ResultFormatType.JSON)
+                .result("target/jmh-student-repository.json")
+                .build())
+        .run();
+  }
+}
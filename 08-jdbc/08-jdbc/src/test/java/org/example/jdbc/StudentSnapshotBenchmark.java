@@ -0,0 +1,189 @@
+package org.example.jdbc;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.Comparator;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.TimeUnit;
+import org.example.jdbc.dao.StudentRepository;
+import org.example.jdbc.model.Student;
+import org.example.jdbc.service.StudentSnapshot;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+import org.openjdk.jmh.results.format.ResultFormatType;
+import org.openjdk.jmh.runner.Runner;
+import org.openjdk.jmh.runner.options.OptionsBuilder;
+import org.springframework.boot.builder.SpringApplicationBuilder;
+import org.springframework.context.ConfigurableApplicationContext;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.util.FileSystemUtils;
+
+/**
+ * Top-10 marks, average marks and a histogram of marks over {@code rows} students, three ways: as
+ * SQL in H2, over the {@code List<Student>} from findAll, and over a columnar {@link
+ * StudentSnapshot}, serially and in parallel. The table lives in a file-based H2 database so that
+ * it and the object list fit in memory side by side, and H2 is told not to answer a repeated query
+ * from its previous result. The object list and the snapshot are only loaded for the benchmarks
+ * that use them. Start it via {@link #main}; results go to target/jmh-student-snapshot.json.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class StudentSnapshotBenchmark {
+
+  @Param({"1000000", "10000000"})
+  public int rows;
+
+  private Path dir;
+  private ConfigurableApplicationContext context;
+  private JdbcTemplate jdbcTemplate;
+  private StudentRepository repository;
+
+  @Setup
+  public void setUp() throws IOException {
+    dir = Files.createTempDirectory("student-snapshot-benchmark");
+    context =
+        new SpringApplicationBuilder(Application.class)
+            .run(
+                "--spring.datasource.url=jdbc:h2:file:"
+                    + dir.resolve("students")
+                    + ";OPTIMIZE_REUSE_RESULTS=FALSE",
+                "--spring.sql.init.mode=always",
+                "--spring.sql.init.data-locations=",
+                "--logging.level.root=warn");
+    jdbcTemplate = context.getBean(JdbcTemplate.class);
+    repository = context.getBean(StudentRepository.class);
+    // Marks 0 to 999 and 100,000 distinct names, generated in the database itself.
+    jdbcTemplate.update(
+        "insert into student (rollno, name, marks) "
+            + "select x, 'Student ' || mod(x * 7919, 100000), mod(x * 104729, 1000) "
+            + "from system_range(1, ?)",
+        rows);
+  }
+
+  @TearDown
+  public void tearDown() throws IOException {
+    context.close();
+    FileSystemUtils.deleteRecursively(dir);
+  }
+
+  @State(Scope.Benchmark)
+  public static class ObjectList {
+
+    private List<Student> students;
+
+    @Setup
+    public void setUp(StudentSnapshotBenchmark benchmark) {
+      students = benchmark.repository.findAll();
+    }
+  }
+
+  @State(Scope.Benchmark)
+  public static class Columns {
+
+    private StudentSnapshot snapshot;
+
+    @Setup
+    public void setUp(StudentSnapshotBenchmark benchmark) {
+      snapshot = StudentSnapshot.load(benchmark.repository);
+    }
+  }
+
+  @Benchmark
+  public List<Integer> top10Sql() {
+    return jdbcTemplate.queryForList(
+        "select rollno from student order by marks desc, rollno limit 10", Integer.class);
+  }
+
+  @Benchmark
+  public List<Student> top10ObjectList(ObjectList list) {
+    return list.students.stream()
+        .sorted(
+            Comparator.comparingInt(Student::getMarks)
+                .reversed()
+                .thenComparingInt(Student::getRollNo))
+        .limit(10)
+        .toList();
+  }
+
+  @Benchmark
+  public int[] top10Columns(Columns columns) {
+    return columns.snapshot.topByMarks(10, false);
+  }
+
+  @Benchmark
+  public int[] top10ColumnsParallel(Columns columns) {
+    return columns.snapshot.topByMarks(10, true);
+  }
+
+  @Benchmark
+  public Double averageSql() {
+    return jdbcTemplate.queryForObject(
+        "select avg(cast(marks as double)) from student", Double.class);
+  }
+
+  @Benchmark
+  public double averageObjectList(ObjectList list) {
+    return list.students.stream().mapToInt(Student::getMarks).average().orElseThrow();
+  }
+
+  @Benchmark
+  public double averageColumns(Columns columns) {
+    return columns.snapshot.averageMarks(false);
+  }
+
+  @Benchmark
+  public double averageColumnsParallel(Columns columns) {
+    return columns.snapshot.averageMarks(true);
+  }
+
+  @Benchmark
+  public List<Map<String, Object>> histogramSql() {
+    return jdbcTemplate.queryForList(
+        "select marks / 50, count(*) from student group by marks / 50");
+  }
+
+  @Benchmark
+  public long[] histogramObjectList(ObjectList list) {
+    long[] counts = new long[20];
+    for (Student s : list.students) {
+      counts[s.getMarks() / 50]++;
+    }
+    return counts;
+  }
+
+  @Benchmark
+  public StudentSnapshot.Histogram histogramColumns(Columns columns) {
+    return columns.snapshot.histogram(50, false);
+  }
+
+  @Benchmark
+  public StudentSnapshot.Histogram histogramColumnsParallel(Columns columns) {
+    return columns.snapshot.histogram(50, true);
+  }
+
+  public static void main(String[] args) throws Exception {
+    new Runner(
+            new OptionsBuilder()
+                .include(StudentSnapshotBenchmark.class.getSimpleName())
+                .resultFormat(ResultFormatType.JSON)
+                .result("target/jmh-student-snapshot.json")
+                .build())
+        .run();
+  }
+}
@@ -0,0 +1,80 @@
+package org.example.jdbc.dao;
+
+import java.util.ArrayList;
+import java.util.List;
+import org.example.jdbc.model.Student;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.transaction.annotation.Transactional;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatIllegalArgumentException;
+
+// data.sql provides students 101 to 105.
+@SpringBootTest(properties = "students.batch-size=2")
+@Transactional
+class StudentRepositoryTests {
+
+  @Autowired
+  private StudentRepository repository;
+
+  @Test
+  void saveAll_returnsOneCountPerStudentAcrossBatches() {
+    List<Student> students = new ArrayList<>();
+    for (int rollNo = 1; rollNo <= 5; rollNo++) {
+      students.add(student(rollNo, "Student " + rollNo, rollNo * 10));
+    }
+
+    assertThat(repository.saveAll(students)).containsExactly(1, 1, 1, 1, 1);
+    assertThat(repository.findAll()).hasSize(10).contains(students.get(4));
+  }
+
+  @Test
+  void findAll_mapsEveryColumn() {
+    assertThat(repository.findAll()).contains(student(102, "Caroline", 444));
+  }
+
+  @Test
+  void forEach_streamsEveryRowInRollNoOrder() {
+    List<String> rows = new ArrayList<>();
+    repository.forEach((rollNo, name, marks) -> rows.add(rollNo + " " + name + " " + marks));
+
+    assertThat(rows)
+        .containsExactly(
+            "101 Jens 293", "102 Caroline 444", "103 Katy 12", "104 Mary 41", "105 Jusi 123");
+  }
+
+  @Test
+  void findPage_walksAllStudentsInRollNoOrder() {
+    List<Integer> rollNos = new ArrayList<>();
+    List<Integer> pageSizes = new ArrayList<>();
+    Integer cursor = null;
+    do {
+      StudentRepository.Page page = repository.findPage(cursor, 2);
+      page.students().forEach(s -> rollNos.add(s.getRollNo()));
+      pageSizes.add(page.students().size());
+      cursor = page.nextRollNo();
+    } while (cursor != null);
+
+    assertThat(rollNos).containsExactly(101, 102, 103, 104, 105);
+    assertThat(pageSizes).containsExactly(2, 2, 1);
+  }
+
+  @Test
+  void findPage_endsExactlyOnAFullLastPage() {
+    StudentRepository.Page page = repository.findPage(103, 2);
+
+    assertThat(page.students()).extracting(Student::getRollNo).containsExactly(104, 105);
+    assertThat(page.nextRollNo()).isNull();
+    assertThatIllegalArgumentException().isThrownBy(() -> repository.findPage(null, 0));
+  }
+
+  private static Student student(int rollNo, String name, int marks) {
+    Student s = new Student();
+    s.setRollNo(rollNo);
+    s.setName(name);
+    s.setMarks(marks);
+    return s;
+  }
+}
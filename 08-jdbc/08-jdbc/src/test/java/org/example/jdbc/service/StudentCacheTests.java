@@ -0,0 +1,249 @@
+package org.example.jdbc.service;
+
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Optional;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import org.example.jdbc.StudentProperties;
+import org.example.jdbc.dao.StudentRepository;
+import org.example.jdbc.model.Student;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Test;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatIllegalStateException;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+
+class StudentCacheTests {
+
+  private static final int THREADS = 16;
+
+  private final CountingRepository repository = new CountingRepository();
+  private final MeterRegistry meterRegistry = new SimpleMeterRegistry();
+  private final ExecutorService pool = Executors.newFixedThreadPool(THREADS);
+
+  @AfterEach
+  void shutdown() {
+    pool.shutdownNow();
+  }
+
+  @Test
+  void findById_concurrentMissesShareOneQuery() throws Exception {
+    StudentCache cache = cache(100);
+    repository.block();
+
+    List<Future<Optional<Student>>> results = new ArrayList<>();
+    for (int i = 0; i < THREADS; i++) {
+      results.add(pool.submit(() -> cache.findById(7)));
+    }
+    awaitMisses("student", THREADS);
+    repository.release();
+
+    for (Future<Optional<Student>> result : results) {
+      assertThat(result.get(5, TimeUnit.SECONDS)).get().extracting(Student::getRollNo).isEqualTo(7);
+    }
+    assertThat(repository.queries.get()).isEqualTo(1);
+    assertThat(cache.findById(7)).isPresent();
+    assertThat(requests("student", "hit")).isEqualTo(1);
+    assertThat(repository.queries.get()).isEqualTo(1);
+  }
+
+  @Test
+  void findAll_concurrentMissesShareOneQuery() throws Exception {
+    StudentCache cache = cache(100);
+    repository.block();
+
+    List<Future<List<Student>>> results = new ArrayList<>();
+    for (int i = 0; i < THREADS; i++) {
+      results.add(pool.submit(cache::findAll));
+    }
+    awaitMisses("all", THREADS);
+    repository.release();
+
+    List<Student> first = results.get(0).get(5, TimeUnit.SECONDS);
+    for (Future<List<Student>> result : results) {
+      assertThat(result.get(5, TimeUnit.SECONDS)).isSameAs(first);
+    }
+    assertThat(repository.queries.get()).isEqualTo(1);
+    assertThat(cache.findAll()).isSameAs(first);
+    assertThat(repository.queries.get()).isEqualTo(1);
+  }
+
+  @Test
+  void callersChangingStudents_doNotChangeTheCache() {
+    StudentCache cache = cache(100);
+    cache.findById(1).orElseThrow().setName("Changed");
+    List<Student> all = cache.findAll();
+    all.get(0).setMarks(100);
+
+    assertThat(cache.findById(1)).get().extracting(Student::getName).isEqualTo("Student 1");
+    assertThat(cache.findAll()).isSameAs(all);
+    assertThat(all.get(0).getMarks()).isZero();
+    assertThatThrownBy(() -> all.add(new Student()))
+        .isInstanceOf(UnsupportedOperationException.class);
+    assertThat(repository.queries.get()).isEqualTo(2);
+  }
+
+  @Test
+  void invalidate_dropsTheStudentAndTheSnapshot() {
+    StudentCache cache = cache(100);
+    cache.findById(1);
+    cache.findById(2);
+    cache.findAll();
+
+    cache.invalidate(1);
+    cache.findById(1);
+    cache.findById(2);
+    cache.findAll();
+
+    // 1 and the snapshot are loaded twice, 2 only once.
+    assertThat(repository.queries.get()).isEqualTo(5);
+  }
+
+  @Test
+  void loadThatRacedWithAnInvalidation_isNotCached() throws Exception {
+    StudentCache cache = cache(100);
+    repository.block();
+    Future<List<Student>> stale = pool.submit(cache::findAll);
+    awaitMisses("all", 1);
+
+    cache.invalidateAll();
+    repository.release();
+    stale.get(5, TimeUnit.SECONDS);
+    cache.findAll();
+
+    assertThat(repository.queries.get()).isEqualTo(2);
+  }
+
+  @Test
+  void failedLoad_reachesEveryWaiterAndIsNotCached() throws Exception {
+    StudentCache cache = cache(100);
+    repository.fail = true;
+    repository.block();
+
+    List<Future<Optional<Student>>> results = new ArrayList<>();
+    for (int i = 0; i < 4; i++) {
+      results.add(pool.submit(() -> cache.findById(3)));
+    }
+    awaitMisses("student", 4);
+    repository.release();
+    for (Future<Optional<Student>> result : results) {
+      try {
+        result.get(5, TimeUnit.SECONDS);
+      } catch (ExecutionException e) {
+        assertThat(e.getCause()).isInstanceOf(IllegalStateException.class);
+        continue;
+      }
+      throw new AssertionError("Expected the load to fail");
+    }
+
+    repository.fail = false;
+    assertThat(cache.findById(3)).isPresent();
+    assertThat(repository.queries.get()).isEqualTo(1);
+    repository.fail = true;
+    assertThatIllegalStateException().isThrownBy(() -> cache.findById(4));
+  }
+
+  @Test
+  void findById_evictsTheLeastRecentlyUsed() {
+    StudentCache cache = cache(2);
+    cache.findById(1);
+    cache.findById(2);
+    cache.findById(1);
+    cache.findById(3);
+
+    cache.findById(1);
+    cache.findById(2);
+
+    assertThat(cache.size()).isEqualTo(2);
+    assertThat(meterRegistry.get("students.cache.size").gauge().value()).isEqualTo(2);
+    assertThat(meterRegistry.get("students.cache.evictions").counter().count()).isEqualTo(2);
+    assertThat(repository.queries.get()).isEqualTo(4);
+    assertThat(requests("student", "hit")).isEqualTo(2);
+    assertThat(requests("student", "miss")).isEqualTo(4);
+  }
+
+  private StudentCache cache(int maxEntries) {
+    StudentProperties properties = new StudentProperties();
+    properties.setCacheMaxEntries(maxEntries);
+    StudentCache cache = new StudentCache(repository, properties, meterRegistry);
+    cache.registerSizeGauge();
+    return cache;
+  }
+
+  private double requests(String cache, String result) {
+    return meterRegistry
+        .get("students.cache.requests")
+        .tag("cache", cache)
+        .tag("result", result)
+        .counter()
+        .count();
+  }
+
+  // Every miss is counted before it queries or waits, so this means all of them are in flight.
+  private void awaitMisses(String cache, int count) throws InterruptedException {
+    long deadline = System.nanoTime() + TimeUnit.SECONDS.toNanos(5);
+    while (requests(cache, "miss") < count) {
+      if (System.nanoTime() > deadline) {
+        throw new AssertionError("Only " + requests(cache, "miss") + " misses");
+      }
+      Thread.sleep(1);
+    }
+  }
+
+  private static final class CountingRepository extends StudentRepository {
+
+    private final AtomicInteger queries = new AtomicInteger();
+    private volatile CountDownLatch gate = new CountDownLatch(0);
+    private volatile boolean fail;
+
+    private CountingRepository() {
+      super(null, new StudentProperties());
+    }
+
+    void block() {
+      gate = new CountDownLatch(1);
+    }
+
+    void release() {
+      gate.countDown();
+    }
+
+    @Override
+    public Optional<Student> findById(int rollNo) {
+      query();
+      Student s = new Student();
+      s.setRollNo(rollNo);
+      s.setName("Student " + rollNo);
+      return Optional.of(s);
+    }
+
+    @Override
+    public List<Student> findAll() {
+      query();
+      Student s = new Student();
+      s.setRollNo(1);
+      return List.of(s);
+    }
+
+    private void query() {
+      try {
+        gate.await();
+      } catch (InterruptedException e) {
+        Thread.currentThread().interrupt();
+      }
+      if (fail) {
+        throw new IllegalStateException("Database is down");
+      }
+      queries.incrementAndGet();
+    }
+  }
+}
@@ -0,0 +1,134 @@
+package org.example.jdbc.service;
+
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.List;
+import java.util.Random;
+import org.example.jdbc.StudentProperties;
+import org.example.jdbc.dao.StudentRepository;
+import org.example.jdbc.model.Student;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.params.ParameterizedTest;
+import org.junit.jupiter.params.provider.ValueSource;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.within;
+
+class StudentSnapshotTests {
+
+  // Enough rows for a parallel aggregate to split a few times.
+  private static final int ROWS = 300_000;
+
+  @ParameterizedTest
+  @ValueSource(booleans = {false, true})
+  void aggregates_matchTheObjectList(boolean parallel) {
+    List<Student> students = students(ROWS, new Random(42));
+    StudentSnapshot snapshot = StudentSnapshot.load(new ListRepository(students));
+
+    assertThat(snapshot.size()).isEqualTo(ROWS);
+    assertThat(snapshot.distinctNames()).isEqualTo(1000);
+    assertThat(snapshot.averageMarks(parallel))
+        .isCloseTo(
+            students.stream().mapToInt(Student::getMarks).average().orElseThrow(), within(1e-9));
+
+    StudentSnapshot.Histogram histogram = snapshot.histogram(50, parallel);
+    long[] expected = new long[histogram.counts().length];
+    students.forEach(s -> expected[(s.getMarks() - histogram.start()) / 50]++);
+    assertThat(histogram.start()).isEqualTo(-20);
+    assertThat(histogram.counts()).containsExactly(expected);
+
+    List<Integer> top = new ArrayList<>();
+    for (int row : snapshot.topByMarks(100, parallel)) {
+      top.add(snapshot.rollNo(row));
+      assertThat(snapshot.name(row)).isEqualTo("Student " + (snapshot.rollNo(row) % 1000));
+    }
+    assertThat(top)
+        .isEqualTo(
+            students.stream()
+                .sorted(
+                    Comparator.comparingInt(Student::getMarks)
+                        .reversed()
+                        .thenComparingInt(Student::getRollNo))
+                .limit(100)
+                .map(Student::getRollNo)
+                .toList());
+  }
+
+  @Test
+  void topByMarks_breaksTiesByRollNo() {
+    StudentSnapshot snapshot =
+        StudentSnapshot.load(
+            new ListRepository(
+                List.of(
+                    student(5, "Jens", 80),
+                    student(3, null, 80),
+                    student(9, "Mary", 90),
+                    student(1, "Jens", 10))));
+
+    int[] rows = snapshot.topByMarks(10, false);
+
+    assertThat(rows).hasSize(4);
+    assertThat(snapshot.rollNo(rows[0])).isEqualTo(9);
+    assertThat(snapshot.rollNo(rows[1])).isEqualTo(3);
+    assertThat(snapshot.name(rows[1])).isNull();
+    assertThat(snapshot.rollNo(rows[2])).isEqualTo(5);
+    assertThat(snapshot.distinctNames()).isEqualTo(2);
+  }
+
+  @Test
+  void histogram_spansTheWholeIntRange() {
+    StudentSnapshot snapshot =
+        StudentSnapshot.load(
+            new ListRepository(
+                List.of(
+                    student(1, "a", Integer.MIN_VALUE),
+                    student(2, "b", 0),
+                    student(3, "c", Integer.MAX_VALUE))));
+
+    StudentSnapshot.Histogram histogram = snapshot.histogram(Integer.MAX_VALUE, false);
+
+    assertThat(histogram.start()).isEqualTo(Integer.MIN_VALUE);
+    assertThat(histogram.counts()).containsExactly(1, 1, 1);
+  }
+
+  @Test
+  void emptySnapshot_hasNoAggregates() {
+    StudentSnapshot snapshot = StudentSnapshot.load(new ListRepository(List.of()));
+
+    assertThat(snapshot.averageMarks(true)).isNaN();
+    assertThat(snapshot.histogram(10, true).counts()).isEmpty();
+    assertThat(snapshot.topByMarks(3, true)).isEmpty();
+  }
+
+  private static List<Student> students(int count, Random random) {
+    List<Student> students = new ArrayList<>(count);
+    for (int i = 0; i < count; i++) {
+      // Few distinct marks, so plenty of ties, and some below zero.
+      students.add(student(i, "Student " + (i % 1000), random.nextInt(520) - 20));
+    }
+    return students;
+  }
+
+  private static Student student(int rollNo, String name, int marks) {
+    Student s = new Student();
+    s.setRollNo(rollNo);
+    s.setName(name);
+    s.setMarks(marks);
+    return s;
+  }
+
+  private static final class ListRepository extends StudentRepository {
+
+    private final List<Student> students;
+
+    private ListRepository(List<Student> students) {
+      super(null, new StudentProperties());
+      this.students = students;
+    }
+
+    @Override
+    public void forEach(RowHandler handler) {
+      students.forEach(s -> handler.row(s.getRollNo(), s.getName(), s.getMarks()));
+    }
+  }
+}
@@ -1,13 +1,18 @@
 package org.example;
 
 /**
- * Hello world!
- *
+ * Starts the echo server. Arguments: port (default 8080), worker threads (default 200) and pooled
+ * direct buffers (default 1024).
  */
-public class App 
-{
-    public static void main( String[] args )
-    {
-        System.out.println( "Hello World!" );
-    }
+public class App {
+
+  public static void main(String[] args) throws Exception {
+    int port = args.length > 0 ? Integer.parseInt(args[0]) : 8080;
+    int maxThreads = args.length > 1 ? Integer.parseInt(args[1]) : 200;
+    int pooledBuffers = args.length > 2 ? Integer.parseInt(args[2]) : 1024;
+    EchoServer server = new EchoServer(port, maxThreads, pooledBuffers);
+    server.start();
+    System.out.println("Echo server listening on port " + server.port());
+    server.await();
+  }
 }
@@ -0,0 +1,34 @@
+package org.example;
+
+import jakarta.servlet.ServletInputStream;
+import jakarta.servlet.ServletOutputStream;
+import jakarta.servlet.http.HttpServlet;
+import jakarta.servlet.http.HttpServletRequest;
+import jakarta.servlet.http.HttpServletResponse;
+import java.io.IOException;
+
+/**
+ * The blocking counterpart of {@link NonBlockingEchoServlet}: the container thread copies the
+ * body through a heap buffer and sits in {@code read} for as long as the client takes to send it.
+ */
+public class BlockingEchoServlet extends HttpServlet {
+
+  private final int bufferSize;
+
+  public BlockingEchoServlet(int bufferSize) {
+    this.bufferSize = bufferSize;
+  }
+
+  @Override
+  protected void doPost(HttpServletRequest request, HttpServletResponse response)
+      throws IOException {
+    response.setContentType(
+        request.getContentType() == null ? "application/octet-stream" : request.getContentType());
+    ServletInputStream in = request.getInputStream();
+    ServletOutputStream out = response.getOutputStream();
+    byte[] buffer = new byte[bufferSize];
+    for (int n = in.read(buffer); n >= 0; n = in.read(buffer)) {
+      out.write(buffer, 0, n);
+    }
+  }
+}
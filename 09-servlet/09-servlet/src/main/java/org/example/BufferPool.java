@@ -0,0 +1,48 @@
+package org.example;
+
+import java.nio.ByteBuffer;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * Direct buffers of one size, reused across requests. Allocating direct memory is expensive and
+ * only freed when the buffer is collected, so keeping a bounded number of them around is cheaper
+ * than allocating one per request. When the pool is empty a new buffer is allocated; buffers
+ * beyond the pool's capacity are dropped on release.
+ */
+public class BufferPool {
+
+  private final int bufferSize;
+  private final BlockingQueue<ByteBuffer> free;
+  private final AtomicInteger allocated = new AtomicInteger();
+
+  public BufferPool(int bufferSize, int capacity) {
+    this.bufferSize = bufferSize;
+    this.free = new ArrayBlockingQueue<>(capacity);
+  }
+
+  /** A cleared buffer; give it back with {@link #release} when done. */
+  public ByteBuffer acquire() {
+    ByteBuffer buffer = free.poll();
+    if (buffer == null) {
+      allocated.incrementAndGet();
+      return ByteBuffer.allocateDirect(bufferSize);
+    }
+    return buffer;
+  }
+
+  public void release(ByteBuffer buffer) {
+    buffer.clear();
+    free.offer(buffer);
+  }
+
+  /** Buffers allocated so far, including those that did not fit back into the pool. */
+  public int allocated() {
+    return allocated.get();
+  }
+
+  public int bufferSize() {
+    return bufferSize;
+  }
+}
@@ -0,0 +1,101 @@
+package org.example;
+
+import jakarta.servlet.Servlet;
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import org.apache.catalina.Context;
+import org.apache.catalina.LifecycleException;
+import org.apache.catalina.Wrapper;
+import org.apache.catalina.connector.Connector;
+import org.apache.catalina.startup.Tomcat;
+import org.apache.coyote.http11.Http11NioProtocol;
+import org.apache.tomcat.util.descriptor.web.FilterDef;
+import org.apache.tomcat.util.descriptor.web.FilterMap;
+
+/**
+ * Embedded Tomcat with the echo servlets: {@code POST /echo} non-blocking, {@code POST
+ * /blocking/echo} blocking. Both copy through buffers of the same size, so they differ only in
+ * how they wait for the client. Every request is timed by {@link LatencyFilter}; {@code GET
+ * /metrics} serves the histograms.
+ */
+public class EchoServer {
+
+  public static final int BUFFER_SIZE = 16 * 1024;
+
+  private final Tomcat tomcat = new Tomcat();
+  private final BufferPool buffers;
+  private final RequestMetrics metrics = new RequestMetrics();
+  private final Context context;
+
+  /**
+   * @param port 0 for any free port
+   * @param maxThreads size of the connector's worker pool
+   * @param pooledBuffers direct buffers kept for the non-blocking servlet
+   */
+  public EchoServer(int port, int maxThreads, int pooledBuffers) throws IOException {
+    this.buffers = new BufferPool(BUFFER_SIZE, pooledBuffers);
+    Path baseDir = Files.createTempDirectory("tomcat");
+    baseDir.toFile().deleteOnExit();
+    tomcat.setBaseDir(baseDir.toString());
+
+    Connector connector = new Connector(Http11NioProtocol.class.getName());
+    connector.setPort(port);
+    connector.setProperty("maxThreads", Integer.toString(maxThreads));
+    connector.setProperty("minSpareThreads", Integer.toString(Math.min(10, maxThreads)));
+    connector.setProperty("maxConnections", "10000");
+    connector.setProperty("acceptCount", "1000");
+    tomcat.setConnector(connector);
+
+    context = tomcat.addContext("", null);
+    addServlet("echo", new NonBlockingEchoServlet(buffers), "/echo");
+    addServlet("blockingEcho", new BlockingEchoServlet(BUFFER_SIZE), "/blocking/echo");
+    addServlet("metrics", new MetricsServlet(metrics), "/metrics");
+
+    FilterDef latency = new FilterDef();
+    latency.setFilterName("latency");
+    latency.setFilter(new LatencyFilter(metrics));
+    latency.setAsyncSupported("true");
+    context.addFilterDef(latency);
+    FilterMap everything = new FilterMap();
+    everything.setFilterName("latency");
+    everything.addURLPattern("/*");
+    context.addFilterMap(everything);
+  }
+
+  public void start() throws LifecycleException {
+    tomcat.start();
+  }
+
+  public void stop() throws LifecycleException {
+    tomcat.stop();
+    tomcat.destroy();
+  }
+
+  public void await() {
+    tomcat.getServer().await();
+  }
+
+  /** The port actually bound, once started. */
+  public int port() {
+    return tomcat.getConnector().getLocalPort();
+  }
+
+  public BufferPool buffers() {
+    return buffers;
+  }
+
+  public RequestMetrics metrics() {
+    return metrics;
+  }
+
+  Connector connector() {
+    return tomcat.getConnector();
+  }
+
+  private void addServlet(String name, Servlet servlet, String mapping) {
+    Wrapper wrapper = Tomcat.addServlet(context, name, servlet);
+    wrapper.setAsyncSupported(true);
+    context.addServletMappingDecoded(mapping, name);
+  }
+}
@@ -0,0 +1,62 @@
+package org.example;
+
+import jakarta.servlet.AsyncEvent;
+import jakarta.servlet.AsyncListener;
+import jakarta.servlet.FilterChain;
+import jakarta.servlet.ServletException;
+import jakarta.servlet.http.HttpFilter;
+import jakarta.servlet.http.HttpServletRequest;
+import jakarta.servlet.http.HttpServletResponse;
+import java.io.IOException;
+
+/**
+ * Records each request's latency into {@link RequestMetrics} under its servlet mapping. A request
+ * that went async is timed until its {@code AsyncContext} completes, not until the servlet
+ * returns. Must be mapped for the {@code REQUEST} dispatch only and marked async-supported.
+ */
+public class LatencyFilter extends HttpFilter {
+
+  private final RequestMetrics metrics;
+
+  public LatencyFilter(RequestMetrics metrics) {
+    this.metrics = metrics;
+  }
+
+  @Override
+  protected void doFilter(
+      HttpServletRequest request, HttpServletResponse response, FilterChain chain)
+      throws IOException, ServletException {
+    long start = System.nanoTime();
+    try {
+      chain.doFilter(request, response);
+    } finally {
+      LatencyHistogram histogram = metrics.route(request.getHttpServletMapping().getPattern());
+      if (request.isAsyncStarted()) {
+        request.getAsyncContext().addListener(new Completion(histogram, start));
+      } else {
+        histogram.record(System.nanoTime() - start);
+      }
+    }
+  }
+
+  private record Completion(LatencyHistogram histogram, long start) implements AsyncListener {
+
+    @Override
+    public void onComplete(AsyncEvent event) {
+      histogram.record(System.nanoTime() - start);
+    }
+
+    // Timeouts and errors end in onComplete as well.
+    @Override
+    public void onTimeout(AsyncEvent event) {}
+
+    @Override
+    public void onError(AsyncEvent event) {}
+
+    // A new async cycle drops its listeners unless they register again.
+    @Override
+    public void onStartAsync(AsyncEvent event) {
+      event.getAsyncContext().addListener(this);
+    }
+  }
+}
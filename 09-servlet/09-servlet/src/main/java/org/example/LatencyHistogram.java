@@ -0,0 +1,77 @@
+package org.example;
+
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * Latency counts in fixed log-linear buckets: each power of two of nanoseconds is split into 16
+ * equal buckets, so a bucket's bounds are within 1/16 of any value recorded into it. Recording
+ * bumps two {@link LongAdder}s and allocates nothing once they have spread their cells, which
+ * keeps concurrent requests from contending on one counter.
+ */
+public class LatencyHistogram {
+
+  static final int SUB_BUCKET_BITS = 4;
+  static final int SUB_BUCKETS = 1 << SUB_BUCKET_BITS;
+  /** Values of 2^40 ns (about 18 minutes) and above all land in the last bucket. */
+  static final int MAX_EXPONENT = 40;
+  static final int BUCKETS = (MAX_EXPONENT - SUB_BUCKET_BITS + 1) * SUB_BUCKETS;
+
+  private final LongAdder[] buckets = new LongAdder[BUCKETS];
+  private final LongAdder sum = new LongAdder();
+
+  public LatencyHistogram() {
+    for (int i = 0; i < BUCKETS; i++) {
+      buckets[i] = new LongAdder();
+    }
+  }
+
+  public void record(long nanos) {
+    buckets[index(nanos)].increment();
+    sum.add(nanos);
+  }
+
+  /**
+   * Counts per bucket and the sum of recorded values. Taken bucket by bucket while requests keep
+   * recording, so the two can be off by the requests in flight.
+   */
+  public Snapshot snapshot() {
+    long[] counts = new long[BUCKETS];
+    for (int i = 0; i < BUCKETS; i++) {
+      counts[i] = buckets[i].sum();
+    }
+    return new Snapshot(counts, sum.sum());
+  }
+
+  static int index(long nanos) {
+    if (nanos < SUB_BUCKETS) {
+      return nanos < 0 ? 0 : (int) nanos;
+    }
+    int exponent = 63 - Long.numberOfLeadingZeros(nanos);
+    if (exponent >= MAX_EXPONENT) {
+      return BUCKETS - 1;
+    }
+    int subBucket = (int) (nanos >>> (exponent - SUB_BUCKET_BITS)) & (SUB_BUCKETS - 1);
+    return (exponent - SUB_BUCKET_BITS + 1) * SUB_BUCKETS + subBucket;
+  }
+
+  /** The smallest value recorded into bucket {@code index}; the next bucket's is its bound. */
+  static long lowerBound(int index) {
+    if (index < SUB_BUCKETS) {
+      return index;
+    }
+    int exponent = index / SUB_BUCKETS + SUB_BUCKET_BITS - 1;
+    long subBucket = index % SUB_BUCKETS;
+    return (SUB_BUCKETS + subBucket) << (exponent - SUB_BUCKET_BITS);
+  }
+
+  public record Snapshot(long[] counts, long sumNanos) {
+
+    public long count() {
+      long count = 0;
+      for (long c : counts) {
+        count += c;
+      }
+      return count;
+    }
+  }
+}
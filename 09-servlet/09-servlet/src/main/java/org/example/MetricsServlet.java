@@ -0,0 +1,23 @@
+package org.example;
+
+import jakarta.servlet.http.HttpServlet;
+import jakarta.servlet.http.HttpServletRequest;
+import jakarta.servlet.http.HttpServletResponse;
+import java.io.IOException;
+
+/** Serves {@link RequestMetrics} in the Prometheus text format. */
+public class MetricsServlet extends HttpServlet {
+
+  private final RequestMetrics metrics;
+
+  public MetricsServlet(RequestMetrics metrics) {
+    this.metrics = metrics;
+  }
+
+  @Override
+  protected void doGet(HttpServletRequest request, HttpServletResponse response)
+      throws IOException {
+    response.setContentType("text/plain; version=0.0.4; charset=utf-8");
+    metrics.writeText(response.getWriter());
+  }
+}
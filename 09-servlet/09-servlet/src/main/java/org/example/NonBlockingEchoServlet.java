@@ -0,0 +1,122 @@
+package org.example;
+
+import jakarta.servlet.AsyncContext;
+import jakarta.servlet.ReadListener;
+import jakarta.servlet.ServletInputStream;
+import jakarta.servlet.ServletOutputStream;
+import jakarta.servlet.WriteListener;
+import jakarta.servlet.http.HttpServlet;
+import jakarta.servlet.http.HttpServletRequest;
+import jakarta.servlet.http.HttpServletResponse;
+import java.io.IOException;
+import java.nio.ByteBuffer;
+
+/**
+ * Echoes the request body back with Servlet 3.1 non-blocking I/O. The container thread returns as
+ * soon as the listeners are registered; from then on the request only occupies a thread while
+ * data can actually be read or written, so a slow client holds a connection but no thread. Each
+ * request streams through one pooled direct buffer.
+ */
+public class NonBlockingEchoServlet extends HttpServlet {
+
+  private final BufferPool buffers;
+
+  public NonBlockingEchoServlet(BufferPool buffers) {
+    this.buffers = buffers;
+  }
+
+  @Override
+  protected void doPost(HttpServletRequest request, HttpServletResponse response)
+      throws IOException {
+    response.setContentType(
+        request.getContentType() == null ? "application/octet-stream" : request.getContentType());
+    AsyncContext async = request.startAsync();
+    // A slow client is the point of this servlet; the connection timeout still applies.
+    async.setTimeout(0);
+    Echo echo = new Echo(async, request.getInputStream(), response.getOutputStream());
+    request.getInputStream().setReadListener(echo);
+    response.getOutputStream().setWriteListener(echo);
+  }
+
+  // Reads into the buffer while the client sends, and writes it out whenever the client can take
+  // it. Either side not being ready ends the pass; its listener callback starts the next one.
+  private final class Echo implements ReadListener, WriteListener {
+
+    private final AsyncContext async;
+    private final ServletInputStream in;
+    private final ServletOutputStream out;
+    private ByteBuffer buffer;
+    // Servlet 6.1 read(ByteBuffer) leaves the bytes read between position and limit, ready for
+    // write(ByteBuffer), which consumes them.
+    private boolean filled;
+    private boolean allRead;
+
+    private Echo(AsyncContext async, ServletInputStream in, ServletOutputStream out) {
+      this.async = async;
+      this.in = in;
+      this.out = out;
+      this.buffer = buffers.acquire();
+    }
+
+    @Override
+    public void onDataAvailable() throws IOException {
+      pump();
+    }
+
+    @Override
+    public void onAllDataRead() throws IOException {
+      synchronized (this) {
+        allRead = true;
+      }
+      pump();
+    }
+
+    @Override
+    public void onWritePossible() throws IOException {
+      pump();
+    }
+
+    @Override
+    public void onError(Throwable t) {
+      finish();
+    }
+
+    private synchronized void pump() throws IOException {
+      while (buffer != null) {
+        if (filled) {
+          if (!out.isReady()) {
+            return;
+          }
+          out.write(buffer);
+          buffer.clear();
+          filled = false;
+        } else if (allRead || in.isFinished()) {
+          if (out.isReady()) {
+            finish();
+          }
+          return;
+        } else if (in.isReady()) {
+          int n = in.read(buffer);
+          if (n < 0) {
+            allRead = true;
+          }
+          filled = n > 0;
+          if (!filled) {
+            buffer.clear();
+          }
+        } else {
+          return;
+        }
+      }
+    }
+
+    private synchronized void finish() {
+      if (buffer == null) {
+        return;
+      }
+      buffers.release(buffer);
+      buffer = null;
+      async.complete();
+    }
+  }
+}
@@ -0,0 +1,60 @@
+package org.example;
+
+import java.io.IOException;
+import java.io.Writer;
+import java.util.Map;
+import java.util.TreeMap;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+
+/**
+ * A {@link LatencyHistogram} per route, written out in the Prometheus text format. Routes are
+ * servlet mapping patterns rather than request paths, so there are as many as there are mappings.
+ */
+public class RequestMetrics {
+
+  static final String NAME = "http_server_requests_seconds";
+  // Exported bucket bounds are one below the powers of two from 2^10 ns (about 1 us) up. Bucket
+  // boundaries fall on the powers of two and le is inclusive, so counting the buckets below 2^k
+  // counts exactly the values of at most 2^k - 1 ns. Finer buckets stay internal.
+  private static final int MIN_EXPORTED_EXPONENT = 10;
+
+  private final ConcurrentMap<String, LatencyHistogram> routes = new ConcurrentHashMap<>();
+
+  public LatencyHistogram route(String route) {
+    LatencyHistogram histogram = routes.get(route);
+    return histogram != null
+        ? histogram
+        : routes.computeIfAbsent(route, r -> new LatencyHistogram());
+  }
+
+  public void writeText(Writer out) throws IOException {
+    out.write("# HELP " + NAME + " Request latency by servlet mapping.\n");
+    out.write("# TYPE " + NAME + " histogram\n");
+    for (Map.Entry<String, LatencyHistogram> route : new TreeMap<>(routes).entrySet()) {
+      String label = "route=\"" + escape(route.getKey()) + "\"";
+      LatencyHistogram.Snapshot snapshot = route.getValue().snapshot();
+      long[] counts = snapshot.counts();
+      long cumulative = 0;
+      for (int i = 0; i < counts.length; i++) {
+        long bound = LatencyHistogram.lowerBound(i);
+        if (i % LatencyHistogram.SUB_BUCKETS == 0 && bound >= 1L << MIN_EXPORTED_EXPONENT) {
+          writeBucket(out, label, Double.toString((bound - 1) / 1e9), cumulative);
+        }
+        cumulative += counts[i];
+      }
+      writeBucket(out, label, "+Inf", cumulative);
+      out.write(NAME + "_sum{" + label + "} " + snapshot.sumNanos() / 1e9 + "\n");
+      out.write(NAME + "_count{" + label + "} " + cumulative + "\n");
+    }
+  }
+
+  private static void writeBucket(Writer out, String label, String le, long count)
+      throws IOException {
+    out.write(NAME + "_bucket{" + label + ",le=\"" + le + "\"} " + count + "\n");
+  }
+
+  private static String escape(String value) {
+    return value.replace("\\", "\\\\").replace("\"", "\\\"").replace("\n", "\\n");
+  }
+}
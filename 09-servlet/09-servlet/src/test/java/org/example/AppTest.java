@@ -1,5 +1,15 @@
 package org.example;
 
+import java.io.ByteArrayOutputStream;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.net.HttpURLConnection;
+import java.net.Socket;
+import java.net.URL;
+import java.nio.charset.StandardCharsets;
+import java.util.Arrays;
+import java.util.Random;
+
 import junit.framework.Test;
 import junit.framework.TestCase;
 import junit.framework.TestSuite;
@@ -7,9 +17,11 @@ import junit.framework.TestSuite;
 /**
  * Unit test for simple App.
  */
-public class AppTest 
+public class AppTest
     extends TestCase
 {
+    private EchoServer server;
+
     /**
      * Create the test case
      *
@@ -28,11 +40,108 @@ public class AppTest
         return new TestSuite( AppTest.class );
     }
 
+    protected void setUp() throws Exception
+    {
+        server = new EchoServer( 0, 4, 2 );
+        server.start();
+    }
+
+    protected void tearDown() throws Exception
+    {
+        server.stop();
+    }
+
     /**
-     * Rigourous Test :-)
+     * The non-blocking servlet echoes a body several buffers long and returns its buffer.
      */
-    public void testApp()
+    public void testNonBlockingEcho() throws Exception
+    {
+        byte[] body = body( 5 * EchoServer.BUFFER_SIZE + 123 );
+        for ( int i = 0; i < 5; i++ )
+        {
+            assertTrue( Arrays.equals( body, post( "/echo", body ) ) );
+        }
+        assertEquals( 1, server.buffers().allocated() );
+    }
+
+    public void testNonBlockingEchoOfEmptyBody() throws Exception
+    {
+        assertEquals( 0, post( "/echo", new byte[0] ).length );
+    }
+
+    public void testBlockingEcho() throws Exception
+    {
+        byte[] body = body( 5 * EchoServer.BUFFER_SIZE + 123 );
+        assertTrue( Arrays.equals( body, post( "/blocking/echo", body ) ) );
+    }
+
+    /**
+     * The non-blocking servlet returns before the body arrives; its latency must still cover the
+     * whole upload.
+     */
+    public void testMetricsTimeAsyncRequestsUntilComplete() throws Exception
+    {
+        try ( Socket socket = new Socket( "localhost", server.port() ) )
+        {
+            OutputStream out = socket.getOutputStream();
+            out.write( ( "POST /echo HTTP/1.1\r\nHost: localhost\r\nContent-Length: 2\r\n"
+                + "Connection: close\r\n\r\nx" ).getBytes( StandardCharsets.US_ASCII ) );
+            out.flush();
+            Thread.sleep( 300 );
+            out.write( 'y' );
+            socket.getInputStream().readAllBytes();
+        }
+        post( "/blocking/echo", body( 10 ) );
+
+        String text = metrics();
+        long deadline = System.currentTimeMillis() + 2000;
+        while ( !text.contains( "_count{route=\"/echo\"} 1\n" )
+            && System.currentTimeMillis() < deadline )
+        {
+            Thread.sleep( 10 );
+            text = metrics();
+        }
+        assertTrue( text, text.contains( "# TYPE http_server_requests_seconds histogram\n" ) );
+        assertTrue( text, text.contains( "_count{route=\"/echo\"} 1\n" ) );
+        assertTrue( text, text.contains( "_count{route=\"/blocking/echo\"} 1\n" ) );
+        assertTrue( text, text.contains( "_bucket{route=\"/echo\",le=\"+Inf\"} 1\n" ) );
+        // Timed from when the headers arrive, which is slightly after the client starts waiting.
+        assertTrue( server.metrics().route( "/echo" ).snapshot().sumNanos() >= 250_000_000L );
+    }
+
+    private String metrics() throws Exception
+    {
+        URL url = new URL( "http://localhost:" + server.port() + "/metrics" );
+        try ( InputStream in = url.openStream() )
+        {
+            return new String( in.readAllBytes(), StandardCharsets.UTF_8 );
+        }
+    }
+
+    private byte[] body( int size )
+    {
+        byte[] body = new byte[size];
+        new Random( size ).nextBytes( body );
+        return body;
+    }
+
+    private byte[] post( String path, byte[] body ) throws Exception
     {
-        assertTrue( true );
+        URL url = new URL( "http://localhost:" + server.port() + path );
+        HttpURLConnection connection = (HttpURLConnection) url.openConnection();
+        connection.setRequestMethod( "POST" );
+        connection.setDoOutput( true );
+        connection.setFixedLengthStreamingMode( body.length );
+        try ( OutputStream out = connection.getOutputStream() )
+        {
+            out.write( body );
+        }
+        assertEquals( 200, connection.getResponseCode() );
+        ByteArrayOutputStream received = new ByteArrayOutputStream();
+        try ( InputStream in = connection.getInputStream() )
+        {
+            in.transferTo( received );
+        }
+        return received.toByteArray();
     }
 }
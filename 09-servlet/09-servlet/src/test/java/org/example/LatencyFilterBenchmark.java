@@ -0,0 +1,216 @@
+package org.example;
+
+import jakarta.servlet.AsyncContext;
+import jakarta.servlet.AsyncListener;
+import jakarta.servlet.FilterChain;
+import jakarta.servlet.ServletContext;
+import jakarta.servlet.ServletRequest;
+import jakarta.servlet.ServletResponse;
+import jakarta.servlet.http.HttpServletMapping;
+import jakarta.servlet.http.HttpServletRequest;
+import jakarta.servlet.http.HttpServletRequestWrapper;
+import jakarta.servlet.http.HttpServletResponse;
+import jakarta.servlet.http.HttpServletResponseWrapper;
+import jakarta.servlet.http.MappingMatch;
+import java.lang.reflect.Proxy;
+import java.util.concurrent.TimeUnit;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+import org.openjdk.jmh.profile.GCProfiler;
+import org.openjdk.jmh.results.format.ResultFormatType;
+import org.openjdk.jmh.runner.Runner;
+import org.openjdk.jmh.runner.options.OptionsBuilder;
+
+/**
+ * What {@link LatencyFilter} adds to a request: the same stub request passed straight to an empty
+ * chain and through the filter, once completing synchronously and once going async. No container
+ * is involved, so the difference is the filter's own cost.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class LatencyFilterBenchmark {
+
+  private final RequestMetrics metrics = new RequestMetrics();
+  private final LatencyFilter filter = new LatencyFilter(metrics);
+  private final FilterChain chain = (request, response) -> {};
+  private StubRequest request;
+  private StubRequest asyncRequest;
+  private HttpServletResponse response;
+  private long nanos;
+
+  @Setup
+  public void setUp() {
+    request = new StubRequest(false);
+    asyncRequest = new StubRequest(true);
+    response = new HttpServletResponseWrapper(unsupported(HttpServletResponse.class));
+  }
+
+  @Benchmark
+  public void unfiltered() throws Exception {
+    chain.doFilter(request, response);
+  }
+
+  @Benchmark
+  public void filtered() throws Exception {
+    filter.doFilter(request, response, chain);
+  }
+
+  @Benchmark
+  public void filteredAsync() throws Exception {
+    filter.doFilter(asyncRequest, response, chain);
+    asyncRequest.listener.onComplete(null);
+  }
+
+  @Benchmark
+  public void record() {
+    metrics.route("/echo").record(nanos = (nanos + 7919) & 0xFFFFFFFL);
+  }
+
+  public static void main(String[] args) throws Exception {
+    new Runner(
+            new OptionsBuilder()
+                .include(LatencyFilterBenchmark.class.getSimpleName())
+                .addProfiler(GCProfiler.class)
+                .resultFormat(ResultFormatType.JSON)
+                .result("target/jmh-latency-filter.json")
+                .build())
+        .run();
+  }
+
+  private static <T> T unsupported(Class<T> type) {
+    return type.cast(
+        Proxy.newProxyInstance(
+            type.getClassLoader(),
+            new Class<?>[] {type},
+            (proxy, method, args) -> {
+              throw new UnsupportedOperationException(method.getName());
+            }));
+  }
+
+  // Answers only what the filter asks; an async request hands its listener to the benchmark.
+  private static final class StubRequest extends HttpServletRequestWrapper {
+
+    private final boolean async;
+    private final HttpServletMapping mapping =
+        new HttpServletMapping() {
+          @Override
+          public String getMatchValue() {
+            return "";
+          }
+
+          @Override
+          public String getPattern() {
+            return "/echo";
+          }
+
+          @Override
+          public String getServletName() {
+            return "echo";
+          }
+
+          @Override
+          public MappingMatch getMappingMatch() {
+            return MappingMatch.EXACT;
+          }
+        };
+    private final AsyncContext asyncContext = new StubAsyncContext();
+    private AsyncListener listener;
+
+    private StubRequest(boolean async) {
+      super(unsupported(HttpServletRequest.class));
+      this.async = async;
+    }
+
+    @Override
+    public HttpServletMapping getHttpServletMapping() {
+      return mapping;
+    }
+
+    @Override
+    public boolean isAsyncStarted() {
+      return async;
+    }
+
+    @Override
+    public AsyncContext getAsyncContext() {
+      return asyncContext;
+    }
+
+    private final class StubAsyncContext implements AsyncContext {
+
+      @Override
+      public void addListener(AsyncListener listener) {
+        StubRequest.this.listener = listener;
+      }
+
+      @Override
+      public void addListener(
+          AsyncListener listener, ServletRequest request, ServletResponse response) {
+        addListener(listener);
+      }
+
+      @Override
+      public ServletRequest getRequest() {
+        return StubRequest.this;
+      }
+
+      @Override
+      public ServletResponse getResponse() {
+        throw new UnsupportedOperationException();
+      }
+
+      @Override
+      public boolean hasOriginalRequestAndResponse() {
+        return true;
+      }
+
+      @Override
+      public void dispatch() {
+        throw new UnsupportedOperationException();
+      }
+
+      @Override
+      public void dispatch(String path) {
+        throw new UnsupportedOperationException();
+      }
+
+      @Override
+      public void dispatch(ServletContext context, String path) {
+        throw new UnsupportedOperationException();
+      }
+
+      @Override
+      public void complete() {}
+
+      @Override
+      public void start(Runnable run) {
+        throw new UnsupportedOperationException();
+      }
+
+      @Override
+      public <T extends AsyncListener> T createListener(Class<T> type) {
+        throw new UnsupportedOperationException();
+      }
+
+      @Override
+      public void setTimeout(long timeout) {}
+
+      @Override
+      public long getTimeout() {
+        return 0;
+      }
+    }
+  }
+}
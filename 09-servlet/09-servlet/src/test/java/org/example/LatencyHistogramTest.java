@@ -0,0 +1,98 @@
+package org.example;
+
+import java.io.StringWriter;
+import java.util.Random;
+
+import junit.framework.TestCase;
+
+public class LatencyHistogramTest
+    extends TestCase
+{
+    public void testBucketsHoldValuesWithinOneSixteenth()
+    {
+        Random random = new Random( 42 );
+        for ( int i = 0; i < 100_000; i++ )
+        {
+            long nanos = random.nextLong() >>> ( 24 + random.nextInt( 40 ) );
+            int index = LatencyHistogram.index( nanos );
+            long lower = LatencyHistogram.lowerBound( index );
+            long upper = LatencyHistogram.lowerBound( index + 1 );
+            assertTrue( nanos + " below " + lower, lower <= nanos );
+            assertTrue( nanos + " not below " + upper, nanos < upper );
+            assertTrue( upper - lower <= Math.max( 1, lower / LatencyHistogram.SUB_BUCKETS ) );
+        }
+    }
+
+    public void testOutOfRangeValuesLandInTheEndBuckets()
+    {
+        assertEquals( 0, LatencyHistogram.index( -5 ) );
+        assertEquals( LatencyHistogram.BUCKETS - 1, LatencyHistogram.index( Long.MAX_VALUE ) );
+        assertEquals( LatencyHistogram.BUCKETS - 1,
+            LatencyHistogram.index( 1L << LatencyHistogram.MAX_EXPONENT ) );
+        assertEquals( LatencyHistogram.BUCKETS - 1,
+            LatencyHistogram.index( ( 1L << LatencyHistogram.MAX_EXPONENT ) - 1 ) );
+        assertEquals( LatencyHistogram.BUCKETS - 2, LatencyHistogram.index(
+            LatencyHistogram.lowerBound( LatencyHistogram.BUCKETS - 1 ) - 1 ) );
+    }
+
+    public void testSnapshot()
+    {
+        LatencyHistogram histogram = new LatencyHistogram();
+        histogram.record( 1_500 );
+        histogram.record( 1_500 );
+        histogram.record( 2_000_000 );
+
+        LatencyHistogram.Snapshot snapshot = histogram.snapshot();
+        assertEquals( 3, snapshot.count() );
+        assertEquals( 2_003_000, snapshot.sumNanos() );
+        assertEquals( 2, snapshot.counts()[LatencyHistogram.index( 1_500 )] );
+    }
+
+    public void testTextBucketsAreCumulative() throws Exception
+    {
+        RequestMetrics metrics = new RequestMetrics();
+        metrics.route( "/a" ).record( 1_500 );
+        metrics.route( "/a" ).record( 3_000 );
+        metrics.route( "/a" ).record( 5_000_000_000L );
+        metrics.route( "/b\"" ).record( 100 );
+
+        StringWriter out = new StringWriter();
+        metrics.writeText( out );
+        String text = out.toString();
+
+        String bucket = "http_server_requests_seconds_bucket{route=\"/a\",le=";
+        assertTrue( text, text.contains( bucket + "\"1.023E-6\"} 0\n" ) );
+        assertTrue( text, text.contains( bucket + "\"2.047E-6\"} 1\n" ) );
+        assertTrue( text, text.contains( bucket + "\"4.095E-6\"} 2\n" ) );
+        assertTrue( text, text.contains( bucket + "\"4.294967295\"} 2\n" ) );
+        assertTrue( text, text.contains( bucket + "\"8.589934591\"} 3\n" ) );
+        assertTrue( text, text.contains( bucket + "\"+Inf\"} 3\n" ) );
+        assertTrue( text, text.contains( "_sum{route=\"/a\"} 5.0000045\n" ) );
+        assertTrue( text, text.contains( "_count{route=\"/a\"} 3\n" ) );
+        assertTrue( text, text.contains( "_count{route=\"/b\\\"\"} 1\n" ) );
+        assertTrue( text.indexOf( "route=\"/a\"" ) < text.indexOf( "route=\"/b" ) );
+    }
+
+    /**
+     * A value on a power of two falls in the bucket above the bound just below it, and the bound
+     * that includes it counts it.
+     */
+    public void testTextBucketsAtBoundaries() throws Exception
+    {
+        RequestMetrics metrics = new RequestMetrics();
+        metrics.route( "/a" ).record( 2_047 );
+        metrics.route( "/a" ).record( 2_048 );
+        metrics.route( "/a" ).record( 4_095 );
+        metrics.route( "/a" ).record( 4_096 );
+
+        StringWriter out = new StringWriter();
+        metrics.writeText( out );
+        String text = out.toString();
+
+        String bucket = "http_server_requests_seconds_bucket{route=\"/a\",le=";
+        assertTrue( text, text.contains( bucket + "\"1.023E-6\"} 0\n" ) );
+        assertTrue( text, text.contains( bucket + "\"2.047E-6\"} 1\n" ) );
+        assertTrue( text, text.contains( bucket + "\"4.095E-6\"} 3\n" ) );
+        assertTrue( text, text.contains( bucket + "\"8.191E-6\"} 4\n" ) );
+    }
+}
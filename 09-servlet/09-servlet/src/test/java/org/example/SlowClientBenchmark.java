@@ -0,0 +1,177 @@
+package org.example;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.lang.management.BufferPoolMXBean;
+import java.lang.management.ManagementFactory;
+import java.net.HttpURLConnection;
+import java.net.Socket;
+import java.net.URL;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.atomic.AtomicLong;
+import org.apache.coyote.AbstractProtocol;
+import org.apache.tomcat.util.threads.ThreadPoolExecutor;
+
+/**
+ * Runs the blocking and the non-blocking echo endpoint against the same mix of clients: many slow
+ * uploaders that trickle a body a few bytes at a time, plus a handful of fast clients posting
+ * small bodies as quickly as they can. Both servers get the same worker pool. Reports how many
+ * connections the server holds, the fast clients' throughput, busy worker threads, heap and
+ * direct memory.
+ *
+ * <p>Arguments: slow clients (default 400), fast clients (default 4), worker threads (default
+ * 50), seconds to measure (default 10).
+ */
+public class SlowClientBenchmark {
+
+  private static final int SLOW_BODY = 64 * 1024;
+  private static final int TRICKLE = 64;
+  private static final long TRICKLE_INTERVAL_MS = 100;
+  private static final int FAST_BODY = 4 * 1024;
+
+  public static void main(String[] args) throws Exception {
+    int slow = args.length > 0 ? Integer.parseInt(args[0]) : 400;
+    int fast = args.length > 1 ? Integer.parseInt(args[1]) : 4;
+    int maxThreads = args.length > 2 ? Integer.parseInt(args[2]) : 50;
+    int seconds = args.length > 3 ? Integer.parseInt(args[3]) : 10;
+
+    System.out.printf(
+        "%d slow clients (%d KB at %d B / %d ms), %d fast clients, %d worker threads%n%n",
+        slow, SLOW_BODY / 1024, TRICKLE, TRICKLE_INTERVAL_MS, fast, maxThreads);
+    System.out.printf(
+        "%-14s %11s %9s %9s %10s %11s %9s %10s%n",
+        "endpoint", "connections", "busy", "threads", "req/s", "timed out", "heap MB",
+        "direct MB");
+    run("/blocking/echo", slow, fast, maxThreads, seconds);
+    run("/echo", slow, fast, maxThreads, seconds);
+  }
+
+  private static void run(String path, int slow, int fast, int maxThreads, int seconds)
+      throws Exception {
+    EchoServer server = new EchoServer(0, maxThreads, slow + fast);
+    server.start();
+    AbstractProtocol<?> protocol = (AbstractProtocol<?>) server.connector().getProtocolHandler();
+    List<Socket> sockets = new ArrayList<>();
+    Thread trickler = null;
+    List<Thread> fastClients = new ArrayList<>();
+    try {
+      for (int i = 0; i < slow; i++) {
+        sockets.add(openUpload(server.port(), path));
+      }
+      trickler = new Thread(() -> trickle(sockets), "trickler");
+      trickler.setDaemon(true);
+      trickler.start();
+      // Give every slow upload time to reach a servlet before measuring.
+      Thread.sleep(2000);
+
+      AtomicLong completed = new AtomicLong();
+      AtomicLong timedOut = new AtomicLong();
+      long deadline = System.nanoTime() + seconds * 1_000_000_000L;
+      for (int i = 0; i < fast; i++) {
+        Thread client =
+            new Thread(() -> postUntil(server.port(), path, deadline, completed, timedOut));
+        client.start();
+        fastClients.add(client);
+      }
+      Thread.sleep(seconds * 1000L / 2);
+      long connections = protocol.getConnectionCount();
+      ThreadPoolExecutor executor = (ThreadPoolExecutor) protocol.getExecutor();
+      int busy = executor.getActiveCount();
+      int threads = executor.getPoolSize();
+      System.gc();
+      long heap = ManagementFactory.getMemoryMXBean().getHeapMemoryUsage().getUsed();
+      long direct = directMemoryUsed();
+      for (Thread client : fastClients) {
+        client.join();
+      }
+      System.out.printf(
+          "%-14s %11d %9d %9d %10.1f %11d %9.1f %10.1f%n",
+          path, connections, busy, threads, completed.get() / (double) seconds,
+          timedOut.get(), heap / 1048576.0, direct / 1048576.0);
+    } finally {
+      if (trickler != null) {
+        trickler.interrupt();
+      }
+      for (Socket socket : sockets) {
+        socket.close();
+      }
+      server.stop();
+    }
+  }
+
+  private static Socket openUpload(int port, String path) throws IOException {
+    Socket socket = new Socket("localhost", port);
+    String head =
+        "POST " + path + " HTTP/1.1\r\n"
+            + "Host: localhost\r\n"
+            + "Content-Type: application/octet-stream\r\n"
+            + "Content-Length: " + SLOW_BODY + "\r\n"
+            + "\r\n";
+    socket.getOutputStream().write(head.getBytes(StandardCharsets.US_ASCII));
+    return socket;
+  }
+
+  // One thread feeds every slow upload a few bytes per interval and drains whatever was echoed.
+  private static void trickle(List<Socket> sockets) {
+    byte[] chunk = new byte[TRICKLE];
+    byte[] sink = new byte[8192];
+    while (!Thread.currentThread().isInterrupted()) {
+      for (Socket socket : sockets) {
+        try {
+          socket.getOutputStream().write(chunk);
+          InputStream in = socket.getInputStream();
+          while (in.available() > 0) {
+            in.read(sink);
+          }
+        } catch (IOException e) {
+          // Closed by the server or at shutdown; the connection count shows it.
+        }
+      }
+      try {
+        Thread.sleep(TRICKLE_INTERVAL_MS);
+      } catch (InterruptedException e) {
+        return;
+      }
+    }
+  }
+
+  private static void postUntil(
+      int port, String path, long deadline, AtomicLong completed, AtomicLong timedOut) {
+    byte[] body = new byte[FAST_BODY];
+    byte[] sink = new byte[8192];
+    while (System.nanoTime() < deadline) {
+      try {
+        HttpURLConnection connection =
+            (HttpURLConnection) new URL("http://localhost:" + port + path).openConnection();
+        connection.setRequestMethod("POST");
+        connection.setDoOutput(true);
+        connection.setFixedLengthStreamingMode(body.length);
+        connection.setConnectTimeout(1000);
+        connection.setReadTimeout(1000);
+        try (OutputStream out = connection.getOutputStream()) {
+          out.write(body);
+        }
+        try (InputStream in = connection.getInputStream()) {
+          while (in.read(sink) >= 0) {
+            // drain
+          }
+        }
+        completed.incrementAndGet();
+      } catch (IOException e) {
+        timedOut.incrementAndGet();
+      }
+    }
+  }
+
+  private static long directMemoryUsed() {
+    for (BufferPoolMXBean pool : ManagementFactory.getPlatformMXBeans(BufferPoolMXBean.class)) {
+      if (pool.getName().equals("direct")) {
+        return pool.getMemoryUsed();
+      }
+    }
+    return -1;
+  }
+}
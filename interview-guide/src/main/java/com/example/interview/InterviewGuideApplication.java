@@ -1,15 +1,45 @@
 package com.example.interview;
 
 import com.example.interview.core.MessagePrinter;
+import com.example.interview.messages.MessageCatalogProperties;
+import java.io.IOException;
+import java.io.Writer;
+import java.nio.file.Files;
+import java.nio.file.Paths;
+import org.example.startup.StartupProfiler;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
 import org.springframework.boot.SpringApplication;
 import org.springframework.boot.autoconfigure.SpringBootApplication;
+import org.springframework.boot.context.properties.EnableConfigurationProperties;
 import org.springframework.context.ApplicationContext;
+import org.springframework.core.metrics.jfr.FlightRecorderApplicationStartup;
 
 @SpringBootApplication
+@EnableConfigurationProperties(MessageCatalogProperties.class)
 public class InterviewGuideApplication {
 
-  public static void main(String[] args) {
-    ApplicationContext ctx = SpringApplication.run(InterviewGuideApplication.class, args);
+  private static final Logger log = LoggerFactory.getLogger(InterviewGuideApplication.class);
+
+  public static void main(String[] args) throws IOException {
+    SpringApplication application = new SpringApplication(InterviewGuideApplication.class);
+    // -Dstartup.profile=<file> writes the startup timeline there as JSON. The steps also go to
+    // JFR, which costs next to nothing unless a recording runs (-XX:StartFlightRecording).
+    String profile = System.getProperty("startup.profile");
+    StartupProfiler profiler = null;
+    if (profile != null) {
+      profiler = new StartupProfiler(new FlightRecorderApplicationStartup());
+      application.setApplicationStartup(profiler);
+      application.addInitializers(profiler::attach);
+    }
+    ApplicationContext ctx = application.run(args);
+
+    if (profiler != null) {
+      try (Writer out = Files.newBufferedWriter(Paths.get(profile))) {
+        profiler.writeJson(out);
+      }
+      log.info("Startup profile written to {}\n{}", profile, profiler.summary(10));
+    }
 
     MessagePrinter printer = ctx.getBean(MessagePrinter.class);
     printer.print();
@@ -1,5 +1,6 @@
 package com.example.interview.core;
 
+import java.util.Locale;
 import org.springframework.stereotype.Component;
 
 @Component
@@ -8,4 +9,10 @@ public class HelloMessageService implements MessageService {
   public String getMessage() {
     return "Hello from loosely coupled service!";
   }
+
+  // Knows the greeting only, in no language but its own.
+  @Override
+  public String getMessage(String key, Locale locale) {
+    return GREETING.equals(key) ? getMessage() : null;
+  }
 }
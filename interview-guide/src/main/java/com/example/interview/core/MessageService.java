@@ -1,5 +1,14 @@
 package com.example.interview.core;
 
+import java.util.Locale;
+
 public interface MessageService {
+
+  /** The key of the message {@link #getMessage()} returns. */
+  String GREETING = "greeting";
+
   String getMessage();
+
+  /** The message for {@code key} in {@code locale}, or {@code null} if there is none. */
+  String getMessage(String key, Locale locale);
 }
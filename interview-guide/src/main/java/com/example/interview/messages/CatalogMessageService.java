@@ -0,0 +1,95 @@
+package com.example.interview.messages;
+
+import com.example.interview.core.MessageService;
+import jakarta.annotation.PreDestroy;
+import java.io.IOException;
+import java.util.Locale;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.context.annotation.Primary;
+import org.springframework.core.io.ResourceLoader;
+import org.springframework.scheduling.concurrent.CustomizableThreadFactory;
+import org.springframework.stereotype.Component;
+import org.springframework.util.ResourceUtils;
+
+/**
+ * Serves messages from a {@link MessageCatalog}. A background thread checks the bundles for
+ * changes and swaps in a freshly built catalog; readers only ever read the current one, so they
+ * never wait on a reload and never see a half-built table. A reload that fails keeps the old
+ * catalog. Only bundles read from {@code file:} locations are checked; those on the class path
+ * cannot change while the application runs.
+ */
+@Primary
+@Component
+public class CatalogMessageService implements MessageService {
+
+  private static final Logger log = LoggerFactory.getLogger(CatalogMessageService.class);
+
+  private final MessageCatalogLoader loader;
+  private final ScheduledExecutorService reloader;
+  private volatile MessageCatalog catalog;
+  private long version;
+
+  public CatalogMessageService(
+      ResourceLoader resourceLoader, MessageCatalogProperties properties) throws IOException {
+    this.loader =
+        new MessageCatalogLoader(
+            resourceLoader, properties.getBasename(), properties.getLocales());
+    this.version = loader.version();
+    this.catalog = loader.load();
+
+    CustomizableThreadFactory threadFactory = new CustomizableThreadFactory("message-catalog-");
+    threadFactory.setDaemon(true);
+    this.reloader = Executors.newSingleThreadScheduledExecutor(threadFactory);
+    long interval = properties.getRefreshInterval().toMillis();
+    if (interval > 0 && !properties.getBasename().startsWith(ResourceUtils.FILE_URL_PREFIX)) {
+      log.info("Not reloading message catalog {}: not a file location", properties.getBasename());
+    } else if (interval > 0) {
+      reloader.scheduleWithFixedDelay(
+          this::reloadIfChanged, interval, interval, TimeUnit.MILLISECONDS);
+    }
+  }
+
+  @Override
+  public String getMessage() {
+    return getMessage(GREETING, Locale.ROOT);
+  }
+
+  @Override
+  public String getMessage(String key, Locale locale) {
+    return catalog.get(key, locale);
+  }
+
+  public MessageCatalog catalog() {
+    return catalog;
+  }
+
+  /** Rebuilds the catalog if a bundle changed since the last load; returns whether it did. */
+  public synchronized boolean reloadIfChanged() {
+    try {
+      long current = loader.version();
+      if (current == version) {
+        return false;
+      }
+      MessageCatalog reloaded = loader.load();
+      catalog = reloaded;
+      version = current;
+      log.info(
+          "Reloaded message catalog: {} keys in {} bundles",
+          reloaded.size(),
+          reloaded.locales().size());
+      return true;
+    } catch (IOException | RuntimeException e) {
+      log.warn("Keeping the current message catalog, reload failed", e);
+      return false;
+    }
+  }
+
+  @PreDestroy
+  public void shutdown() {
+    reloader.shutdownNow();
+  }
+}
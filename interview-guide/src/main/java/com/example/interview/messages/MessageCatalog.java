@@ -0,0 +1,261 @@
+package com.example.interview.messages;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.ResourceBundle;
+import java.util.Set;
+import java.util.TreeSet;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+
+/**
+ * An immutable table of localized messages. Keys are placed by a minimal perfect hash (hash and
+ * displace): every key of the catalog has its own slot in an array exactly as long as the key
+ * set, found with two hashes and one array read, and each locale is a column of those slots with
+ * the bundle fallback (de_CH, de, root) already applied. A lookup allocates nothing; only the first
+ * lookup for a locale the catalog has not seen yet resolves and caches its column.
+ */
+public final class MessageCatalog {
+
+  // Average keys per displacement bucket: larger means fewer seeds but longer searches to place
+  // the big buckets.
+  private static final int KEYS_PER_BUCKET = 3;
+  private static final int MAX_SEED = 1 << 24;
+  // Columns cached for locales looked up but not in the catalog; past this they are resolved on
+  // every lookup instead, so arbitrary client locales cannot grow the cache.
+  private static final int MAX_RESOLVED_LOCALES = 256;
+  private static final long GOLDEN = 0x9E3779B97F4A7C15L;
+  private static final ResourceBundle.Control CONTROL =
+      ResourceBundle.Control.getNoFallbackControl(ResourceBundle.Control.FORMAT_DEFAULT);
+
+  private final String[] keys;
+  private final int[] seeds;
+  // Whether keys are hashed over their characters; only when two share a String.hashCode().
+  private final boolean charHash;
+  private final Map<Locale, String[]> bundles;
+  // The catalog's own locales, compared by identity before the map: Locale caches its instances,
+  // so the usual lookup finds its column in a short scan.
+  private final Locale[] ownLocales;
+  private final String[][] ownColumns;
+  private final ConcurrentMap<Locale, String[]> columns = new ConcurrentHashMap<>();
+  private final String[] empty;
+
+  private MessageCatalog(
+      String[] keys, int[] seeds, boolean charHash, Map<Locale, String[]> bundles) {
+    this.keys = keys;
+    this.seeds = seeds;
+    this.charHash = charHash;
+    this.bundles = bundles;
+    this.ownLocales = bundles.keySet().toArray(new Locale[0]);
+    this.ownColumns = new String[ownLocales.length][];
+    for (int i = 0; i < ownLocales.length; i++) {
+      ownColumns[i] = bundles.get(ownLocales[i]);
+    }
+    this.empty = new String[keys.length];
+    this.columns.putAll(bundles);
+  }
+
+  /**
+   * Builds a catalog from bundles by locale; {@link Locale#ROOT} is the base bundle every other
+   * falls back to.
+   */
+  public static MessageCatalog of(Map<Locale, ? extends Map<String, String>> bundles) {
+    Set<String> keySet = new TreeSet<>();
+    bundles.values().forEach(bundle -> keySet.addAll(bundle.keySet()));
+    String[] keys = keySet.toArray(new String[0]);
+
+    boolean charHash = !distinct(keys, false);
+    if (charHash && !distinct(keys, true)) {
+      throw new IllegalArgumentException("Message keys collide under both hashes");
+    }
+    long[] hashes = new long[keys.length];
+    for (int i = 0; i < keys.length; i++) {
+      hashes[i] = hash(keys[i], charHash);
+    }
+    int[] seeds = new int[Math.max(1, keys.length / KEYS_PER_BUCKET)];
+    int[] slots = place(hashes, seeds);
+    String[] placed = new String[keys.length];
+    for (int i = 0; i < keys.length; i++) {
+      placed[slots[i]] = keys[i];
+    }
+
+    Map<Locale, String[]> columns = new HashMap<>();
+    for (Locale locale : bundles.keySet()) {
+      String[] column = new String[keys.length];
+      // Most specific first, ending with the root bundle.
+      for (Locale candidate : CONTROL.getCandidateLocales("", locale)) {
+        Map<String, String> bundle = bundles.get(candidate);
+        if (bundle == null) {
+          continue;
+        }
+        for (int i = 0; i < keys.length; i++) {
+          if (column[slots[i]] == null) {
+            column[slots[i]] = bundle.get(keys[i]);
+          }
+        }
+      }
+      columns.put(locale, column);
+    }
+    return new MessageCatalog(placed, seeds, charHash, Map.copyOf(columns));
+  }
+
+  /**
+   * The message for {@code key} in {@code locale} or the nearest bundle it falls back to, or
+   * {@code null} if no bundle has the key.
+   */
+  public String get(String key, Locale locale) {
+    if (keys.length == 0) {
+      return null;
+    }
+    int slot = slot(key);
+    return keys[slot].equals(key) ? column(locale)[slot] : null;
+  }
+
+  public int size() {
+    return keys.length;
+  }
+
+  public Set<Locale> locales() {
+    return bundles.keySet();
+  }
+
+  private int slot(String key) {
+    long hash = hash(key, charHash);
+    int seed = seeds[reduce(hash, seeds.length)];
+    return seed < 0 ? -seed - 1 : displace(hash, seed, keys.length);
+  }
+
+  private String[] column(Locale locale) {
+    for (int i = 0; i < ownLocales.length; i++) {
+      if (ownLocales[i] == locale) {
+        return ownColumns[i];
+      }
+    }
+    String[] column = columns.get(locale);
+    if (column != null) {
+      return column;
+    }
+    column = resolve(locale);
+    if (columns.size() < MAX_RESOLVED_LOCALES) {
+      columns.putIfAbsent(locale, column);
+    }
+    return column;
+  }
+
+  private String[] resolve(Locale locale) {
+    for (Locale candidate : CONTROL.getCandidateLocales("", locale)) {
+      String[] column = bundles.get(candidate);
+      if (column != null) {
+        return column;
+      }
+    }
+    return empty;
+  }
+
+  // Hash and displace: keys are grouped into buckets by hash, and buckets are placed largest
+  // first, each with the first seed that sends all of its keys to free slots. Single-key buckets
+  // come last and take the remaining slots directly, stored as -(slot + 1). Returns each key's
+  // slot.
+  private static int[] place(long[] hashes, int[] seeds) {
+    int n = hashes.length;
+    List<List<Integer>> buckets = new ArrayList<>();
+    for (int b = 0; b < seeds.length; b++) {
+      buckets.add(new ArrayList<>());
+    }
+    for (int i = 0; i < n; i++) {
+      buckets.get(reduce(hashes[i], seeds.length)).add(i);
+    }
+    Integer[] order = new Integer[seeds.length];
+    Arrays.setAll(order, b -> b);
+    Arrays.sort(order, (a, b) -> buckets.get(b).size() - buckets.get(a).size());
+
+    int[] slots = new int[n];
+    boolean[] taken = new boolean[n];
+    int free = 0;
+    for (int b : order) {
+      List<Integer> bucket = buckets.get(b);
+      if (bucket.size() == 1) {
+        while (taken[free]) {
+          free++;
+        }
+        taken[free] = true;
+        slots[bucket.get(0)] = free;
+        seeds[b] = -free - 1;
+      } else if (bucket.size() > 1) {
+        seeds[b] = seed(bucket, hashes, taken, slots);
+      }
+    }
+    return slots;
+  }
+
+  private static int seed(List<Integer> bucket, long[] hashes, boolean[] taken, int[] slots) {
+    int n = hashes.length;
+    for (int seed = 0; seed < MAX_SEED; seed++) {
+      int placed = 0;
+      for (int key : bucket) {
+        int slot = displace(hashes[key], seed, n);
+        if (taken[slot]) {
+          break;
+        }
+        taken[slot] = true;
+        slots[key] = slot;
+        placed++;
+      }
+      if (placed == bucket.size()) {
+        return seed;
+      }
+      for (int i = 0; i < placed; i++) {
+        taken[slots[bucket.get(i)]] = false;
+      }
+    }
+    throw new IllegalStateException("No seed places a bucket of " + bucket.size() + " keys");
+  }
+
+  private static boolean distinct(String[] keys, boolean charHash) {
+    long[] hashes = new long[keys.length];
+    for (int i = 0; i < keys.length; i++) {
+      hashes[i] = hash(keys[i], charHash);
+    }
+    Arrays.sort(hashes);
+    for (int i = 1; i < hashes.length; i++) {
+      if (hashes[i] == hashes[i - 1]) {
+        return false;
+      }
+    }
+    return true;
+  }
+
+  // String.hashCode() is cached in the string, so the usual path costs no pass over the key; the
+  // odd multiplier keeps distinct hash codes distinct.
+  private static long hash(String key, boolean charHash) {
+    if (!charHash) {
+      return key.hashCode() * GOLDEN;
+    }
+    long hash = 0xCBF29CE484222325L;
+    for (int i = 0; i < key.length(); i++) {
+      hash = (hash ^ key.charAt(i)) * 0x100000001B3L;
+    }
+    return mix(hash);
+  }
+
+  // The slot a seed sends a key to, taken from the well mixed high bits of the product.
+  private static int displace(long hash, int seed, int n) {
+    return reduce((hash ^ (seed + 1L) * GOLDEN) * 0xBF58476D1CE4E5B9L, n);
+  }
+
+  // The MurmurHash3 finalizer: a bijection that spreads every input bit over the whole word.
+  private static long mix(long hash) {
+    hash = (hash ^ (hash >>> 33)) * 0xFF51AFD7ED558CCDL;
+    hash = (hash ^ (hash >>> 33)) * 0xC4CEB9FE1A85EC53L;
+    return hash ^ (hash >>> 33);
+  }
+
+  // Maps the high 32 bits of the hash onto [0, n) without division.
+  private static int reduce(long hash, int n) {
+    return (int) (((hash >>> 32) * n) >>> 32);
+  }
+}
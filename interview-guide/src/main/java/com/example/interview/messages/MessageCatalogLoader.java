@@ -0,0 +1,58 @@
+package com.example.interview.messages;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.PropertyResourceBundle;
+import java.util.ResourceBundle;
+import org.springframework.core.io.Resource;
+import org.springframework.core.io.ResourceLoader;
+
+/**
+ * Reads the bundles of a catalog, {@code <basename>.properties} and {@code
+ * <basename>_<locale>.properties}, as {@link PropertyResourceBundle}s. Missing bundles are skipped.
+ */
+class MessageCatalogLoader {
+
+  private final Map<Locale, Resource> resources = new LinkedHashMap<>();
+
+  MessageCatalogLoader(ResourceLoader resourceLoader, String basename, List<Locale> locales) {
+    resources.put(Locale.ROOT, resourceLoader.getResource(basename + ".properties"));
+    for (Locale locale : locales) {
+      resources.put(
+          locale, resourceLoader.getResource(basename + "_" + locale + ".properties"));
+    }
+  }
+
+  MessageCatalog load() throws IOException {
+    Map<Locale, Map<String, String>> bundles = new HashMap<>();
+    for (Map.Entry<Locale, Resource> resource : resources.entrySet()) {
+      if (!resource.getValue().exists()) {
+        continue;
+      }
+      ResourceBundle bundle;
+      try (InputStream in = resource.getValue().getInputStream()) {
+        bundle = new PropertyResourceBundle(in);
+      }
+      Map<String, String> messages = new HashMap<>();
+      for (String key : bundle.keySet()) {
+        messages.put(key, bundle.getString(key));
+      }
+      bundles.put(resource.getKey(), messages);
+    }
+    return MessageCatalog.of(bundles);
+  }
+
+  /** Changes whenever a bundle is edited, added or removed. */
+  long version() throws IOException {
+    long version = 17;
+    for (Resource resource : resources.values()) {
+      version = 31 * version + (resource.exists() ? resource.lastModified() : -1);
+    }
+    return version;
+  }
+}
@@ -0,0 +1,45 @@
+package com.example.interview.messages;
+
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Locale;
+import org.springframework.boot.context.properties.ConfigurationProperties;
+
+@ConfigurationProperties("messages.catalog")
+public class MessageCatalogProperties {
+
+  // Resource location without locale suffix or extension; file: locations can be edited live.
+  private String basename = "classpath:catalog/messages";
+
+  // Bundles to load besides the base one.
+  private List<Locale> locales = new ArrayList<>(List.of(Locale.GERMAN, Locale.FRENCH));
+
+  // How often bundles at a file: location are checked for changes; zero or negative turns
+  // reloading off.
+  private Duration refreshInterval = Duration.ZERO;
+
+  public String getBasename() {
+    return basename;
+  }
+
+  public void setBasename(String basename) {
+    this.basename = basename;
+  }
+
+  public List<Locale> getLocales() {
+    return locales;
+  }
+
+  public void setLocales(List<Locale> locales) {
+    this.locales = locales;
+  }
+
+  public Duration getRefreshInterval() {
+    return refreshInterval;
+  }
+
+  public void setRefreshInterval(Duration refreshInterval) {
+    this.refreshInterval = refreshInterval;
+  }
+}
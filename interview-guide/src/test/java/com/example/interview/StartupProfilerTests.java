@@ -0,0 +1,41 @@
+package com.example.interview;
+
+import java.io.StringWriter;
+import java.util.List;
+import org.example.startup.StartupProfiler;
+import org.junit.jupiter.api.Test;
+import org.springframework.boot.SpringApplication;
+import org.springframework.context.ConfigurableApplicationContext;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+class StartupProfilerTests {
+
+	@Test
+	void profilesEachBeanOfTheApplication() throws Exception {
+		StartupProfiler profiler = new StartupProfiler();
+		SpringApplication application = new SpringApplication(InterviewGuideApplication.class);
+		application.setApplicationStartup(profiler);
+		application.addInitializers(profiler::attach);
+
+		List<StartupProfiler.BeanTiming> beans;
+		try (ConfigurableApplicationContext context = application.run()) {
+			beans = profiler.slowestBeans(Integer.MAX_VALUE);
+		}
+
+		assertThat(beans).extracting(StartupProfiler.BeanTiming::beanName)
+				.contains("messagePrinter", "helloMessageService");
+		assertThat(beans).isSortedAccordingTo(
+				(a, b) -> Long.compare(b.selfNanos(), a.selfNanos()));
+		// The printer's constructor argument is created as part of it, but not counted as its own.
+		StartupProfiler.BeanTiming printer = beans.stream()
+				.filter(bean -> bean.beanName().equals("messagePrinter")).findFirst().orElseThrow();
+		assertThat(printer.constructNanos()).isBetween(0L, printer.selfNanos());
+
+		StringWriter json = new StringWriter();
+		profiler.writeJson(json);
+		assertThat(json.toString()).contains("\"name\":\"spring.boot.application.starting\"")
+				.contains("\"beanName\":\"messagePrinter\"");
+	}
+
+}
@@ -0,0 +1,19 @@
+package com.example.interview.core;
+
+import java.util.Locale;
+import org.junit.jupiter.api.Test;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+class HelloMessageServiceTests {
+
+	private final HelloMessageService service = new HelloMessageService();
+
+	@Test
+	void looksUpTheGreetingByKey() {
+		assertThat(service.getMessage(MessageService.GREETING, Locale.GERMAN))
+				.isEqualTo(service.getMessage());
+		assertThat(service.getMessage("loose-coupling.title", Locale.ROOT)).isNull();
+	}
+
+}
@@ -0,0 +1,105 @@
+package com.example.interview.messages;
+
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.attribute.FileTime;
+import java.time.Duration;
+import java.time.Instant;
+import java.util.List;
+import java.util.Locale;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+import org.springframework.core.io.DefaultResourceLoader;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+class CatalogMessageServiceTests {
+
+	@TempDir
+	Path dir;
+
+	@Test
+	void readsTheBundledCatalog() throws Exception {
+		CatalogMessageService service =
+				new CatalogMessageService(new DefaultResourceLoader(), new MessageCatalogProperties());
+		try {
+			assertThat(service.getMessage()).isEqualTo("Hello from loosely coupled service!");
+			assertThat(service.getMessage("loose-coupling.title", Locale.GERMANY))
+					.isEqualTo("Was ist lose Kopplung?");
+			assertThat(service.getMessage("loose-coupling.summary", Locale.FRENCH))
+					.isEqualTo("Classes depend on interfaces rather than on concrete implementations.");
+		}
+		finally {
+			service.shutdown();
+		}
+	}
+
+	@Test
+	void swapsInAnEditedCatalog() throws Exception {
+		write("messages.properties", "greeting=Hello\n", 0);
+		CatalogMessageService service = service();
+		MessageCatalog before = service.catalog();
+
+		assertThat(service.reloadIfChanged()).isFalse();
+		write("messages_de.properties", "greeting=Hallo\n", 1);
+		assertThat(service.reloadIfChanged()).isTrue();
+
+		assertThat(service.getMessage("greeting", Locale.GERMAN)).isEqualTo("Hallo");
+		// Readers still holding the old catalog keep a consistent view of it.
+		assertThat(before.get("greeting", Locale.GERMAN)).isEqualTo("Hello");
+		assertThat(service.reloadIfChanged()).isFalse();
+	}
+
+	@Test
+	void keepsTheCatalogWhenABundleIsBroken() throws Exception {
+		write("messages.properties", "greeting=Hello\n", 0);
+		CatalogMessageService service = service();
+
+		write("messages.properties", "greeting=\\uZZZZ\n", 1);
+
+		assertThat(service.reloadIfChanged()).isFalse();
+		assertThat(service.getMessage()).isEqualTo("Hello");
+	}
+
+	@Test
+	void reloadsOnItsOwn() throws Exception {
+		write("messages.properties", "greeting=Hello\n", 0);
+		MessageCatalogProperties properties = properties();
+		properties.setRefreshInterval(Duration.ofMillis(20));
+		CatalogMessageService service = new CatalogMessageService(new DefaultResourceLoader(), properties);
+		try {
+			write("messages.properties", "greeting=Hi\n", 1);
+			long deadline = System.nanoTime() + Duration.ofSeconds(5).toNanos();
+			while (!"Hi".equals(service.getMessage()) && System.nanoTime() < deadline) {
+				Thread.sleep(10);
+			}
+			assertThat(service.getMessage()).isEqualTo("Hi");
+		}
+		finally {
+			service.shutdown();
+		}
+	}
+
+	private CatalogMessageService service() throws Exception {
+		CatalogMessageService service = new CatalogMessageService(new DefaultResourceLoader(), properties());
+		service.shutdown();
+		return service;
+	}
+
+	private MessageCatalogProperties properties() {
+		MessageCatalogProperties properties = new MessageCatalogProperties();
+		properties.setBasename(dir.toUri() + "messages");
+		properties.setLocales(List.of(Locale.GERMAN));
+		properties.setRefreshInterval(Duration.ZERO);
+		return properties;
+	}
+
+	// Stamps each edit a minute apart so the change shows even on coarse file timestamps.
+	private void write(String name, String content, int edit) throws Exception {
+		Path file = dir.resolve(name);
+		Files.writeString(file, content);
+		Instant modified = Instant.parse("2026-01-01T00:00:00Z").plusSeconds(60L * edit);
+		Files.setLastModifiedTime(file, FileTime.from(modified));
+	}
+
+}
@@ -0,0 +1,162 @@
+package com.example.interview.messages;
+
+import java.util.Collections;
+import java.util.Enumeration;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.Random;
+import java.util.ResourceBundle;
+import java.util.concurrent.TimeUnit;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+import org.openjdk.jmh.profile.GCProfiler;
+import org.openjdk.jmh.results.format.ResultFormatType;
+import org.openjdk.jmh.runner.Runner;
+import org.openjdk.jmh.runner.options.OptionsBuilder;
+
+/**
+ * One message lookup by key and locale, for a catalog with a base bundle and a German one that
+ * has every other key: {@link MessageCatalog}, a map of maps with the fallback already applied,
+ * and {@link ResourceBundle}, both through {@code getBundle} on every lookup and from a bundle
+ * held on to. Lookup keys are copies of the catalog's, as they would be coming off a request.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class MessageCatalogBenchmark {
+
+  private static final String BASE_NAME = "benchmark.messages";
+  private static final int LOOKUPS = 1 << 14;
+
+  @Param({"100", "10000"})
+  public int keys;
+
+  private MessageCatalog catalog;
+  private Map<Locale, Map<String, String>> maps;
+  private ResourceBundle.Control control;
+  private ResourceBundle bundle;
+  private String[] lookups;
+  private int next;
+
+  @Setup
+  public void setUp() {
+    Map<String, String> root = new HashMap<>();
+    Map<String, String> german = new HashMap<>();
+    for (int i = 0; i < keys; i++) {
+      root.put("interview.question." + i + ".title", "Question " + i);
+      if (i % 2 == 0) {
+        german.put("interview.question." + i + ".title", "Frage " + i);
+      }
+    }
+    Map<Locale, Map<String, String>> bundles = Map.of(Locale.ROOT, root, Locale.GERMAN, german);
+
+    catalog = MessageCatalog.of(bundles);
+    Map<String, String> resolved = new HashMap<>(root);
+    resolved.putAll(german);
+    maps = new HashMap<>(Map.of(Locale.ROOT, new HashMap<>(root), Locale.GERMAN, resolved));
+    control = new InMemoryControl(bundles);
+    bundle = ResourceBundle.getBundle(BASE_NAME, Locale.GERMAN, control);
+
+    String[] names = root.keySet().toArray(new String[0]);
+    Random random = new Random(42);
+    lookups = new String[LOOKUPS];
+    for (int i = 0; i < LOOKUPS; i++) {
+      lookups[i] = new String(names[random.nextInt(names.length)]);
+    }
+  }
+
+  @Benchmark
+  public String catalog() {
+    return catalog.get(nextKey(), Locale.GERMAN);
+  }
+
+  @Benchmark
+  public String hashMap() {
+    return maps.get(Locale.GERMAN).get(nextKey());
+  }
+
+  @Benchmark
+  public String resourceBundle() {
+    return bundle.getString(nextKey());
+  }
+
+  @Benchmark
+  public String resourceBundleGetBundle() {
+    return ResourceBundle.getBundle(BASE_NAME, Locale.GERMAN, control).getString(nextKey());
+  }
+
+  private String nextKey() {
+    return lookups[next++ & (LOOKUPS - 1)];
+  }
+
+  public static void main(String[] args) throws Exception {
+    new Runner(
+            new OptionsBuilder()
+                .include(MessageCatalogBenchmark.class.getSimpleName())
+                .addProfiler(GCProfiler.class)
+                .resultFormat(ResultFormatType.JSON)
+                .result("target/jmh-message-catalog.json")
+                .build())
+        .run();
+  }
+
+  // Serves the benchmark's bundles from memory, falling back to the base bundle only.
+  private static final class InMemoryControl extends ResourceBundle.Control {
+
+    private final Map<Locale, Map<String, String>> bundles;
+
+    private InMemoryControl(Map<Locale, Map<String, String>> bundles) {
+      this.bundles = bundles;
+    }
+
+    @Override
+    public List<String> getFormats(String baseName) {
+      return FORMAT_CLASS;
+    }
+
+    @Override
+    public Locale getFallbackLocale(String baseName, Locale locale) {
+      return null;
+    }
+
+    @Override
+    public ResourceBundle newBundle(
+        String baseName, Locale locale, String format, ClassLoader loader, boolean reload) {
+      Map<String, String> messages = bundles.get(locale);
+      return messages == null ? null : new MapBundle(messages);
+    }
+  }
+
+  private static final class MapBundle extends ResourceBundle {
+
+    private final Map<String, String> messages;
+
+    private MapBundle(Map<String, String> messages) {
+      this.messages = messages;
+    }
+
+    @Override
+    protected Object handleGetObject(String key) {
+      return messages.get(key);
+    }
+
+    @Override
+    public Enumeration<String> getKeys() {
+      return Collections.enumeration(messages.keySet());
+    }
+  }
+}
@@ -0,0 +1,100 @@
+package com.example.interview.messages;
+
+import java.lang.management.ManagementFactory;
+import java.util.HashMap;
+import java.util.Locale;
+import java.util.Map;
+import org.junit.jupiter.api.Test;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+class MessageCatalogTests {
+
+	private static final Locale SWISS_GERMAN = Locale.forLanguageTag("de-CH");
+
+	@Test
+	void fallsBackAlongTheLocaleChain() {
+		MessageCatalog catalog = MessageCatalog.of(Map.of(
+				Locale.ROOT, Map.of("greeting", "Hello", "farewell", "Goodbye", "only.root", "Root"),
+				Locale.GERMAN, Map.of("greeting", "Hallo", "farewell", "Tschüss"),
+				SWISS_GERMAN, Map.of("greeting", "Grüezi")));
+
+		assertThat(catalog.get("greeting", SWISS_GERMAN)).isEqualTo("Grüezi");
+		assertThat(catalog.get("farewell", SWISS_GERMAN)).isEqualTo("Tschüss");
+		assertThat(catalog.get("only.root", SWISS_GERMAN)).isEqualTo("Root");
+		assertThat(catalog.get("greeting", Locale.GERMANY)).isEqualTo("Hallo");
+		assertThat(catalog.get("greeting", Locale.ITALIAN)).isEqualTo("Hello");
+		assertThat(catalog.get("missing", Locale.GERMAN)).isNull();
+		assertThat(catalog.size()).isEqualTo(3);
+	}
+
+	@Test
+	void hasNothingForOtherLocalesWithoutARootBundle() {
+		MessageCatalog catalog = MessageCatalog.of(Map.of(Locale.GERMAN, Map.of("greeting", "Hallo")));
+
+		assertThat(catalog.get("greeting", Locale.GERMAN)).isEqualTo("Hallo");
+		assertThat(catalog.get("greeting", Locale.FRENCH)).isNull();
+		assertThat(MessageCatalog.of(Map.of()).get("greeting", Locale.ROOT)).isNull();
+	}
+
+	@Test
+	void givesEveryKeyOfALargeCatalogItsOwnSlot() {
+		Map<String, String> root = new HashMap<>();
+		Map<String, String> german = new HashMap<>();
+		for (int i = 0; i < 50_000; i++) {
+			root.put("message." + i, "root " + i);
+			if (i % 2 == 0) {
+				german.put("message." + i, "de " + i);
+			}
+		}
+		MessageCatalog catalog = MessageCatalog.of(Map.of(Locale.ROOT, root, Locale.GERMAN, german));
+
+		for (int i = 0; i < 50_000; i++) {
+			String key = "message." + i;
+			assertThat(catalog.get(key, Locale.GERMAN)).isEqualTo(i % 2 == 0 ? "de " + i : "root " + i);
+			assertThat(catalog.get(key + ".x", Locale.GERMAN)).isNull();
+		}
+	}
+
+	@Test
+	void tellsApartKeysSharingAHashCode() {
+		assertThat("Aa".hashCode()).isEqualTo("BB".hashCode());
+		MessageCatalog catalog = MessageCatalog.of(Map.of(Locale.ROOT,
+				Map.of("Aa", "first", "BB", "second", "AaAa", "third", "BBBB", "fourth")));
+
+		assertThat(catalog.get("Aa", Locale.ROOT)).isEqualTo("first");
+		assertThat(catalog.get("BB", Locale.ROOT)).isEqualTo("second");
+		assertThat(catalog.get("AaAa", Locale.ROOT)).isEqualTo("third");
+		assertThat(catalog.get("BBBB", Locale.ROOT)).isEqualTo("fourth");
+		assertThat(catalog.get("AaBB", Locale.ROOT)).isNull();
+	}
+
+	@Test
+	void lookupsDoNotAllocate() {
+		Map<String, String> root = new HashMap<>();
+		for (int i = 0; i < 1_000; i++) {
+			root.put("message." + i, "root " + i);
+		}
+		MessageCatalog catalog = MessageCatalog.of(Map.of(Locale.ROOT, root, Locale.GERMAN, root));
+		String[] keys = root.keySet().toArray(new String[0]);
+		// The first lookup for a locale outside the catalog resolves its column; later ones do not.
+		catalog.get(keys[0], SWISS_GERMAN);
+
+		com.sun.management.ThreadMXBean threads =
+				(com.sun.management.ThreadMXBean) ManagementFactory.getThreadMXBean();
+		long thread = Thread.currentThread().getId();
+		int found = 0;
+		long before = threads.getThreadAllocatedBytes(thread);
+		for (int i = 0; i < 100_000; i++) {
+			if (catalog.get(keys[i % keys.length], i % 2 == 0 ? Locale.GERMAN : SWISS_GERMAN) != null) {
+				found++;
+			}
+		}
+		long allocated = threads.getThreadAllocatedBytes(thread) - before;
+
+		assertThat(found).isEqualTo(100_000);
+		// Less than a byte per lookup; compiling the loop itself may account for a few kilobytes.
+		assertThat(allocated).isLessThan(100_000);
+	}
+
+}
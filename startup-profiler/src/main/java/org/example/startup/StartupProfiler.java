@@ -0,0 +1,346 @@
+package org.example.startup;
+
+import java.io.IOException;
+import java.io.Writer;
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.Iterator;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.function.Supplier;
+import org.springframework.beans.factory.config.InstantiationAwareBeanPostProcessor;
+import org.springframework.context.ConfigurableApplicationContext;
+import org.springframework.core.metrics.ApplicationStartup;
+import org.springframework.core.metrics.StartupStep;
+
+/**
+ * Records the steps of a context refresh as a tree with their timings, down to the creation of
+ * each bean, and splits each bean's own time into constructor, property injection and
+ * initialization. Steps are passed on to a delegate as well, for instance a
+ * {@code FlightRecorderApplicationStartup} to see them in a JFR recording.
+ *
+ * <p>A step's self time is its duration minus that of its children, so a bean is not blamed for
+ * the dependencies that happen to be created while its properties are injected.
+ */
+public class StartupProfiler implements ApplicationStartup {
+
+  private static final String BEAN_STEP = "spring.beans.instantiate";
+
+  private final ApplicationStartup delegate;
+  private final AtomicLong ids = new AtomicLong();
+  private final List<Step> roots = new CopyOnWriteArrayList<>();
+  private final ThreadLocal<Step> current = new ThreadLocal<>();
+  private final Map<String, Step> beanSteps = new ConcurrentHashMap<>();
+
+  public StartupProfiler() {
+    this(ApplicationStartup.DEFAULT);
+  }
+
+  public StartupProfiler(ApplicationStartup delegate) {
+    this.delegate = delegate;
+  }
+
+  /** Profiles the given context's refresh; call before refreshing it. */
+  public void attach(ConfigurableApplicationContext context) {
+    context.setApplicationStartup(this);
+    context.addBeanFactoryPostProcessor(
+        beanFactory -> beanFactory.addBeanPostProcessor(new PhaseMarker()));
+  }
+
+  @Override
+  public StartupStep start(String name) {
+    Step parent = current.get();
+    Step step = new Step(ids.incrementAndGet(), name, parent, delegate.start(name));
+    (parent == null ? roots : parent.children).add(step);
+    current.set(step);
+    return step;
+  }
+
+  /** Bean timings by self time, slowest first. */
+  public List<BeanTiming> slowestBeans(int limit) {
+    List<BeanTiming> timings = new ArrayList<>();
+    collect(roots, timings);
+    timings.sort(Comparator.comparingLong(BeanTiming::selfNanos).reversed());
+    return timings.subList(0, Math.min(limit, timings.size()));
+  }
+
+  /** A table of the slowest beans, for the console. */
+  public String summary(int limit) {
+    List<BeanTiming> beans = slowestBeans(limit);
+    int width = 4;
+    for (BeanTiming bean : beans) {
+      width = Math.max(width, bean.beanName().length());
+    }
+    StringBuilder summary = new StringBuilder("Slowest beans (ms, self time):\n");
+    summary.append(
+        String.format(
+            "  %-" + width + "s %9s %9s %9s %9s %9s%n",
+            "bean", "self", "total", "construct", "inject", "init"));
+    for (BeanTiming bean : beans) {
+      summary.append(
+          String.format(
+              "  %-" + width + "s %9.3f %9.3f %9s %9s %9s%n",
+              bean.beanName(),
+              bean.selfNanos() / 1e6,
+              bean.totalNanos() / 1e6,
+              millis(bean.constructNanos()),
+              millis(bean.injectNanos()),
+              millis(bean.initNanos())));
+    }
+    return summary.toString();
+  }
+
+  /** The whole tree as JSON, times in microseconds from the start of the first step. */
+  public void writeJson(Writer out) throws IOException {
+    long origin = roots.isEmpty() ? 0 : roots.get(0).startNanos;
+    out.write("{\"steps\":");
+    writeSteps(roots, origin, out);
+    out.write("}\n");
+    out.flush();
+  }
+
+  private void collect(List<Step> steps, List<BeanTiming> timings) {
+    for (Step step : steps) {
+      if (step.isEnded() && step.name.equals(BEAN_STEP) && step.tag("beanName") != null) {
+        timings.add(step.beanTiming());
+      }
+      collect(step.children, timings);
+    }
+  }
+
+  private static void writeSteps(List<Step> steps, long origin, Writer out) throws IOException {
+    out.write('[');
+    for (int i = 0; i < steps.size(); i++) {
+      Step step = steps.get(i);
+      if (i > 0) {
+        out.write(',');
+      }
+      out.write("{\"id\":" + step.id);
+      if (step.parent != null) {
+        out.write(",\"parentId\":" + step.parent.id);
+      }
+      out.write(",\"name\":" + quote(step.name));
+      out.write(",\"startMicros\":" + (step.startNanos - origin) / 1000);
+      if (step.isEnded()) {
+        out.write(",\"durationMicros\":" + step.durationNanos() / 1000);
+        out.write(",\"selfMicros\":" + step.selfNanos() / 1000);
+      }
+      out.write(",\"tags\":{");
+      for (int t = 0; t < step.tags.size(); t++) {
+        String[] tag = step.tags.get(t);
+        out.write((t > 0 ? "," : "") + quote(tag[0]) + ":" + quote(tag[1]));
+      }
+      out.write('}');
+      if (step.isEnded() && step.name.equals(BEAN_STEP) && step.constructed != 0) {
+        BeanTiming bean = step.beanTiming();
+        out.write(",\"phases\":{\"constructMicros\":" + bean.constructNanos() / 1000);
+        out.write(",\"injectMicros\":" + bean.injectNanos() / 1000);
+        out.write(",\"initMicros\":" + bean.initNanos() / 1000 + "}");
+      }
+      if (!step.children.isEmpty()) {
+        out.write(",\"children\":");
+        writeSteps(step.children, origin, out);
+      }
+      out.write('}');
+    }
+    out.write(']');
+  }
+
+  private static String quote(String value) {
+    StringBuilder quoted = new StringBuilder("\"");
+    for (char c : value.toCharArray()) {
+      switch (c) {
+        case '"' -> quoted.append("\\\"");
+        case '\\' -> quoted.append("\\\\");
+        default -> {
+          if (c < 0x20) {
+            quoted.append(String.format("\\u%04x", (int) c));
+          } else {
+            quoted.append(c);
+          }
+        }
+      }
+    }
+    return quoted.append('"').toString();
+  }
+
+  private static String millis(long nanos) {
+    return nanos < 0 ? "-" : String.format("%.3f", nanos / 1e6);
+  }
+
+  /**
+   * One bean's creation. The phases are -1 for beans that were not seen by the post-processor,
+   * such as post-processors themselves.
+   */
+  public record BeanTiming(
+      String beanName,
+      long totalNanos,
+      long selfNanos,
+      long constructNanos,
+      long injectNanos,
+      long initNanos) {}
+
+  // Notes on the bean's step when its constructor and its property injection are done.
+  private final class PhaseMarker implements InstantiationAwareBeanPostProcessor {
+
+    @Override
+    public boolean postProcessAfterInstantiation(Object bean, String beanName) {
+      Step step = beanSteps.get(beanName);
+      if (step != null && step.constructed == 0) {
+        step.constructed = System.nanoTime();
+      }
+      return true;
+    }
+
+    @Override
+    public Object postProcessBeforeInitialization(Object bean, String beanName) {
+      Step step = beanSteps.get(beanName);
+      if (step != null && step.constructed != 0 && step.injected == 0) {
+        step.injected = System.nanoTime();
+      }
+      return bean;
+    }
+  }
+
+  private final class Step implements StartupStep {
+
+    private final long id;
+    private final String name;
+    private final Step parent;
+    private final StartupStep delegateStep;
+    private final long startNanos = System.nanoTime();
+    private final List<Step> children = new CopyOnWriteArrayList<>();
+    private final List<String[]> tags = new CopyOnWriteArrayList<>();
+    private volatile long endNanos;
+    private volatile long constructed;
+    private volatile long injected;
+
+    private Step(long id, String name, Step parent, StartupStep delegateStep) {
+      this.id = id;
+      this.name = name;
+      this.parent = parent;
+      this.delegateStep = delegateStep;
+    }
+
+    @Override
+    public String getName() {
+      return name;
+    }
+
+    @Override
+    public long getId() {
+      return id;
+    }
+
+    @Override
+    public Long getParentId() {
+      return parent == null ? null : parent.id;
+    }
+
+    @Override
+    public StartupStep tag(String key, String value) {
+      tags.add(new String[] {key, value});
+      delegateStep.tag(key, value);
+      if (name.equals(BEAN_STEP) && key.equals("beanName")) {
+        beanSteps.put(value, this);
+      }
+      return this;
+    }
+
+    @Override
+    public StartupStep tag(String key, Supplier<String> value) {
+      return tag(key, value.get());
+    }
+
+    @Override
+    public Tags getTags() {
+      return () -> {
+        Iterator<String[]> iterator = tags.iterator();
+        return new Iterator<>() {
+          @Override
+          public boolean hasNext() {
+            return iterator.hasNext();
+          }
+
+          @Override
+          public Tag next() {
+            String[] tag = iterator.next();
+            return new Tag() {
+              @Override
+              public String getKey() {
+                return tag[0];
+              }
+
+              @Override
+              public String getValue() {
+                return tag[1];
+              }
+            };
+          }
+        };
+      };
+    }
+
+    @Override
+    public void end() {
+      endNanos = System.nanoTime();
+      delegateStep.end();
+      if (name.equals(BEAN_STEP)) {
+        beanSteps.remove(tag("beanName"), this);
+      }
+      if (parent == null) {
+        current.remove();
+      } else {
+        current.set(parent);
+      }
+    }
+
+    private String tag(String key) {
+      for (String[] tag : tags) {
+        if (tag[0].equals(key)) {
+          return tag[1];
+        }
+      }
+      return null;
+    }
+
+    private boolean isEnded() {
+      return endNanos != 0;
+    }
+
+    private long durationNanos() {
+      return endNanos - startNanos;
+    }
+
+    private long selfNanos() {
+      return durationNanos() - childNanos(startNanos, endNanos);
+    }
+
+    // Time spent in children that started within [from, to).
+    private long childNanos(long from, long to) {
+      long total = 0;
+      for (Step child : children) {
+        if (child.isEnded() && child.startNanos >= from && child.startNanos < to) {
+          total += child.durationNanos();
+        }
+      }
+      return total;
+    }
+
+    private BeanTiming beanTiming() {
+      if (constructed == 0 || injected == 0) {
+        return new BeanTiming(tag("beanName"), durationNanos(), selfNanos(), -1, -1, -1);
+      }
+      return new BeanTiming(
+          tag("beanName"),
+          durationNanos(),
+          selfNanos(),
+          constructed - startNanos - childNanos(startNanos, constructed),
+          injected - constructed - childNanos(constructed, injected),
+          endNanos - injected - childNanos(injected, endNanos));
+    }
+  }
+}